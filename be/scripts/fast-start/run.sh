@@ -0,0 +1,17 @@
+#!/usr/bin/env bash
+# Starts the application from the directory prepared by train-cds.sh, with AOT
+# initialization and the AppCDS archive. Extra arguments go to the JVM.
+#
+# Usage: run.sh [fast-start-dir] [jvm options...]
+set -euo pipefail
+
+DIR="${1:-$(dirname "$0")/../../target/fast-start}"
+shift || true
+cd "$DIR"
+
+exec java @jvm.args \
+    -XX:SharedArchiveFile=app.jsa \
+    -Dspring.aot.enabled=true \
+    -Dspring.profiles.active="${SPRING_PROFILES_ACTIVE:-production,fast-start}" \
+    "$@" \
+    com.example.hcmiuweb.HcmiuWebApplication
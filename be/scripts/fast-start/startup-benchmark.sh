@@ -0,0 +1,64 @@
+#!/usr/bin/env bash
+# Measures time-to-first-request: wall time from launching the JVM until the
+# first successful response from $URL. Compares the plain jar against the
+# fast-start build and prints each run plus the median.
+#
+# Usage: startup-benchmark.sh [runs]
+#   URL       endpoint to poll (default http://localhost:8080/api/videos)
+#   JAR       plain jar (default target/hcmiu-web-0.0.1-SNAPSHOT.jar)
+#   FAST_DIR  output of train-cds.sh (default target/fast-start)
+set -euo pipefail
+
+RUNS="${1:-5}"
+BE_DIR="$(cd "$(dirname "$0")/../.." && pwd)"
+URL="${URL:-http://localhost:8080/api/videos}"
+JAR="${JAR:-$BE_DIR/target/hcmiu-web-0.0.1-SNAPSHOT.jar}"
+FAST_DIR="${FAST_DIR:-$BE_DIR/target/fast-start}"
+TIMEOUT_S=180
+
+now_ms() { echo $(( $(date +%s%N) / 1000000 )); }
+
+measure() {
+    local start pid elapsed=""
+    start=$(now_ms)
+    "$@" > /dev/null 2>&1 &
+    pid=$!
+    while kill -0 "$pid" 2> /dev/null; do
+        if [ "$(curl -s -o /dev/null -w '%{http_code}' "$URL" || true)" = "200" ]; then
+            elapsed=$(( $(now_ms) - start ))
+            break
+        fi
+        if [ $(( $(now_ms) - start )) -gt $(( TIMEOUT_S * 1000 )) ]; then
+            break
+        fi
+        sleep 0.05
+    done
+    kill "$pid" 2> /dev/null || true
+    wait "$pid" 2> /dev/null || true
+    echo "${elapsed:-failed}"
+}
+
+median() { sort -n | awk '{ v[NR] = $1 } END { print v[int((NR + 1) / 2)] }'; }
+
+bench() {
+    local name=$1; shift
+    local results=()
+    for i in $(seq 1 "$RUNS"); do
+        local ms
+        ms=$(measure "$@")
+        echo "$name run $i: ${ms} ms"
+        [ "$ms" != "failed" ] && results+=("$ms")
+    done
+    if [ ${#results[@]} -eq 0 ]; then
+        echo "$name median: n/a"
+    else
+        echo "$name median: $(printf '%s\n' "${results[@]}" | median) ms"
+    fi
+}
+
+bench "jar" java -Dspring.profiles.active="${SPRING_PROFILES_ACTIVE:-production}" -jar "$JAR"
+if [ -f "$FAST_DIR/app.jsa" ]; then
+    bench "fast-start" "$BE_DIR/scripts/fast-start/run.sh" "$FAST_DIR"
+else
+    echo "No AppCDS archive in $FAST_DIR; build it with ./mvnw -Pfast-start package"
+fi
@@ -0,0 +1,41 @@
+#!/usr/bin/env bash
+# Unpacks the AOT-processed jar and records an AppCDS archive from a training
+# start (the context is refreshed, then the JVM exits and dumps the classes it
+# loaded). The cds-training profile turns migrations off and points the
+# datasource nowhere, so no database is needed or touched.
+#
+# CDS rejects an archive recorded by a different JVM build, so train with the
+# same JDK that will run the application (Dockerfile.fast-start does).
+#
+# Usage: train-cds.sh <app.jar> [output-dir]
+#   CDS_TRAINING_PROFILES  profiles of the training start
+#                          (default production,fast-start,cds-training)
+set -euo pipefail
+
+JAR="$(cd "$(dirname "$1")" && pwd)/$(basename "$1")"
+OUT="${2:-$(dirname "$JAR")/fast-start}"
+MAIN_CLASS=com.example.hcmiuweb.HcmiuWebApplication
+PROFILES="${CDS_TRAINING_PROFILES:-production,fast-start,cds-training}"
+
+rm -rf "$OUT"
+mkdir -p "$OUT"
+cd "$OUT"
+jar -xf "$JAR"
+
+# CDS only accepts an archive when the runtime class path matches the one it
+# was recorded with, so pin it (relative, sorted) in an argument file.
+{
+    printf -- '-cp BOOT-INF/classes'
+    find BOOT-INF/lib -name '*.jar' | sort | while read -r lib; do printf ':%s' "$lib"; done
+    printf '\n'
+} > jvm.args
+
+echo "Training AppCDS archive with profiles: $PROFILES"
+java @jvm.args \
+    -XX:ArchiveClassesAtExit=app.jsa \
+    -Dspring.aot.enabled=true \
+    -Dspring.context.exit=onRefresh \
+    -Dspring.profiles.active="$PROFILES" \
+    "$MAIN_CLASS"
+
+echo "AppCDS archive written to $OUT/app.jsa"
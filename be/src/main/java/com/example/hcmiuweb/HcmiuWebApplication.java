@@ -3,8 +3,10 @@ package com.example.hcmiuweb;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(scanBasePackages = "com.example.hcmiuweb")
+@EnableScheduling
 public class HcmiuWebApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,45 @@
+package com.example.hcmiuweb.components;
+
+import com.example.hcmiuweb.services.AuthTokenService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Removes expired auth tokens in small batches, each in its own transaction,
+ * so the purge never holds long locks on the table.
+ */
+@Component
+public class AuthTokenPurgeJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthTokenPurgeJob.class);
+
+    private final AuthTokenService authTokenService;
+
+    @Value("${auth-token.purge-batch-size:500}")
+    private int batchSize;
+
+    @Value("${auth-token.purge-max-batches:20}")
+    private int maxBatches;
+
+    public AuthTokenPurgeJob(AuthTokenService authTokenService) {
+        this.authTokenService = authTokenService;
+    }
+
+    @Scheduled(fixedDelayString = "${auth-token.purge-interval-ms:600000}", initialDelayString = "${auth-token.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        int total = 0;
+        for (int i = 0; i < maxBatches; i++) {
+            int removed = authTokenService.purgeExpiredBatch(batchSize);
+            total += removed;
+            if (removed < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            logger.info("Purged {} expired auth tokens", total);
+        }
+    }
+}
@@ -9,12 +9,15 @@ import com.example.hcmiuweb.repositories.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 
 @Component
+@Order(1)
 public class DataInitializer implements CommandLineRunner {
 
         private static final Logger logger = LoggerFactory.getLogger(DataInitializer.class);
@@ -23,19 +26,27 @@ public class DataInitializer implements CommandLineRunner {
         private final CategoryRepository categoryRepository;
         private final UserRepository userRepository;
         private final PasswordEncoder passwordEncoder;
+        private final JdbcTemplate jdbcTemplate;
 
         public DataInitializer(RoleRepository roleRepository,
                         CategoryRepository categoryRepository,
                         UserRepository userRepository,
-                        PasswordEncoder passwordEncoder) {
+                        PasswordEncoder passwordEncoder,
+                        JdbcTemplate jdbcTemplate) {
                 this.roleRepository = roleRepository;
                 this.categoryRepository = categoryRepository;
                 this.userRepository = userRepository;
                 this.passwordEncoder = passwordEncoder;
+                this.jdbcTemplate = jdbcTemplate;
         }
 
         @Override
         public void run(String... args) {
+                // Every boot after the first finds everything in place: check it all in one round trip
+                if (isInitialized()) {
+                        return;
+                }
+
                 // Add default roles if none exist
                 if (roleRepository.count() == 0) {
                         roleRepository.save(new Role("ROLE_USER"));
@@ -80,4 +91,13 @@ public class DataInitializer implements CommandLineRunner {
                         logger.info("Default categories created");
                 }
         }
+
+        private boolean isInitialized() {
+                Boolean initialized = jdbcTemplate.queryForObject(
+                                "SELECT (SELECT COUNT(*) FROM roles WHERE role_name IN ('ROLE_USER', 'ROLE_ADMIN')) = 2 " +
+                                                "AND EXISTS (SELECT 1 FROM user WHERE username = 'admin') " +
+                                                "AND EXISTS (SELECT 1 FROM category)",
+                                Boolean.class);
+                return Boolean.TRUE.equals(initialized);
+        }
 }
@@ -0,0 +1,171 @@
+package com.example.hcmiuweb.components;
+
+import com.example.hcmiuweb.config.metrics.Histogram;
+import com.example.hcmiuweb.config.metrics.MetricsRegistry;
+import com.example.hcmiuweb.entities.OutboundEmail;
+import com.example.hcmiuweb.services.EmailService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbound mail queue. Each batch goes through a single
+ * {@link JavaMailSender#send(SimpleMailMessage...)} call, which reuses one
+ * SMTP connection for the whole batch; messages the server rejects are
+ * retried with exponential backoff.
+ */
+@Component
+public class EmailQueueWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailQueueWorker.class);
+
+    private final EmailService emailService;
+    private final JavaMailSender emailSender;
+    private final MetricsRegistry metricsRegistry;
+    private final Histogram batchLatency;
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final AtomicLong oldestPendingSeconds = new AtomicLong();
+
+    @Value("${mail.queue.batch-size:50}")
+    private int batchSize;
+
+    @Value("${mail.queue.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${mail.queue.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${mail.queue.backoff-base-seconds:30}")
+    private long backoffBaseSeconds;
+
+    @Value("${mail.queue.backoff-max-seconds:3600}")
+    private long backoffMaxSeconds;
+
+    @Value("${mail.queue.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Value("${mail.queue.retention-days:7}")
+    private long retentionDays;
+
+    public EmailQueueWorker(EmailService emailService, JavaMailSender emailSender, MetricsRegistry metricsRegistry) {
+        this.emailService = emailService;
+        this.emailSender = emailSender;
+        this.metricsRegistry = metricsRegistry;
+        this.batchLatency = metricsRegistry.histogram("app_email_batch_send_seconds",
+                "Time to deliver one batch of queued emails over a single SMTP connection",
+                Histogram.LATENCY_SECONDS);
+        metricsRegistry.gauge("app_email_queue_depth", "Queued emails waiting to be sent", queueDepth::get);
+        metricsRegistry.gauge("app_email_queue_oldest_age_seconds", "Age of the oldest queued email",
+                oldestPendingSeconds::get);
+    }
+
+    @Scheduled(fixedDelayString = "${mail.queue.poll-interval-ms:2000}")
+    public void drain() {
+        try {
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                List<OutboundEmail> batch = emailService.claimDueBatch(batchSize,
+                        Duration.ofSeconds(leaseSeconds));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                deliver(batch);
+                if (batch.size() < batchSize) {
+                    break;
+                }
+            }
+            refreshGauges();
+        } catch (RuntimeException e) {
+            logger.error("Email queue run failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(cron = "${mail.queue.purge-cron:0 15 * * * *}")
+    public void purgeFinished() {
+        int removed = emailService.purgeFinishedBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (removed > 0) {
+            logger.info("Purged {} sent or failed emails older than {} days", removed, retentionDays);
+        }
+    }
+
+    private void deliver(List<OutboundEmail> batch) {
+        Map<SimpleMailMessage, OutboundEmail> byMessage = new IdentityHashMap<>();
+        SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            OutboundEmail email = batch.get(i);
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom(email.getFrom());
+            message.setTo(email.getTo());
+            message.setSubject(email.getSubject());
+            message.setText(email.getBody());
+            messages[i] = message;
+            byMessage.put(message, email);
+        }
+
+        Map<OutboundEmail, Exception> failures = new IdentityHashMap<>();
+        long start = System.nanoTime();
+        try {
+            emailSender.send(messages);
+        } catch (MailSendException e) {
+            Map<Object, Exception> failed = e.getFailedMessages();
+            if (failed.isEmpty()) {
+                batch.forEach(email -> failures.put(email, e));
+            } else {
+                failed.forEach((message, cause) -> {
+                    OutboundEmail email = byMessage.get(message);
+                    if (email != null) {
+                        failures.put(email, cause);
+                    }
+                });
+            }
+        } catch (MailException e) {
+            batch.forEach(email -> failures.put(email, e));
+        } finally {
+            batchLatency.observeNanos(System.nanoTime() - start);
+        }
+
+        List<OutboundEmail> sent = new ArrayList<>(batch.size());
+        for (OutboundEmail email : batch) {
+            Exception failure = failures.get(email);
+            if (failure == null) {
+                sent.add(email);
+                metricsRegistry.counter("app_emails_sent_total", "Emails handed to the SMTP server",
+                        "type", email.getType()).increment();
+                continue;
+            }
+            metricsRegistry.counter("app_email_send_failures_total", "Failed email delivery attempts",
+                    "type", email.getType()).increment();
+            boolean dead = emailService.markFailed(email, failure.getMessage(), maxAttempts,
+                    Duration.ofSeconds(backoffBaseSeconds), Duration.ofSeconds(backoffMaxSeconds));
+            if (dead) {
+                metricsRegistry.counter("app_email_dead_letters_total", "Emails given up after the last retry",
+                        "type", email.getType()).increment();
+                logger.error("Giving up on email {} to {} after {} attempts: {}", email.getId(), email.getTo(),
+                        email.getAttempts(), failure.getMessage());
+            } else {
+                logger.warn("Email {} to {} failed (attempt {}), will retry: {}", email.getId(), email.getTo(),
+                        email.getAttempts(), failure.getMessage());
+            }
+        }
+        emailService.markSent(sent);
+    }
+
+    private void refreshGauges() {
+        queueDepth.set(emailService.countPending());
+        LocalDateTime oldest = emailService.findOldestPendingCreatedAt();
+        oldestPendingSeconds.set(oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).getSeconds());
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.hcmiuweb.components;
+
+import com.example.hcmiuweb.config.metrics.Counter;
+import com.example.hcmiuweb.config.metrics.MetricsRegistry;
+import com.example.hcmiuweb.services.PurgeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Works through pending purge jobs, one batch per transaction, oldest job
+ * first. Each run is capped at {@code purge.max-batches-per-run} batches so a
+ * large account cannot monopolise the scheduler thread; the next run picks up
+ * where this one stopped.
+ */
+@Component
+public class PurgeJobWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(PurgeJobWorker.class);
+
+    private final PurgeService purgeService;
+    private final Counter deletedRows;
+    private final Counter failedJobs;
+    private final AtomicLong pending = new AtomicLong();
+
+    @Value("${purge.batch-size:500}")
+    private int batchSize;
+
+    @Value("${purge.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+
+    @Value("${purge.jobs-per-run:10}")
+    private int jobsPerRun;
+
+    @Value("${purge.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${purge.backoff-base-seconds:5}")
+    private long backoffBaseSeconds;
+
+    @Value("${purge.backoff-max-seconds:600}")
+    private long backoffMaxSeconds;
+
+    public PurgeJobWorker(PurgeService purgeService, MetricsRegistry metricsRegistry) {
+        this.purgeService = purgeService;
+        this.deletedRows = metricsRegistry.counter("app_purge_deleted_rows_total",
+                "Rows removed by background purges of deleted videos and users");
+        this.failedJobs = metricsRegistry.counter("app_purge_failed_total",
+                "Purge jobs given up on after purge.max-attempts");
+        metricsRegistry.gauge("app_purge_jobs_pending", "Purge jobs not yet finished", pending::get);
+    }
+
+    @Scheduled(fixedDelayString = "${purge.poll-interval-ms:2000}")
+    public void run() {
+        try {
+            int budget = maxBatchesPerRun;
+            for (Long jobId : purgeService.findRunnableJobIds(jobsPerRun)) {
+                budget = runJob(jobId, budget);
+                if (budget == 0) {
+                    break;
+                }
+            }
+            pending.set(purgeService.countPending());
+        } catch (Exception e) {
+            logger.error("Purge run failed", e);
+        }
+    }
+
+    // Returns the batches left in this run's budget
+    private int runJob(Long jobId, int budget) {
+        while (budget > 0) {
+            budget--;
+            try {
+                PurgeService.BatchResult result = purgeService.runBatch(jobId, batchSize);
+                deletedRows.increment(result.deletedRows());
+                if (!result.pending()) {
+                    break;
+                }
+            } catch (Exception e) {
+                boolean dead = purgeService.markFailed(jobId, e.toString(), maxAttempts,
+                        Duration.ofSeconds(backoffBaseSeconds), Duration.ofSeconds(backoffMaxSeconds));
+                if (dead) {
+                    failedJobs.increment();
+                    logger.error("Giving up on purge job {} after {} attempts", jobId, maxAttempts, e);
+                } else {
+                    logger.warn("Purge job {} failed, will retry: {}", jobId, e.toString());
+                }
+                break;
+            }
+        }
+        return budget;
+    }
+}
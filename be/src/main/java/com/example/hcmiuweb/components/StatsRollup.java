@@ -0,0 +1,103 @@
+package com.example.hcmiuweb.components;
+
+import com.example.hcmiuweb.components.outbox.OutboxSubscriber;
+import com.example.hcmiuweb.config.metrics.Counter;
+import com.example.hcmiuweb.config.metrics.MetricsRegistry;
+import com.example.hcmiuweb.entities.OutboxEvent;
+import com.example.hcmiuweb.services.StatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Keeps the admin dashboard rollups current: applies outbox events as they
+ * are delivered, flushes buffered views and rebuilds the served snapshot
+ * every {@code stats.refresh-ms}, and compacts nightly
+ * ({@code stats.compaction-cron}).
+ */
+@Component
+public class StatsRollup implements OutboxSubscriber {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatsRollup.class);
+
+    private static final Set<String> EVENT_TYPES = Set.of(OutboxEvent.VIDEO_CREATED, OutboxEvent.VIDEO_DELETED,
+            OutboxEvent.RATING_CHANGED, OutboxEvent.COMMENT_ADDED, OutboxEvent.COMMENT_DELETED,
+            OutboxEvent.USER_REGISTERED, OutboxEvent.USER_DELETED);
+
+    private final StatsService statsService;
+    private final Counter flushedViews;
+
+    @Value("${stats.retention-days:730}")
+    private int retentionDays;
+
+    @Value("${stats.applied-event-retention-days:7}")
+    private long appliedEventRetentionDays;
+
+    @Value("${stats.purge-batch-size:500}")
+    private int purgeBatchSize;
+
+    public StatsRollup(StatsService statsService, MetricsRegistry metricsRegistry) {
+        this.statsService = statsService;
+        this.flushedViews = metricsRegistry.counter("app_stats_views_flushed_total",
+                "Buffered views written to the stats rollups");
+    }
+
+    @Override
+    public Set<String> eventTypes() {
+        return EVENT_TYPES;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) throws Exception {
+        statsService.applyEvent(event);
+    }
+
+    @Scheduled(fixedDelayString = "${stats.refresh-ms:10000}")
+    public void refresh() {
+        try {
+            flushViews();
+            // Before the first compaction there are no totals to add to
+            if (!statsService.hasTotals()) {
+                statsService.compact(retentionDays);
+            }
+            statsService.refreshSnapshot();
+        } catch (Exception e) {
+            logger.error("Stats refresh failed", e);
+        }
+    }
+
+    @Scheduled(cron = "${stats.compaction-cron:0 30 3 * * *}")
+    public void compact() {
+        try {
+            statsService.compact(retentionDays);
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(appliedEventRetentionDays);
+            int purged;
+            do {
+                purged = statsService.purgeAppliedEventsBatch(cutoff, purgeBatchSize);
+            } while (purged == purgeBatchSize);
+            statsService.refreshSnapshot();
+        } catch (Exception e) {
+            logger.error("Stats compaction failed", e);
+        }
+    }
+
+    public void flushViews() {
+        StatsService.ViewCounts counts = statsService.drainViews();
+        if (counts.isEmpty()) {
+            return;
+        }
+        try {
+            statsService.applyViews(counts);
+            flushedViews.increment(counts.total());
+        } catch (RuntimeException e) {
+            // Typically a first-of-the-day insert racing another node; retried next run
+            statsService.restoreViews(counts);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.hcmiuweb.components;
+
+import com.example.hcmiuweb.config.metrics.Counter;
+import com.example.hcmiuweb.config.metrics.MetricsRegistry;
+import com.example.hcmiuweb.entities.StoredAsset;
+import com.example.hcmiuweb.services.AssetService;
+import com.example.hcmiuweb.services.AssetStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Deletes uploaded assets nothing has referenced for
+ * {@code storage.reap-grace-minutes}. The grace period lets a re-upload of
+ * the same content pick the asset up again instead of uploading it anew.
+ */
+@Component
+public class StoredAssetReaper {
+
+    private static final Logger logger = LoggerFactory.getLogger(StoredAssetReaper.class);
+
+    private final AssetService assetService;
+    private final AssetStore assetStore;
+    private final Counter reaped;
+
+    @Value("${storage.reap-grace-minutes:60}")
+    private long graceMinutes;
+
+    @Value("${storage.reap-batch-size:100}")
+    private int batchSize;
+
+    public StoredAssetReaper(AssetService assetService, AssetStore assetStore, MetricsRegistry metricsRegistry) {
+        this.assetService = assetService;
+        this.assetStore = assetStore;
+        this.reaped = metricsRegistry.counter("app_assets_reaped_total", "Unreferenced uploaded assets deleted");
+    }
+
+    @Scheduled(fixedDelayString = "${storage.reap-interval-ms:600000}")
+    public void reap() {
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusMinutes(graceMinutes);
+            List<Long> ids = assetService.findUnreferencedIds(cutoff, batchSize);
+            for (Long id : ids) {
+                // The row goes first: a failed remote delete leaves an orphan, never a broken URL
+                Optional<StoredAsset> claimed = assetService.claimForReaping(id, cutoff);
+                if (claimed.isPresent()) {
+                    assetStore.deleteQuietly(claimed.get());
+                    reaped.increment();
+                }
+            }
+            if (!ids.isEmpty()) {
+                logger.info("Checked {} unreferenced assets", ids.size());
+            }
+        } catch (Exception e) {
+            logger.error("Asset reaping failed", e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.hcmiuweb.components;
+
+import com.example.hcmiuweb.config.metrics.Counter;
+import com.example.hcmiuweb.config.metrics.Histogram;
+import com.example.hcmiuweb.config.metrics.MetricsRegistry;
+import com.example.hcmiuweb.services.WatchProgressService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Writes buffered watch progress every {@code watch-progress.flush-ms}, in
+ * transactions of at most {@code watch-progress.batch-size} rows, and once
+ * more on shutdown.
+ *
+ * {@code app_watch_progress_heartbeats_per_write} is heartbeats received
+ * divided by rows written: how many heartbeats each database write absorbed.
+ */
+@Component
+public class WatchProgressFlusher {
+
+    private static final Logger logger = LoggerFactory.getLogger(WatchProgressFlusher.class);
+
+    private final WatchProgressService watchProgressService;
+    private final Counter rowsWritten;
+    private final Histogram flushTime;
+
+    @Value("${watch-progress.batch-size:500}")
+    private int batchSize;
+
+    public WatchProgressFlusher(WatchProgressService watchProgressService, MetricsRegistry metricsRegistry) {
+        this.watchProgressService = watchProgressService;
+        this.rowsWritten = metricsRegistry.counter("app_watch_progress_rows_written_total",
+                "Watch progress rows written by the flusher");
+        this.flushTime = metricsRegistry.histogram("app_watch_progress_flush_seconds",
+                "Time to write one batch of watch progress", Histogram.LATENCY_SECONDS);
+        metricsRegistry.gauge("app_watch_progress_heartbeats_per_write",
+                "Heartbeats received per watch progress row written", () -> {
+                    long written = rowsWritten.get();
+                    return written == 0 ? 0.0 : (double) watchProgressService.heartbeatCount() / written;
+                });
+    }
+
+    @Scheduled(fixedDelayString = "${watch-progress.flush-ms:10000}")
+    public void flush() {
+        List<WatchProgressService.Progress> changed = watchProgressService.changedEntries();
+        for (int from = 0; from < changed.size(); from += batchSize) {
+            List<WatchProgressService.Progress> batch = changed.subList(from, Math.min(changed.size(), from + batchSize));
+            long started = System.nanoTime();
+            try {
+                int written = watchProgressService.write(batch);
+                watchProgressService.markWritten(batch);
+                rowsWritten.increment(written);
+                flushTime.observeNanos(System.nanoTime() - started);
+            } catch (RuntimeException e) {
+                // Still buffered; the next run tries again
+                logger.error("Writing {} watch progress entries failed", batch.size(), e);
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.hcmiuweb.components.benchmark;
+
+import com.example.hcmiuweb.services.storage.LocalStorageBackend;
+import com.example.hcmiuweb.services.storage.StorageBackend;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Measures write and read throughput of {@link LocalStorageBackend} on the
+ * disk behind {@code file.upload-dir}.
+ *
+ * Only active with the "storage-benchmark" profile, e.g.
+ * {@code mvn spring-boot:run -Dspring-boot.run.profiles=storage-benchmark -Dspring-boot.run.arguments=--benchmark.storage.file-size-kb=8192}.
+ * Each file goes through the same path as an upload (staging file, sync,
+ * atomic move into its shard) and is then read back whole and in random
+ * 64 KB ranges the way {@code FileController} serves it. The files are
+ * deleted afterwards.
+ */
+@Component
+@Profile("storage-benchmark")
+public class StorageBenchmark implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageBenchmark.class);
+
+    private static final String FOLDER = "benchmark";
+    private static final int RANGE_BYTES = 64 * 1024;
+
+    private final LocalStorageBackend storage;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${benchmark.storage.files:200}")
+    private int fileCount;
+
+    @Value("${benchmark.storage.file-size-kb:1024}")
+    private int fileSizeKb;
+
+    @Value("${benchmark.storage.range-reads:2000}")
+    private int rangeReads;
+
+    @Value("${benchmark.storage.exit-on-complete:true}")
+    private boolean exitOnComplete;
+
+    public StorageBenchmark(LocalStorageBackend storage, ConfigurableApplicationContext context) {
+        this.storage = storage;
+        this.context = context;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        SplittableRandom random = new SplittableRandom(42);
+        long fileSize = fileSizeKb * 1024L;
+        long totalBytes = fileSize * fileCount;
+        ByteBuffer chunk = ByteBuffer.allocateDirect(RANGE_BYTES);
+        List<String> keys = new ArrayList<>(fileCount);
+
+        try {
+            long started = System.nanoTime();
+            for (int i = 0; i < fileCount; i++) {
+                keys.add(write(random, fileSize, chunk));
+            }
+            report("Write", totalBytes, System.nanoTime() - started);
+
+            CountingChannel sink = new CountingChannel();
+            started = System.nanoTime();
+            for (String key : keys) {
+                storage.transferTo(key, 0, storage.size(key), sink);
+            }
+            report("Sequential read", sink.count, System.nanoTime() - started);
+
+            sink = new CountingChannel();
+            long maxStart = Math.max(1, fileSize - RANGE_BYTES);
+            started = System.nanoTime();
+            for (int i = 0; i < rangeReads; i++) {
+                String key = keys.get(random.nextInt(keys.size()));
+                storage.transferTo(key, random.nextLong(maxStart), Math.min(RANGE_BYTES, fileSize), sink);
+            }
+            report("Range read", sink.count, System.nanoTime() - started);
+        } finally {
+            for (String key : keys) {
+                storage.delete(key, "raw");
+            }
+        }
+
+        if (exitOnComplete) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+
+    // Random content so every file gets its own hash, and its own shard
+    private String write(SplittableRandom random, long fileSize, ByteBuffer chunk) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        Path staged = storage.createStagingFile();
+        try {
+            try (FileChannel out = FileChannel.open(staged, StandardOpenOption.WRITE)) {
+                byte[] bytes = new byte[chunk.capacity()];
+                for (long written = 0; written < fileSize; written += bytes.length) {
+                    int length = (int) Math.min(bytes.length, fileSize - written);
+                    for (int i = 0; i < length; i += 8) {
+                        long value = random.nextLong();
+                        for (int b = 0; b < 8 && i + b < length; b++) {
+                            bytes[i + b] = (byte) (value >>> (b * 8));
+                        }
+                    }
+                    digest.update(bytes, 0, length);
+                    chunk.clear();
+                    chunk.put(bytes, 0, length).flip();
+                    while (chunk.hasRemaining()) {
+                        out.write(chunk);
+                    }
+                }
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            return storage.put(staged, FOLDER, hash, "benchmark.bin").key();
+        } finally {
+            Files.deleteIfExists(staged);
+        }
+    }
+
+    private void report(String phase, long bytes, long nanos) {
+        double seconds = nanos / 1e9;
+        logger.info("{}: {} MB in {} s, {} MB/s", phase, String.format("%.1f", bytes / 1048576.0),
+                String.format("%.2f", seconds), String.format("%.1f", bytes / 1048576.0 / seconds));
+    }
+
+    /**
+     * Discards what it is given; keeps the read path honest without a
+     * second disk in the measurement.
+     */
+    private static class CountingChannel implements WritableByteChannel {
+        private long count;
+
+        @Override
+        public int write(ByteBuffer src) {
+            int remaining = src.remaining();
+            src.position(src.limit());
+            count += remaining;
+            return remaining;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.hcmiuweb.components.live;
+
+import com.example.hcmiuweb.payload.response.CommentRatingResponse;
+import com.example.hcmiuweb.payload.response.CommentResponse;
+
+/**
+ * A change to a video's comments, published by the comment services and
+ * delivered to {@link VideoUpdateHub} after the transaction commits.
+ * Rating events carry no video id; the hub resolves it in bulk at the next
+ * tick, and only if anyone is listening.
+ */
+public record CommentEvent(Type type, Long videoId, Long commentId, CommentResponse comment,
+        CommentRatingResponse votes) {
+
+    public enum Type {
+        ADDED, DELETED, RATED
+    }
+
+    public static CommentEvent added(CommentResponse comment) {
+        return new CommentEvent(Type.ADDED, comment.getVideoId(), comment.getId(), comment, null);
+    }
+
+    public static CommentEvent deleted(Long videoId, Long commentId) {
+        return new CommentEvent(Type.DELETED, videoId, commentId, null, null);
+    }
+
+    public static CommentEvent rated(Long commentId, CommentRatingResponse votes) {
+        return new CommentEvent(Type.RATED, null, commentId, null, votes);
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.hcmiuweb.components.live;
+
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One SSE subscriber. Events are queued and written by a shared sender pool,
+ * at most one drain task per connection at a time, so an idle connection
+ * costs no thread. When the queue is full the client is not keeping up and
+ * the connection is closed; the browser's EventSource reconnects and reloads.
+ *
+ * A send blocks while the client's socket buffer is full, so the hub also
+ * closes a connection whose current send has run past its deadline (see
+ * {@link #sendStartedNanos()}). The blocked sender completes the response
+ * itself once the write returns: completing it from another thread would
+ * wait for the same lock the write holds.
+ */
+class LiveConnection {
+    private final Long videoId;
+    private final String clientKey;
+    private final SseEmitter emitter;
+    private final BlockingQueue<Set<DataWithMediaType>> queue;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile long sendStartedNanos;
+
+    LiveConnection(Long videoId, String clientKey, SseEmitter emitter, int queueCapacity) {
+        this.videoId = videoId;
+        this.clientKey = clientKey;
+        this.emitter = emitter;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    Long getVideoId() {
+        return videoId;
+    }
+
+    String getClientKey() {
+        return clientKey;
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * When the send in progress started, or 0 when no send is in progress.
+     */
+    long sendStartedNanos() {
+        return sendStartedNanos;
+    }
+
+    /**
+     * Queues an event for sending. Returns false if the connection is closed
+     * or its queue is full, in which case the caller should drop it.
+     */
+    boolean offer(Set<DataWithMediaType> event, Executor sender) {
+        if (closed.get() || !queue.offer(event)) {
+            return false;
+        }
+        scheduleDrain(sender);
+        return true;
+    }
+
+    private void scheduleDrain(Executor sender) {
+        if (draining.compareAndSet(false, true)) {
+            try {
+                sender.execute(() -> drain(sender));
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+                close();
+            }
+        }
+    }
+
+    private void drain(Executor sender) {
+        try {
+            Set<DataWithMediaType> event;
+            while (!closed.get() && (event = queue.poll()) != null) {
+                sendStartedNanos = System.nanoTime();
+                try {
+                    // close() reads the flag after setting closed; one of the two sees the other
+                    if (closed.get()) {
+                        break;
+                    }
+                    emitter.send(event);
+                } finally {
+                    sendStartedNanos = 0;
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away, or the emitter already completed or timed out
+            close();
+        } finally {
+            draining.set(false);
+        }
+        if (closed.get()) {
+            // Closed while this send was blocked, so close() left the completion to us
+            complete();
+            return;
+        }
+        // An event may have been queued after the last poll but before the flag was cleared
+        if (!queue.isEmpty()) {
+            scheduleDrain(sender);
+        }
+    }
+
+    /**
+     * Marks the connection closed and completes the response. Returns true
+     * only for the call that actually closed it.
+     */
+    boolean close() {
+        if (!closed.compareAndSet(false, true)) {
+            return false;
+        }
+        queue.clear();
+        if (sendStartedNanos == 0) {
+            complete();
+        }
+        return true;
+    }
+
+    private void complete() {
+        try {
+            emitter.complete();
+        } catch (IllegalStateException ignored) {
+            // Already completed by the container
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.hcmiuweb.components.live;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free distinct counter for viewer hashes.
+ *
+ * Starts as a 16-slot open-addressing table of raw hashes, which is exact
+ * for up to 16 viewers and costs about 150 bytes; most videos never leave
+ * this mode. When the table fills up, a HyperLogLog with 1024 one-byte registers (packed into 128
+ * longs, ~3% standard error) is allocated and used from then on, so memory
+ * per sketch never exceeds about 1.2 KB however many viewers there are.
+ */
+final class PresenceSketch {
+
+    static final int PRECISION = 10;
+    static final int REGISTERS = 1 << PRECISION;
+    private static final int SPARSE_SLOTS = 16;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private final AtomicLongArray sparse = new AtomicLongArray(SPARSE_SLOTS);
+    private final AtomicReference<AtomicLongArray> dense = new AtomicReference<>();
+
+    /**
+     * Records a viewer hash. 0 is reserved as the empty slot marker, so
+     * callers should pass a mixed, non-zero hash.
+     */
+    void add(long hash) {
+        AtomicLongArray registers = dense.get();
+        if (registers != null) {
+            addToRegisters(registers, hash);
+            return;
+        }
+        int start = (int) (hash & (SPARSE_SLOTS - 1));
+        for (int i = 0; i < SPARSE_SLOTS; i++) {
+            int slot = (start + i) & (SPARSE_SLOTS - 1);
+            long current = sparse.get(slot);
+            if (current == hash) {
+                return;
+            }
+            if (current == 0 && sparse.compareAndSet(slot, 0, hash)) {
+                // A concurrent promotion may have copied the table before this write landed
+                AtomicLongArray promoted = dense.get();
+                if (promoted != null) {
+                    addToRegisters(promoted, hash);
+                }
+                return;
+            }
+            if (sparse.get(slot) == hash) {
+                return;
+            }
+        }
+        promote();
+        addToRegisters(dense.get(), hash);
+    }
+
+    private void promote() {
+        AtomicLongArray registers = new AtomicLongArray(REGISTERS / 8);
+        if (dense.compareAndSet(null, registers)) {
+            for (int i = 0; i < SPARSE_SLOTS; i++) {
+                long hash = sparse.get(i);
+                if (hash != 0) {
+                    addToRegisters(registers, hash);
+                }
+            }
+        }
+    }
+
+    /**
+     * Folds this sketch into {@code union}: raw hashes go to {@code hashes}
+     * while everything seen so far is exact, otherwise into the merged
+     * registers. Returns the (possibly newly allocated) register array.
+     */
+    byte[] mergeInto(Set<Long> hashes, byte[] union) {
+        AtomicLongArray registers = dense.get();
+        if (registers == null) {
+            for (int i = 0; i < SPARSE_SLOTS; i++) {
+                long hash = sparse.get(i);
+                if (hash != 0) {
+                    hashes.add(hash);
+                }
+            }
+            return union;
+        }
+        byte[] target = union != null ? union : new byte[REGISTERS];
+        for (int word = 0; word < REGISTERS / 8; word++) {
+            long packed = registers.get(word);
+            for (int b = 0; b < 8; b++) {
+                int value = (int) ((packed >>> (b * 8)) & 0xFF);
+                int index = word * 8 + b;
+                if (value > target[index]) {
+                    target[index] = (byte) value;
+                }
+            }
+        }
+        return target;
+    }
+
+    static void addToRegisters(byte[] registers, long hash) {
+        int index = (int) (hash >>> (64 - PRECISION));
+        int rank = rank(hash);
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    private static void addToRegisters(AtomicLongArray registers, long hash) {
+        int index = (int) (hash >>> (64 - PRECISION));
+        int word = index >>> 3;
+        int shift = (index & 7) * 8;
+        long rank = rank(hash);
+        while (true) {
+            long packed = registers.get(word);
+            if (((packed >>> shift) & 0xFF) >= rank) {
+                return;
+            }
+            long updated = (packed & ~(0xFFL << shift)) | (rank << shift);
+            if (registers.compareAndSet(word, packed, updated)) {
+                return;
+            }
+        }
+    }
+
+    // Position of the first 1-bit after the index bits; the sentinel bit caps it at 64 - PRECISION + 1
+    private static int rank(long hash) {
+        return Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+    }
+
+    static long estimate(byte[] registers) {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Math.scalb(1.0, -register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            // Linear counting is far more accurate while most registers are still empty
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.hcmiuweb.components.live;
+
+import com.example.hcmiuweb.config.metrics.Counter;
+import com.example.hcmiuweb.config.metrics.MetricsRegistry;
+import com.example.hcmiuweb.payload.response.LiveCountResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory "N watching now" counts. Players send a heartbeat every few
+ * seconds; each one is hashed into the current time bucket of the video's
+ * {@link VideoPresence}, and a viewer counts as watching while any bucket in
+ * the last {@code presence.window-seconds} has seen them.
+ *
+ * Nothing here touches the database. Memory is bounded by
+ * {@code presence.max-videos}: each tracked video holds one sketch per
+ * bucket in the window plus one (7 with the defaults), each ~150 bytes while
+ * exact and ~1.2 KB once it has switched to HyperLogLog. That is under 9 KB
+ * per video in the worst case, ~45 MB at the default 5000 videos. Callers
+ * should only report videos that exist (see {@link #isTracked}), since any
+ * id takes a slot. Counts are per node; behind a load balancer route a
+ * video's heartbeats to one node or sum the nodes' answers.
+ */
+@Component
+public class PresenceTracker {
+
+    private final Map<Long, VideoPresence> videos = new ConcurrentHashMap<>();
+    private final long bucketMillis;
+    private final int windowBuckets;
+    private final int maxVideos;
+    private final int topSize;
+    private final Counter heartbeats;
+    private final Counter rejected;
+    private volatile List<LiveCountResponse> topLive = List.of();
+
+    public PresenceTracker(MetricsRegistry metricsRegistry,
+            @Value("${presence.bucket-seconds:10}") int bucketSeconds,
+            @Value("${presence.window-seconds:60}") int windowSeconds,
+            @Value("${presence.max-videos:5000}") int maxVideos,
+            @Value("${presence.top-size:50}") int topSize) {
+        this.bucketMillis = bucketSeconds * 1000L;
+        this.windowBuckets = Math.max(1, windowSeconds / bucketSeconds);
+        this.maxVideos = maxVideos;
+        this.topSize = topSize;
+        this.heartbeats = metricsRegistry.counter("app_presence_heartbeats_total", "Viewer heartbeats received");
+        this.rejected = metricsRegistry.counter("app_presence_rejected_total",
+                "Heartbeats ignored because presence.max-videos videos were already tracked");
+        metricsRegistry.gauge("app_presence_tracked_videos", "Videos with recent heartbeats", videos::size);
+    }
+
+    /**
+     * Records that {@code viewerKey} is watching the video. Returns false if
+     * the video is not tracked yet and the tracker is full.
+     */
+    public boolean heartbeat(Long videoId, String viewerKey) {
+        VideoPresence presence = videos.get(videoId);
+        if (presence == null) {
+            if (videos.size() >= maxVideos) {
+                rejected.increment();
+                return false;
+            }
+            // One extra bucket so the window always has windowBuckets complete ones plus the current
+            presence = videos.computeIfAbsent(videoId, id -> new VideoPresence(windowBuckets + 1));
+        }
+        presence.record(currentEpoch(), hash(viewerKey));
+        heartbeats.increment();
+        return true;
+    }
+
+    /**
+     * True if the video already has a slot, i.e. it had heartbeats within
+     * the window and does not need checking again.
+     */
+    public boolean isTracked(Long videoId) {
+        return videos.containsKey(videoId);
+    }
+
+    public long countWatching(Long videoId) {
+        VideoPresence presence = videos.get(videoId);
+        return presence == null ? 0 : presence.count(currentEpoch(), windowBuckets + 1);
+    }
+
+    public List<LiveCountResponse> topLive(int limit) {
+        List<LiveCountResponse> top = topLive;
+        return top.size() <= limit ? top : top.subList(0, limit);
+    }
+
+    /**
+     * Drops videos nobody has watched within the window and recomputes the
+     * top list, so the top endpoint is a read of a ready snapshot.
+     */
+    @Scheduled(fixedDelayString = "${presence.refresh-ms:5000}")
+    public void refresh() {
+        long epoch = currentEpoch();
+        List<LiveCountResponse> counts = new ArrayList<>();
+        videos.forEach((videoId, presence) -> {
+            if (presence.getLastEpoch() <= epoch - windowBuckets - 1) {
+                videos.remove(videoId, presence);
+                return;
+            }
+            long watching = presence.count(epoch, windowBuckets + 1);
+            if (watching > 0) {
+                counts.add(new LiveCountResponse(videoId, watching));
+            }
+        });
+        counts.sort(Comparator.comparingLong(LiveCountResponse::getWatching).reversed());
+        topLive = List.copyOf(counts.size() > topSize ? counts.subList(0, topSize) : counts);
+    }
+
+    private long currentEpoch() {
+        return System.currentTimeMillis() / bucketMillis;
+    }
+
+    // FNV-1a followed by the SplitMix64 finalizer; HyperLogLog needs well-mixed high bits
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        for (byte b : bytes) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        h ^= h >>> 31;
+        return h != 0 ? h : 1;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.hcmiuweb.components.live;
+
+import com.example.hcmiuweb.payload.response.CommentRatingResponse;
+import com.example.hcmiuweb.payload.response.CommentResponse;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Everything that changed on one video during a tick, sent to subscribers as
+ * a single {@code update} event. Later changes overwrite earlier ones: only
+ * the latest vote counts per comment are kept, and a comment added and
+ * deleted within the same tick is never sent at all.
+ */
+public class VideoDelta {
+    private final Long videoId;
+    private final Map<Long, CommentResponse> added = new LinkedHashMap<>();
+    private final Set<Long> deleted = new LinkedHashSet<>();
+    private final Map<Long, CommentRatingResponse> votes = new LinkedHashMap<>();
+
+    VideoDelta(Long videoId) {
+        this.videoId = videoId;
+    }
+
+    void apply(CommentEvent event) {
+        switch (event.type()) {
+            case ADDED -> added.put(event.commentId(), event.comment());
+            case DELETED -> {
+                votes.remove(event.commentId());
+                if (added.remove(event.commentId()) == null) {
+                    deleted.add(event.commentId());
+                }
+            }
+            case RATED -> {
+                if (!deleted.contains(event.commentId())) {
+                    votes.put(event.commentId(), event.votes());
+                }
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return added.isEmpty() && deleted.isEmpty() && votes.isEmpty();
+    }
+
+    public Long getVideoId() {
+        return videoId;
+    }
+
+    public List<CommentResponse> getAdded() {
+        return new ArrayList<>(added.values());
+    }
+
+    public Set<Long> getDeleted() {
+        return deleted;
+    }
+
+    public Map<Long, CommentRatingResponse> getVotes() {
+        return votes;
+    }
+}
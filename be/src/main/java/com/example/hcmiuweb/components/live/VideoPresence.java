@@ -0,0 +1,81 @@
+package com.example.hcmiuweb.components.live;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Viewers of one video, as a ring of per-bucket sketches. A heartbeat lands
+ * in the bucket for the current epoch; a bucket left over from an older lap
+ * of the ring is replaced rather than cleared, so expiry needs no sweeping.
+ * The live count is the union of the buckets inside the presence window.
+ */
+final class VideoPresence {
+
+    private record Bucket(long epoch, PresenceSketch sketch) {
+    }
+
+    private final AtomicReferenceArray<Bucket> buckets;
+    private volatile long lastEpoch;
+    private volatile long cachedEpoch = -1;
+    private volatile long cachedCount;
+
+    VideoPresence(int bucketCount) {
+        this.buckets = new AtomicReferenceArray<>(bucketCount);
+    }
+
+    void record(long epoch, long viewerHash) {
+        int slot = (int) (epoch % buckets.length());
+        Bucket bucket = buckets.get(slot);
+        while (bucket == null || bucket.epoch() != epoch) {
+            if (bucket != null && bucket.epoch() > epoch) {
+                return;
+            }
+            Bucket fresh = new Bucket(epoch, new PresenceSketch());
+            if (buckets.compareAndSet(slot, bucket, fresh)) {
+                bucket = fresh;
+            } else {
+                bucket = buckets.get(slot);
+            }
+        }
+        bucket.sketch().add(viewerHash);
+        if (epoch > lastEpoch) {
+            lastEpoch = epoch;
+        }
+    }
+
+    /**
+     * Distinct viewers over the {@code windowBuckets} buckets ending at
+     * {@code epoch}. Computed at most once per bucket epoch, so polling the
+     * count of a busy video does not re-merge sketches on every request.
+     */
+    long count(long epoch, int windowBuckets) {
+        if (cachedEpoch == epoch) {
+            return cachedCount;
+        }
+        Set<Long> hashes = new HashSet<>();
+        byte[] registers = null;
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null && bucket.epoch() <= epoch && bucket.epoch() > epoch - windowBuckets) {
+                registers = bucket.sketch().mergeInto(hashes, registers);
+            }
+        }
+        long count;
+        if (registers == null) {
+            count = hashes.size();
+        } else {
+            for (long hash : hashes) {
+                PresenceSketch.addToRegisters(registers, hash);
+            }
+            count = PresenceSketch.estimate(registers);
+        }
+        cachedCount = count;
+        cachedEpoch = epoch;
+        return count;
+    }
+
+    long getLastEpoch() {
+        return lastEpoch;
+    }
+}
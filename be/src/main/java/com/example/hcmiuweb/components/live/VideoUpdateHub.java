@@ -0,0 +1,333 @@
+package com.example.hcmiuweb.components.live;
+
+import com.example.hcmiuweb.config.metrics.Counter;
+import com.example.hcmiuweb.config.metrics.MetricsRegistry;
+import com.example.hcmiuweb.payload.response.CommentRatingResponse;
+import com.example.hcmiuweb.repositories.CommentRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes comment changes to viewers of a video over Server-Sent Events, so
+ * the player no longer polls {@code /api/comments/video/{id}}.
+ *
+ * Events from committed transactions are merged into one {@link VideoDelta}
+ * per video and flushed every {@code live.tick-ms}: a burst of votes on a
+ * popular comment becomes one update per tick, serialized once and shared by
+ * every subscriber. Writes happen on a small sender pool, and a subscriber
+ * whose queue fills up is disconnected rather than allowed to hold events
+ * back for everyone else. The tick has its own thread: on the shared
+ * {@code @Scheduled} pool it would wait behind purges and outbox batches.
+ *
+ * Servlet writes block, so a client that stops reading would keep a sender
+ * thread until the container's write timeout. A send running longer than
+ * {@code live.send-timeout-ms} gets its connection dropped, and the pool
+ * gets a replacement thread until the stuck write returns, up to
+ * {@code live.max-stalled-senders} at a time.
+ */
+@Component
+public class VideoUpdateHub {
+
+    private static final Logger logger = LoggerFactory.getLogger(VideoUpdateHub.class);
+
+    private final CommentRepository commentRepository;
+    private final ObjectMapper objectMapper;
+    private final Map<Long, Set<LiveConnection>> subscribers = new ConcurrentHashMap<>();
+    private final Map<Long, VideoDelta> pending = new ConcurrentHashMap<>();
+    private final Map<Long, CommentRatingResponse> pendingVotes = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final Map<String, Integer> clientConnections = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor sender;
+    private final int senderThreads;
+    // Dropped connections whose write may still be blocked, and those past the deadline
+    private final Set<LiveConnection> closedWhileSending = ConcurrentHashMap.newKeySet();
+    private final Set<LiveConnection> stalled = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService ticker;
+    private final long tickMs;
+    private final Counter droppedConnections;
+    private final Counter updatesSent;
+    private final Counter stalledConnections;
+    private final Set<DataWithMediaType> keepAlive = SseEmitter.event().comment("keep-alive").build();
+    private long lastKeepAliveNanos = System.nanoTime();
+
+    @Value("${live.max-connections:20000}")
+    private int maxConnections;
+
+    @Value("${live.max-connections-per-client:32}")
+    private int maxConnectionsPerClient;
+
+    @Value("${live.queue-capacity:16}")
+    private int queueCapacity;
+
+    @Value("${live.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    @Value("${live.keep-alive-ms:25000}")
+    private long keepAliveMs;
+
+    @Value("${live.send-timeout-ms:5000}")
+    private long sendTimeoutMs;
+
+    @Value("${live.max-stalled-senders:32}")
+    private int maxStalledSenders;
+
+    public VideoUpdateHub(CommentRepository commentRepository, ObjectMapper objectMapper,
+            MetricsRegistry metricsRegistry, @Value("${live.sender-threads:2}") int senderThreads,
+            @Value("${live.tick-ms:250}") long tickMs) {
+        this.commentRepository = commentRepository;
+        this.objectMapper = objectMapper;
+        this.sender = new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), namedThreadFactory("live-sender-"));
+        this.senderThreads = senderThreads;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(namedThreadFactory("live-tick-"));
+        this.tickMs = tickMs;
+        this.droppedConnections = metricsRegistry.counter("app_live_dropped_connections_total",
+                "SSE subscribers disconnected because their send queue was full");
+        this.updatesSent = metricsRegistry.counter("app_live_updates_total",
+                "Coalesced video updates queued to SSE subscribers");
+        this.stalledConnections = metricsRegistry.counter("app_live_stalled_connections_total",
+                "SSE subscribers disconnected because a send ran past live.send-timeout-ms");
+        metricsRegistry.gauge("app_live_connections", "Open SSE subscriptions", connectionCount::get);
+        metricsRegistry.gauge("app_live_stalled_senders", "Sender threads blocked writing to dropped subscribers",
+                stalled::size);
+    }
+
+    /**
+     * Opens a subscription for one video on behalf of {@code clientKey} (a
+     * user or client address). Returns null when the node is at
+     * {@code live.max-connections} or the client at
+     * {@code live.max-connections-per-client}; the caller should answer 503.
+     */
+    public SseEmitter subscribe(Long videoId, String clientKey) {
+        if (!acquireClientSlot(clientKey)) {
+            return null;
+        }
+        if (connectionCount.incrementAndGet() > maxConnections) {
+            connectionCount.decrementAndGet();
+            releaseClientSlot(clientKey);
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        LiveConnection connection = new LiveConnection(videoId, clientKey, emitter, queueCapacity);
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> remove(connection));
+        emitter.onError(e -> remove(connection));
+        subscribers.compute(videoId, (id, connections) -> {
+            Set<LiveConnection> target = connections != null ? connections : ConcurrentHashMap.newKeySet();
+            target.add(connection);
+            return target;
+        });
+        // Sent right away so the response is committed and the client sees the stream open
+        connection.offer(SseEmitter.event().comment("subscribed").reconnectTime(3000).build(), sender);
+        return emitter;
+    }
+
+    private boolean acquireClientSlot(String clientKey) {
+        AtomicBoolean acquired = new AtomicBoolean();
+        clientConnections.compute(clientKey, (key, count) -> {
+            int current = count != null ? count : 0;
+            if (current >= maxConnectionsPerClient) {
+                return count;
+            }
+            acquired.set(true);
+            return current + 1;
+        });
+        return acquired.get();
+    }
+
+    private void releaseClientSlot(String clientKey) {
+        clientConnections.computeIfPresent(clientKey, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    public boolean hasSubscribers(Long videoId) {
+        Set<LiveConnection> connections = subscribers.get(videoId);
+        return connections != null && !connections.isEmpty();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentEvent(CommentEvent event) {
+        if (event.type() == CommentEvent.Type.RATED) {
+            if (!subscribers.isEmpty()) {
+                pendingVotes.put(event.commentId(), event.votes());
+            }
+            return;
+        }
+        if (hasSubscribers(event.videoId())) {
+            merge(event.videoId(), event);
+        }
+    }
+
+    // compute() keeps each video's delta confined to one thread at a time
+    private void merge(Long videoId, CommentEvent event) {
+        pending.compute(videoId, (id, delta) -> {
+            VideoDelta target = delta != null ? delta : new VideoDelta(id);
+            target.apply(event);
+            return target;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        ticker.scheduleWithFixedDelay(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void tick() {
+        try {
+            dropStalledConnections();
+            resolvePendingVotes();
+            for (Long videoId : new ArrayList<>(pending.keySet())) {
+                VideoDelta delta = pending.remove(videoId);
+                if (delta != null && !delta.isEmpty()) {
+                    broadcast(videoId, delta);
+                }
+            }
+            long now = System.nanoTime();
+            if (now - lastKeepAliveNanos >= TimeUnit.MILLISECONDS.toNanos(keepAliveMs)) {
+                lastKeepAliveNanos = now;
+                subscribers.values().forEach(connections -> connections.forEach(c -> deliver(c, keepAlive)));
+            }
+        } catch (Exception e) {
+            logger.error("Live update tick failed", e);
+        }
+    }
+
+    private void dropStalledConnections() {
+        stalled.removeIf(connection -> connection.sendStartedNanos() == 0);
+        closedWhileSending.removeIf(connection -> connection.sendStartedNanos() == 0);
+        long deadline = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        List<LiveConnection> candidates = new ArrayList<>(closedWhileSending);
+        subscribers.values().forEach(candidates::addAll);
+        for (LiveConnection connection : candidates) {
+            long started = connection.sendStartedNanos();
+            if (started != 0 && started - deadline < 0 && stalled.add(connection)) {
+                if (connection.close()) {
+                    stalledConnections.increment();
+                }
+                remove(connection);
+            }
+        }
+        resizeSender(senderThreads + Math.min(stalled.size(), maxStalledSenders));
+    }
+
+    // Core threads take queued tasks; the maximum has to move first when growing
+    private void resizeSender(int threads) {
+        if (threads > sender.getCorePoolSize()) {
+            sender.setMaximumPoolSize(threads);
+            sender.setCorePoolSize(threads);
+        } else if (threads < sender.getCorePoolSize()) {
+            sender.setCorePoolSize(threads);
+            sender.setMaximumPoolSize(threads);
+        }
+    }
+
+    // Vote events only know the comment; look up all their videos in one query
+    private void resolvePendingVotes() {
+        if (pendingVotes.isEmpty()) {
+            return;
+        }
+        Map<Long, CommentRatingResponse> votes = new HashMap<>();
+        for (Long commentId : new ArrayList<>(pendingVotes.keySet())) {
+            CommentRatingResponse latest = pendingVotes.remove(commentId);
+            if (latest != null) {
+                votes.put(commentId, latest);
+            }
+        }
+        if (votes.isEmpty() || subscribers.isEmpty()) {
+            return;
+        }
+        for (CommentRepository.CommentVideoId row : commentRepository.findVideoIds(votes.keySet())) {
+            if (hasSubscribers(row.getVideoId())) {
+                merge(row.getVideoId(), CommentEvent.rated(row.getCommentId(), votes.get(row.getCommentId())));
+            }
+        }
+    }
+
+    private void broadcast(Long videoId, VideoDelta delta) {
+        Set<LiveConnection> connections = subscribers.get(videoId);
+        if (connections == null || connections.isEmpty()) {
+            return;
+        }
+        Set<DataWithMediaType> event;
+        try {
+            event = SseEmitter.event().name("update")
+                    .data(objectMapper.writeValueAsString(delta), MediaType.APPLICATION_JSON)
+                    .build();
+        } catch (JsonProcessingException e) {
+            logger.error("Could not serialize live update for video {}", videoId, e);
+            return;
+        }
+        for (LiveConnection connection : connections) {
+            if (deliver(connection, event)) {
+                updatesSent.increment();
+            }
+        }
+    }
+
+    private boolean deliver(LiveConnection connection, Set<DataWithMediaType> event) {
+        if (connection.offer(event, sender)) {
+            return true;
+        }
+        if (connection.close()) {
+            droppedConnections.increment();
+        }
+        remove(connection);
+        return false;
+    }
+
+    private void remove(LiveConnection connection) {
+        connection.close();
+        if (connection.sendStartedNanos() != 0) {
+            closedWhileSending.add(connection);
+        }
+        AtomicBoolean removed = new AtomicBoolean();
+        subscribers.computeIfPresent(connection.getVideoId(), (id, connections) -> {
+            removed.set(connections.remove(connection));
+            return connections.isEmpty() ? null : connections;
+        });
+        if (removed.get()) {
+            connectionCount.decrementAndGet();
+            releaseClientSlot(connection.getClientKey());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(connections -> new ArrayList<>(connections).forEach(this::remove));
+        ticker.shutdown();
+        sender.shutdown();
+    }
+
+    private static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
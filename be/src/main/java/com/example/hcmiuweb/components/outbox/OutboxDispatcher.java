@@ -0,0 +1,199 @@
+package com.example.hcmiuweb.components.outbox;
+
+import com.example.hcmiuweb.config.metrics.Counter;
+import com.example.hcmiuweb.config.metrics.Histogram;
+import com.example.hcmiuweb.config.metrics.MetricsRegistry;
+import com.example.hcmiuweb.entities.OutboxEvent;
+import com.example.hcmiuweb.services.OutboxService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers outbox events to the {@link OutboxSubscriber} beans in commit
+ * order.
+ *
+ * Only one node dispatches at a time (MySQL named lock), which keeps the
+ * per-aggregate ordering simple: events are read in id order, and once an
+ * event fails, later events of the same aggregate are held back until it
+ * succeeds or is given up on (marked FAILED after {@code outbox.max-attempts}).
+ * Held-back events are left out of the query rather than skipped in memory,
+ * so however many of them there are, other aggregates keep being delivered.
+ */
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private static final String LOCK_NAME = "hcmiuweb_outbox_dispatcher";
+
+    private final OutboxService outboxService;
+    private final List<OutboxSubscriber> subscribers;
+    private final DataSource dataSource;
+    private final Histogram dispatchLag;
+    private final Counter dispatched;
+    private final Counter failed;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong oldestPendingSeconds = new AtomicLong();
+
+    @Value("${outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${outbox.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${outbox.backoff-base-seconds:5}")
+    private long backoffBaseSeconds;
+
+    @Value("${outbox.backoff-max-seconds:600}")
+    private long backoffMaxSeconds;
+
+    @Value("${outbox.retention-days:3}")
+    private long retentionDays;
+
+    public OutboxDispatcher(OutboxService outboxService, List<OutboxSubscriber> subscribers, DataSource dataSource,
+            MetricsRegistry metricsRegistry) {
+        this.outboxService = outboxService;
+        this.subscribers = subscribers;
+        this.dataSource = dataSource;
+        this.dispatchLag = metricsRegistry.histogram("app_outbox_dispatch_lag_seconds",
+                "Time from an outbox event being written to being delivered", Histogram.LATENCY_SECONDS);
+        this.dispatched = metricsRegistry.counter("app_outbox_dispatched_total", "Outbox events delivered");
+        this.failed = metricsRegistry.counter("app_outbox_failed_total",
+                "Outbox events given up on after outbox.max-attempts");
+        metricsRegistry.gauge("app_outbox_pending", "Outbox events waiting to be delivered", pending::get);
+        metricsRegistry.gauge("app_outbox_oldest_pending_age_seconds", "Age of the oldest undelivered outbox event",
+                oldestPendingSeconds::get);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms:1000}")
+    public void dispatch() {
+        try (Connection lockConnection = dataSource.getConnection()) {
+            if (!tryLock(lockConnection)) {
+                return;
+            }
+            try {
+                for (int i = 0; i < maxBatchesPerRun; i++) {
+                    if (!dispatchBatch()) {
+                        break;
+                    }
+                }
+            } finally {
+                releaseLock(lockConnection);
+            }
+            refreshGauges();
+        } catch (Exception e) {
+            logger.error("Outbox dispatch failed", e);
+        }
+    }
+
+    /**
+     * Delivers one batch. Returns true if the batch was full and made
+     * progress, i.e. another batch may be waiting.
+     */
+    private boolean dispatchBatch() {
+        List<OutboxEvent> batch = outboxService.findDueBatch(LocalDateTime.now(), batchSize);
+        if (batch.isEmpty()) {
+            return false;
+        }
+        // Aggregates whose event failed in this batch; their later events wait for the retry
+        Set<String> heldBack = new HashSet<>();
+        List<Long> delivered = new ArrayList<>();
+        for (OutboxEvent event : batch) {
+            String aggregate = event.getAggregateType() + ":" + event.getAggregateId();
+            if (heldBack.contains(aggregate)) {
+                continue;
+            }
+            try {
+                deliver(event);
+                delivered.add(event.getId());
+                dispatchLag.observe(Duration.between(event.getCreatedAt(), LocalDateTime.now()).toMillis() / 1000.0);
+            } catch (Exception e) {
+                boolean dead = outboxService.markFailed(event, e.toString(), maxAttempts,
+                        Duration.ofSeconds(backoffBaseSeconds), Duration.ofSeconds(backoffMaxSeconds));
+                if (dead) {
+                    failed.increment();
+                    logger.error("Giving up on outbox event {} ({} {}) after {} attempts", event.getId(),
+                            event.getEventType(), event.getAggregateId(), event.getAttempts(), e);
+                } else {
+                    heldBack.add(aggregate);
+                    logger.warn("Outbox event {} ({}) failed, retrying at {}: {}", event.getId(),
+                            event.getEventType(), event.getNextAttemptAt(), e.toString());
+                }
+            }
+        }
+        outboxService.markDispatched(delivered, LocalDateTime.now());
+        dispatched.increment(delivered.size());
+        return batch.size() == batchSize && !delivered.isEmpty();
+    }
+
+    private void deliver(OutboxEvent event) throws Exception {
+        for (OutboxSubscriber subscriber : subscribers) {
+            if (subscriber.eventTypes().contains(event.getEventType())) {
+                subscriber.handle(event);
+            }
+        }
+    }
+
+    @Scheduled(cron = "${outbox.purge-cron:0 30 * * * *}")
+    public void purgeDispatched() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        int total = 0;
+        int removed;
+        do {
+            removed = outboxService.purgeDispatchedBatch(cutoff, batchSize);
+            total += removed;
+        } while (removed == batchSize);
+        if (total > 0) {
+            logger.info("Purged {} dispatched outbox events", total);
+        }
+    }
+
+    private void refreshGauges() {
+        pending.set(outboxService.countPending());
+        LocalDateTime oldest = outboxService.findOldestPendingCreatedAt();
+        oldestPendingSeconds.set(oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toSeconds());
+    }
+
+    // Other databases (H2 in tests) are single-node, so no lock is needed there
+    private static boolean tryLock(Connection connection) throws SQLException {
+        if (!isMySql(connection)) {
+            return true;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT GET_LOCK('" + LOCK_NAME + "', 0)")) {
+            return result.next() && result.getInt(1) == 1;
+        }
+    }
+
+    private static void releaseLock(Connection connection) throws SQLException {
+        if (isMySql(connection)) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SELECT RELEASE_LOCK('" + LOCK_NAME + "')");
+            }
+        }
+    }
+
+    private static boolean isMySql(Connection connection) throws SQLException {
+        return connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("mysql");
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.hcmiuweb.components.outbox;
+
+import com.example.hcmiuweb.entities.OutboxEvent;
+
+import java.util.Set;
+
+/**
+ * In-process consumer of outbox events. Any bean implementing this is picked
+ * up by {@link OutboxDispatcher}.
+ *
+ * Delivery is at-least-once: an event is redelivered to every subscriber if
+ * any of them throws, or if the node stops before the event is marked
+ * dispatched, so handlers must be idempotent. Events of one aggregate arrive
+ * in the order they were committed.
+ */
+public interface OutboxSubscriber {
+
+    /**
+     * Event types this subscriber handles, e.g. {@link OutboxEvent#VIDEO_CREATED}.
+     */
+    Set<String> eventTypes();
+
+    void handle(OutboxEvent event) throws Exception;
+}
@@ -0,0 +1,328 @@
+package com.example.hcmiuweb.components.seed;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates a large, deterministic dataset for performance testing.
+ *
+ * Only active with the "seed" profile, e.g.
+ * {@code mvn spring-boot:run -Dspring-boot.run.profiles=seed -Dspring-boot.run.arguments=--seed.users=1000000}.
+ * Rows are written with plain JDBC batches and explicit ids so children can
+ * reference parents without reading generated keys back. Add
+ * {@code rewriteBatchedStatements=true} to the JDBC url so MySQL receives
+ * multi-row inserts.
+ */
+@Component
+@Profile("seed")
+@Order(10)
+public class SyntheticDataSeeder implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticDataSeeder.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${seed.random-seed:42}")
+    private long randomSeed;
+
+    @Value("${seed.users:100000}")
+    private int userCount;
+
+    @Value("${seed.videos:200000}")
+    private int videoCount;
+
+    @Value("${seed.ratings:2000000}")
+    private long ratingCount;
+
+    @Value("${seed.comments:1000000}")
+    private int commentCount;
+
+    @Value("${seed.comment-ratings:2000000}")
+    private long commentRatingCount;
+
+    @Value("${seed.watchlist-ratio:0.3}")
+    private double watchListRatio;
+
+    @Value("${seed.watchlist-max-videos:50}")
+    private int watchListMaxVideos;
+
+    @Value("${seed.zipf.video-popularity:1.1}")
+    private double videoPopularityExponent;
+
+    @Value("${seed.zipf.user-activity:0.8}")
+    private double userActivityExponent;
+
+    @Value("${seed.zipf.comment-popularity:1.0}")
+    private double commentPopularityExponent;
+
+    @Value("${seed.comment.max-depth:4}")
+    private int maxThreadDepth;
+
+    @Value("${seed.comment.reply-probability:0.35}")
+    private double replyProbability;
+
+    @Value("${seed.total-views:500000000}")
+    private long totalViews;
+
+    @Value("${seed.anchor-date:2025-01-01T00:00:00}")
+    private String anchorDate;
+
+    @Value("${seed.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${seed.exit-on-complete:true}")
+    private boolean exitOnComplete;
+
+    public SyntheticDataSeeder(JdbcTemplate jdbcTemplate,
+                               PasswordEncoder passwordEncoder,
+                               ConfigurableApplicationContext context) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.context = context;
+    }
+
+    @FunctionalInterface
+    private interface RowBinder {
+        void bind(PreparedStatement ps, long row) throws SQLException;
+    }
+
+    @Override
+    public void run(String... args) {
+        long started = System.nanoTime();
+        SplittableRandom root = new SplittableRandom(randomSeed);
+        LocalDateTime anchor = LocalDateTime.parse(anchorDate);
+
+        Long roleId = jdbcTemplate.queryForObject(
+                "SELECT role_id FROM roles WHERE role_name = 'ROLE_USER'", Long.class);
+        List<Long> categoryIds = jdbcTemplate.queryForList(
+                "SELECT category_id FROM category ORDER BY category_id", Long.class);
+        if (categoryIds.isEmpty()) {
+            throw new IllegalStateException("No categories found, run the application once without the seed profile");
+        }
+
+        long userBase = maxId("user", "user_id");
+        long videoBase = maxId("video", "video_id");
+        long commentBase = maxId("comment", "comment_id");
+        long watchListBase = maxId("watch_list", "watchlist_id");
+
+        // Each table draws from its own split stream so changing one count
+        // does not reshuffle the others
+        SplittableRandom userRandom = root.split();
+        SplittableRandom videoRandom = root.split();
+        SplittableRandom ratingRandom = root.split();
+        SplittableRandom commentRandom = root.split();
+        SplittableRandom commentRatingRandom = root.split();
+        SplittableRandom watchListRandom = root.split();
+
+        // Videos, ratings, comments and watchlists point at seeded users, and
+        // ratings and comments at seeded videos, so a zero count skips what
+        // depends on it. The streams are split either way to keep the rest stable.
+        int videos = userCount > 0 ? videoCount : 0;
+        long ratings = videos > 0 ? ratingCount : 0;
+        int comments = videos > 0 ? commentCount : 0;
+        if (videos < videoCount || ratings < ratingCount || comments < commentCount) {
+            logger.warn("seed.users={} and seed.videos={}: skipping the rows that would reference them",
+                    userCount, videoCount);
+        }
+        SplittableRandom userActivityRandom = root.split();
+        SplittableRandom videoPopularityRandom = root.split();
+        ZipfDistribution userActivity = userCount > 0
+                ? new ZipfDistribution(userCount, userActivityExponent, userActivityRandom)
+                : null;
+        ZipfDistribution videoPopularity = videos > 0
+                ? new ZipfDistribution(videos, videoPopularityExponent, videoPopularityRandom)
+                : null;
+
+        // Same hash for every synthetic account; BCrypt per row would dominate the run
+        String passwordHash = passwordEncoder.encode("password");
+
+        insert("user",
+                "INSERT INTO user (user_id, username, email, password_hash, registration_date, avatar, role_id) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                userCount, (ps, row) -> {
+                    long id = userBase + row + 1;
+                    ps.setLong(1, id);
+                    ps.setString(2, "seed_user_" + id);
+                    ps.setString(3, "seed_user_" + id + "@seed.local");
+                    ps.setString(4, passwordHash);
+                    ps.setTimestamp(5, Timestamp.valueOf(anchor.minusMinutes(userRandom.nextLong(2L * 365 * 24 * 60))));
+                    ps.setString(6, "/resources/static/images/avatars/default-avatar.jpg");
+                    ps.setLong(7, roleId);
+                });
+
+        insert("video",
+                "INSERT INTO video (video_id, title, description, upload_date, duration, url, thumbnail_url, "
+                        + "view_count, user_id, category_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                videos, (ps, row) -> {
+                    long id = videoBase + row + 1;
+                    int item = (int) row;
+                    ps.setLong(1, id);
+                    ps.setString(2, "Synthetic video " + id + " " + WORDS[videoRandom.nextInt(WORDS.length)]
+                            + " " + WORDS[videoRandom.nextInt(WORDS.length)]);
+                    ps.setString(3, "Generated description for video " + id);
+                    ps.setTimestamp(4, Timestamp.valueOf(anchor.minusMinutes(videoRandom.nextLong(365L * 24 * 60))));
+                    ps.setInt(5, 30 + videoRandom.nextInt(3600));
+                    ps.setString(6, "https://seed.local/videos/" + id + ".mp4");
+                    ps.setString(7, "https://seed.local/thumbnails/" + id + ".jpg");
+                    ps.setLong(8, Math.round(videoPopularity.weight(item) * totalViews));
+                    ps.setLong(9, userBase + userActivity.sample(videoRandom) + 1);
+                    ps.setLong(10, categoryIds.get(videoRandom.nextInt(categoryIds.size())));
+                });
+
+        // Duplicate (user, video) pairs are expected with skewed sampling and are skipped
+        insert("video_rating",
+                "INSERT IGNORE INTO video_rating (user_id, video_id, rating) VALUES (?, ?, ?)",
+                ratings, (ps, row) -> {
+                    ps.setLong(1, userBase + userActivity.sample(ratingRandom) + 1);
+                    ps.setLong(2, videoBase + videoPopularity.sample(ratingRandom) + 1);
+                    ps.setInt(3, ratingRandom.nextDouble() < 0.8 ? 1 : -1);
+                });
+
+        // Threads grow by replying to the latest comment of the same video
+        long[] lastComment = new long[videos];
+        byte[] lastDepth = new byte[videos];
+        insert("comment",
+                "INSERT INTO comment (comment_id, content, date_posted, video_id, user_id, parent_comment_id) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)",
+                comments, (ps, row) -> {
+                    long id = commentBase + row + 1;
+                    int video = videoPopularity.sample(commentRandom);
+                    Long parentId = null;
+                    int depth = 0;
+                    if (lastComment[video] != 0 && lastDepth[video] < maxThreadDepth
+                            && commentRandom.nextDouble() < replyProbability) {
+                        parentId = lastComment[video];
+                        depth = lastDepth[video] + 1;
+                    }
+                    lastComment[video] = id;
+                    lastDepth[video] = (byte) depth;
+
+                    ps.setLong(1, id);
+                    ps.setString(2, "Synthetic comment " + id);
+                    ps.setTimestamp(3, Timestamp.valueOf(anchor.minusSeconds(comments - row)));
+                    ps.setLong(4, videoBase + video + 1);
+                    ps.setLong(5, userBase + userActivity.sample(commentRandom) + 1);
+                    if (parentId != null) {
+                        ps.setLong(6, parentId);
+                    } else {
+                        ps.setNull(6, Types.BIGINT);
+                    }
+                });
+
+        if (comments > 0) {
+            ZipfDistribution commentPopularity = new ZipfDistribution(comments, commentPopularityExponent,
+                    root.split());
+            insert("comment_rating",
+                    "INSERT IGNORE INTO comment_rating (user_id, comment_id, rating) VALUES (?, ?, ?)",
+                    commentRatingCount, (ps, row) -> {
+                        ps.setLong(1, userBase + userActivity.sample(commentRatingRandom) + 1);
+                        ps.setLong(2, commentBase + commentPopularity.sample(commentRatingRandom) + 1);
+                        ps.setInt(3, commentRatingRandom.nextDouble() < 0.85 ? 1 : -1);
+                    });
+        }
+
+        // Pick watchlist owners up front so both tables see the same users
+        int watchListCount = (int) Math.round(userCount * watchListRatio);
+        long[] owners = new long[watchListCount];
+        int[] sizes = new int[watchListCount];
+        long entries = 0;
+        for (int i = 0; i < watchListCount; i++) {
+            owners[i] = userBase + (long) i * userCount / Math.max(watchListCount, 1) + 1;
+            sizes[i] = 1 + watchListRandom.nextInt(watchListMaxVideos);
+            entries += sizes[i];
+        }
+        Timestamp watchListTime = Timestamp.valueOf(anchor);
+        insert("watch_list",
+                "INSERT INTO watch_list (watchlist_id, user_id, created_at, updated_at) VALUES (?, ?, ?, ?)",
+                watchListCount, (ps, row) -> {
+                    ps.setLong(1, watchListBase + row + 1);
+                    ps.setLong(2, owners[(int) row]);
+                    ps.setTimestamp(3, watchListTime);
+                    ps.setTimestamp(4, watchListTime);
+                });
+
+        int[] cursor = {0, 0};
+        insert("watch_list_video",
+                "INSERT IGNORE INTO watch_list_video (watchlist_id, video_id) VALUES (?, ?)",
+                videos > 0 ? entries : 0, (ps, row) -> {
+                    if (cursor[1] == sizes[cursor[0]]) {
+                        cursor[0]++;
+                        cursor[1] = 0;
+                    }
+                    cursor[1]++;
+                    ps.setLong(1, watchListBase + cursor[0] + 1);
+                    ps.setLong(2, videoBase + videoPopularity.sample(watchListRandom) + 1);
+                });
+
+        logger.info("Synthetic dataset generated in {} s (seed {})",
+                (System.nanoTime() - started) / 1_000_000_000, randomSeed);
+
+        if (exitOnComplete) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+
+    private long maxId(String table, String column) {
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(" + column + "), 0) FROM " + table, Long.class);
+        return max != null ? max : 0L;
+    }
+
+    /**
+     * Stream {@code rows} rows through a single prepared statement in
+     * fixed-size JDBC batches.
+     */
+    private void insert(String table, String sql, long rows, RowBinder binder) {
+        if (rows <= 0) {
+            return;
+        }
+        long started = System.nanoTime();
+        jdbcTemplate.execute((Connection connection) -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                for (long row = 0; row < rows; row++) {
+                    binder.bind(ps, row);
+                    ps.addBatch();
+                    if ((row + 1) % batchSize == 0 || row + 1 == rows) {
+                        ps.executeBatch();
+                        connection.commit();
+                    }
+                    if ((row + 1) % 1_000_000 == 0) {
+                        logger.info("{}: {} / {} rows", table, row + 1, rows);
+                    }
+                }
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            return null;
+        });
+        long millis = Math.max((System.nanoTime() - started) / 1_000_000, 1);
+        logger.info("Seeded {} rows into {} in {} ms ({} rows/s)", rows, table, millis, rows * 1000 / millis);
+    }
+
+    private static final String[] WORDS = {
+            "music", "live", "tutorial", "review", "highlights", "gaming", "news", "travel", "cooking",
+            "football", "java", "spring", "react", "concert", "vlog", "podcast", "trailer", "science",
+            "history", "workout"
+    };
+}
@@ -0,0 +1,80 @@
+package com.example.hcmiuweb.components.seed;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zipf sampler over the items 0..n-1.
+ *
+ * The CDF is precomputed once, so each sample is a binary search. Ranks are
+ * shuffled with a seeded permutation so the most popular items are not simply
+ * the lowest ids.
+ */
+public class ZipfDistribution {
+
+    private final double[] cdf;
+    private final int[] rankToItem;
+    private final double[] weights;
+
+    public ZipfDistribution(int n, double exponent, SplittableRandom random) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Zipf distribution needs at least one item");
+        }
+        this.cdf = new double[n];
+        this.weights = new double[n];
+
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, exponent);
+            cdf[rank] = sum;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cdf[rank] /= sum;
+        }
+
+        // Fisher-Yates shuffle of the rank -> item mapping
+        this.rankToItem = new int[n];
+        for (int i = 0; i < n; i++) {
+            rankToItem[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = rankToItem[i];
+            rankToItem[i] = rankToItem[j];
+            rankToItem[j] = tmp;
+        }
+
+        for (int rank = 0; rank < n; rank++) {
+            double previous = rank == 0 ? 0 : cdf[rank - 1];
+            weights[rankToItem[rank]] = cdf[rank] - previous;
+        }
+    }
+
+    /**
+     * Draw one item index.
+     */
+    public int sample(SplittableRandom random) {
+        double u = random.nextDouble();
+        int low = 0;
+        int high = cdf.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cdf[mid] < u) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return rankToItem[low];
+    }
+
+    /**
+     * Probability mass of a single item.
+     */
+    public double weight(int item) {
+        return weights[item];
+    }
+
+    public int size() {
+        return cdf.length;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.hcmiuweb.config;
+
+import com.example.hcmiuweb.config.metrics.Counter;
+import com.example.hcmiuweb.config.metrics.Histogram;
+import com.example.hcmiuweb.config.metrics.MetricsRegistry;
+import com.example.hcmiuweb.exceptions.PasswordHashingBusyException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt encoder that runs every hash on a small dedicated pool instead of
+ * the request thread, so a login storm can use at most {@code threads} cores.
+ *
+ * Admission control: when the queue is full, or a task has already waited
+ * longer than {@code maxQueueWaitMillis} by the time a worker picks it up,
+ * the call fails fast with {@link PasswordHashingBusyException}.
+ *
+ * {@link #upgradeEncoding} reports hashes whose cost differs from the
+ * configured strength, which lets {@code DaoAuthenticationProvider} rehash
+ * them transparently on the next successful login.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+    private final long maxQueueWaitNanos;
+    private final long retryAfterSeconds;
+
+    private final Histogram encodeLatency;
+    private final Histogram matchesLatency;
+    private final Histogram queueWait;
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedQueueTimeout;
+
+    public BoundedPasswordEncoder(int strength, int threads, int queueCapacity, long maxQueueWaitMillis,
+            long retryAfterSeconds, MetricsRegistry metricsRegistry) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMillis);
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeLatency = metricsRegistry.histogram("app_password_hash_seconds",
+                "Time spent computing BCrypt hashes", Histogram.LATENCY_SECONDS, "op", "encode");
+        this.matchesLatency = metricsRegistry.histogram("app_password_hash_seconds",
+                "Time spent computing BCrypt hashes", Histogram.LATENCY_SECONDS, "op", "matches");
+        this.queueWait = metricsRegistry.histogram("app_password_hash_queue_wait_seconds",
+                "Time hashing requests waited for a free hashing thread", Histogram.LATENCY_SECONDS);
+        this.rejectedQueueFull = metricsRegistry.counter("app_password_hash_rejected_total",
+                "Hashing requests shed by admission control", "reason", "queue_full");
+        this.rejectedQueueTimeout = metricsRegistry.counter("app_password_hash_rejected_total",
+                "Hashing requests shed by admission control", "reason", "queue_timeout");
+        metricsRegistry.gauge("app_password_hash_active", "Hashing threads currently busy", executor::getActiveCount);
+        metricsRegistry.gauge("app_password_hash_queued", "Hashing requests waiting for a thread",
+                () -> executor.getQueue().size());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword), encodeLatency);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword), matchesLatency);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    private <T> T run(Callable<T> task, Histogram latency) {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long started = System.nanoTime();
+                long waited = started - submitted;
+                queueWait.observeNanos(waited);
+                if (waited > maxQueueWaitNanos) {
+                    rejectedQueueTimeout.increment();
+                    throw busy();
+                }
+                try {
+                    return task.call();
+                } finally {
+                    latency.observeNanos(System.nanoTime() - started);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedQueueFull.increment();
+            throw busy();
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw busy();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private PasswordHashingBusyException busy() {
+        return new PasswordHashingBusyException("Password hashing capacity exhausted", retryAfterSeconds);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -3,8 +3,11 @@ package com.example.hcmiuweb.config;
 import com.example.hcmiuweb.config.jwt.AuthEntryPointJwt;
 import com.example.hcmiuweb.config.jwt.AuthTokenFilter;
 import com.example.hcmiuweb.config.jwt.JwtUtils;
+import com.example.hcmiuweb.config.metrics.MetricsRegistry;
 import com.example.hcmiuweb.services.UserDetailsServiceImpl;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -14,7 +17,6 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -35,6 +37,29 @@ public class SecurityConfig {
     @Autowired
     private AuthEntryPointJwt unauthorizedHandler;
 
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+
+    @Value("${security.bcrypt.strength:10}")
+    private int bcryptStrength;
+
+    // 0 means half the available cores, leaving the rest for regular requests
+    @Value("${security.bcrypt.threads:0}")
+    private int bcryptThreads;
+
+    @Value("${security.bcrypt.queue-capacity:64}")
+    private int bcryptQueueCapacity;
+
+    @Value("${security.bcrypt.max-queue-wait-ms:2000}")
+    private long bcryptMaxQueueWaitMs;
+
+    @Value("${security.bcrypt.retry-after-seconds:2}")
+    private long bcryptRetryAfterSeconds;
+
+    // The unpublished scrape port opened by MetricsPortConfig; 0 turns it off
+    @Value("${metrics.port:9464}")
+    private int metricsPort;
+
     @Bean
     public AuthTokenFilter authenticationJwtTokenFilter() {
         return new AuthTokenFilter();
@@ -46,6 +71,8 @@ public class SecurityConfig {
 
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        // Rehashes stored passwords on login when security.bcrypt.strength changes
+        authProvider.setUserDetailsPasswordService(userDetailsService);
 
         return authProvider;
     }
@@ -57,7 +84,10 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int threads = bcryptThreads > 0 ? bcryptThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(bcryptStrength, threads, bcryptQueueCapacity, bcryptMaxQueueWaitMs,
+                bcryptRetryAfterSeconds, metricsRegistry);
     }
 
     @Bean
@@ -72,9 +102,14 @@ public class SecurityConfig {
                                                                                                            // requests
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/test/**").permitAll()
+                        .requestMatchers(this::isMetricsScrape).permitAll()
+                        .requestMatchers(this::onMetricsPort).denyAll()
+                        .requestMatchers("/metrics").hasRole("ADMIN")
                         .requestMatchers("/api/videos/**").permitAll()
                         .requestMatchers("/api/uploads/video").permitAll()
                         .requestMatchers("/api/uploads/thumbnail").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/files/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/home").permitAll()
                         .anyRequest().authenticated());
 
         http.authenticationProvider(authenticationProvider());
@@ -83,6 +118,14 @@ public class SecurityConfig {
         return http.build();
     }
 
+    private boolean onMetricsPort(HttpServletRequest request) {
+        return metricsPort > 0 && request.getLocalPort() == metricsPort;
+    }
+
+    private boolean isMetricsScrape(HttpServletRequest request) {
+        return onMetricsPort(request) && "/metrics".equals(request.getRequestURI());
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -94,7 +137,7 @@ public class SecurityConfig {
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
         configuration.setAllowCredentials(true);
-        configuration.setExposedHeaders(Arrays.asList("Set-Cookie", "Authorization"));
+        configuration.setExposedHeaders(Arrays.asList("Set-Cookie", "Authorization", "X-Query-Count", "Server-Timing"));
         configuration.setMaxAge(3600L); // Cache preflight for 1 hour
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,35 @@
+package com.example.hcmiuweb.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.annotation.Annotation;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Configuration
+public class StartupConfig {
+
+    /**
+     * With spring.main.lazy-initialization=true (fast-start profile) a bean is
+     * only created when something asks for it. Background jobs and metric
+     * binders are never asked for, so keep any bean with {@code @Scheduled}
+     * or {@code @PostConstruct} methods eager.
+     */
+    @Bean
+    static LazyInitializationExcludeFilter backgroundBeansStayEager() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+                && (hasAnnotatedMethod(beanType, Scheduled.class) || hasAnnotatedMethod(beanType, PostConstruct.class));
+    }
+
+    private static boolean hasAnnotatedMethod(Class<?> type, Class<? extends Annotation> annotation) {
+        AtomicBoolean found = new AtomicBoolean();
+        ReflectionUtils.doWithMethods(type, method -> found.set(true),
+                method -> !found.get() && AnnotatedElementUtils.hasAnnotation(method, annotation));
+        return found.get();
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.hcmiuweb.config.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic counter. Resolve it once from {@link MetricsRegistry} and keep the
+ * reference, incrementing is then a single {@link LongAdder} update.
+ */
+public class Counter {
+    private final LongAdder value = new LongAdder();
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void increment(long amount) {
+        value.add(amount);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.hcmiuweb.config.metrics;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Instruments the application DataSource:
+ * <ul>
+ * <li>installs a Hikari metrics tracker before the pool starts, exposing
+ * connection acquire (wait) time, usage time, timeouts and pool occupancy;</li>
+ * <li>wraps the pool in a {@link QueryCountingDataSource} so every statement
+ * is counted and timed per request.</li>
+ * </ul>
+ */
+@Component
+public class DataSourceMetricsPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MetricsRegistry> metricsRegistry;
+
+    public DataSourceMetricsPostProcessor(ObjectProvider<MetricsRegistry> metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource dataSource && dataSource.getMetricsTrackerFactory() == null) {
+            dataSource.setMetricsTrackerFactory(new TrackerFactory(metricsRegistry));
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof QueryCountingDataSource)) {
+            Histogram statementLatency = metricsRegistry.getObject().histogram("db_statement_seconds",
+                    "JDBC statement execution time", Histogram.LATENCY_SECONDS);
+            return new QueryCountingDataSource(dataSource, statementLatency);
+        }
+        return bean;
+    }
+
+    private static final class TrackerFactory implements MetricsTrackerFactory {
+        private final ObjectProvider<MetricsRegistry> registryProvider;
+
+        TrackerFactory(ObjectProvider<MetricsRegistry> registryProvider) {
+            this.registryProvider = registryProvider;
+        }
+
+        @Override
+        public IMetricsTracker create(String poolName, PoolStats poolStats) {
+            MetricsRegistry registry = registryProvider.getObject();
+            registry.gauge("hikaricp_connections_active", "Connections in use", poolStats::getActiveConnections,
+                    "pool", poolName);
+            registry.gauge("hikaricp_connections_idle", "Idle connections", poolStats::getIdleConnections,
+                    "pool", poolName);
+            registry.gauge("hikaricp_connections_total", "Open connections", poolStats::getTotalConnections,
+                    "pool", poolName);
+            registry.gauge("hikaricp_connections_pending", "Threads waiting for a connection",
+                    poolStats::getPendingThreads, "pool", poolName);
+            registry.gauge("hikaricp_connections_max", "Maximum pool size", poolStats::getMaxConnections,
+                    "pool", poolName);
+
+            Histogram acquire = registry.histogram("hikaricp_connection_acquire_seconds",
+                    "Time spent waiting for a connection", Histogram.LATENCY_SECONDS, "pool", poolName);
+            Histogram usage = registry.histogram("hikaricp_connection_usage_seconds",
+                    "Time a connection is held before being returned", Histogram.LATENCY_SECONDS, "pool", poolName);
+            Counter timeouts = registry.counter("hikaricp_connection_timeouts_total",
+                    "Connection requests that timed out", "pool", poolName);
+
+            return new IMetricsTracker() {
+                @Override
+                public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                    acquire.observeNanos(elapsedAcquiredNanos);
+                }
+
+                @Override
+                public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                    usage.observe(elapsedBorrowedMillis / 1000.0);
+                }
+
+                @Override
+                public void recordConnectionTimeout() {
+                    timeouts.increment();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.hcmiuweb.config.metrics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes Hibernate session factory statistics. Requires
+ * {@code hibernate.generate_statistics=true}, otherwise the values stay at zero.
+ */
+@Component
+public class HibernateMetrics {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final MetricsRegistry metricsRegistry;
+
+    public HibernateMetrics(EntityManagerFactory entityManagerFactory, MetricsRegistry metricsRegistry) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @PostConstruct
+    public void register() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        metricsRegistry.gauge("hibernate_statements_prepared_total", "JDBC statements prepared",
+                stats::getPrepareStatementCount);
+        metricsRegistry.gauge("hibernate_queries_executed_total", "HQL/JPQL/native queries executed",
+                stats::getQueryExecutionCount);
+        metricsRegistry.gauge("hibernate_query_max_seconds", "Slowest query execution",
+                () -> stats.getQueryExecutionMaxTime() / 1000.0);
+        metricsRegistry.gauge("hibernate_entities_loaded_total", "Entities loaded", stats::getEntityLoadCount);
+        metricsRegistry.gauge("hibernate_entities_fetched_total", "Entities fetched lazily",
+                stats::getEntityFetchCount);
+        metricsRegistry.gauge("hibernate_entities_inserted_total", "Entities inserted", stats::getEntityInsertCount);
+        metricsRegistry.gauge("hibernate_entities_updated_total", "Entities updated", stats::getEntityUpdateCount);
+        metricsRegistry.gauge("hibernate_entities_deleted_total", "Entities deleted", stats::getEntityDeleteCount);
+        metricsRegistry.gauge("hibernate_collections_loaded_total", "Collections loaded",
+                stats::getCollectionLoadCount);
+        metricsRegistry.gauge("hibernate_collections_fetched_total", "Collections fetched lazily",
+                stats::getCollectionFetchCount);
+        metricsRegistry.gauge("hibernate_flushes_total", "Session flushes", stats::getFlushCount);
+        metricsRegistry.gauge("hibernate_sessions_opened_total", "Sessions opened", stats::getSessionOpenCount);
+        metricsRegistry.gauge("hibernate_transactions_total", "Transactions completed", stats::getTransactionCount);
+    }
+}
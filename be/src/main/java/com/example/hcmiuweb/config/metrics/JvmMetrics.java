@@ -0,0 +1,52 @@
+package com.example.hcmiuweb.config.metrics;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * JVM memory, GC, thread and allocation gauges read straight from the
+ * platform MXBeans at scrape time.
+ */
+@Component
+public class JvmMetrics {
+
+    private final MetricsRegistry metricsRegistry;
+
+    public JvmMetrics(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @PostConstruct
+    public void register() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        metricsRegistry.gauge("jvm_memory_used_bytes", "Used memory", () -> memory.getHeapMemoryUsage().getUsed(),
+                "area", "heap");
+        metricsRegistry.gauge("jvm_memory_used_bytes", "Used memory",
+                () -> memory.getNonHeapMemoryUsage().getUsed(), "area", "nonheap");
+        metricsRegistry.gauge("jvm_memory_max_bytes", "Max memory", () -> memory.getHeapMemoryUsage().getMax(),
+                "area", "heap");
+
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            metricsRegistry.gauge("jvm_gc_collections_total", "GC runs", gc::getCollectionCount,
+                    "gc", gc.getName());
+            metricsRegistry.gauge("jvm_gc_collection_seconds_total", "Time spent in GC",
+                    () -> gc.getCollectionTime() / 1000.0, "gc", gc.getName());
+        }
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        metricsRegistry.gauge("jvm_threads_live", "Live threads", threads::getThreadCount);
+        if (threads instanceof com.sun.management.ThreadMXBean sunThreads
+                && sunThreads.isThreadAllocatedMemorySupported()) {
+            metricsRegistry.gauge("jvm_allocated_bytes_total", "Bytes allocated by all live and dead threads",
+                    sunThreads::getTotalThreadAllocatedBytes);
+        }
+
+        metricsRegistry.gauge("process_uptime_seconds", "JVM uptime",
+                () -> ManagementFactory.getRuntimeMXBean().getUptime() / 1000.0);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.hcmiuweb.config.metrics;
+
+import org.apache.catalina.connector.Connector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Opens a second HTTP connector on {@code metrics.port} for the Prometheus
+ * scraper. SecurityConfig only serves {@code /metrics} there, and only to
+ * admins on the application port, so the port is meant to stay unpublished.
+ */
+@Configuration
+public class MetricsPortConfig {
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> metricsConnector(
+            @Value("${metrics.port:9464}") int port) {
+        return factory -> {
+            if (port > 0) {
+                Connector connector = new Connector(TomcatServletWebServerFactory.DEFAULT_PROTOCOL);
+                connector.setPort(port);
+                factory.addAdditionalTomcatConnectors(connector);
+            }
+        };
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.hcmiuweb.config.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+
+/**
+ * Minimal in-process metrics registry rendered in the Prometheus text format.
+ *
+ * Instruments are created on first lookup and cached, so callers on hot paths
+ * should look them up once and keep the reference.
+ */
+@Component
+public class MetricsRegistry {
+
+    private enum Type { counter, gauge, histogram }
+
+    private static final class Family {
+        final String name;
+        final String help;
+        final Type type;
+        final double[] buckets;
+        final Map<String, Object> series = new ConcurrentSkipListMap<>();
+
+        Family(String name, String help, Type type, double[] buckets) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+            this.buckets = buckets;
+        }
+    }
+
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+
+    public Counter counter(String name, String help, String... labels) {
+        Family family = family(name, help, Type.counter, null);
+        return (Counter) family.series.computeIfAbsent(renderLabels(labels), key -> new Counter());
+    }
+
+    public Histogram histogram(String name, String help, double[] buckets, String... labels) {
+        Family family = family(name, help, Type.histogram, buckets);
+        return (Histogram) family.series.computeIfAbsent(renderLabels(labels), key -> new Histogram(family.buckets));
+    }
+
+    public void gauge(String name, String help, Supplier<? extends Number> supplier, String... labels) {
+        Family family = family(name, help, Type.gauge, null);
+        family.series.put(renderLabels(labels), supplier);
+    }
+
+    private Family family(String name, String help, Type type, double[] buckets) {
+        Family family = families.computeIfAbsent(name, key -> new Family(name, help, type, buckets));
+        if (family.type != type) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as a " + family.type);
+        }
+        return family;
+    }
+
+    /**
+     * Render every registered series in the Prometheus text exposition format
+     * (version 0.0.4).
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(8192);
+        for (Family family : families.values()) {
+            out.append("# HELP ").append(family.name).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(family.name).append(' ').append(family.type).append('\n');
+            for (Map.Entry<String, Object> series : family.series.entrySet()) {
+                String labels = series.getKey();
+                Object instrument = series.getValue();
+                switch (family.type) {
+                    case counter -> sample(out, family.name, labels, ((Counter) instrument).get());
+                    case gauge -> {
+                        Number value = gaugeValue(instrument);
+                        if (value != null) {
+                            sample(out, family.name, labels, value);
+                        }
+                    }
+                    case histogram -> renderHistogram(out, family.name, labels, (Histogram) instrument);
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Number gaugeValue(Object instrument) {
+        try {
+            return ((Supplier<? extends Number>) instrument).get();
+        } catch (RuntimeException e) {
+            // A broken gauge must not break the whole scrape
+            return null;
+        }
+    }
+
+    private static void renderHistogram(StringBuilder out, String name, String labels, Histogram histogram) {
+        double[] bounds = histogram.bounds();
+        long[] cumulative = histogram.cumulativeCounts();
+        long count = histogram.count();
+        for (int i = 0; i < bounds.length; i++) {
+            sample(out, name + "_bucket", withLabel(labels, "le", Double.toString(bounds[i])), cumulative[i]);
+        }
+        sample(out, name + "_bucket", withLabel(labels, "le", "+Inf"), count);
+        sample(out, name + "_sum", labels, histogram.sum());
+        sample(out, name + "_count", labels, count);
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, Number value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ');
+        if (value instanceof Double || value instanceof Float) {
+            out.append(value.doubleValue());
+        } else {
+            out.append(value.longValue());
+        }
+        out.append('\n');
+    }
+
+    private static String withLabel(String labels, String key, String value) {
+        String extra = key + "=\"" + value + "\"";
+        return labels.isEmpty() ? extra : labels + "," + extra;
+    }
+
+    private static String renderLabels(String... labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be key/value pairs");
+        }
+        StringBuilder rendered = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                rendered.append(',');
+            }
+            rendered.append(labels[i]).append("=\"")
+                    .append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+                    .append('"');
+        }
+        return rendered.toString();
+    }
+}
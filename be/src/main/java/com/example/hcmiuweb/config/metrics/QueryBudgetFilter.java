@@ -0,0 +1,105 @@
+package com.example.hcmiuweb.config.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Counts JDBC statements and DB time for each HTTP request, logs requests
+ * that exceed the configured budget or repeat the same statement (N+1), and
+ * optionally reports the numbers in {@code X-Query-Count} and
+ * {@code Server-Timing} response headers.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetFilter.class);
+
+    @Value("${query-budget.max-statements:25}")
+    private int maxStatements;
+
+    @Value("${query-budget.repeat-threshold:5}")
+    private int repeatThreshold;
+
+    @Value("${query-budget.headers-enabled:false}")
+    private boolean headersEnabled;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryStats stats = QueryStats.begin();
+        HttpServletResponse target = response;
+        HeaderWriter headerWriter = null;
+        if (headersEnabled) {
+            headerWriter = new HeaderWriter(response, stats);
+            target = headerWriter;
+        }
+        try {
+            filterChain.doFilter(request, target);
+        } finally {
+            if (headerWriter != null && !response.isCommitted()) {
+                headerWriter.writeHeaders();
+            }
+            QueryStats.end();
+            report(request, stats);
+        }
+    }
+
+    private void report(HttpServletRequest request, QueryStats stats) {
+        if (stats.getStatementCount() > maxStatements) {
+            log.warn("{} {} issued {} statements ({} ms DB time), budget is {}",
+                    request.getMethod(), request.getRequestURI(), stats.getStatementCount(),
+                    String.format(Locale.ROOT, "%.1f", stats.getElapsedMillis()), maxStatements);
+        }
+        Map<String, Integer> repeated = stats.getRepeatedStatements(repeatThreshold);
+        if (!repeated.isEmpty()) {
+            repeated.forEach((sql, count) -> log.warn("Possible N+1 in {} {}: {} executions of [{}]",
+                    request.getMethod(), request.getRequestURI(), count, sql));
+        }
+    }
+
+    /**
+     * Adds the headers just before the response is committed, without
+     * buffering the body.
+     */
+    private static final class HeaderWriter extends OnCommittedResponseWrapper {
+        private final HttpServletResponse response;
+        private final QueryStats stats;
+        private boolean written;
+
+        HeaderWriter(HttpServletResponse response, QueryStats stats) {
+            super(response);
+            this.response = response;
+            this.stats = stats;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            writeHeaders();
+        }
+
+        void writeHeaders() {
+            if (written) {
+                return;
+            }
+            written = true;
+            response.setHeader("X-Query-Count", Integer.toString(stats.getStatementCount()));
+            response.addHeader("Server-Timing", String.format(Locale.ROOT, "db;dur=%.1f;desc=\"%d queries\"",
+                    stats.getElapsedMillis(), stats.getStatementCount()));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.hcmiuweb.config.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-thread JDBC statement counter.
+ *
+ * {@link QueryBudgetFilter} opens a scope for every HTTP request; tests can do
+ * the same around any block of code:
+ *
+ * <pre>
+ * QueryStats stats = QueryStats.begin();
+ * try {
+ *     videoService.findAllVideosWithRatings();
+ * } finally {
+ *     QueryStats.end();
+ * }
+ * assertThat(stats.getStatementCount()).isLessThanOrEqualTo(3);
+ * </pre>
+ */
+public final class QueryStats {
+
+    // Distinct statements tracked per scope, enough to spot the repeated one
+    private static final int MAX_TRACKED_SQL = 64;
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private int statementCount;
+    private long elapsedNanos;
+    private final Map<String, Integer> countsBySql = new LinkedHashMap<>();
+
+    private QueryStats() {
+    }
+
+    public static QueryStats begin() {
+        QueryStats stats = new QueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    static void record(String sql, long nanos) {
+        QueryStats stats = CURRENT.get();
+        if (stats == null) {
+            return;
+        }
+        stats.statementCount++;
+        stats.elapsedNanos += nanos;
+        if (sql != null && (stats.countsBySql.size() < MAX_TRACKED_SQL || stats.countsBySql.containsKey(sql))) {
+            stats.countsBySql.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getElapsedMillis() {
+        return elapsedNanos / 1_000_000.0;
+    }
+
+    /**
+     * Statements executed at least {@code threshold} times in this scope,
+     * the usual signature of an N+1 access pattern.
+     */
+    public Map<String, Integer> getRepeatedStatements(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        countsBySql.forEach((sql, count) -> {
+            if (count >= threshold) {
+                repeated.put(sql, count);
+            }
+        });
+        return repeated;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.hcmiuweb.config.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records per-controller-method latency into
+ * {@code http_server_requests_seconds{handler,status}}.
+ */
+@Component
+public class RequestMetricsInterceptor implements HandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = RequestMetricsInterceptor.class.getName() + ".start";
+
+    private final MetricsRegistry metricsRegistry;
+
+    // Histograms are cached per handler method and status so the hot path is two map hits
+    private final Map<Method, Map<Integer, Histogram>> histograms = new ConcurrentHashMap<>();
+
+    public RequestMetricsInterceptor(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (!(start instanceof Long) || !(handler instanceof HandlerMethod handlerMethod)) {
+            return;
+        }
+        long elapsed = System.nanoTime() - (Long) start;
+        int status = ex != null && response.getStatus() < 400 ? 500 : response.getStatus();
+
+        histograms.computeIfAbsent(handlerMethod.getMethod(), key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(status, key -> metricsRegistry.histogram(
+                        "http_server_requests_seconds",
+                        "Request latency per controller method",
+                        Histogram.LATENCY_SECONDS,
+                        "handler", handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName(),
+                        "status", Integer.toString(key)))
+                .observeNanos(elapsed);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.hcmiuweb.config.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Records how long the process took to become ready and to finish serving
+ * its first HTTP request, both measured from JVM start. Lazy initialization
+ * moves work from the first number into the second, so both are reported.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class StartupMetrics extends OncePerRequestFilter implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupMetrics.class);
+
+    private final AtomicBoolean firstRequestSeen = new AtomicBoolean();
+    private volatile double readySeconds = Double.NaN;
+    private volatile double firstRequestSeconds = Double.NaN;
+
+    public StartupMetrics(MetricsRegistry metricsRegistry) {
+        metricsRegistry.gauge("app_startup_ready_seconds", "Time from JVM start until the application was ready",
+                () -> readySeconds);
+        metricsRegistry.gauge("app_startup_first_request_seconds",
+                "Time from JVM start until the first HTTP request completed", () -> firstRequestSeconds);
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        readySeconds = sinceJvmStart();
+        log.info("Application ready {} s after JVM start", String.format("%.3f", readySeconds));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (!firstRequestSeen.get() && firstRequestSeen.compareAndSet(false, true)) {
+                firstRequestSeconds = sinceJvmStart();
+                log.info("First request ({} {}) completed {} s after JVM start", request.getMethod(),
+                        request.getRequestURI(), String.format("%.3f", firstRequestSeconds));
+            }
+        }
+    }
+
+    private static double sinceJvmStart() {
+        return ManagementFactory.getRuntimeMXBean().getUptime() / 1000.0;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.hcmiuweb.config.migration;
+
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Makes the JPA EntityManagerFactory wait for {@link SchemaMigrator}, so
+ * Hibernate validates the schema only after every migration has run.
+ */
+@Component
+public class MigrationDependsOnPostProcessor extends EntityManagerFactoryDependsOnPostProcessor {
+
+    public MigrationDependsOnPostProcessor() {
+        super(SchemaMigrator.class);
+    }
+}
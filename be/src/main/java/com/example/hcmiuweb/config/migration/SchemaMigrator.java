@@ -0,0 +1,248 @@
+package com.example.hcmiuweb.config.migration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Applies versioned SQL migrations from {@code classpath:db/migration} before
+ * JPA starts, recording each one in {@code schema_version}.
+ *
+ * Scripts are named {@code V<version>__<description>.sql} and are applied once,
+ * in version order. Applied scripts are checksummed; editing one after it has
+ * run fails startup instead of silently diverging. A database that already has
+ * the application tables but no history (created by the old ddl-auto=update)
+ * is baselined at {@code migration.baseline-version} rather than re-created.
+ */
+@Component
+public class SchemaMigrator implements InitializingBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrator.class);
+
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+    private static final String HISTORY_TABLE = "schema_version";
+    private static final String LOCK_NAME = "hcmiuweb_schema_migration";
+
+    private final DataSource dataSource;
+
+    @Value("${migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${migration.locations:classpath*:db/migration/V*__*.sql}")
+    private String locations;
+
+    @Value("${migration.baseline-version:1}")
+    private int baselineVersion;
+
+    // Any table that existed before migrations were introduced
+    @Value("${migration.baseline-marker-table:video}")
+    private String baselineMarkerTable;
+
+    public SchemaMigrator(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    record Migration(int version, String description, Resource resource, long checksum) {
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if (!enabled) {
+            logger.info("Schema migrations disabled");
+            return;
+        }
+        List<Migration> migrations = discover();
+        try (Connection connection = dataSource.getConnection()) {
+            boolean mysql = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+            if (mysql) {
+                acquireLock(connection);
+            }
+            try {
+                migrate(connection, migrations);
+            } finally {
+                if (mysql) {
+                    releaseLock(connection);
+                }
+            }
+        }
+    }
+
+    private void migrate(Connection connection, List<Migration> migrations) throws SQLException {
+        boolean historyExists = tableExists(connection, HISTORY_TABLE);
+        if (!historyExists) {
+            createHistoryTable(connection);
+            if (tableExists(connection, baselineMarkerTable)) {
+                logger.info("Existing schema without migration history, baselining at version {}", baselineVersion);
+                record(connection, baselineVersion, "<< baseline >>", "", 0L, 0);
+            }
+        }
+
+        Map<Integer, Long> applied = appliedChecksums(connection);
+        int current = applied.keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+
+        for (Migration migration : migrations) {
+            Long checksum = applied.get(migration.version());
+            if (checksum != null) {
+                // Baseline rows carry checksum 0 and are never validated
+                if (checksum != 0L && checksum != migration.checksum()) {
+                    throw new IllegalStateException("Migration V" + migration.version() + " ("
+                            + migration.resource().getFilename() + ") was modified after it was applied");
+                }
+                continue;
+            }
+            if (migration.version() < current) {
+                throw new IllegalStateException("Migration V" + migration.version()
+                        + " is older than the applied version " + current + "; use a new version number");
+            }
+            apply(connection, migration);
+            current = migration.version();
+        }
+        logger.info("Schema is at version {}", current);
+    }
+
+    private void apply(Connection connection, Migration migration) throws SQLException {
+        logger.info("Applying migration V{} - {}", migration.version(), migration.description());
+        long start = System.nanoTime();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            ScriptUtils.executeSqlScript(connection, new EncodedResource(migration.resource(), StandardCharsets.UTF_8));
+            int elapsedMs = (int) ((System.nanoTime() - start) / 1_000_000);
+            record(connection, migration.version(), migration.description(), migration.resource().getFilename(),
+                    migration.checksum(), elapsedMs);
+            connection.commit();
+            logger.info("Migration V{} applied in {} ms", migration.version(), elapsedMs);
+        } catch (RuntimeException | SQLException e) {
+            // MySQL DDL commits implicitly, so a failed script may be partially applied
+            connection.rollback();
+            throw new IllegalStateException("Migration V" + migration.version() + " failed: " + e.getMessage(), e);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private List<Migration> discover() throws IOException {
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources(locations);
+        Map<Integer, Migration> byVersion = new LinkedHashMap<>();
+        for (Resource resource : resources) {
+            Matcher matcher = SCRIPT_NAME.matcher(resource.getFilename() == null ? "" : resource.getFilename());
+            if (!matcher.matches()) {
+                continue;
+            }
+            int version = Integer.parseInt(matcher.group(1));
+            Migration migration = new Migration(version, matcher.group(2).replace('_', ' '), resource,
+                    checksum(resource));
+            Migration previous = byVersion.put(version, migration);
+            if (previous != null) {
+                throw new IllegalStateException("Duplicate migration version " + version + ": "
+                        + previous.resource().getFilename() + " and " + resource.getFilename());
+            }
+        }
+        List<Migration> migrations = new ArrayList<>(byVersion.values());
+        migrations.sort(Comparator.comparingInt(Migration::version));
+        return migrations;
+    }
+
+    private static long checksum(Resource resource) throws IOException {
+        try (InputStream in = resource.getInputStream()) {
+            // Normalise line endings so a checkout on Windows does not look like an edit
+            String text = StreamUtils.copyToString(in, StandardCharsets.UTF_8).replace("\r\n", "\n");
+            CRC32 crc = new CRC32();
+            crc.update(text.getBytes(StandardCharsets.UTF_8));
+            return crc.getValue();
+        }
+    }
+
+    private static boolean tableExists(Connection connection, String table) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        for (String candidate : new String[] {table, table.toUpperCase()}) {
+            try (ResultSet tables = metaData.getTables(connection.getCatalog(), null, candidate,
+                    new String[] {"TABLE"})) {
+                if (tables.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void createHistoryTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE " + HISTORY_TABLE + " (" +
+                    "version INT NOT NULL PRIMARY KEY, " +
+                    "description VARCHAR(200) NOT NULL, " +
+                    "script VARCHAR(255) NOT NULL, " +
+                    "checksum BIGINT NOT NULL, " +
+                    "installed_on TIMESTAMP NOT NULL, " +
+                    "execution_ms INT NOT NULL)");
+        }
+    }
+
+    private static void record(Connection connection, int version, String description, String script, long checksum,
+            int executionMs) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + HISTORY_TABLE +
+                " (version, description, script, checksum, installed_on, execution_ms) VALUES (?, ?, ?, ?, ?, ?)")) {
+            insert.setInt(1, version);
+            insert.setString(2, description);
+            insert.setString(3, script);
+            insert.setLong(4, checksum);
+            insert.setTimestamp(5, new Timestamp(System.currentTimeMillis()));
+            insert.setInt(6, executionMs);
+            insert.executeUpdate();
+        }
+    }
+
+    private static Map<Integer, Long> appliedChecksums(Connection connection) throws SQLException {
+        Map<Integer, Long> applied = new LinkedHashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT version, checksum FROM " + HISTORY_TABLE)) {
+            while (rows.next()) {
+                applied.put(rows.getInt(1), rows.getLong(2));
+            }
+        }
+        return applied;
+    }
+
+    // Keeps two instances starting at the same time from racing through the same scripts
+    private static void acquireLock(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT GET_LOCK('" + LOCK_NAME + "', 300)")) {
+            if (!result.next() || result.getInt(1) != 1) {
+                throw new IllegalStateException("Timed out waiting for the schema migration lock");
+            }
+        }
+    }
+
+    private static void releaseLock(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SELECT RELEASE_LOCK('" + LOCK_NAME + "')");
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.hcmiuweb.controllers;
+
+import com.example.hcmiuweb.services.StatsService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Admin dashboard numbers, served from an in-memory snapshot of the rollup
+ * tables; see {@link StatsService}.
+ */
+@RestController
+@RequestMapping("/api/admin/stats")
+public class AdminStatsController {
+    private final StatsService statsService;
+
+    public AdminStatsController(StatsService statsService) {
+        this.statsService = statsService;
+    }
+
+    @GetMapping
+    public ResponseEntity<?> getStats() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean isAdmin = authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
+
+        if (!isAdmin) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body("Only admins can view site statistics");
+        }
+
+        return ResponseEntity.ok(statsService.getSnapshot());
+    }
+}
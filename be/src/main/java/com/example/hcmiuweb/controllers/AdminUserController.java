@@ -0,0 +1,67 @@
+package com.example.hcmiuweb.controllers;
+
+import com.example.hcmiuweb.payload.response.UserPageResponse;
+import com.example.hcmiuweb.repositories.UserRepository;
+import com.example.hcmiuweb.services.UserService;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Admin user list: {@code GET /api/admin/users?role=&username=&email=&sort=newest|oldest&page=&size=}
+ * returns summaries one page at a time, and {@code GET /api/admin/users/count}
+ * with the same filters returns how many users match.
+ */
+@RestController
+@RequestMapping("/api/admin/users")
+public class AdminUserController {
+    private final UserService userService;
+
+    public AdminUserController(UserService userService) {
+        this.userService = userService;
+    }
+
+    @GetMapping
+    public ResponseEntity<?> listUsers(@RequestParam(required = false) String role,
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String email,
+            @RequestParam(defaultValue = "newest") String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        if (!isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only admins can list users");
+        }
+        if (!sort.equals("newest") && !sort.equals("oldest")) {
+            return ResponseEntity.badRequest().body("Sort must be newest or oldest");
+        }
+        if (page < 0 || size < 1) {
+            return ResponseEntity.badRequest().body("Page must be 0 or more and size at least 1");
+        }
+
+        Slice<UserRepository.UserSummary> users = userService.findUserSummaries(role, username, email,
+                sort.equals("newest"), page, size);
+        return ResponseEntity.ok(new UserPageResponse(users.getContent(), users.getNumber(), users.getSize(),
+                users.hasNext()));
+    }
+
+    @GetMapping("/count")
+    public ResponseEntity<?> countUsers(@RequestParam(required = false) String role,
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String email) {
+        if (!isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only admins can list users");
+        }
+        return ResponseEntity.ok(Map.of("count", userService.countUsers(role, username, email)));
+    }
+
+    private static boolean isAdmin() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
+    }
+}
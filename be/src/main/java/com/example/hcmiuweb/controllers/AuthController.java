@@ -1,5 +1,6 @@
 package com.example.hcmiuweb.controllers;
 
+import com.example.hcmiuweb.entities.AuthToken;
 import com.example.hcmiuweb.entities.Role;
 import com.example.hcmiuweb.entities.User;
 import com.example.hcmiuweb.payload.request.LoginRequest;
@@ -11,7 +12,11 @@ import com.example.hcmiuweb.payload.response.MessageResponse;
 import com.example.hcmiuweb.repositories.RoleRepository;
 import com.example.hcmiuweb.repositories.UserRepository;
 import com.example.hcmiuweb.config.jwt.JwtUtils;
+import com.example.hcmiuweb.exceptions.GlobalExceptionHandler;
+import com.example.hcmiuweb.exceptions.PasswordHashingBusyException;
+import com.example.hcmiuweb.services.AuthTokenService;
 import com.example.hcmiuweb.services.UserDetailsImpl;
+import com.example.hcmiuweb.services.UserService;
 import com.example.hcmiuweb.services.EmailService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,16 +34,17 @@ import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
     private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
+    private static final Duration RESET_TOKEN_TTL = Duration.ofMinutes(15);
 
     @Autowired
     AuthenticationManager authenticationManager;
@@ -58,6 +64,12 @@ public class AuthController {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private AuthTokenService authTokenService;
+
+    @Autowired
+    private UserService userService;
+
     @GetMapping(value = "/me", produces = "application/json")
     public ResponseEntity<?> getCurrentUser() {
         try {
@@ -126,6 +138,10 @@ public class AuthController {
             logger.error("Authentication failed for user: {}",
                     loginRequest != null ? loginRequest.getUsername() : "unknown");
             return ResponseEntity.badRequest().body(new MessageResponse("Error: Invalid username or password"));
+        } catch (PasswordHashingBusyException e) {
+            logger.warn("Sign-in shed for user {}: password hashing is saturated",
+                    loginRequest != null ? loginRequest.getUsername() : "unknown");
+            return GlobalExceptionHandler.passwordHashingBusy(e);
         } catch (Exception e) {
             logger.error("Unexpected error during authentication: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().body(
@@ -171,17 +187,67 @@ public class AuthController {
             }
 
             user.setRole(role);
-            user.setPassword(encoder.encode(user.getPassword()));
-            userRepository.save(user);
+            // Hashes the password and records the signup for the admin stats
+            userService.createUser(user);
 
             logger.info("User registered successfully: {}", signUpRequest.getUsername());
             return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
+        } catch (PasswordHashingBusyException e) {
+            return GlobalExceptionHandler.passwordHashingBusy(e);
         } catch (Exception e) {
             logger.error("Registration error: {}", e.getMessage());
             return ResponseEntity.badRequest().body(new MessageResponse("Error: " + e.getMessage()));
         }
     }
 
+    @PostMapping("/forgot-password")
+    public ResponseEntity<?> forgotPassword(@Valid @RequestBody PasswordResetRequest resetRequest) {
+        try {
+            userRepository.findByEmail(resetRequest.getEmail()).ifPresent(user -> {
+                String token = authTokenService.issue(user, AuthToken.Purpose.PASSWORD_RESET, RESET_TOKEN_TTL);
+                // Only queues the message; delivery happens in EmailQueueWorker
+                emailService.sendPasswordResetEmail(user.getEmail(), token, RESET_TOKEN_TTL);
+                logger.info("Password reset requested for user: {}", user.getUsername());
+            });
+
+            // Same answer whether or not the email exists, so accounts cannot be enumerated
+            return ResponseEntity.ok(new MessageResponse(
+                    "If an account exists for that email, a password reset token has been sent."));
+        } catch (Exception e) {
+            logger.error("Password reset request error: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/reset-password")
+    public ResponseEntity<?> resetPassword(@Valid @RequestBody NewPasswordRequest newPasswordRequest) {
+        try {
+            String token = newPasswordRequest.getToken();
+            User user = authTokenService.findUser(token, AuthToken.Purpose.PASSWORD_RESET).orElse(null);
+            if (user == null) {
+                return ResponseEntity.badRequest()
+                        .body(new MessageResponse("Error: Reset token is invalid or has expired"));
+            }
+
+            String encodedPassword = encoder.encode(newPasswordRequest.getNewPassword());
+            // Redeem only after hashing succeeded, so a shed request leaves the token usable
+            if (!authTokenService.consume(token, AuthToken.Purpose.PASSWORD_RESET)) {
+                return ResponseEntity.badRequest()
+                        .body(new MessageResponse("Error: Reset token is invalid or has expired"));
+            }
+            user.setPassword(encodedPassword);
+            userRepository.save(user);
+
+            logger.info("Password reset completed for user: {}", user.getUsername());
+            return ResponseEntity.ok(new MessageResponse("Password has been reset successfully!"));
+        } catch (PasswordHashingBusyException e) {
+            return GlobalExceptionHandler.passwordHashingBusy(e);
+        } catch (Exception e) {
+            logger.error("Password reset error: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: " + e.getMessage()));
+        }
+    }
+
     @PostMapping("/logout")
     public ResponseEntity<?> logoutUser(HttpServletResponse response) {
         try {
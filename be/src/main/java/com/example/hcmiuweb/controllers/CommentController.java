@@ -1,5 +1,7 @@
 package com.example.hcmiuweb.controllers;
 
+import com.example.hcmiuweb.exceptions.GlobalExceptionHandler;
+import com.example.hcmiuweb.exceptions.ResourceNotFoundException;
 import com.example.hcmiuweb.payload.request.CommentRequest;
 import com.example.hcmiuweb.payload.response.CommentResponse;
 import com.example.hcmiuweb.payload.response.MessageResponse;
@@ -44,8 +46,10 @@ public class CommentController {
             // Set the userId in the request to the authenticated user's ID
             commentRequest.setUserId(authenticatedUserId);
             
-            CommentResponse newComment = commentService.addComment(commentRequest, authenticatedUserId);
+            CommentResponse newComment = commentService.addComment(commentRequest, userDetails);
             return new ResponseEntity<>(newComment, HttpStatus.CREATED);
+        } catch (ResourceNotFoundException e) {
+            return GlobalExceptionHandler.resourceNotFound(e);
         } catch (Exception e) {
             return ResponseEntity
                 .status(HttpStatus.BAD_REQUEST)
@@ -1,5 +1,7 @@
 package com.example.hcmiuweb.controllers;
 
+import com.example.hcmiuweb.exceptions.GlobalExceptionHandler;
+import com.example.hcmiuweb.exceptions.ResourceNotFoundException;
 import com.example.hcmiuweb.payload.request.CommentRatingRequest;
 import com.example.hcmiuweb.payload.response.CommentRatingResponse;
 import com.example.hcmiuweb.payload.response.MessageResponse;
@@ -45,6 +47,8 @@ public class CommentRatingController {
             
             CommentRatingResponse ratingResponse = commentRatingService.rateComment(ratingRequest);
             return ResponseEntity.ok(ratingResponse);
+        } catch (ResourceNotFoundException e) {
+            return GlobalExceptionHandler.resourceNotFound(e);
         } catch (Exception e) {
             return ResponseEntity
                 .status(HttpStatus.BAD_REQUEST)
@@ -0,0 +1,111 @@
+package com.example.hcmiuweb.controllers;
+
+import com.example.hcmiuweb.services.ExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Admin data exports: {@code ratings}, {@code comments}, {@code video-views}
+ * and {@code uploader-views}, as CSV or NDJSON, optionally gzip-encoded.
+ *
+ * The body is written on the request thread straight from the database
+ * cursor, so there is no async timeout to outlive and nothing is buffered.
+ */
+@RestController
+@RequestMapping("/api/exports")
+public class ExportController {
+    private static final Logger logger = LoggerFactory.getLogger(ExportController.class);
+
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping("/{dataset}")
+    public void export(@PathVariable String dataset,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) Long videoId,
+            HttpServletResponse response) throws IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean isAdmin = authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
+
+        if (!isAdmin) {
+            writeMessage(response, HttpStatus.FORBIDDEN, "Only admins can export data");
+            return;
+        }
+
+        Optional<ExportService.Dataset> requested = ExportService.Dataset.fromPath(dataset);
+        if (requested.isEmpty()) {
+            writeMessage(response, HttpStatus.NOT_FOUND, "Unknown export: " + dataset);
+            return;
+        }
+        Optional<ExportService.Format> outputFormat = ExportService.Format.fromName(format);
+        if (outputFormat.isEmpty()) {
+            writeMessage(response, HttpStatus.BAD_REQUEST, "Format must be csv or ndjson");
+            return;
+        }
+        if (videoId != null && !requested.get().supportsVideoFilter()) {
+            writeMessage(response, HttpStatus.BAD_REQUEST, "The " + dataset + " export cannot be filtered by video");
+            return;
+        }
+        if (!exportService.tryAcquire()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "30");
+            writeMessage(response, HttpStatus.SERVICE_UNAVAILABLE, "Another export is running, please try again shortly");
+            return;
+        }
+
+        try {
+            String filename = requested.get().getPath() + (videoId != null ? "-video-" + videoId : "")
+                    + "-" + LocalDate.now() + "." + outputFormat.get().getExtension();
+            response.setContentType(outputFormat.get().getContentType());
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+            // Lets nginx pass rows through as they are flushed instead of spooling the file
+            response.setHeader("X-Accel-Buffering", "no");
+            if (gzip) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+
+            OutputStream out = response.getOutputStream();
+            // Sync flush makes every progressive flush reach the client compressed
+            GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, 8192, true) : null;
+            long rows = exportService.export(requested.get(), videoId, outputFormat.get(),
+                    compressed != null ? compressed : out);
+            if (compressed != null) {
+                compressed.finish();
+            }
+            logger.info("Exported {} {} rows as {}", rows, dataset, outputFormat.get());
+        } catch (Exception e) {
+            logger.error("Export of {} failed", dataset, e);
+            if (!response.isCommitted()) {
+                response.reset();
+                writeMessage(response, HttpStatus.INTERNAL_SERVER_ERROR, "Error exporting " + dataset);
+            }
+        } finally {
+            exportService.release();
+        }
+    }
+
+    private static void writeMessage(HttpServletResponse response, HttpStatus status, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setContentType("text/plain; charset=utf-8");
+        response.getOutputStream().write(message.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.hcmiuweb.controllers;
+
+import com.example.hcmiuweb.services.storage.LocalStorageBackend;
+import com.example.hcmiuweb.services.storage.UploadTypes;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Serves files kept by {@link LocalStorageBackend}. Names are content
+ * hashes, so responses are cacheable forever; a single byte range is
+ * supported so the player can seek in videos. The content type comes from
+ * the extension {@link UploadTypes} picked when the file was accepted.
+ */
+@RestController
+@CrossOrigin(origins = "*")
+@RequestMapping("/api/files")
+public class FileController {
+
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+
+    // Tomcat's sendfile request attributes (what its DefaultServlet uses). Below
+    // the threshold a plain write is cheaper than handing the file to the poller.
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final long SENDFILE_MIN_BYTES = 48 * 1024;
+
+    private final LocalStorageBackend localStorage;
+
+    public FileController(LocalStorageBackend localStorage) {
+        this.localStorage = localStorage;
+    }
+
+    @GetMapping("/{folder}/{shard1}/{shard2}/{name}")
+    public void getFile(@PathVariable String folder, @PathVariable String shard1, @PathVariable String shard2,
+            @PathVariable String name, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String key = folder + "/" + shard1 + "/" + shard2 + "/" + name;
+        // Files stored before extensions were checked may have any extension; only accepted types are served
+        Optional<String> contentType = name.lastIndexOf('.') < 0 ? Optional.empty()
+                : UploadTypes.contentTypeForExtension(name.substring(name.lastIndexOf('.') + 1));
+        if (!localStorage.isValidKey(key) || contentType.isEmpty()) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        long size;
+        try {
+            size = localStorage.size(key);
+        } catch (NoSuchFileException e) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        String etag = "\"" + name.substring(0, 64) + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // Served from the app's origin: never let a file run as a document or be sniffed into one
+        response.setHeader("Content-Security-Policy", "sandbox");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        long start = 0;
+        long end = size - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && size > 0) {
+            Matcher matcher = RANGE.matcher(range);
+            if (matcher.matches() && !(matcher.group(1).isEmpty() && matcher.group(2).isEmpty())) {
+                if (matcher.group(1).isEmpty()) {
+                    // Suffix range: the last N bytes
+                    start = Math.max(0, size - position(matcher.group(2)));
+                } else {
+                    start = position(matcher.group(1));
+                    if (!matcher.group(2).isEmpty()) {
+                        end = Math.min(end, position(matcher.group(2)));
+                    }
+                }
+                if (start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    return;
+                }
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+            // Multiple or malformed ranges: ignore the header and send the whole file
+        }
+
+        long length = size == 0 ? 0 : end - start + 1;
+        response.setContentType(contentType.get());
+        response.setContentLengthLong(length);
+        if (length > 0) {
+            // Tomcat sends the range with sendfile(2) after we return: page cache to socket, no copy
+            // through the heap. Never for HEAD, where Tomcat would still send the body.
+            if (length >= SENDFILE_MIN_BYTES && "GET".equals(request.getMethod())
+                    && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                request.setAttribute(SENDFILE_FILENAME, localStorage.file(key).toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, start + length);
+                return;
+            }
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            localStorage.transferTo(key, start, length, out);
+        }
+    }
+
+    /**
+     * A range position; one too long for a {@code long} is past the end of
+     * any file, so it saturates rather than failing the request.
+     */
+    private static long position(String digits) {
+        try {
+            return Long.parseLong(digits);
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package com.example.hcmiuweb.controllers;
 
+import com.example.hcmiuweb.config.metrics.MetricsRegistry;
+import com.example.hcmiuweb.entities.StoredAsset;
 import com.example.hcmiuweb.entities.User;
 import com.example.hcmiuweb.payload.response.MessageResponse;
-import com.example.hcmiuweb.services.CloudinaryService;
+import com.example.hcmiuweb.services.AssetService;
+import com.example.hcmiuweb.services.AssetStore;
 import com.example.hcmiuweb.services.UserDetailsImpl;
 import com.example.hcmiuweb.services.UserService;
+import com.example.hcmiuweb.services.images.ImageVariants;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,13 +32,31 @@ public class FileUploadController {
 
     private static final Logger logger = LoggerFactory.getLogger(FileUploadController.class);
 
-    private final CloudinaryService cloudinaryService;
+    private final AssetStore assetStore;
+    private final AssetService assetService;
     private final UserService userService;
+    private final MetricsRegistry metricsRegistry;
 
     @Autowired
-    public FileUploadController(CloudinaryService cloudinaryService, UserService userService) {
-        this.cloudinaryService = cloudinaryService;
+    public FileUploadController(AssetStore assetStore, AssetService assetService, UserService userService,
+            MetricsRegistry metricsRegistry) {
+        this.assetStore = assetStore;
+        this.assetService = assetService;
         this.userService = userService;
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    private void recordUpload(String type, MultipartFile file) {
+        metricsRegistry.counter("app_uploads_total", "Files uploaded", "type", type).increment();
+        metricsRegistry.counter("app_upload_bytes_total", "Bytes uploaded", "type", type).increment(file.getSize());
+    }
+
+    // Copies the uploaded avatar's variants onto the row so comments and profiles can show them without a lookup
+    private void setAvatar(User user, String avatarUrl) {
+        Optional<StoredAsset> asset = assetService.findByUrl(avatarUrl);
+        user.setAvatar(avatarUrl);
+        user.setAvatarVariants(asset.map(StoredAsset::getVariants).orElse(null));
+        user.setAvatarPlaceholder(asset.map(StoredAsset::getPlaceholder).orElse(null));
     }
 
     @PostMapping("/avatar")
@@ -63,24 +85,31 @@ public class FileUploadController {
                         "No user ID provided and no authenticated user found. Please provide a user ID or authenticate."));
             }
 
-            // Upload image to Cloudinary
-            Map uploadResult = cloudinaryService.uploadImage(file, "avatars");
-            String avatarUrl = (String) uploadResult.get("secure_url");
+            // Upload image to Cloudinary, or reuse the asset if this content was uploaded before
+            AssetStore.StoredFile stored = assetStore.store(file, "avatars");
+            String avatarUrl = stored.url();
+            recordUpload("avatar", file);
 
             // Update user with new avatar URL
             Optional<User> userOptional = userService.findUserById(targetUserId);
             if (userOptional.isPresent()) {
                 User user = userOptional.get();
-                user.setAvatar(avatarUrl);
+                String previousAvatar = user.getAvatar();
+                setAvatar(user, avatarUrl);
                 userService.updateUser(user);
+                assetService.release(previousAvatar);
 
                 // Return response with the avatar URL
                 Map<String, Object> response = new HashMap<>();
                 response.put("avatarUrl", avatarUrl);
+                response.put("avatarVariants", ImageVariants.parse(user.getAvatarVariants()));
+                response.put("avatarPlaceholder", user.getAvatarPlaceholder());
                 response.put("message", "Avatar uploaded successfully");
                 response.put("userId", targetUserId);
+                response.put("reused", stored.reused());
                 return ResponseEntity.ok(response);
             } else {
+                assetService.release(avatarUrl);
                 return ResponseEntity.badRequest().body(new MessageResponse("User not found with ID: " + targetUserId));
             }
         } catch (IOException e) {
@@ -115,24 +144,31 @@ public class FileUploadController {
                 // explicit userId
             }
 
-            // Upload image to Cloudinary
-            Map uploadResult = cloudinaryService.uploadImage(file, "avatars");
-            String avatarUrl = (String) uploadResult.get("secure_url");
+            // Upload image to Cloudinary, or reuse the asset if this content was uploaded before
+            AssetStore.StoredFile stored = assetStore.store(file, "avatars");
+            String avatarUrl = stored.url();
+            recordUpload("avatar", file);
 
             // Update user with new avatar URL
             Optional<User> userOptional = userService.findUserById(userId);
             if (userOptional.isPresent()) {
                 User user = userOptional.get();
-                user.setAvatar(avatarUrl);
+                String previousAvatar = user.getAvatar();
+                setAvatar(user, avatarUrl);
                 userService.updateUser(user);
+                assetService.release(previousAvatar);
 
                 // Return response with the avatar URL
                 Map<String, Object> response = new HashMap<>();
                 response.put("avatarUrl", avatarUrl);
+                response.put("avatarVariants", ImageVariants.parse(user.getAvatarVariants()));
+                response.put("avatarPlaceholder", user.getAvatarPlaceholder());
                 response.put("userId", userId);
                 response.put("message", "Avatar uploaded successfully");
+                response.put("reused", stored.reused());
                 return ResponseEntity.ok(response);
             } else {
+                assetService.release(avatarUrl);
                 return ResponseEntity.badRequest().body(new MessageResponse("User not found with ID: " + userId));
             }
         } catch (IOException e) {
@@ -166,11 +202,17 @@ public class FileUploadController {
             Optional<User> userOptional = userService.findUserById(userId);
             if (userOptional.isPresent()) {
                 User user = userOptional.get();
-                user.setAvatar(avatarUrl);
+                String previousAvatar = user.getAvatar();
+                setAvatar(user, avatarUrl);
                 userService.updateUser(user);
+                // Counts a reference if the URL is one of our uploads
+                assetService.retain(avatarUrl);
+                assetService.release(previousAvatar);
 
                 Map<String, Object> response = new HashMap<>();
                 response.put("avatarUrl", avatarUrl);
+                response.put("avatarVariants", ImageVariants.parse(user.getAvatarVariants()));
+                response.put("avatarPlaceholder", user.getAvatarPlaceholder());
                 response.put("userId", userId);
                 response.put("message", "Avatar updated successfully");
                 return ResponseEntity.ok(response);
@@ -207,13 +249,15 @@ public class FileUploadController {
             logger.info("Uploading video to Cloudinary: {} (size: {} bytes)", file.getOriginalFilename(),
                     file.getSize());
 
-            // Upload video to Cloudinary
-            Map uploadResult = cloudinaryService.uploadImage(file, "videos");
-            String videoUrl = (String) uploadResult.get("secure_url");
+            // Upload video to Cloudinary, or reuse the asset if this content was uploaded before
+            AssetStore.StoredFile stored = assetStore.store(file, "videos");
+            String videoUrl = stored.url();
+            recordUpload("video", file);
 
             Map<String, Object> response = new HashMap<>();
             response.put("url", videoUrl);
-            response.put("publicId", uploadResult.get("public_id"));
+            response.put("publicId", stored.publicId());
+            response.put("reused", stored.reused());
             response.put("message", "Video uploaded successfully");
 
             logger.info("Video uploaded successfully: {}", videoUrl);
@@ -247,13 +291,17 @@ public class FileUploadController {
 
             logger.info("Uploading thumbnail to Cloudinary: {}", file.getOriginalFilename());
 
-            // Upload thumbnail to Cloudinary
-            Map uploadResult = cloudinaryService.uploadImage(file, "thumbnails");
-            String thumbnailUrl = (String) uploadResult.get("secure_url");
+            // Upload thumbnail to Cloudinary, or reuse the asset if this content was uploaded before
+            AssetStore.StoredFile stored = assetStore.store(file, "thumbnails");
+            String thumbnailUrl = stored.url();
+            recordUpload("thumbnail", file);
 
             Map<String, Object> response = new HashMap<>();
             response.put("url", thumbnailUrl);
-            response.put("publicId", uploadResult.get("public_id"));
+            response.put("variants", ImageVariants.parse(stored.variants()));
+            response.put("placeholder", stored.placeholder());
+            response.put("publicId", stored.publicId());
+            response.put("reused", stored.reused());
             response.put("message", "Thumbnail uploaded successfully");
 
             logger.info("Thumbnail uploaded successfully: {}", thumbnailUrl);
@@ -0,0 +1,31 @@
+package com.example.hcmiuweb.controllers;
+
+import com.example.hcmiuweb.payload.response.HomeResponse;
+import com.example.hcmiuweb.services.HomeService;
+import com.example.hcmiuweb.services.UserDetailsImpl;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * {@code GET /api/home}: every home page section in one call. Anonymous
+ * callers get everything but the watch list.
+ */
+@RestController
+@RequestMapping("/api/home")
+public class HomeController {
+    private final HomeService homeService;
+
+    public HomeController(HomeService homeService) {
+        this.homeService = homeService;
+    }
+
+    @GetMapping
+    public HomeResponse getHome() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Long userId = authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl user
+                ? user.getId()
+                : null;
+        return homeService.getHome(userId);
+    }
+}
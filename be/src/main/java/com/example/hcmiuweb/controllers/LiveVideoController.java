@@ -0,0 +1,124 @@
+package com.example.hcmiuweb.controllers;
+
+import com.example.hcmiuweb.components.live.PresenceTracker;
+import com.example.hcmiuweb.components.live.VideoUpdateHub;
+import com.example.hcmiuweb.payload.response.LiveCountResponse;
+import com.example.hcmiuweb.services.UserDetailsImpl;
+import com.example.hcmiuweb.services.VideoService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/videos")
+public class LiveVideoController {
+
+    private static final int MAX_VIEWER_ID_LENGTH = 64;
+
+    private final VideoUpdateHub videoUpdateHub;
+    private final PresenceTracker presenceTracker;
+    private final VideoService videoService;
+
+    public LiveVideoController(VideoUpdateHub videoUpdateHub, PresenceTracker presenceTracker,
+            VideoService videoService) {
+        this.videoUpdateHub = videoUpdateHub;
+        this.presenceTracker = presenceTracker;
+        this.videoService = videoService;
+    }
+
+    /**
+     * Server-Sent Events stream of comment and vote changes on a video. Each
+     * {@code update} event carries the added comments, deleted comment ids and
+     * latest vote counts since the previous event. Like the heartbeat, the
+     * first subscription to a video is checked against the video detail
+     * cache, and each user or client address holds a limited number of
+     * streams.
+     */
+    @GetMapping(path = "/{id}/updates", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe(@PathVariable Long id, HttpServletRequest request) {
+        if (!videoUpdateHub.hasSubscribers(id) && videoService.findVideoByIdWithRating(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Long userId = currentUserId();
+        String clientKey = userId != null ? "u:" + userId : "a:" + clientAddress(request);
+        SseEmitter emitter = videoUpdateHub.subscribe(id, clientKey);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "10")
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
+    }
+
+    /**
+     * Player heartbeat, sent every few seconds while a video is playing.
+     * Signed-in viewers are identified by user id; anonymous players should
+     * send a random per-tab id in {@code X-Viewer-Id}, otherwise the client
+     * address and user agent are used. The first heartbeat for a video is
+     * checked against the video detail cache, which the player's page load
+     * has usually filled, so made-up ids cannot take tracker slots.
+     */
+    @PostMapping("/{id}/heartbeat")
+    public ResponseEntity<Void> heartbeat(@PathVariable Long id,
+            @RequestHeader(value = "X-Viewer-Id", required = false) String viewerId,
+            HttpServletRequest request) {
+        if (!presenceTracker.isTracked(id) && videoService.findVideoByIdWithRating(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!presenceTracker.heartbeat(id, viewerKey(viewerId, request))) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/{id}/live")
+    public LiveCountResponse getLiveCount(@PathVariable Long id) {
+        return new LiveCountResponse(id, presenceTracker.countWatching(id));
+    }
+
+    @GetMapping("/live/top")
+    public List<LiveCountResponse> getTopLive(@RequestParam(defaultValue = "10") int limit) {
+        return presenceTracker.topLive(Math.max(1, Math.min(limit, 50)));
+    }
+
+    private static String viewerKey(String viewerId, HttpServletRequest request) {
+        Long userId = currentUserId();
+        if (userId != null) {
+            return "u:" + userId;
+        }
+        if (viewerId != null && !viewerId.isBlank() && viewerId.length() <= MAX_VIEWER_ID_LENGTH) {
+            return "v:" + viewerId;
+        }
+        return "a:" + clientAddress(request) + "|" + request.getHeader(HttpHeaders.USER_AGENT);
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl userDetails) {
+            return userDetails.getId();
+        }
+        return null;
+    }
+
+    // nginx passes the client address in X-Real-IP; getRemoteAddr() would be the proxy
+    private static String clientAddress(HttpServletRequest request) {
+        String address = request.getHeader("X-Real-IP");
+        return address != null ? address : request.getRemoteAddr();
+    }
+}
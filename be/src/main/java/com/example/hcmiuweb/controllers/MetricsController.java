@@ -0,0 +1,28 @@
+package com.example.hcmiuweb.controllers;
+
+import com.example.hcmiuweb.config.metrics.MetricsRegistry;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Prometheus scrape endpoint. Served outside {@code /api} so the public nginx
+ * proxy does not expose it; open to the scraper on {@code metrics.port} and
+ * to admins only on the application port.
+ */
+@RestController
+public class MetricsController {
+
+    private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final MetricsRegistry metricsRegistry;
+
+    public MetricsController(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @GetMapping(value = "/metrics", produces = PROMETHEUS_CONTENT_TYPE)
+    public ResponseEntity<String> scrape() {
+        return ResponseEntity.ok(metricsRegistry.scrape());
+    }
+}
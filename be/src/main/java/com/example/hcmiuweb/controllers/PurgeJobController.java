@@ -0,0 +1,38 @@
+package com.example.hcmiuweb.controllers;
+
+import com.example.hcmiuweb.payload.response.PurgeJobResponse;
+import com.example.hcmiuweb.services.PurgeService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Progress of the background purges started by deleting a video or user.
+ */
+@RestController
+@RequestMapping("/api/purge-jobs")
+public class PurgeJobController {
+    private final PurgeService purgeService;
+
+    public PurgeJobController(PurgeService purgeService) {
+        this.purgeService = purgeService;
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getJob(@PathVariable Long id) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean isAdmin = authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
+
+        if (!isAdmin) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body("Only admins can view purge jobs");
+        }
+
+        return purgeService.findJob(id)
+                .<ResponseEntity<?>>map(job -> ResponseEntity.ok(new PurgeJobResponse(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
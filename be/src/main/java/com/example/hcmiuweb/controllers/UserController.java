@@ -1,9 +1,16 @@
 package com.example.hcmiuweb.controllers;
 
+import com.example.hcmiuweb.entities.PurgeJob;
 import com.example.hcmiuweb.entities.Role;
 import com.example.hcmiuweb.entities.User;
+import com.example.hcmiuweb.exceptions.GlobalExceptionHandler;
+import com.example.hcmiuweb.exceptions.PasswordHashingBusyException;
+import com.example.hcmiuweb.payload.response.MessageResponse;
+import com.example.hcmiuweb.payload.response.PurgeJobResponse;
 import com.example.hcmiuweb.services.RoleService;
+import com.example.hcmiuweb.services.UserDetailsImpl;
 import com.example.hcmiuweb.services.UserService;
+import com.example.hcmiuweb.services.WatchProgressService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -19,10 +26,15 @@ import java.util.Map;
 public class UserController {
     private final UserService userService;
     private final RoleService roleService;
+    private final WatchProgressService watchProgressService;
 
-    public UserController(UserService userService, RoleService roleService) {
+    private static final int MAX_CONTINUE_WATCHING = 50;
+
+    public UserController(UserService userService, RoleService roleService,
+            WatchProgressService watchProgressService) {
         this.userService = userService;
         this.roleService = roleService;
+        this.watchProgressService = watchProgressService;
     }
 
     @GetMapping("/email/{email}")
@@ -45,6 +57,27 @@ public class UserController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Videos the user started and didn't finish, most recent first, with the
+     * position to resume from.
+     */
+    @GetMapping("/{id}/continue-watching")
+    public ResponseEntity<?> getContinueWatching(@PathVariable Long id,
+            @RequestParam(defaultValue = "20") int limit) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean isAdmin = authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
+        boolean isSelf = authentication.getPrincipal() instanceof UserDetailsImpl userDetails
+                && userDetails.getId().equals(id);
+        if (!isSelf && !isAdmin) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body("You can only see your own watch progress");
+        }
+        if (limit < 1 || limit > MAX_CONTINUE_WATCHING) {
+            return ResponseEntity.badRequest().body("limit must be between 1 and " + MAX_CONTINUE_WATCHING);
+        }
+        return ResponseEntity.ok(watchProgressService.findContinueWatching(id, limit));
+    }
+
     @PutMapping("/{id}/role")
     public ResponseEntity<?> updateUserRole(@PathVariable Long id, @RequestBody Map<String, String> request) {
         // Check if the current user is an admin
@@ -89,8 +122,9 @@ public class UserController {
                         return ResponseEntity.status(HttpStatus.FORBIDDEN)
                                 .body("The original admin account cannot be deleted");
                     }
-                    userService.deleteUser(id);
-                    return ResponseEntity.ok().body("User deleted successfully");
+                    // Sign-in stops now; the user's content is purged in the background
+                    PurgeJob job = userService.deleteUser(id);
+                    return ResponseEntity.accepted().body(new PurgeJobResponse(job));
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -138,6 +172,11 @@ public class UserController {
         }
     }
 
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<MessageResponse> handlePasswordHashingBusy(PasswordHashingBusyException e) {
+        return GlobalExceptionHandler.passwordHashingBusy(e);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<String> handleException(Exception e) {
         e.printStackTrace();
@@ -2,12 +2,19 @@ package com.example.hcmiuweb.controllers;
 
 import com.example.hcmiuweb.dtos.VideoDTO;
 import com.example.hcmiuweb.entities.Category;
-import com.example.hcmiuweb.entities.User;
+import com.example.hcmiuweb.entities.PurgeJob;
 import com.example.hcmiuweb.entities.Video;
+import com.example.hcmiuweb.exceptions.GlobalExceptionHandler;
+import com.example.hcmiuweb.exceptions.ResourceNotFoundException;
+import com.example.hcmiuweb.payload.request.VideoBatchRequest;
+import com.example.hcmiuweb.payload.request.WatchProgressRequest;
+import com.example.hcmiuweb.payload.response.PurgeJobResponse;
 import com.example.hcmiuweb.services.CategoryService;
 import com.example.hcmiuweb.services.UserService;
 import com.example.hcmiuweb.services.VideoService;
 import com.example.hcmiuweb.services.UserDetailsImpl;
+import com.example.hcmiuweb.services.WatchProgressService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -24,14 +31,20 @@ import java.util.Optional;
 @RequestMapping("/api/videos")
 public class VideoController {
 
+    // Enough for a watchlist or a few recommendation rails in one call
+    private static final int MAX_BATCH_SIZE = 500;
+
     private final VideoService videoService;
     private final CategoryService categoryService;
     private final UserService userService;
+    private final WatchProgressService watchProgressService;
 
-    public VideoController(VideoService videoService, CategoryService categoryService, UserService userService) {
+    public VideoController(VideoService videoService, CategoryService categoryService, UserService userService,
+            WatchProgressService watchProgressService) {
         this.videoService = videoService;
         this.categoryService = categoryService;
         this.userService = userService;
+        this.watchProgressService = watchProgressService;
     }
 
     @GetMapping
@@ -56,6 +69,25 @@ public class VideoController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Cards for many videos in one round trip, in the order requested. Unlike
+     * GET /{id} this does not count views.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> getVideosByIds(@RequestBody VideoBatchRequest request) {
+        List<Long> ids = request.getIds();
+        if (ids == null || ids.isEmpty()) {
+            return ResponseEntity.badRequest().body("ids must not be empty");
+        }
+        if (ids.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().body("At most " + MAX_BATCH_SIZE + " ids per request");
+        }
+        if (ids.contains(null)) {
+            return ResponseEntity.badRequest().body("ids must not contain null");
+        }
+        return ResponseEntity.ok(videoService.findVideoCards(ids));
+    }
+
     @GetMapping("/uploader/{uploaderId}")
     public List<VideoDTO> getVideosByUploader(@PathVariable Long uploaderId) {
         return videoService.findVideosByUploaderWithRatings(uploaderId);
@@ -106,35 +138,18 @@ public class VideoController {
                 // Admins and moderators can proceed to create videos for other users
             }
 
-            // Get the user for whom we're creating the video
-            User uploader = userService.findUserById(requestedUserId)
-                    .orElse(null);
-
-            if (uploader == null) {
-                return ResponseEntity.badRequest()
-                        .body("User with ID " + requestedUserId + " does not exist");
-            }
-
             // Extract categoryId from the request
             Long categoryId = null;
             if (videoRequest.get("categoryId") != null) {
                 categoryId = Long.valueOf(videoRequest.get("categoryId").toString());
             }
 
-            // Verify category exists
+            // Verify category is given; existence is checked by the insert itself
             if (categoryId == null) {
                 return ResponseEntity.badRequest()
                         .body("Category must be specified");
             }
 
-            Category category = categoryService.findCategoryById(categoryId)
-                    .orElse(null);
-
-            if (category == null) {
-                return ResponseEntity.badRequest()
-                        .body("Category with ID " + categoryId + " does not exist");
-            }
-
             // Create video object from request
             Video video = new Video();
             video.setTitle((String) videoRequest.get("title"));
@@ -142,17 +157,16 @@ public class VideoController {
             video.setUrl((String) videoRequest.get("url"));
             video.setThumbnailUrl((String) videoRequest.get("thumbnailUrl"));
             video.setUploadDate(LocalDateTime.now());
-            video.setUploader(uploader);
-            video.setCategory(category);
-
-            // Save video
-            Video savedVideo = videoService.createVideo(video);
 
-            // Return the DTO with rating info
-            VideoDTO videoDTO = videoService.findVideoByIdWithRating(savedVideo.getId())
-                    .orElseThrow(() -> new RuntimeException("Could not retrieve saved video"));
+            // Save video and return the DTO built from the request
+            VideoDTO videoDTO = videoService.createVideo(video, requestedUserId, categoryId);
+            if (requestedUserId.equals(authenticatedUserId)) {
+                videoDTO.setUploaderUsername(userDetails.getUsername());
+            }
 
             return ResponseEntity.ok(videoDTO);
+        } catch (ResourceNotFoundException e) {
+            return GlobalExceptionHandler.resourceNotFound(e);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error processing video request: " + e.getMessage());
@@ -267,9 +281,9 @@ public class VideoController {
                 // Admins can proceed to delete videos for other users
             }
 
-            // Delete the video
-            videoService.deleteVideo(id);
-            return ResponseEntity.ok().build();
+            // Hide the video now; its comments and ratings are purged in the background
+            PurgeJob job = videoService.deleteVideo(id);
+            return ResponseEntity.accepted().body(new PurgeJobResponse(job));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error deleting video: " + e.getMessage());
@@ -287,6 +301,34 @@ public class VideoController {
         }
     }
 
+    /**
+     * Playback position heartbeat from the player. Buffered in memory and
+     * written in batches, so it can be sent every few seconds. The video is
+     * checked through the detail cache, so unknown ids are never buffered.
+     */
+    @PostMapping("/{id}/progress")
+    public ResponseEntity<?> recordProgress(@PathVariable Long id, @RequestBody WatchProgressRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserDetailsImpl userDetails)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Sign in to save watch progress");
+        }
+        Integer position = request.getPositionSeconds();
+        Integer duration = request.getDurationSeconds();
+        if (position == null || position < 0 || (duration != null && duration <= 0)) {
+            return ResponseEntity.badRequest()
+                    .body("positionSeconds must be 0 or more and durationSeconds, if given, more than 0");
+        }
+        if (videoService.findVideoByIdWithRating(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!watchProgressService.recordHeartbeat(userDetails.getId(), id, position, duration)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "10")
+                    .body("Too many unsaved positions, try again shortly");
+        }
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/{id}/analytics")
     public ResponseEntity<?> getVideoAnalytics(@PathVariable Long id) {
         try {
@@ -2,6 +2,7 @@ package com.example.hcmiuweb.dtos;
 
 import com.example.hcmiuweb.entities.Video;
 import java.time.LocalDateTime;
+import java.util.Map;
 
 public class VideoDTO {
     private Long id;
@@ -11,6 +12,9 @@ public class VideoDTO {
     private Integer duration;
     private String url;
     private String thumbnailUrl;
+    // Resized thumbnails by width in pixels; empty when there are none
+    private Map<Integer, String> thumbnailVariants = Map.of();
+    private String thumbnailPlaceholder;
     private Long uploaderId;
     private String uploaderUsername;
     private Long categoryId;    private String categoryName;
@@ -21,6 +25,26 @@ public class VideoDTO {
     // Default constructor
     public VideoDTO() {}
 
+    // Copy, so a cached DTO can be handed out with its own view count
+    public VideoDTO(VideoDTO other) {
+        this.id = other.id;
+        this.title = other.title;
+        this.description = other.description;
+        this.uploadDate = other.uploadDate;
+        this.duration = other.duration;
+        this.url = other.url;
+        this.thumbnailUrl = other.thumbnailUrl;
+        this.thumbnailVariants = other.thumbnailVariants;
+        this.thumbnailPlaceholder = other.thumbnailPlaceholder;
+        this.uploaderId = other.uploaderId;
+        this.uploaderUsername = other.uploaderUsername;
+        this.categoryId = other.categoryId;
+        this.categoryName = other.categoryName;
+        this.averageRating = other.averageRating;
+        this.ratingCount = other.ratingCount;
+        this.viewCount = other.viewCount;
+    }
+
     // Getters and setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -58,6 +82,12 @@ public class VideoDTO {
 
     public String getThumbnailUrl() { return thumbnailUrl; }
     public void setThumbnailUrl(String thumbnailUrl) { this.thumbnailUrl = thumbnailUrl; }
+
+    public Map<Integer, String> getThumbnailVariants() { return thumbnailVariants; }
+    public void setThumbnailVariants(Map<Integer, String> thumbnailVariants) { this.thumbnailVariants = thumbnailVariants; }
+
+    public String getThumbnailPlaceholder() { return thumbnailPlaceholder; }
+    public void setThumbnailPlaceholder(String thumbnailPlaceholder) { this.thumbnailPlaceholder = thumbnailPlaceholder; }
     
     public Long getViewCount() { return viewCount; }
     public void setViewCount(Long viewCount) { this.viewCount = viewCount; }
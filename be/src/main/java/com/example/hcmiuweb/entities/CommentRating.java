@@ -2,10 +2,11 @@ package com.example.hcmiuweb.entities;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
 
 @Entity
 @Table(name = "CommentRating")
-public class CommentRating {
+public class CommentRating implements Persistable<CommentRatingId> {
     @EmbeddedId
     private CommentRatingId id;
 
@@ -24,6 +25,10 @@ public class CommentRating {
     @Column(nullable = false)
     private int rating; // +1 for like, -1 for dislike
 
+    // The id is assigned up front, so without this save() would merge and SELECT before inserting
+    @Transient
+    private boolean isNew = true;
+
     // Constructors
     public CommentRating() {}
 
@@ -34,7 +39,19 @@ public class CommentRating {
         this.id = new CommentRatingId(user.getId(), comment.getId());
     }
 
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
     // Getters & Setters
+    @Override
     public CommentRatingId getId() {
         return id;
     }
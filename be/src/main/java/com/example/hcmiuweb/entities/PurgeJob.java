@@ -0,0 +1,186 @@
+package com.example.hcmiuweb.entities;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Entity
+@Table(name = "PurgeJob", indexes = {
+        @Index(name = "idx_purge_job_status_id", columnList = "status, job_id")
+})
+public class PurgeJob {
+    public enum Status { PENDING, DONE, FAILED }
+
+    /**
+     * Batches of dependent rows, removed in order before the target row.
+     * COMMENTS also removes the ratings and detaches the replies of each
+     * comment; WATCH_LISTS removes watch list entries (and, for a user, the
+     * lists themselves); VIDEOS purges each of a user's videos in turn.
+     */
+    public enum Phase { COMMENT_RATINGS, COMMENTS, VIDEO_RATINGS, WATCH_LISTS, WATCH_PROGRESS, AUTH_TOKENS, VIDEOS, TARGET }
+
+    public enum TargetType {
+        VIDEO(List.of(Phase.COMMENTS, Phase.VIDEO_RATINGS, Phase.WATCH_LISTS, Phase.WATCH_PROGRESS, Phase.TARGET)),
+        USER(List.of(Phase.COMMENT_RATINGS, Phase.COMMENTS, Phase.VIDEO_RATINGS, Phase.WATCH_LISTS,
+                Phase.WATCH_PROGRESS, Phase.AUTH_TOKENS, Phase.VIDEOS, Phase.TARGET));
+
+        private final List<Phase> phases;
+
+        TargetType(List<Phase> phases) {
+            this.phases = phases;
+        }
+
+        public List<Phase> getPhases() {
+            return phases;
+        }
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "job_id")
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "target_type", nullable = false, length = 20)
+    private TargetType targetType;
+
+    @Column(name = "target_id", nullable = false)
+    private Long targetId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status = Status.PENDING;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "phase", nullable = false, length = 20)
+    private Phase phase;
+
+    @Column(name = "deleted_rows", nullable = false)
+    private long deletedRows;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    // Constructors
+    public PurgeJob() {}
+
+    public PurgeJob(TargetType targetType, Long targetId) {
+        this.targetType = targetType;
+        this.targetId = targetId;
+        this.phase = targetType.getPhases().get(0);
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+    }
+
+    // Getters & Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public TargetType getTargetType() {
+        return targetType;
+    }
+
+    public void setTargetType(TargetType targetType) {
+        this.targetType = targetType;
+    }
+
+    public Long getTargetId() {
+        return targetId;
+    }
+
+    public void setTargetId(Long targetId) {
+        this.targetId = targetId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    public void setPhase(Phase phase) {
+        this.phase = phase;
+    }
+
+    public long getDeletedRows() {
+        return deletedRows;
+    }
+
+    public void setDeletedRows(long deletedRows) {
+        this.deletedRows = deletedRows;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
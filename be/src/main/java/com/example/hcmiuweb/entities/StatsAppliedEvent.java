@@ -0,0 +1,46 @@
+package com.example.hcmiuweb.entities;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Marks an outbox event as already counted in the stats rollups, so a
+ * redelivery is ignored.
+ */
+@Entity
+@Table(name = "StatsAppliedEvent", indexes = {
+        @Index(name = "idx_stats_applied_event_applied", columnList = "applied_at")
+})
+public class StatsAppliedEvent {
+    @Id
+    @Column(name = "event_id")
+    private Long eventId;
+
+    @Column(name = "applied_at", nullable = false)
+    private LocalDateTime appliedAt;
+
+    // Constructors
+    public StatsAppliedEvent() {}
+
+    public StatsAppliedEvent(Long eventId, LocalDateTime appliedAt) {
+        this.eventId = eventId;
+        this.appliedAt = appliedAt;
+    }
+
+    // Getters & Setters
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(Long eventId) {
+        this.eventId = eventId;
+    }
+
+    public LocalDateTime getAppliedAt() {
+        return appliedAt;
+    }
+
+    public void setAppliedAt(LocalDateTime appliedAt) {
+        this.appliedAt = appliedAt;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.hcmiuweb.entities;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Activity counted on one day, in server time. Events are counted on the day
+ * they happened, not the day they were delivered.
+ */
+@Entity
+@Table(name = "StatsDaily")
+public class StatsDaily {
+    @Id
+    @Column(name = "stat_date")
+    private LocalDate date;
+
+    @Column(nullable = false)
+    private long views;
+
+    @Column(nullable = false)
+    private long uploads;
+
+    @Column(nullable = false)
+    private long ratings;
+
+    @Column(nullable = false)
+    private long comments;
+
+    @Column(nullable = false)
+    private long signups;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public StatsDaily() {}
+
+    public StatsDaily(LocalDate date) {
+        this.date = date;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters & Setters
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public long getViews() {
+        return views;
+    }
+
+    public void setViews(long views) {
+        this.views = views;
+    }
+
+    public long getUploads() {
+        return uploads;
+    }
+
+    public void setUploads(long uploads) {
+        this.uploads = uploads;
+    }
+
+    public long getRatings() {
+        return ratings;
+    }
+
+    public void setRatings(long ratings) {
+        this.ratings = ratings;
+    }
+
+    public long getComments() {
+        return comments;
+    }
+
+    public void setComments(long comments) {
+        this.comments = comments;
+    }
+
+    public long getSignups() {
+        return signups;
+    }
+
+    public void setSignups(long signups) {
+        this.signups = signups;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
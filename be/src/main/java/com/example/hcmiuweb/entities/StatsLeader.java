@@ -0,0 +1,57 @@
+package com.example.hcmiuweb.entities;
+
+import jakarta.persistence.*;
+
+/**
+ * Uploads and views of one uploader or category, for the top-N lists.
+ */
+@Entity
+@Table(name = "StatsLeader", indexes = {
+        @Index(name = "idx_stats_leader_kind_views", columnList = "kind, views")
+})
+public class StatsLeader {
+    public enum Kind { UPLOADER, CATEGORY }
+
+    @EmbeddedId
+    private StatsLeaderId id;
+
+    @Column(nullable = false)
+    private long uploads;
+
+    @Column(nullable = false)
+    private long views;
+
+    // Constructors
+    public StatsLeader() {}
+
+    public StatsLeader(Kind kind, Long subjectId, long uploads, long views) {
+        this.id = new StatsLeaderId(kind, subjectId);
+        this.uploads = uploads;
+        this.views = views;
+    }
+
+    // Getters & Setters
+    public StatsLeaderId getId() {
+        return id;
+    }
+
+    public void setId(StatsLeaderId id) {
+        this.id = id;
+    }
+
+    public long getUploads() {
+        return uploads;
+    }
+
+    public void setUploads(long uploads) {
+        this.uploads = uploads;
+    }
+
+    public long getViews() {
+        return views;
+    }
+
+    public void setViews(long views) {
+        this.views = views;
+    }
+}
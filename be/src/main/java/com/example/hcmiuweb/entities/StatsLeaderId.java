@@ -0,0 +1,56 @@
+package com.example.hcmiuweb.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import java.io.Serializable;
+import java.util.Objects;
+
+@Embeddable
+public class StatsLeaderId implements Serializable {
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", length = 20)
+    private StatsLeader.Kind kind;
+
+    @Column(name = "subject_id")
+    private Long subjectId;
+
+    // Constructors
+    public StatsLeaderId() {}
+
+    public StatsLeaderId(StatsLeader.Kind kind, Long subjectId) {
+        this.kind = kind;
+        this.subjectId = subjectId;
+    }
+
+    // Getters & Setters
+    public StatsLeader.Kind getKind() {
+        return kind;
+    }
+    public void setKind(StatsLeader.Kind kind) {
+        this.kind = kind;
+    }
+
+    public Long getSubjectId() {
+        return subjectId;
+    }
+    public void setSubjectId(Long subjectId) {
+        this.subjectId = subjectId;
+    }
+
+    // Override equals and hashCode
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof StatsLeaderId)) return false;
+        StatsLeaderId that = (StatsLeaderId) o;
+        return kind == that.kind &&
+                Objects.equals(subjectId, that.subjectId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, subjectId);
+    }
+}
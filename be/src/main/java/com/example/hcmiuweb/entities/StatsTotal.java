@@ -0,0 +1,109 @@
+package com.example.hcmiuweb.entities;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * All-time totals, kept in a single row ({@link #ID}).
+ */
+@Entity
+@Table(name = "StatsTotal")
+public class StatsTotal {
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private long videos;
+
+    @Column(nullable = false)
+    private long users;
+
+    @Column(nullable = false)
+    private long views;
+
+    @Column(nullable = false)
+    private long ratings;
+
+    @Column(nullable = false)
+    private long comments;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Last time the totals were recomputed from the source tables
+    @Column(name = "compacted_at")
+    private LocalDateTime compactedAt;
+
+    // Constructors
+    public StatsTotal() {
+        this.id = ID;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters & Setters
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public long getVideos() {
+        return videos;
+    }
+
+    public void setVideos(long videos) {
+        this.videos = videos;
+    }
+
+    public long getUsers() {
+        return users;
+    }
+
+    public void setUsers(long users) {
+        this.users = users;
+    }
+
+    public long getViews() {
+        return views;
+    }
+
+    public void setViews(long views) {
+        this.views = views;
+    }
+
+    public long getRatings() {
+        return ratings;
+    }
+
+    public void setRatings(long ratings) {
+        this.ratings = ratings;
+    }
+
+    public long getComments() {
+        return comments;
+    }
+
+    public void setComments(long comments) {
+        this.comments = comments;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public LocalDateTime getCompactedAt() {
+        return compactedAt;
+    }
+
+    public void setCompactedAt(LocalDateTime compactedAt) {
+        this.compactedAt = compactedAt;
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.hcmiuweb.entities;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One uploaded file, identified by the SHA-256 of its content. Uploading the
+ * same bytes again reuses the row and its stored copy; {@code refCount}
+ * counts the avatars, thumbnails and videos pointing at {@code url}.
+ */
+@Entity
+@Table(name = "StoredAsset", indexes = {
+        @Index(name = "idx_stored_asset_url", columnList = "url"),
+        @Index(name = "idx_stored_asset_ref_used", columnList = "ref_count, last_used_at")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_stored_asset_sha256", columnNames = "sha256")
+})
+public class StoredAsset {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "asset_id")
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    @Column(nullable = false)
+    private String url;
+
+    @Column(name = "public_id", nullable = false)
+    private String publicId;
+
+    // StorageBackend name (cloudinary, local) the file was stored with
+    @Column(nullable = false, length = 16)
+    private String backend;
+
+    // Cloudinary resource type (image, video, raw); needed to delete the asset
+    @Column(name = "resource_type", nullable = false, length = 16)
+    private String resourceType;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+
+    // Resized variants as a srcset value, their storage keys (space separated)
+    // and a data: URI placeholder; images only
+    @Column(length = 1024)
+    private String variants;
+
+    @Column(name = "variant_keys", length = 1024)
+    private String variantKeys;
+
+    @Column(length = 2048)
+    private String placeholder;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "last_used_at", nullable = false)
+    private LocalDateTime lastUsedAt;
+
+    // Constructors
+    public StoredAsset() {}
+
+    public StoredAsset(String sha256, String backend, String url, String publicId, String resourceType,
+            String contentType, long sizeBytes) {
+        this.sha256 = sha256;
+        this.backend = backend;
+        this.url = url;
+        this.publicId = publicId;
+        this.resourceType = resourceType;
+        this.contentType = contentType;
+        this.sizeBytes = sizeBytes;
+        this.refCount = 1;
+        this.createdAt = LocalDateTime.now();
+        this.lastUsedAt = this.createdAt;
+    }
+
+    // Getters & Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public String getBackend() {
+        return backend;
+    }
+
+    public void setBackend(String backend) {
+        this.backend = backend;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getPublicId() {
+        return publicId;
+    }
+
+    public void setPublicId(String publicId) {
+        this.publicId = publicId;
+    }
+
+    public String getResourceType() {
+        return resourceType;
+    }
+
+    public void setResourceType(String resourceType) {
+        this.resourceType = resourceType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
+    public String getVariants() {
+        return variants;
+    }
+
+    public void setVariants(String variants) {
+        this.variants = variants;
+    }
+
+    public String getVariantKeys() {
+        return variantKeys;
+    }
+
+    public void setVariantKeys(String variantKeys) {
+        this.variantKeys = variantKeys;
+    }
+
+    public String getPlaceholder() {
+        return placeholder;
+    }
+
+    public void setPlaceholder(String placeholder) {
+        this.placeholder = placeholder;
+    }
+
+    public int getRefCount() {
+        return refCount;
+    }
+
+    public void setRefCount(int refCount) {
+        this.refCount = refCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    public void setLastUsedAt(LocalDateTime lastUsedAt) {
+        this.lastUsedAt = lastUsedAt;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.hcmiuweb.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
@@ -27,15 +28,22 @@ public class User {
     // Added avatar attribute
     private String avatar;
 
+    // Resized copies of the avatar as a srcset value, and a data: URI placeholder
+    @Column(length = 1024)
+    private String avatarVariants;
+
+    @Column(length = 2048)
+    private String avatarPlaceholder;
+
     @ManyToOne
     @JoinColumn(name = "role_id", nullable = false)
     private Role role;
 
-    @Column(name = "reset_token")
-    private String resetToken;
-
-    @Column(name = "reset_token_expiry")
-    private LocalDateTime resetTokenExpiry;
+    // Set when the account is deleted; the user can no longer sign in and
+    // PurgeJobWorker removes the row once their content is gone
+    @JsonIgnore
+    @Column(nullable = false)
+    private boolean hidden;
 
     // Constructors
     public User() {}
@@ -92,26 +100,31 @@ public class User {
         this.avatar = avatar;
     }
 
-    public Role getRole() {
-        return role;
+    public String getAvatarVariants() {
+        return avatarVariants;
     }
-    public void setRole(Role role) {
-        this.role = role;
+    public void setAvatarVariants(String avatarVariants) {
+        this.avatarVariants = avatarVariants;
     }
 
-    public String getResetToken() {
-        return resetToken;
+    public String getAvatarPlaceholder() {
+        return avatarPlaceholder;
     }
-
-    public void setResetToken(String resetToken) {
-        this.resetToken = resetToken;
+    public void setAvatarPlaceholder(String avatarPlaceholder) {
+        this.avatarPlaceholder = avatarPlaceholder;
     }
 
-    public LocalDateTime getResetTokenExpiry() {
-        return resetTokenExpiry;
+    public Role getRole() {
+        return role;
+    }
+    public void setRole(Role role) {
+        this.role = role;
     }
 
-    public void setResetTokenExpiry(LocalDateTime resetTokenExpiry) {
-        this.resetTokenExpiry = resetTokenExpiry;
+    public boolean isHidden() {
+        return hidden;
+    }
+    public void setHidden(boolean hidden) {
+        this.hidden = hidden;
     }
 }
@@ -1,5 +1,6 @@
 package com.example.hcmiuweb.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -31,9 +32,21 @@ public class Video {
     @Column
     private String thumbnailUrl;
 
+    // Resized copies of the thumbnail as a srcset value, and a data: URI placeholder
+    @Column(length = 1024)
+    private String thumbnailVariants;
+
+    @Column(length = 2048)
+    private String thumbnailPlaceholder;
+
     @Column
     private Long viewCount = 0L;
 
+    // Set when the video is deleted; PurgeJobWorker removes the row later
+    @JsonIgnore
+    @Column(nullable = false)
+    private boolean hidden;
+
     @ManyToOne
     @JoinColumn(name = "user_id", nullable = false)
     private User uploader;
@@ -122,6 +135,22 @@ public class Video {
         this.thumbnailUrl = thumbnailUrl;
     }
 
+    public String getThumbnailVariants() {
+        return thumbnailVariants;
+    }
+
+    public void setThumbnailVariants(String thumbnailVariants) {
+        this.thumbnailVariants = thumbnailVariants;
+    }
+
+    public String getThumbnailPlaceholder() {
+        return thumbnailPlaceholder;
+    }
+
+    public void setThumbnailPlaceholder(String thumbnailPlaceholder) {
+        this.thumbnailPlaceholder = thumbnailPlaceholder;
+    }
+
     public User getUploader() {
         return uploader;
     }
@@ -146,6 +175,14 @@ public class Video {
         this.viewCount = viewCount;
     }
 
+    public boolean isHidden() {
+        return hidden;
+    }
+
+    public void setHidden(boolean hidden) {
+        this.hidden = hidden;
+    }
+
     public Set<VideoRating> getRatings() {
         return ratings;
     }
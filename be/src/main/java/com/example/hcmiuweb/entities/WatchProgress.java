@@ -0,0 +1,102 @@
+package com.example.hcmiuweb.entities;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * How far a user got into a video. Written in batches by
+ * {@code WatchProgressService}, not through this entity.
+ */
+@Entity
+@Table(name = "WatchProgress", indexes = {
+        @Index(name = "idx_watch_progress_user_updated", columnList = "user_id, updated_at")
+})
+public class WatchProgress {
+    @EmbeddedId
+    private WatchProgressId id;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @MapsId("userId")
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @MapsId("videoId")
+    @JoinColumn(name = "video_id", nullable = false)
+    private Video video;
+
+    @Column(name = "position_seconds", nullable = false)
+    private int positionSeconds;
+
+    // As reported by the player; null until it knows
+    @Column(name = "duration_seconds")
+    private Integer durationSeconds;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public WatchProgress() {}
+
+    public WatchProgress(User user, Video video, int positionSeconds, Integer durationSeconds,
+            LocalDateTime updatedAt) {
+        this.id = new WatchProgressId(user.getId(), video.getId());
+        this.user = user;
+        this.video = video;
+        this.positionSeconds = positionSeconds;
+        this.durationSeconds = durationSeconds;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters & Setters
+    public WatchProgressId getId() {
+        return id;
+    }
+
+    public void setId(WatchProgressId id) {
+        this.id = id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public Video getVideo() {
+        return video;
+    }
+
+    public void setVideo(Video video) {
+        this.video = video;
+    }
+
+    public int getPositionSeconds() {
+        return positionSeconds;
+    }
+
+    public void setPositionSeconds(int positionSeconds) {
+        this.positionSeconds = positionSeconds;
+    }
+
+    public Integer getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public void setDurationSeconds(Integer durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
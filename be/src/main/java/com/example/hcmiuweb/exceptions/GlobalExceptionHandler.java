@@ -0,0 +1,43 @@
+package com.example.hcmiuweb.exceptions;
+
+import com.example.hcmiuweb.payload.response.MessageResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<MessageResponse> handlePasswordHashingBusy(PasswordHashingBusyException e) {
+        return passwordHashingBusy(e);
+    }
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<MessageResponse> handleResourceNotFound(ResourceNotFoundException e) {
+        return resourceNotFound(e);
+    }
+
+    @ExceptionHandler(UnsupportedUploadTypeException.class)
+    public ResponseEntity<MessageResponse> handleUnsupportedUploadType(UnsupportedUploadTypeException e) {
+        return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
+                .body(new MessageResponse("Error: " + e.getMessage()));
+    }
+
+    /**
+     * Shared with controllers that catch exceptions themselves and would
+     * otherwise turn an overload into a 400/500.
+     */
+    public static ResponseEntity<MessageResponse> passwordHashingBusy(PasswordHashingBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()))
+                .body(new MessageResponse("Error: Server is busy, please try again shortly"));
+    }
+
+    public static ResponseEntity<MessageResponse> resourceNotFound(ResourceNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new MessageResponse("Error: " + e.getMessage()));
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.hcmiuweb.exceptions;
+
+/**
+ * Thrown when the password hashing executor is saturated and the request is
+ * shed instead of queued. Mapped to 503 with a Retry-After header.
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public PasswordHashingBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
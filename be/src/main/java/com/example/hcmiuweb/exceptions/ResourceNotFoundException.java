@@ -0,0 +1,48 @@
+package com.example.hcmiuweb.exceptions;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Thrown when a request refers to a row that does not exist. Mapped to 404.
+ */
+public class ResourceNotFoundException extends RuntimeException {
+
+    public ResourceNotFoundException(String message) {
+        super(message);
+    }
+
+    /**
+     * Translates the foreign key violation raised by an insert built from
+     * {@code getReferenceById} references into a 404, using the message
+     * registered for the violated constraint. Any other integrity violation
+     * (duplicate key, null column) is rethrown unchanged.
+     */
+    public static ResourceNotFoundException fromForeignKeyViolation(DataIntegrityViolationException e,
+            Map<String, String> messagesByConstraint) {
+        String constraint = violatedConstraint(e);
+        if (constraint == null) {
+            throw e;
+        }
+        String message = messagesByConstraint.get(constraint);
+        if (message != null) {
+            return new ResourceNotFoundException(message);
+        }
+        if (constraint.startsWith("fk")) {
+            return new ResourceNotFoundException("Referenced resource not found");
+        }
+        throw e;
+    }
+
+    private static String violatedConstraint(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase(Locale.ROOT);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.hcmiuweb.exceptions;
+
+/**
+ * Thrown when an upload's content type is not one its folder accepts.
+ * Mapped to 415.
+ */
+public class UnsupportedUploadTypeException extends RuntimeException {
+
+    public UnsupportedUploadTypeException(String message) {
+        super(message);
+    }
+}
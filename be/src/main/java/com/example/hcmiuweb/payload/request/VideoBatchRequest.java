@@ -0,0 +1,15 @@
+package com.example.hcmiuweb.payload.request;
+
+import java.util.List;
+
+public class VideoBatchRequest {
+    private List<Long> ids;
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.hcmiuweb.payload.request;
+
+public class WatchProgressRequest {
+    private Integer positionSeconds;
+
+    // Optional; the player may not know it yet
+    private Integer durationSeconds;
+
+    public Integer getPositionSeconds() {
+        return positionSeconds;
+    }
+
+    public void setPositionSeconds(Integer positionSeconds) {
+        this.positionSeconds = positionSeconds;
+    }
+
+    public Integer getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public void setDurationSeconds(Integer durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.hcmiuweb.payload.response;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Admin dashboard snapshot. {@code generatedAt} is when the snapshot was read
+ * from the rollup tables, {@code updatedAt} when the totals last changed and
+ * {@code compactedAt} when they were last recomputed from the source tables.
+ */
+public class AdminStatsResponse {
+
+    public record Totals(long videos, long users, long views, long ratings, long comments) {}
+
+    public record Day(LocalDate date, long views, long uploads, long ratings, long comments, long signups) {}
+
+    public record Leader(Long id, String name, long uploads, long views) {}
+
+    private final LocalDateTime generatedAt;
+    private final LocalDateTime updatedAt;
+    private final LocalDateTime compactedAt;
+    private final Totals totals;
+    private final List<Day> days;
+    private final List<Leader> topUploaders;
+    private final List<Leader> topCategories;
+
+    public AdminStatsResponse(LocalDateTime generatedAt, LocalDateTime updatedAt, LocalDateTime compactedAt,
+            Totals totals, List<Day> days, List<Leader> topUploaders, List<Leader> topCategories) {
+        this.generatedAt = generatedAt;
+        this.updatedAt = updatedAt;
+        this.compactedAt = compactedAt;
+        this.totals = totals;
+        this.days = days;
+        this.topUploaders = topUploaders;
+        this.topCategories = topCategories;
+    }
+
+    public LocalDateTime getGeneratedAt() {
+        return generatedAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public LocalDateTime getCompactedAt() {
+        return compactedAt;
+    }
+
+    public Totals getTotals() {
+        return totals;
+    }
+
+    public List<Day> getDays() {
+        return days;
+    }
+
+    public List<Leader> getTopUploaders() {
+        return topUploaders;
+    }
+
+    public List<Leader> getTopCategories() {
+        return topCategories;
+    }
+}
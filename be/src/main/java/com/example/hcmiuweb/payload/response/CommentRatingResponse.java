@@ -3,6 +3,14 @@ package com.example.hcmiuweb.payload.response;
 public class CommentRatingResponse {
     private long likes;
     private long dislikes;
+
+    public CommentRatingResponse() {
+    }
+
+    public CommentRatingResponse(Long likes, Long dislikes) {
+        this.likes = likes;
+        this.dislikes = dislikes;
+    }
     
     public long getLikes() {
         return likes;
@@ -1,10 +1,12 @@
 package com.example.hcmiuweb.payload.response;
 
 import com.example.hcmiuweb.entities.Comment;
+import com.example.hcmiuweb.services.images.ImageVariants;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public class CommentResponse {
@@ -15,6 +17,9 @@ public class CommentResponse {
     private Long userId;
     private String username;
     private String userAvatarUrl;
+    // Resized avatars by width in pixels; empty when there are none
+    private Map<Integer, String> userAvatarVariants = Map.of();
+    private String userAvatarPlaceholder;
     private Long parentCommentId;
     private long likes;
     private long dislikes;
@@ -37,6 +42,8 @@ public class CommentResponse {
         this.userId = comment.getUser().getId();
         this.username = comment.getUser().getUsername();
         this.userAvatarUrl = comment.getUser().getAvatar(); // Changed from getAvatarUrl() to getAvatar()
+        this.userAvatarVariants = ImageVariants.parse(comment.getUser().getAvatarVariants());
+        this.userAvatarPlaceholder = comment.getUser().getAvatarPlaceholder();
         this.likes = comment.getLikesCount();
         this.dislikes = comment.getDislikesCount();
         if (comment.getParentComment() != null) {
@@ -116,6 +123,22 @@ public class CommentResponse {
         this.userAvatarUrl = userAvatarUrl;
     }
 
+    public Map<Integer, String> getUserAvatarVariants() {
+        return userAvatarVariants;
+    }
+
+    public void setUserAvatarVariants(Map<Integer, String> userAvatarVariants) {
+        this.userAvatarVariants = userAvatarVariants;
+    }
+
+    public String getUserAvatarPlaceholder() {
+        return userAvatarPlaceholder;
+    }
+
+    public void setUserAvatarPlaceholder(String userAvatarPlaceholder) {
+        this.userAvatarPlaceholder = userAvatarPlaceholder;
+    }
+
     public Long getParentCommentId() {
         return parentCommentId;
     }
@@ -0,0 +1,9 @@
+package com.example.hcmiuweb.payload.response;
+
+import com.example.hcmiuweb.dtos.VideoDTO;
+
+import java.time.LocalDateTime;
+
+public record ContinueWatchingItem(VideoDTO video, int positionSeconds, Integer durationSeconds,
+        LocalDateTime updatedAt) {
+}
@@ -0,0 +1,16 @@
+package com.example.hcmiuweb.payload.response;
+
+import com.example.hcmiuweb.dtos.VideoDTO;
+
+import java.util.List;
+
+/**
+ * Everything the home page shows, from one call. {@code watchList} is null
+ * for anonymous callers.
+ */
+public record HomeResponse(List<VideoDTO> latest, List<VideoDTO> mostViewed, List<VideoDTO> watchList,
+        List<CategoryRail> categories) {
+
+    public record CategoryRail(Long categoryId, String categoryName, List<VideoDTO> videos) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.hcmiuweb.payload.response;
+
+public class LiveCountResponse {
+    private Long videoId;
+    private long watching;
+
+    public LiveCountResponse() {
+    }
+
+    public LiveCountResponse(Long videoId, long watching) {
+        this.videoId = videoId;
+        this.watching = watching;
+    }
+
+    public Long getVideoId() {
+        return videoId;
+    }
+
+    public void setVideoId(Long videoId) {
+        this.videoId = videoId;
+    }
+
+    public long getWatching() {
+        return watching;
+    }
+
+    public void setWatching(long watching) {
+        this.watching = watching;
+    }
+}
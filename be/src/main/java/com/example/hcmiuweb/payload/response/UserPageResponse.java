@@ -0,0 +1,12 @@
+package com.example.hcmiuweb.payload.response;
+
+import com.example.hcmiuweb.repositories.UserRepository;
+
+import java.util.List;
+
+/**
+ * A page of the admin user list. There is no total: it costs a count on
+ * every page, so it has its own endpoint.
+ */
+public record UserPageResponse(List<UserRepository.UserSummary> users, int page, int size, boolean hasNext) {
+}
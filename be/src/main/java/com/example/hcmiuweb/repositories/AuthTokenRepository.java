@@ -0,0 +1,40 @@
+package com.example.hcmiuweb.repositories;
+
+import com.example.hcmiuweb.entities.AuthToken;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AuthTokenRepository extends JpaRepository<AuthToken, Long> {
+
+    @Query("SELECT t FROM AuthToken t JOIN FETCH t.user u JOIN FETCH u.role " +
+            "WHERE t.tokenHash = :tokenHash AND t.purpose = :purpose")
+    Optional<AuthToken> findByTokenHashAndPurpose(@Param("tokenHash") String tokenHash,
+            @Param("purpose") AuthToken.Purpose purpose);
+
+    @Modifying
+    @Query("DELETE FROM AuthToken t WHERE t.tokenHash = :tokenHash")
+    int deleteByTokenHash(@Param("tokenHash") String tokenHash);
+
+    @Modifying
+    @Query("DELETE FROM AuthToken t WHERE t.user.id = :userId AND t.purpose = :purpose")
+    int deleteByUserAndPurpose(@Param("userId") Long userId, @Param("purpose") AuthToken.Purpose purpose);
+
+    @Query("SELECT t.id FROM AuthToken t WHERE t.expiresAt < :now")
+    List<Long> findExpiredIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Query("SELECT t.id FROM AuthToken t WHERE t.user.id = :userId")
+    List<Long> findIdsByUser(@Param("userId") Long userId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM AuthToken t WHERE t.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
+}
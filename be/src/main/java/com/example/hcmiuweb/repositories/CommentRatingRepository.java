@@ -2,7 +2,12 @@ package com.example.hcmiuweb.repositories;
 
 import com.example.hcmiuweb.entities.CommentRating;
 import com.example.hcmiuweb.entities.CommentRatingId;
+import com.example.hcmiuweb.payload.response.CommentRatingResponse;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,4 +19,34 @@ public interface CommentRatingRepository extends JpaRepository<CommentRating, Co
     List<CommentRating> findByUser_Id(Long userId);
     Optional<CommentRating> findByUser_IdAndComment_Id(Long userId, Long commentId);
     long countByComment_IdAndRating(Long commentId, int rating);
+
+    // Primary key lookup of the vote value only, without joining the user and comment
+    @Query("SELECT r.rating FROM CommentRating r WHERE r.id.userId = :userId AND r.id.commentId = :commentId")
+    Optional<Integer> findRatingValue(@Param("userId") Long userId, @Param("commentId") Long commentId);
+
+    @Modifying
+    @Query("UPDATE CommentRating r SET r.rating = :rating WHERE r.id.userId = :userId AND r.id.commentId = :commentId")
+    int updateRatingValue(@Param("userId") Long userId, @Param("commentId") Long commentId,
+            @Param("rating") int rating);
+
+    @Modifying
+    @Query("DELETE FROM CommentRating r WHERE r.id.userId = :userId AND r.id.commentId = :commentId")
+    int deleteVote(@Param("userId") Long userId, @Param("commentId") Long commentId);
+
+    @Query("SELECT new com.example.hcmiuweb.payload.response.CommentRatingResponse(" +
+            "COALESCE(SUM(CASE WHEN r.rating > 0 THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN r.rating < 0 THEN 1 ELSE 0 END), 0)) " +
+            "FROM CommentRating r WHERE r.id.commentId = :commentId")
+    CommentRatingResponse countVotes(@Param("commentId") Long commentId);
+
+    @Query("SELECT r.id.commentId FROM CommentRating r WHERE r.id.userId = :userId")
+    List<Long> findCommentIdsByUser(@Param("userId") Long userId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM CommentRating r WHERE r.id.userId = :userId AND r.id.commentId IN :commentIds")
+    int deleteByUserAndCommentIds(@Param("userId") Long userId, @Param("commentIds") List<Long> commentIds);
+
+    @Modifying
+    @Query("DELETE FROM CommentRating r WHERE r.id.commentId IN :commentIds")
+    int deleteByCommentIds(@Param("commentIds") List<Long> commentIds);
 }
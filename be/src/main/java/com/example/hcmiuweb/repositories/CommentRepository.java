@@ -1,9 +1,14 @@
 package com.example.hcmiuweb.repositories;
 
 import com.example.hcmiuweb.entities.Comment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,4 +17,31 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findByUser_Id(Long userId);
     List<Comment> findByVideo_IdAndParentCommentIsNull(Long videoId);
     List<Comment> findByParentComment_Id(Long parentCommentId);
+
+    // Comments on hidden videos take no replies or votes
+    boolean existsByIdAndVideo_HiddenFalse(Long id);
+    boolean existsByIdAndVideo_IdAndVideo_HiddenFalse(Long id, Long videoId);
+
+    @Query("SELECT c.id AS commentId, c.video.id AS videoId FROM Comment c WHERE c.id IN :ids")
+    List<CommentVideoId> findVideoIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT c.id FROM Comment c WHERE c.video.id = :videoId")
+    List<Long> findIdsByVideo(@Param("videoId") Long videoId, Pageable pageable);
+
+    @Query("SELECT c.id FROM Comment c WHERE c.user.id = :userId")
+    List<Long> findIdsByUser(@Param("userId") Long userId, Pageable pageable);
+
+    // Replies to comments about to be deleted become top-level comments
+    @Modifying
+    @Query("UPDATE Comment c SET c.parentComment = null WHERE c.parentComment.id IN :ids")
+    int detachReplies(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Comment c WHERE c.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
+
+    interface CommentVideoId {
+        Long getCommentId();
+        Long getVideoId();
+    }
 }
\ No newline at end of file
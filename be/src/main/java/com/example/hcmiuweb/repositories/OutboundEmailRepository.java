@@ -0,0 +1,43 @@
+package com.example.hcmiuweb.repositories;
+
+import com.example.hcmiuweb.entities.OutboundEmail;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboundEmailRepository extends JpaRepository<OutboundEmail, Long> {
+
+    // Lock timeout -2 is SKIP LOCKED, so several instances can drain the queue without blocking each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboundEmail e WHERE e.status = :status AND e.nextAttemptAt <= :now ORDER BY e.nextAttemptAt")
+    List<OutboundEmail> findDueForUpdate(@Param("status") OutboundEmail.Status status,
+            @Param("now") LocalDateTime now, Pageable pageable);
+
+    // The body is cleared once delivered: reset and OTP mails carry a live token
+    @Modifying
+    @Query("UPDATE OutboundEmail e SET e.status = com.example.hcmiuweb.entities.OutboundEmail.Status.SENT, " +
+            "e.sentAt = :sentAt, e.lastError = null, e.body = '' WHERE e.id IN :ids")
+    int markSent(@Param("ids") List<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    long countByStatus(OutboundEmail.Status status);
+
+    @Query("SELECT MIN(e.createdAt) FROM OutboundEmail e WHERE e.status = :status")
+    LocalDateTime findOldestCreatedAt(@Param("status") OutboundEmail.Status status);
+
+    @Modifying
+    @Query("DELETE FROM OutboundEmail e WHERE e.status = :status AND e.createdAt < :cutoff")
+    int deleteByStatusAndCreatedAtBefore(@Param("status") OutboundEmail.Status status,
+            @Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,48 @@
+package com.example.hcmiuweb.repositories;
+
+import com.example.hcmiuweb.entities.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Events of {@code status} that can be delivered at {@code now}: not
+     * waiting out a retry backoff, and not queued behind an earlier event of
+     * the same aggregate that is. Backed-off aggregates therefore never fill
+     * a batch and hold up everyone else.
+     */
+    @Query("SELECT e FROM OutboxEvent e WHERE e.status = :status " +
+            "AND (e.nextAttemptAt IS NULL OR e.nextAttemptAt <= :now) " +
+            "AND NOT EXISTS (SELECT w.id FROM OutboxEvent w WHERE w.aggregateType = e.aggregateType " +
+            "AND w.aggregateId = e.aggregateId AND w.status = :status AND w.nextAttemptAt > :now " +
+            "AND w.id < e.id) ORDER BY e.id")
+    List<OutboxEvent> findDue(@Param("status") OutboxEvent.Status status, @Param("now") LocalDateTime now,
+            Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = com.example.hcmiuweb.entities.OutboxEvent.Status.DISPATCHED, " +
+            "e.dispatchedAt = :dispatchedAt, e.lastError = null WHERE e.id IN :ids")
+    int markDispatched(@Param("ids") List<Long> ids, @Param("dispatchedAt") LocalDateTime dispatchedAt);
+
+    long countByStatus(OutboxEvent.Status status);
+
+    @Query("SELECT MIN(e.createdAt) FROM OutboxEvent e WHERE e.status = :status")
+    LocalDateTime findOldestCreatedAt(@Param("status") OutboxEvent.Status status);
+
+    @Query("SELECT e.id FROM OutboxEvent e WHERE e.status = :status AND e.dispatchedAt < :cutoff")
+    List<Long> findDispatchedIdsBefore(@Param("status") OutboxEvent.Status status,
+            @Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
+}
@@ -0,0 +1,30 @@
+package com.example.hcmiuweb.repositories;
+
+import com.example.hcmiuweb.entities.PurgeJob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PurgeJobRepository extends JpaRepository<PurgeJob, Long> {
+
+    @Query("SELECT j.id FROM PurgeJob j WHERE j.status = :status " +
+            "AND (j.nextAttemptAt IS NULL OR j.nextAttemptAt <= :now) ORDER BY j.id")
+    List<Long> findRunnableIds(@Param("status") PurgeJob.Status status, @Param("now") LocalDateTime now,
+            Pageable pageable);
+
+    // Serialises batches of one job across nodes
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT j FROM PurgeJob j WHERE j.id = :id")
+    Optional<PurgeJob> findForUpdate(@Param("id") Long id);
+
+    long countByStatus(PurgeJob.Status status);
+}
@@ -2,7 +2,11 @@ package com.example.hcmiuweb.repositories;
 
 import com.example.hcmiuweb.entities.VideoRating;
 import com.example.hcmiuweb.entities.VideoRatingId;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,4 +14,18 @@ import java.util.List;
 @Repository
 public interface RatingRepository extends JpaRepository<VideoRating, VideoRatingId> {
     List<VideoRating> findByVideo_Id(Long videoId);
-}
\ No newline at end of file
+
+    @Query("SELECT r.id.userId FROM VideoRating r WHERE r.id.videoId = :videoId")
+    List<Long> findUserIdsByVideo(@Param("videoId") Long videoId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM VideoRating r WHERE r.id.videoId = :videoId AND r.id.userId IN :userIds")
+    int deleteByVideoAndUserIds(@Param("videoId") Long videoId, @Param("userIds") List<Long> userIds);
+
+    @Query("SELECT r.id.videoId FROM VideoRating r WHERE r.id.userId = :userId")
+    List<Long> findVideoIdsByUser(@Param("userId") Long userId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM VideoRating r WHERE r.id.userId = :userId AND r.id.videoId IN :videoIds")
+    int deleteByUserAndVideoIds(@Param("userId") Long userId, @Param("videoIds") List<Long> videoIds);
+}
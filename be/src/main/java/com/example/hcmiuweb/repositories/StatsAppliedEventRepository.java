@@ -0,0 +1,23 @@
+package com.example.hcmiuweb.repositories;
+
+import com.example.hcmiuweb.entities.StatsAppliedEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StatsAppliedEventRepository extends JpaRepository<StatsAppliedEvent, Long> {
+
+    @Query("SELECT e.eventId FROM StatsAppliedEvent e WHERE e.appliedAt < :cutoff")
+    List<Long> findIdsAppliedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM StatsAppliedEvent e WHERE e.eventId IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
+}
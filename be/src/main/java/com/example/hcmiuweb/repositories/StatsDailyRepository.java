@@ -0,0 +1,31 @@
+package com.example.hcmiuweb.repositories;
+
+import com.example.hcmiuweb.entities.StatsDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StatsDailyRepository extends JpaRepository<StatsDaily, LocalDate> {
+
+    // Returns 0 when the day has no row yet
+    @Modifying
+    @Query("UPDATE StatsDaily d SET d.views = d.views + :views, d.uploads = d.uploads + :uploads, " +
+            "d.ratings = d.ratings + :ratings, d.comments = d.comments + :comments, " +
+            "d.signups = d.signups + :signups, d.updatedAt = :now WHERE d.date = :date")
+    int addToDay(@Param("date") LocalDate date, @Param("views") long views, @Param("uploads") long uploads,
+            @Param("ratings") long ratings, @Param("comments") long comments, @Param("signups") long signups,
+            @Param("now") LocalDateTime now);
+
+    List<StatsDaily> findByDateGreaterThanEqualOrderByDateAsc(LocalDate from);
+
+    @Modifying
+    @Query("DELETE FROM StatsDaily d WHERE d.date < :cutoff")
+    int deleteBefore(@Param("cutoff") LocalDate cutoff);
+}
@@ -0,0 +1,30 @@
+package com.example.hcmiuweb.repositories;
+
+import com.example.hcmiuweb.entities.StatsLeader;
+import com.example.hcmiuweb.entities.StatsLeaderId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StatsLeaderRepository extends JpaRepository<StatsLeader, StatsLeaderId> {
+
+    // Returns 0 when the subject has no row yet
+    @Modifying
+    @Query("UPDATE StatsLeader l SET l.uploads = l.uploads + :uploads, l.views = l.views + :views " +
+            "WHERE l.id.kind = :kind AND l.id.subjectId = :subjectId")
+    int addToLeader(@Param("kind") StatsLeader.Kind kind, @Param("subjectId") Long subjectId,
+            @Param("uploads") long uploads, @Param("views") long views);
+
+    @Query("SELECT l FROM StatsLeader l WHERE l.id.kind = :kind ORDER BY l.views DESC")
+    List<StatsLeader> findTopByViews(@Param("kind") StatsLeader.Kind kind, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM StatsLeader l WHERE l.id.kind = :kind")
+    int deleteByKind(@Param("kind") StatsLeader.Kind kind);
+}
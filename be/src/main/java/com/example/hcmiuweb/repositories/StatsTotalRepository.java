@@ -0,0 +1,22 @@
+package com.example.hcmiuweb.repositories;
+
+import com.example.hcmiuweb.entities.StatsTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface StatsTotalRepository extends JpaRepository<StatsTotal, Integer> {
+
+    // Returns 0 when the totals row does not exist yet
+    @Modifying
+    @Query("UPDATE StatsTotal t SET t.videos = t.videos + :videos, t.users = t.users + :users, " +
+            "t.views = t.views + :views, t.ratings = t.ratings + :ratings, t.comments = t.comments + :comments, " +
+            "t.updatedAt = :now WHERE t.id = " + StatsTotal.ID)
+    int addToTotals(@Param("videos") long videos, @Param("users") long users, @Param("views") long views,
+            @Param("ratings") long ratings, @Param("comments") long comments, @Param("now") LocalDateTime now);
+}
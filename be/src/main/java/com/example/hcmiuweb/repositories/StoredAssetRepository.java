@@ -0,0 +1,46 @@
+package com.example.hcmiuweb.repositories;
+
+import com.example.hcmiuweb.entities.StoredAsset;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StoredAssetRepository extends JpaRepository<StoredAsset, Long> {
+
+    Optional<StoredAsset> findBySha256(String sha256);
+
+    Optional<StoredAsset> findFirstByUrl(String url);
+
+    // Returns 0 when no asset has this content
+    @Modifying
+    @Query("UPDATE StoredAsset a SET a.refCount = a.refCount + 1, a.lastUsedAt = :now WHERE a.sha256 = :sha256")
+    int retainBySha256(@Param("sha256") String sha256, @Param("now") LocalDateTime now);
+
+    // URLs that did not come from an upload (defaults, external links) match nothing
+    @Modifying
+    @Query("UPDATE StoredAsset a SET a.refCount = a.refCount + 1, a.lastUsedAt = :now WHERE a.url = :url")
+    int retainByUrl(@Param("url") String url, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE StoredAsset a SET a.refCount = a.refCount - 1, a.lastUsedAt = :now " +
+            "WHERE a.url = :url AND a.refCount > 0")
+    int releaseByUrl(@Param("url") String url, @Param("now") LocalDateTime now);
+
+    @Query("SELECT a.id FROM StoredAsset a WHERE a.refCount = 0 AND a.lastUsedAt < :cutoff")
+    List<Long> findUnreferencedIds(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    // Serialises reaping against a concurrent upload of the same content
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM StoredAsset a WHERE a.id = :id")
+    Optional<StoredAsset> findForUpdate(@Param("id") Long id);
+}
@@ -1,8 +1,16 @@
 package com.example.hcmiuweb.repositories;
 
 import com.example.hcmiuweb.entities.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,5 +19,36 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     Boolean existsByUsername(String username);
     Boolean existsByEmail(String email);
-    Optional<User> findByResetToken(String resetToken);
+    boolean existsByAvatar(String avatar);
+    List<User> findByHiddenFalse();
+    long countByHiddenFalse();
+
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.id = :id")
+    int deleteRowById(@Param("id") Long id);
+
+    // Admin user list. Empty filters match everything; prefixes end in % and escape with !
+    String SUMMARY_FILTER = "FROM User u JOIN u.role r WHERE u.hidden = false " +
+            "AND (:role = '' OR r.roleName = :role) " +
+            "AND (:usernamePrefix = '' OR u.username LIKE :usernamePrefix ESCAPE '!') " +
+            "AND (:emailPrefix = '' OR u.email LIKE :emailPrefix ESCAPE '!')";
+
+    // Fetches one row past the page to tell whether there is a next one, without counting
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email, r.roleName AS role, " +
+            "u.registrationDate AS registrationDate, u.avatar AS avatar " + SUMMARY_FILTER)
+    Slice<UserSummary> findSummaries(@Param("role") String role, @Param("usernamePrefix") String usernamePrefix,
+            @Param("emailPrefix") String emailPrefix, Pageable pageable);
+
+    @Query("SELECT COUNT(u) " + SUMMARY_FILTER)
+    long countSummaries(@Param("role") String role, @Param("usernamePrefix") String usernamePrefix,
+            @Param("emailPrefix") String emailPrefix);
+
+    interface UserSummary {
+        Long getId();
+        String getUsername();
+        String getEmail();
+        String getRole();
+        LocalDateTime getRegistrationDate();
+        String getAvatar();
+    }
 }
@@ -1,30 +1,80 @@
 package com.example.hcmiuweb.repositories;
 
 import com.example.hcmiuweb.entities.Video;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface VideoRepository extends JpaRepository<Video, Long> {
-  List<Video> findByUploader_Id(Long uploaderId);
+  // Hidden videos are deleted and waiting for PurgeJobWorker; listings skip them
+  Optional<Video> findByIdAndHiddenFalse(Long id);
 
-  List<Video> findByCategory_Id(Long categoryId);
+  boolean existsByIdAndHiddenFalse(Long id);
 
-  List<Video> findByTitleContainingIgnoreCase(String Title);
+  // Listings read only the card columns: no description, no entities, nothing in the persistence context
+  String CARD_SELECT = "SELECT v.id AS id, v.title AS title, v.url AS url, v.thumbnailUrl AS thumbnailUrl, " +
+      "v.thumbnailVariants AS thumbnailVariants, v.thumbnailPlaceholder AS thumbnailPlaceholder, " +
+      "v.duration AS duration, v.viewCount AS viewCount, v.uploadDate AS uploadDate, " +
+      "u.id AS uploaderId, u.username AS uploaderUsername, c.id AS categoryId, c.name AS categoryName " +
+      "FROM Video v JOIN v.uploader u LEFT JOIN v.category c ";
+
+  @Query(CARD_SELECT + "WHERE v.hidden = false")
+  List<VideoCard> findCards();
+
+  @Query(CARD_SELECT + "WHERE u.id = :uploaderId AND v.hidden = false")
+  List<VideoCard> findCardsByUploader(@Param("uploaderId") Long uploaderId);
+
+  @Query(CARD_SELECT + "WHERE c.id = :categoryId AND v.hidden = false")
+  List<VideoCard> findCardsByCategory(@Param("categoryId") Long categoryId);
+
+  @Query(CARD_SELECT + "WHERE LOWER(v.title) LIKE LOWER(CONCAT('%', :title, '%')) AND v.hidden = false")
+  List<VideoCard> findCardsByTitle(@Param("title") String title);
+
+  // In no particular order
+  @Query(CARD_SELECT + "WHERE v.id IN :ids AND v.hidden = false")
+  List<VideoCard> findCardsByIdIn(@Param("ids") Collection<Long> ids);
+
+  // Home page rails; each ORDER BY walks an index and stops at the page size
+  @Query(CARD_SELECT + "WHERE v.hidden = false ORDER BY v.uploadDate DESC")
+  List<VideoCard> findLatestCards(Pageable pageable);
+
+  @Query(CARD_SELECT + "WHERE v.hidden = false ORDER BY v.viewCount DESC")
+  List<VideoCard> findMostViewedCards(Pageable pageable);
+
+  @Query(CARD_SELECT + "WHERE c.id = :categoryId AND v.hidden = false ORDER BY v.uploadDate DESC")
+  List<VideoCard> findLatestCardsByCategory(@Param("categoryId") Long categoryId, Pageable pageable);
+
+  // One statement per view instead of loading and saving the entity; the cached detail is not invalidated
+  @Transactional
+  @Modifying
+  @Query("UPDATE Video v SET v.viewCount = COALESCE(v.viewCount, 0) + 1 WHERE v.id = :id AND v.hidden = false")
+  int addView(@Param("id") Long id);
 
   boolean existsByUrl(String url);
 
+  boolean existsByThumbnailUrl(String thumbnailUrl);
+
   @Query("SELECT AVG(vr.rating) FROM VideoRating vr WHERE vr.video.id = :videoId")
   Optional<Double> findAverageRatingByVideoId(@Param("videoId") Long videoId);
 
   @Query("SELECT COUNT(vr) FROM VideoRating vr WHERE vr.video.id = :videoId")
   Integer countRatingsByVideoId(@Param("videoId") Long videoId);
 
+  // One row per video that has ratings
+  @Query("SELECT vr.video.id AS videoId, AVG(vr.rating) AS averageRating, COUNT(vr) AS ratingCount " +
+      "FROM VideoRating vr WHERE vr.video.id IN :videoIds GROUP BY vr.video.id")
+  List<RatingSummary> summarizeRatings(@Param("videoIds") Collection<Long> videoIds);
+
   @Query(value = "SELECT v.video_id AS videoId, " +
       "v.title AS videoName, " +
       "(" +
@@ -48,10 +98,59 @@ public interface VideoRepository extends JpaRepository<Video, Long> {
       "        AND TRIM(SUBSTRING_INDEX(SUBSTRING_INDEX(:query, ' ', 5), ' ', -1)) != '' THEN 1 ELSE 0 END)" +
       ") AS similarWords " +
       "FROM video v " +
-      "WHERE v.video_id != :videoId " +
+      "WHERE v.video_id != :videoId AND v.hidden = false " +
       "HAVING similarWords > 0 " +
       "ORDER BY similarWords DESC, v.view_count DESC " +
       "LIMIT 10", nativeQuery = true)
   List<Object[]> findSimilarVideos(@Param("videoId") Long videoId, @Param("query") String query);
 
+  @Query("SELECT v.id FROM Video v WHERE v.uploader.id = :uploaderId AND v.hidden = false")
+  List<Long> findVisibleIdsByUploader(@Param("uploaderId") Long uploaderId);
+
+  @Query("SELECT v.id FROM Video v WHERE v.uploader.id = :uploaderId")
+  List<Long> findIdsByUploader(@Param("uploaderId") Long uploaderId, Pageable pageable);
+
+  @Modifying
+  @Query("UPDATE Video v SET v.hidden = true WHERE v.id IN :ids")
+  int hideByIdIn(@Param("ids") List<Long> ids);
+
+  @Modifying
+  @Query("DELETE FROM Video v WHERE v.id = :id")
+  int deleteRowById(@Param("id") Long id);
+
+  // Full scans used only by the nightly stats compaction: [count, total views]
+  @Query("SELECT COUNT(v), COALESCE(SUM(v.viewCount), 0) FROM Video v WHERE v.hidden = false")
+  List<Object[]> summarizeVisible();
+
+  // [uploader id, videos, views]
+  @Query("SELECT v.uploader.id, COUNT(v), COALESCE(SUM(v.viewCount), 0) FROM Video v " +
+      "WHERE v.hidden = false GROUP BY v.uploader.id")
+  List<Object[]> rollupByUploader();
+
+  // [category id, videos, views]
+  @Query("SELECT v.category.id, COUNT(v), COALESCE(SUM(v.viewCount), 0) FROM Video v " +
+      "WHERE v.hidden = false AND v.category IS NOT NULL GROUP BY v.category.id")
+  List<Object[]> rollupByCategory();
+
+  interface VideoCard {
+    Long getId();
+    String getTitle();
+    String getUrl();
+    String getThumbnailUrl();
+    String getThumbnailVariants();
+    String getThumbnailPlaceholder();
+    Integer getDuration();
+    Long getViewCount();
+    LocalDateTime getUploadDate();
+    Long getUploaderId();
+    String getUploaderUsername();
+    Long getCategoryId();
+    String getCategoryName();
+  }
+
+  interface RatingSummary {
+    Long getVideoId();
+    Double getAverageRating();
+    Long getRatingCount();
+  }
 }
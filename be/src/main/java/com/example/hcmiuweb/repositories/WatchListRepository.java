@@ -3,6 +3,9 @@ package com.example.hcmiuweb.repositories;
 import com.example.hcmiuweb.entities.User;
 import com.example.hcmiuweb.entities.WatchList;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,4 +15,30 @@ import java.util.Optional;
 public interface WatchListRepository extends JpaRepository<WatchList, Long> {
     Optional<WatchList> findByUser(User user);
     boolean existsByUser(User user);
+
+    @Query("SELECT w.id FROM WatchList w WHERE w.user.id = :userId")
+    List<Long> findIdsByUser(@Param("userId") Long userId);
+
+    // The join table has no entity, so entries are read and removed with native SQL
+    @Query(value = "SELECT watchlist_id FROM watch_list_video WHERE video_id = :videoId LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findListIdsContainingVideo(@Param("videoId") Long videoId, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "DELETE FROM watch_list_video WHERE video_id = :videoId AND watchlist_id IN (:listIds)",
+            nativeQuery = true)
+    int removeVideoFromLists(@Param("videoId") Long videoId, @Param("listIds") List<Long> listIds);
+
+    @Query(value = "SELECT video_id FROM watch_list_video WHERE watchlist_id = :listId LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findVideoIdsInList(@Param("listId") Long listId, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "DELETE FROM watch_list_video WHERE watchlist_id = :listId AND video_id IN (:videoIds)",
+            nativeQuery = true)
+    int removeVideosFromList(@Param("listId") Long listId, @Param("videoIds") List<Long> videoIds);
+
+    @Modifying
+    @Query("DELETE FROM WatchList w WHERE w.id = :id")
+    int deleteRowById(@Param("id") Long id);
 }
@@ -0,0 +1,51 @@
+package com.example.hcmiuweb.repositories;
+
+import com.example.hcmiuweb.entities.WatchProgress;
+import com.example.hcmiuweb.entities.WatchProgressId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Rows are written in JDBC batches by WatchProgressService; these are the reads and the purge
+@Repository
+public interface WatchProgressRepository extends JpaRepository<WatchProgress, WatchProgressId> {
+
+    // Past this share of the duration a video counts as watched
+    double FINISHED_FRACTION = 0.95;
+
+    // A user's unfinished videos, most recently watched first
+    @Query("SELECT p.id.videoId AS videoId, p.positionSeconds AS positionSeconds, " +
+            "p.durationSeconds AS durationSeconds, p.updatedAt AS updatedAt " +
+            "FROM WatchProgress p JOIN Video v ON v.id = p.id.videoId " +
+            "WHERE p.id.userId = :userId AND v.hidden = false AND p.positionSeconds > 0 " +
+            "AND (p.durationSeconds IS NULL OR p.positionSeconds < p.durationSeconds * " + FINISHED_FRACTION + ") " +
+            "ORDER BY p.updatedAt DESC")
+    List<ProgressRow> findInProgress(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT p.id.userId FROM WatchProgress p WHERE p.id.videoId = :videoId")
+    List<Long> findUserIdsByVideo(@Param("videoId") Long videoId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM WatchProgress p WHERE p.id.videoId = :videoId AND p.id.userId IN :userIds")
+    int deleteByVideoAndUserIds(@Param("videoId") Long videoId, @Param("userIds") List<Long> userIds);
+
+    @Query("SELECT p.id.videoId FROM WatchProgress p WHERE p.id.userId = :userId")
+    List<Long> findVideoIdsByUser(@Param("userId") Long userId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM WatchProgress p WHERE p.id.userId = :userId AND p.id.videoId IN :videoIds")
+    int deleteByUserAndVideoIds(@Param("userId") Long userId, @Param("videoIds") List<Long> videoIds);
+
+    interface ProgressRow {
+        Long getVideoId();
+        Integer getPositionSeconds();
+        Integer getDurationSeconds();
+        LocalDateTime getUpdatedAt();
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.hcmiuweb.services;
+
+import com.example.hcmiuweb.entities.StoredAsset;
+import com.example.hcmiuweb.repositories.StoredAssetRepository;
+import com.example.hcmiuweb.repositories.UserRepository;
+import com.example.hcmiuweb.repositories.VideoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Bookkeeping for {@link StoredAsset}s: the hash-to-URL table and the
+ * reference counts. {@link AssetStore} does the uploading.
+ *
+ * A reference is taken when a file is uploaded (or an uploaded URL is set
+ * directly) and given back when the avatar, thumbnail or video using it is
+ * replaced or purged. Counts can only err towards keeping an asset: before
+ * one is deleted, {@link #claimForReaping} also checks that no row still
+ * points at its URL.
+ */
+@Service
+public class AssetService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AssetService.class);
+
+    private final StoredAssetRepository storedAssetRepository;
+    private final VideoRepository videoRepository;
+    private final UserRepository userRepository;
+
+    public AssetService(StoredAssetRepository storedAssetRepository, VideoRepository videoRepository,
+            UserRepository userRepository) {
+        this.storedAssetRepository = storedAssetRepository;
+        this.videoRepository = videoRepository;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Takes a reference on the asset with this content, if there is one.
+     */
+    @Transactional
+    public Optional<StoredAsset> retainExisting(String sha256) {
+        if (storedAssetRepository.retainBySha256(sha256, LocalDateTime.now()) == 0) {
+            return Optional.empty();
+        }
+        return storedAssetRepository.findBySha256(sha256);
+    }
+
+    /**
+     * Records a newly uploaded asset with one reference. Throws
+     * DataIntegrityViolationException if the same content was registered
+     * concurrently.
+     */
+    @Transactional
+    public StoredAsset register(StoredAsset asset) {
+        return storedAssetRepository.saveAndFlush(asset);
+    }
+
+    /**
+     * The asset behind an uploaded URL, for its image variants; empty for
+     * URLs that did not come from an upload.
+     */
+    @Transactional(readOnly = true)
+    public Optional<StoredAsset> findByUrl(String url) {
+        return url == null ? Optional.empty() : storedAssetRepository.findFirstByUrl(url);
+    }
+
+    @Transactional
+    public void retain(String url) {
+        if (url != null) {
+            storedAssetRepository.retainByUrl(url, LocalDateTime.now());
+        }
+    }
+
+    @Transactional
+    public void release(String url) {
+        if (url != null) {
+            storedAssetRepository.releaseByUrl(url, LocalDateTime.now());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> findUnreferencedIds(LocalDateTime cutoff, int limit) {
+        return storedAssetRepository.findUnreferencedIds(cutoff, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Deletes the asset's row if it is still unreferenced and returns it, so
+     * the caller can remove the remote copy after commit. An asset that is
+     * still in use despite a zero count gets its reference back instead.
+     */
+    @Transactional
+    public Optional<StoredAsset> claimForReaping(Long assetId, LocalDateTime cutoff) {
+        StoredAsset asset = storedAssetRepository.findForUpdate(assetId).orElse(null);
+        if (asset == null || asset.getRefCount() > 0 || !asset.getLastUsedAt().isBefore(cutoff)) {
+            return Optional.empty();
+        }
+        String url = asset.getUrl();
+        if (videoRepository.existsByUrl(url) || videoRepository.existsByThumbnailUrl(url)
+                || userRepository.existsByAvatar(url)) {
+            logger.warn("Asset {} has no references counted but is still in use; keeping it", assetId);
+            asset.setRefCount(1);
+            asset.setLastUsedAt(LocalDateTime.now());
+            storedAssetRepository.save(asset);
+            return Optional.empty();
+        }
+        storedAssetRepository.delete(asset);
+        return Optional.of(asset);
+    }
+}
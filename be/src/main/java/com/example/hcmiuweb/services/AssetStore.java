@@ -0,0 +1,165 @@
+package com.example.hcmiuweb.services;
+
+import com.example.hcmiuweb.config.metrics.Counter;
+import com.example.hcmiuweb.config.metrics.MetricsRegistry;
+import com.example.hcmiuweb.entities.StoredAsset;
+import com.example.hcmiuweb.services.images.ImagePipeline;
+import com.example.hcmiuweb.services.images.ImageVariants;
+import com.example.hcmiuweb.services.storage.StorageBackend;
+import com.example.hcmiuweb.services.storage.StorageService;
+import com.example.hcmiuweb.services.storage.UploadTypes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Content-addressed uploads. The file is streamed once to a staging file
+ * while its SHA-256 is computed; if an asset with that hash already exists
+ * it is reused and nothing is written to storage, otherwise the staged file
+ * is handed to the folder's {@link StorageBackend} and recorded in
+ * {@code stored_asset}. Only the content types in {@link UploadTypes} are
+ * accepted. Avatars and thumbnails also get their resized variants from
+ * {@link ImagePipeline} before the staged file is dropped.
+ */
+@Service
+public class AssetStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(AssetStore.class);
+
+    public record StoredFile(String url, String publicId, String sha256, boolean reused, String variants,
+            String placeholder) {}
+
+    private static final long TRANSFER_CHUNK = 1 << 20;
+
+    private final StorageService storageService;
+    private final AssetService assetService;
+    private final ImagePipeline imagePipeline;
+    private final Counter reused;
+    private final Counter bytesSaved;
+
+    public AssetStore(StorageService storageService, AssetService assetService, ImagePipeline imagePipeline,
+            MetricsRegistry metricsRegistry) {
+        this.storageService = storageService;
+        this.assetService = assetService;
+        this.imagePipeline = imagePipeline;
+        this.reused = metricsRegistry.counter("app_asset_reused_total",
+                "Uploads served by an existing asset with the same content");
+        this.bytesSaved = metricsRegistry.counter("app_asset_bytes_saved_total",
+                "Upload bytes not sent to storage because the content already existed");
+    }
+
+    /**
+     * Stores the file under {@code folder} (first upload only) and takes a
+     * reference on it; release it with {@link AssetService#release} when the
+     * URL stops being used.
+     */
+    public StoredFile store(MultipartFile file, String folder) throws IOException {
+        String contentType = UploadTypes.validate(folder, file.getContentType());
+        StorageBackend backend = storageService.backendFor(folder);
+        Path staged = backend.createStagingFile();
+        try {
+            MessageDigest digest = sha256();
+            try (ReadableByteChannel in = Channels.newChannel(new DigestInputStream(file.getInputStream(), digest));
+                    FileChannel out = FileChannel.open(staged, StandardOpenOption.WRITE,
+                            StandardOpenOption.TRUNCATE_EXISTING)) {
+                long position = 0;
+                long copied;
+                while ((copied = out.transferFrom(in, position, TRANSFER_CHUNK)) > 0) {
+                    position += copied;
+                }
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+
+            Optional<StoredAsset> existing = assetService.retainExisting(hash);
+            if (existing.isPresent()) {
+                reused.increment();
+                bytesSaved.increment(file.getSize());
+                logger.info("Upload {} matches asset {}, reusing it", file.getOriginalFilename(), existing.get().getId());
+                return reusedFile(existing.get());
+            }
+
+            StorageBackend.StoredObject stored = backend.put(staged, folder, hash, UploadTypes.extension(contentType));
+            StoredAsset asset = new StoredAsset(hash, backend.name(), stored.url(), stored.key(),
+                    stored.resourceType(), contentType, file.getSize());
+            if (imagePipeline.handles(folder, contentType)) {
+                imagePipeline.process(staged, folder, hash, backend).ifPresent(image -> {
+                    asset.setVariants(ImageVariants.toSrcset(image.variants()));
+                    asset.setVariantKeys(image.variants().isEmpty() ? null : image.variants().stream()
+                            .map(ImagePipeline.Variant::key).collect(Collectors.joining(" ")));
+                    asset.setPlaceholder(image.placeholder());
+                });
+            }
+            StoredAsset registered;
+            try {
+                registered = assetService.register(asset);
+            } catch (DataIntegrityViolationException e) {
+                // The same content was uploaded concurrently; keep theirs and drop ours
+                StoredAsset winner = assetService.retainExisting(hash).orElseThrow(() -> e);
+                if (!isSameObject(asset, winner)) {
+                    deleteQuietly(asset);
+                }
+                return reusedFile(winner);
+            }
+            return new StoredFile(registered.getUrl(), registered.getPublicId(), hash, false,
+                    registered.getVariants(), registered.getPlaceholder());
+        } finally {
+            Files.deleteIfExists(staged);
+        }
+    }
+
+    /**
+     * Deletes the stored file and its image variants, logging failures.
+     */
+    public void deleteQuietly(StoredAsset asset) {
+        StorageBackend backend = storageService.backend(asset.getBackend());
+        List<String> keys = new ArrayList<>();
+        keys.add(asset.getPublicId());
+        if (asset.getVariantKeys() != null) {
+            keys.addAll(Arrays.asList(asset.getVariantKeys().split(" ")));
+        }
+        for (String key : keys) {
+            try {
+                backend.delete(key, asset.getResourceType());
+            } catch (Exception e) {
+                logger.warn("Could not delete {} from {} storage: {}", key, asset.getBackend(), e.getMessage());
+            }
+        }
+    }
+
+    private static StoredFile reusedFile(StoredAsset asset) {
+        return new StoredFile(asset.getUrl(), asset.getPublicId(), asset.getSha256(), true, asset.getVariants(),
+                asset.getPlaceholder());
+    }
+
+    // Local storage names files by hash, so a concurrent upload may have written the very same file
+    private static boolean isSameObject(StoredAsset a, StoredAsset b) {
+        return a.getBackend().equals(b.getBackend()) && a.getPublicId().equals(b.getPublicId());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.hcmiuweb.services;
+
+import com.example.hcmiuweb.config.metrics.Counter;
+import com.example.hcmiuweb.config.metrics.MetricsRegistry;
+import com.example.hcmiuweb.entities.AuthToken;
+import com.example.hcmiuweb.entities.User;
+import com.example.hcmiuweb.repositories.AuthTokenRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Issues and redeems single-use tokens for password reset and OTP flows.
+ *
+ * A token is {@code random(16) | expiry(8) | hmac(16)}, base64url encoded.
+ * The HMAC and the embedded expiry are checked before touching the database,
+ * so malformed, forged or expired tokens are rejected in memory. Valid ones
+ * are looked up by the SHA-256 of the token through a unique index.
+ */
+@Service
+public class AuthTokenService {
+
+    private static final int RANDOM_BYTES = 16;
+    private static final int EXPIRY_BYTES = 8;
+    private static final int MAC_BYTES = 16;
+    private static final int TOKEN_BYTES = RANDOM_BYTES + EXPIRY_BYTES + MAC_BYTES;
+
+    private final AuthTokenRepository authTokenRepository;
+    private final SecretKeySpec macKey;
+    private final SecureRandom random = new SecureRandom();
+    private final Counter rejectedInMemory;
+    private final Counter rejectedInDatabase;
+
+    public AuthTokenService(AuthTokenRepository authTokenRepository,
+            @Value("${hcmiuweb.tokenSecret:${hcmiuweb.jwtSecret}}") String tokenSecret,
+            MetricsRegistry metricsRegistry) {
+        this.authTokenRepository = authTokenRepository;
+        // Derive a separate key so reset tokens can never be confused with JWT signatures
+        this.macKey = new SecretKeySpec(sha256(("auth-token:" + tokenSecret).getBytes(StandardCharsets.UTF_8)),
+                "HmacSHA256");
+        this.rejectedInMemory = metricsRegistry.counter("app_auth_tokens_rejected_total",
+                "Auth tokens rejected, by where the check happened", "stage", "memory");
+        this.rejectedInDatabase = metricsRegistry.counter("app_auth_tokens_rejected_total",
+                "Auth tokens rejected, by where the check happened", "stage", "database");
+    }
+
+    /**
+     * Create a token for {@code user}, replacing any earlier token with the
+     * same purpose. Returns the raw token; only its hash is stored.
+     */
+    @Transactional
+    public String issue(User user, AuthToken.Purpose purpose, Duration ttl) {
+        LocalDateTime expiresAt = LocalDateTime.now().plus(ttl);
+        byte[] raw = new byte[TOKEN_BYTES];
+        random.nextBytes(raw);
+        ByteBuffer.wrap(raw, RANDOM_BYTES, EXPIRY_BYTES).putLong(expiresAt.toEpochSecond(ZoneOffset.UTC));
+        System.arraycopy(mac(purpose, raw), 0, raw, RANDOM_BYTES + EXPIRY_BYTES, MAC_BYTES);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+
+        authTokenRepository.deleteByUserAndPurpose(user.getId(), purpose);
+        authTokenRepository.save(new AuthToken(hash(token), purpose, user, expiresAt));
+        return token;
+    }
+
+    /**
+     * The user a still-valid token belongs to, without redeeming it.
+     */
+    @Transactional(readOnly = true)
+    public Optional<User> findUser(String token, AuthToken.Purpose purpose) {
+        if (!verify(token, purpose)) {
+            rejectedInMemory.increment();
+            return Optional.empty();
+        }
+        Optional<User> user = authTokenRepository.findByTokenHashAndPurpose(hash(token), purpose)
+                .filter(stored -> stored.getExpiresAt().isAfter(LocalDateTime.now()))
+                .map(AuthToken::getUser);
+        if (user.isEmpty()) {
+            rejectedInDatabase.increment();
+        }
+        return user;
+    }
+
+    /**
+     * Redeem a token. Returns false if it was already used, so concurrent
+     * redemptions of the same token cannot both succeed.
+     */
+    @Transactional
+    public boolean consume(String token, AuthToken.Purpose purpose) {
+        return verify(token, purpose) && authTokenRepository.deleteByTokenHash(hash(token)) > 0;
+    }
+
+    /**
+     * Delete up to {@code batchSize} expired tokens.
+     *
+     * @return number of rows removed
+     */
+    @Transactional
+    public int purgeExpiredBatch(int batchSize) {
+        List<Long> ids = authTokenRepository.findExpiredIds(LocalDateTime.now(), PageRequest.of(0, batchSize));
+        return ids.isEmpty() ? 0 : authTokenRepository.deleteByIdIn(ids);
+    }
+
+    private boolean verify(String token, AuthToken.Purpose purpose) {
+        if (token == null || token.length() != (TOKEN_BYTES * 4 + 2) / 3) {
+            return false;
+        }
+        byte[] raw;
+        try {
+            raw = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (raw.length != TOKEN_BYTES) {
+            return false;
+        }
+        byte[] expected = mac(purpose, raw);
+        byte[] actual = new byte[MAC_BYTES];
+        System.arraycopy(raw, RANDOM_BYTES + EXPIRY_BYTES, actual, 0, MAC_BYTES);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return false;
+        }
+        long expiresAt = ByteBuffer.wrap(raw, RANDOM_BYTES, EXPIRY_BYTES).getLong();
+        return expiresAt > LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private byte[] mac(AuthToken.Purpose purpose, byte[] raw) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(macKey);
+            mac.update((byte) purpose.ordinal());
+            mac.update(raw, 0, RANDOM_BYTES + EXPIRY_BYTES);
+            byte[] full = mac.doFinal();
+            byte[] truncated = new byte[MAC_BYTES];
+            System.arraycopy(full, 0, truncated, 0, MAC_BYTES);
+            return truncated;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private static String hash(String token) {
+        return HexFormat.of().formatHex(sha256(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static byte[] sha256(byte[] input) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(input);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
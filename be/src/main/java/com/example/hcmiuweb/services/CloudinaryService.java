@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.Map;
 
@@ -36,6 +37,35 @@ public class CloudinaryService {
                         "resource_type", "auto"));
     }
 
+    /**
+     * Upload a file from disk; Cloudinary reads it as it sends, so large
+     * videos are never held in memory
+     *
+     * @param file   The file to upload
+     * @param folder The folder to store it in Cloudinary
+     * @return Map containing upload results, including "secure_url",
+     *         "public_id" and "resource_type"
+     * @throws IOException If the upload fails
+     */
+    public Map uploadFile(File file, String folder) throws IOException {
+        return cloudinary.uploader().upload(file,
+                ObjectUtils.asMap(
+                        "folder", folder,
+                        "resource_type", "auto"));
+    }
+
+    /**
+     * Delete an asset of any resource type ("image", "video" or "raw")
+     *
+     * @param publicId     The public ID of the asset to delete
+     * @param resourceType The resource type it was stored as
+     * @return Map containing deletion results
+     * @throws IOException If the deletion fails
+     */
+    public Map deleteAsset(String publicId, String resourceType) throws IOException {
+        return cloudinary.uploader().destroy(publicId, ObjectUtils.asMap("resource_type", resourceType));
+    }
+
     /**
      * Delete an image from Cloudinary
      * 
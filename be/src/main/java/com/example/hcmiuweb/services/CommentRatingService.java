@@ -1,8 +1,9 @@
 package com.example.hcmiuweb.services;
 
+import com.example.hcmiuweb.components.live.CommentEvent;
 import com.example.hcmiuweb.entities.Comment;
 import com.example.hcmiuweb.entities.CommentRating;
-import com.example.hcmiuweb.entities.User;
+import com.example.hcmiuweb.exceptions.ResourceNotFoundException;
 import com.example.hcmiuweb.payload.request.CommentRatingRequest;
 import com.example.hcmiuweb.payload.response.CommentRatingResponse;
 import com.example.hcmiuweb.repositories.CommentRatingRepository;
@@ -10,8 +11,11 @@ import com.example.hcmiuweb.repositories.CommentRepository;
 import com.example.hcmiuweb.repositories.UserRepository;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -20,79 +24,59 @@ public class CommentRatingService {
     private final CommentRatingRepository commentRatingRepository;
     private final CommentRepository commentRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public CommentRatingService(
             CommentRatingRepository commentRatingRepository,
             CommentRepository commentRepository,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            ApplicationEventPublisher eventPublisher) {
         this.commentRatingRepository = commentRatingRepository;
         this.commentRepository = commentRepository;
         this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
     }
 
+    /**
+     * Applies a vote with toggle semantics: the same vote again removes it, a
+     * different one replaces it. Works on ids only; the vote is inserted
+     * against lazy user and comment references. A comment that is missing or
+     * on a hidden video is reported as {@link ResourceNotFoundException}.
+     */
     @Transactional
     public CommentRatingResponse rateComment(CommentRatingRequest ratingRequest) {
-        User user = userRepository.findById(ratingRequest.getUserId())
-                .orElseThrow(() -> new RuntimeException("User not found with ID: " + ratingRequest.getUserId()));
-
-        Comment comment = commentRepository.findById(ratingRequest.getCommentId())
-                .orElseThrow(() -> new RuntimeException("Comment not found with ID: " + ratingRequest.getCommentId()));
-
-        // Check if user already rated this comment - use the method that avoids session
-        // conflicts
-        Optional<CommentRating> existingRating = commentRatingRepository.findByUser_IdAndComment_Id(user.getId(),
-                comment.getId());
+        Long userId = ratingRequest.getUserId();
+        Long commentId = ratingRequest.getCommentId();
+        if (!commentRepository.existsByIdAndVideo_HiddenFalse(commentId)) {
+            throw new ResourceNotFoundException("Comment not found with ID: " + commentId);
+        }
 
-        // Handle case where the rating already exists
+        Optional<Integer> existingRating = commentRatingRepository.findRatingValue(userId, commentId);
         if (existingRating.isPresent()) {
-            CommentRating rating = existingRating.get();
-
-            // If the same rating is clicked, remove it (toggle behavior)
-            if (rating.getRating() == ratingRequest.getRating()) {
-                // Remove the rating from comment to update counts
-                comment.removeRating(rating);
-                // Delete from DB
-                commentRatingRepository.delete(rating);
-
-                // Save the comment to update its state
-                commentRepository.save(comment);
-
-                // Create response
-                CommentRatingResponse response = new CommentRatingResponse();
-                response.setLikes(comment.getLikesCount());
-                response.setDislikes(comment.getDislikesCount());
-
-                return response;
+            if (existingRating.get() == ratingRequest.getRating()) {
+                // Same rating clicked again, remove it (toggle behavior)
+                commentRatingRepository.deleteVote(userId, commentId);
             } else {
-                // Just update the rating value
-                rating.setRating(ratingRequest.getRating());
-                // Update the rating
-                commentRatingRepository.save(rating);
-
-                // Create response
-                CommentRatingResponse response = new CommentRatingResponse();
-                response.setLikes(comment.getLikesCount());
-                response.setDislikes(comment.getDislikesCount());
-
-                return response;
+                commentRatingRepository.updateRatingValue(userId, commentId, ratingRequest.getRating());
             }
         } else {
-            // Create new rating
-            CommentRating rating = new CommentRating(user, comment, ratingRequest.getRating());
-            // Save the CommentRating explicitly
-            CommentRating savedRating = commentRatingRepository.save(rating);
-
-            // Update the comment's rating counts (if not handled by cascade)
-            comment.addRating(savedRating);
-            commentRepository.save(comment);
-
-            CommentRatingResponse response = new CommentRatingResponse();
-            response.setLikes(comment.getLikesCount());
-            response.setDislikes(comment.getDislikesCount());
-
-            return response;
+            CommentRating rating = new CommentRating(
+                    userRepository.getReferenceById(userId),
+                    commentRepository.getReferenceById(commentId),
+                    ratingRequest.getRating());
+            try {
+                commentRatingRepository.saveAndFlush(rating);
+            } catch (DataIntegrityViolationException e) {
+                throw ResourceNotFoundException.fromForeignKeyViolation(e, Map.of(
+                        "fk_comment_rating_comment", "Comment not found with ID: " + commentId,
+                        "fk_comment_rating_user", "User not found with ID: " + userId));
+            }
         }
+
+        CommentRatingResponse votes = commentRatingRepository.countVotes(commentId);
+        eventPublisher.publishEvent(CommentEvent.rated(commentId, votes));
+        return votes;
     }
 
     @Transactional
@@ -115,6 +99,8 @@ public class CommentRatingService {
             comment.removeRating(rating);
             commentRatingRepository.delete(rating);
             commentRepository.save(comment);
+            eventPublisher.publishEvent(CommentEvent.rated(commentId,
+                    new CommentRatingResponse(comment.getLikesCount(), comment.getDislikesCount())));
         });
     }
 
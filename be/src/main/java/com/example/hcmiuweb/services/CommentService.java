@@ -1,19 +1,25 @@
 package com.example.hcmiuweb.services;
 
+import com.example.hcmiuweb.components.live.CommentEvent;
 import com.example.hcmiuweb.entities.Comment;
-import com.example.hcmiuweb.entities.User;
-import com.example.hcmiuweb.entities.Video;
+import com.example.hcmiuweb.entities.OutboxEvent;
+import com.example.hcmiuweb.exceptions.ResourceNotFoundException;
 import com.example.hcmiuweb.payload.request.CommentRequest;
 import com.example.hcmiuweb.payload.response.CommentResponse;
 import com.example.hcmiuweb.repositories.CommentRepository;
 import com.example.hcmiuweb.repositories.UserRepository;
 import com.example.hcmiuweb.repositories.VideoRepository;
+import com.example.hcmiuweb.services.images.ImageVariants;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,47 +28,84 @@ public class CommentService {
         private final CommentRepository commentRepository;
         private final UserRepository userRepository;
         private final VideoRepository videoRepository;
+        private final OutboxService outboxService;
+        private final ApplicationEventPublisher eventPublisher;
 
         @Autowired
         public CommentService(
                         CommentRepository commentRepository,
                         UserRepository userRepository,
-                        VideoRepository videoRepository) {
+                        VideoRepository videoRepository,
+                        OutboxService outboxService,
+                        ApplicationEventPublisher eventPublisher) {
                 this.commentRepository = commentRepository;
                 this.userRepository = userRepository;
                 this.videoRepository = videoRepository;
+                this.outboxService = outboxService;
+                this.eventPublisher = eventPublisher;
         }
 
+        /**
+         * Inserts the comment against lazy references after one existence
+         * check: the video must not be hidden, and a reply's parent must sit
+         * on that same video. Both are reported as
+         * {@link ResourceNotFoundException}, as is a missing user or a row
+         * deleted in between, which surfaces as a foreign key violation.
+         * The author's name and avatar come from the authenticated principal.
+         */
         @Transactional
-        public CommentResponse addComment(CommentRequest commentRequest, Long currentUserId) {
-                User user = userRepository.findById(commentRequest.getUserId())
-                                .orElseThrow(() -> new RuntimeException(
-                                                "User not found with ID: " + commentRequest.getUserId()));
-
-                Video video = videoRepository.findById(commentRequest.getVideoId())
-                                .orElseThrow(() -> new RuntimeException(
-                                                "Video not found with ID: " + commentRequest.getVideoId()));
-
-                Comment parentComment = null;
+        public CommentResponse addComment(CommentRequest commentRequest, UserDetailsImpl author) {
                 if (commentRequest.getParentCommentId() != null) {
-                        parentComment = commentRepository.findById(commentRequest.getParentCommentId())
-                                        .orElseThrow(() -> new RuntimeException("Parent comment not found with ID: "
-                                                        + commentRequest.getParentCommentId()));
+                        if (!commentRepository.existsByIdAndVideo_IdAndVideo_HiddenFalse(
+                                        commentRequest.getParentCommentId(), commentRequest.getVideoId())) {
+                                throw new ResourceNotFoundException(
+                                                "Parent comment not found with ID: " + commentRequest.getParentCommentId());
+                        }
+                } else if (!videoRepository.existsByIdAndHiddenFalse(commentRequest.getVideoId())) {
+                        throw new ResourceNotFoundException("Video not found with ID: " + commentRequest.getVideoId());
                 }
 
+                Comment parentComment = commentRequest.getParentCommentId() != null
+                                ? commentRepository.getReferenceById(commentRequest.getParentCommentId())
+                                : null;
+
                 Comment comment = new Comment(
                                 commentRequest.getContent(),
                                 LocalDateTime.now(),
-                                video,
-                                user,
+                                videoRepository.getReferenceById(commentRequest.getVideoId()),
+                                userRepository.getReferenceById(author.getId()),
                                 parentComment);
 
-                Comment savedComment = commentRepository.save(comment);
-
-                // Add the comment to the video
-                video.addComment(savedComment);
+                Comment savedComment;
+                try {
+                        savedComment = commentRepository.saveAndFlush(comment);
+                } catch (DataIntegrityViolationException e) {
+                        throw ResourceNotFoundException.fromForeignKeyViolation(e, Map.of(
+                                        "fk_comment_video", "Video not found with ID: " + commentRequest.getVideoId(),
+                                        "fk_comment_user", "User not found with ID: " + author.getId(),
+                                        "fk_comment_parent", "Parent comment not found with ID: "
+                                                        + commentRequest.getParentCommentId()));
+                }
 
-                return new CommentResponse(savedComment, currentUserId);
+                CommentResponse response = new CommentResponse();
+                response.setId(savedComment.getId());
+                response.setContent(savedComment.getContent());
+                response.setDatePosted(savedComment.getDatePosted());
+                response.setVideoId(commentRequest.getVideoId());
+                response.setUserId(author.getId());
+                response.setUsername(author.getUsername());
+                response.setUserAvatarUrl(author.getAvatar());
+                response.setUserAvatarVariants(ImageVariants.parse(author.getAvatarVariants()));
+                response.setUserAvatarPlaceholder(author.getAvatarPlaceholder());
+                response.setParentCommentId(commentRequest.getParentCommentId());
+                Map<String, Object> payload = new HashMap<>();
+                payload.put("commentId", response.getId());
+                payload.put("videoId", response.getVideoId());
+                payload.put("userId", response.getUserId());
+                payload.put("parentCommentId", response.getParentCommentId());
+                outboxService.append(OutboxEvent.VIDEO, response.getVideoId(), OutboxEvent.COMMENT_ADDED, payload);
+                eventPublisher.publishEvent(CommentEvent.added(response));
+                return response;
         }
 
         @Transactional
@@ -131,5 +174,9 @@ public class CommentService {
 
                 // Delete the comment and its replies
                 commentRepository.delete(comment);
+                Long videoId = comment.getVideo().getId();
+                outboxService.append(OutboxEvent.VIDEO, videoId, OutboxEvent.COMMENT_DELETED,
+                                Map.of("commentId", commentId, "videoId", videoId));
+                eventPublisher.publishEvent(CommentEvent.deleted(videoId, commentId));
         }
 }
\ No newline at end of file
@@ -1,36 +1,141 @@
 package com.example.hcmiuweb.services;
 
+import com.example.hcmiuweb.entities.OutboundEmail;
+import com.example.hcmiuweb.repositories.OutboundEmailRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outbound mail is written to the {@code outbound_email} table and delivered
+ * by {@link com.example.hcmiuweb.components.EmailQueueWorker}, so callers only
+ * pay for an INSERT instead of an SMTP round trip.
+ *
+ * OTP and password reset mails carry the only plaintext copy of their token.
+ * The body is blanked as soon as a message is sent or given up on, and such
+ * a message is never sent, or retried, after its token has expired.
+ */
 @Service
 public class EmailService {
 
+    public static final String TYPE_OTP = "otp";
+    public static final String TYPE_PASSWORD_RESET = "password_reset";
+
+    private final OutboundEmailRepository outboundEmailRepository;
+
     @Autowired
-    private JavaMailSender emailSender;
-
-    public void sendOtpEmail(String to, String otp) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom("tinchuanemnhe@gmail.com");
-        message.setTo(to);
-        message.setSubject("Your Login OTP Code");
-        message.setText("Your OTP code is: " + otp + "\n\nThis code will expire in 5 minutes.");
-        
-        emailSender.send(message);
-    }
-
-    public void sendPasswordResetEmail(String to, String resetToken) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom("noreply@hcmiu.edu.vn");
-        message.setTo(to);
-        message.setSubject("Password Reset Request");
-        message.setText("To reset your password, enter the below token in website:\n\n" +
-                 resetToken + "\n\n" +
-                "If you did not request a password reset, please ignore this email.\n\n" +
-                "This link will expire in 15 minutes.");
-        
-        emailSender.send(message);
-    }
-} 
\ No newline at end of file
+    public EmailService(OutboundEmailRepository outboundEmailRepository) {
+        this.outboundEmailRepository = outboundEmailRepository;
+    }
+
+    @Transactional
+    public void sendOtpEmail(String to, String otp, Duration ttl) {
+        enqueue(new OutboundEmail(TYPE_OTP, "tinchuanemnhe@gmail.com", to,
+                "Your Login OTP Code",
+                "Your OTP code is: " + otp + "\n\nThis code will expire in " + ttl.toMinutes() + " minutes."), ttl);
+    }
+
+    @Transactional
+    public void sendPasswordResetEmail(String to, String resetToken, Duration ttl) {
+        enqueue(new OutboundEmail(TYPE_PASSWORD_RESET, "noreply@hcmiu.edu.vn", to,
+                "Password Reset Request",
+                "To reset your password, enter the below token in website:\n\n" +
+                        resetToken + "\n\n" +
+                        "If you did not request a password reset, please ignore this email.\n\n" +
+                        "This link will expire in " + ttl.toMinutes() + " minutes."), ttl);
+    }
+
+    private void enqueue(OutboundEmail email, Duration ttl) {
+        email.setExpiresAt(email.getCreatedAt().plus(ttl));
+        outboundEmailRepository.save(email);
+    }
+
+    /**
+     * Lease up to {@code batchSize} due messages to the caller. Each claimed
+     * row has its attempt counter bumped and is hidden for {@code lease}, so
+     * a worker that dies mid-batch only delays those messages. Messages whose
+     * token expired while they waited are failed instead of returned.
+     */
+    @Transactional
+    public List<OutboundEmail> claimDueBatch(int batchSize, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboundEmail> due = outboundEmailRepository.findDueForUpdate(OutboundEmail.Status.PENDING, now,
+                PageRequest.of(0, batchSize));
+        List<OutboundEmail> batch = new ArrayList<>(due.size());
+        for (OutboundEmail email : due) {
+            if (email.getExpiresAt() != null && !email.getExpiresAt().isAfter(now)) {
+                giveUp(email, "Expired before delivery");
+                continue;
+            }
+            email.setAttempts(email.getAttempts() + 1);
+            email.setNextAttemptAt(now.plus(lease));
+            batch.add(email);
+        }
+        return batch;
+    }
+
+    @Transactional
+    public void markSent(List<OutboundEmail> emails) {
+        if (emails.isEmpty()) {
+            return;
+        }
+        List<Long> ids = emails.stream().map(OutboundEmail::getId).toList();
+        outboundEmailRepository.markSent(ids, LocalDateTime.now());
+    }
+
+    /**
+     * Schedule a retry with exponential backoff, or give up once
+     * {@code maxAttempts} is reached or the retry would land after the
+     * message's token has expired.
+     *
+     * @return true if the message was moved to FAILED
+     */
+    @Transactional
+    public boolean markFailed(OutboundEmail email, String error, int maxAttempts, Duration backoffBase,
+            Duration backoffMax) {
+        String lastError = error != null && error.length() > 500 ? error.substring(0, 500) : error;
+        boolean dead = email.getAttempts() >= maxAttempts;
+        if (!dead) {
+            Duration delay = backoffBase.multipliedBy(1L << Math.min(email.getAttempts() - 1, 20));
+            LocalDateTime retryAt = LocalDateTime.now().plus(delay.compareTo(backoffMax) > 0 ? backoffMax : delay);
+            dead = email.getExpiresAt() != null && retryAt.isAfter(email.getExpiresAt());
+            email.setNextAttemptAt(retryAt);
+        }
+        if (dead) {
+            giveUp(email, lastError);
+        } else {
+            email.setLastError(lastError);
+            outboundEmailRepository.save(email);
+        }
+        return dead;
+    }
+
+    private void giveUp(OutboundEmail email, String error) {
+        email.setStatus(OutboundEmail.Status.FAILED);
+        email.setLastError(error);
+        email.setBody("");
+        outboundEmailRepository.save(email);
+    }
+
+    @Transactional(readOnly = true)
+    public long countPending() {
+        return outboundEmailRepository.countByStatus(OutboundEmail.Status.PENDING);
+    }
+
+    @Transactional(readOnly = true)
+    public LocalDateTime findOldestPendingCreatedAt() {
+        return outboundEmailRepository.findOldestCreatedAt(OutboundEmail.Status.PENDING);
+    }
+
+    @Transactional
+    public int purgeFinishedBefore(LocalDateTime cutoff) {
+        return outboundEmailRepository.deleteByStatusAndCreatedAtBefore(OutboundEmail.Status.SENT, cutoff)
+                + outboundEmailRepository.deleteByStatusAndCreatedAtBefore(OutboundEmail.Status.FAILED, cutoff);
+    }
+}
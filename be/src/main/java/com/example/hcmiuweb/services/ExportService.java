@@ -0,0 +1,341 @@
+package com.example.hcmiuweb.services;
+
+import com.example.hcmiuweb.config.metrics.Counter;
+import com.example.hcmiuweb.config.metrics.MetricsRegistry;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams admin data exports straight from a forward-only JDBC result set to
+ * the response, one row at a time.
+ *
+ * On MySQL the statement uses Connector/J's streaming mode (fetch size
+ * {@code Integer.MIN_VALUE}), so rows are read off the socket as they are
+ * written out and neither the driver nor the application holds the whole
+ * result. Output is flushed every {@code export.flush-rows} rows. Each export
+ * keeps a pooled connection busy until it finishes, so only
+ * {@code export.max-concurrent} may run at once.
+ */
+@Service
+public class ExportService {
+
+    public enum Format {
+        CSV("text/csv; charset=utf-8", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Optional<Format> fromName(String name) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(name)) {
+                    return Optional.of(format);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    public enum Dataset {
+        RATINGS("ratings",
+                "SELECT vr.video_id, vr.user_id, u.username, vr.rating FROM video_rating vr " +
+                        "JOIN video v ON v.video_id = vr.video_id JOIN user u ON u.user_id = vr.user_id " +
+                        "WHERE v.hidden = false",
+                "vr.video_id",
+                "vr.user_id, vr.video_id",
+                List.of("videoId", "userId", "username", "rating")),
+        COMMENTS("comments",
+                "SELECT c.comment_id, c.video_id, c.parent_comment_id, c.user_id, u.username, c.date_posted, " +
+                        "c.content FROM comment c " +
+                        "JOIN video v ON v.video_id = c.video_id JOIN user u ON u.user_id = c.user_id " +
+                        "WHERE v.hidden = false",
+                "c.video_id",
+                "c.comment_id",
+                List.of("commentId", "videoId", "parentCommentId", "userId", "username", "datePosted", "content")),
+        VIDEO_VIEWS("video-views",
+                "SELECT v.video_id, v.title, v.user_id, v.category_id, v.upload_date, v.view_count FROM video v " +
+                        "WHERE v.hidden = false",
+                "v.video_id",
+                "v.video_id",
+                List.of("videoId", "title", "uploaderId", "categoryId", "uploadDate", "viewCount")),
+        UPLOADER_VIEWS("uploader-views",
+                "SELECT u.user_id, u.username, COUNT(*), COALESCE(SUM(v.view_count), 0) FROM video v " +
+                        "JOIN user u ON u.user_id = v.user_id WHERE v.hidden = false " +
+                        "GROUP BY u.user_id, u.username",
+                null,
+                null,
+                List.of("uploaderId", "username", "videos", "views"));
+
+        private final String path;
+        private final String sql;
+        private final String videoColumn;
+        private final String orderBy;
+        private final List<String> columns;
+
+        // Rows come out in primary key order, which MySQL reads without a sort
+        Dataset(String path, String sql, String videoColumn, String orderBy, List<String> columns) {
+            this.path = path;
+            this.sql = sql;
+            this.videoColumn = videoColumn;
+            this.orderBy = orderBy;
+            this.columns = columns;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public boolean supportsVideoFilter() {
+            return videoColumn != null;
+        }
+
+        public static Optional<Dataset> fromPath(String path) {
+            for (Dataset dataset : values()) {
+                if (dataset.path.equals(path)) {
+                    return Optional.of(dataset);
+                }
+            }
+            return Optional.empty();
+        }
+
+        // Grouped datasets have no video filter or order; callers check supportsVideoFilter()
+        String sql(Long videoId) {
+            String query = videoId == null ? sql : sql + " AND " + videoColumn + " = ?";
+            return orderBy == null ? query : query + " ORDER BY " + orderBy;
+        }
+    }
+
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+    private final Semaphore slots;
+    private final AtomicInteger active = new AtomicInteger();
+    private final Counter exportedRows;
+
+    @Value("${export.flush-rows:1000}")
+    private int flushRows;
+
+    public ExportService(DataSource dataSource, ObjectMapper objectMapper, MetricsRegistry metricsRegistry,
+            @Value("${export.max-concurrent:2}") int maxConcurrent) {
+        this.dataSource = dataSource;
+        this.objectMapper = objectMapper;
+        this.slots = new Semaphore(maxConcurrent);
+        this.exportedRows = metricsRegistry.counter("app_export_rows_total", "Rows written by admin data exports");
+        metricsRegistry.gauge("app_exports_active", "Admin data exports in progress", active::get);
+    }
+
+    /**
+     * Claims one of the {@code export.max-concurrent} slots. Returns false
+     * when all are in use; otherwise the caller must {@link #release()}.
+     */
+    public boolean tryAcquire() {
+        if (!slots.tryAcquire()) {
+            return false;
+        }
+        active.incrementAndGet();
+        return true;
+    }
+
+    public void release() {
+        active.decrementAndGet();
+        slots.release();
+    }
+
+    /**
+     * Writes the dataset to {@code out} and returns the number of rows. The
+     * stream is flushed progressively but not closed.
+     */
+    public long export(Dataset dataset, Long videoId, Format format, OutputStream out)
+            throws SQLException, IOException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(dataset.sql(videoId),
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            statement.setFetchSize(isMySql(connection) ? Integer.MIN_VALUE : flushRows);
+            if (videoId != null) {
+                statement.setLong(1, videoId);
+            }
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            RowWriter rows = format == Format.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer, objectMapper);
+            long count = 0;
+            try (ResultSet result = statement.executeQuery()) {
+                rows.writeHeader(dataset.columns);
+                Object[] values = new Object[dataset.columns.size()];
+                while (result.next()) {
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = value(result.getObject(i + 1));
+                    }
+                    rows.writeRow(dataset.columns, values);
+                    count++;
+                    if (count % flushRows == 0) {
+                        rows.flush();
+                        out.flush();
+                        exportedRows.increment(flushRows);
+                    }
+                }
+            } catch (IOException e) {
+                // Client went away. Closing a streaming result set would read
+                // the rest of it off the socket first, so stop the query instead
+                statement.cancel();
+                throw e;
+            }
+            rows.flush();
+            out.flush();
+            exportedRows.increment(count % flushRows);
+            return count;
+        }
+    }
+
+    // Numbers stay numbers; dates become ISO-8601 text
+    private static Object value(Object raw) {
+        if (raw instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toString();
+        }
+        if (raw == null || raw instanceof Number || raw instanceof Boolean) {
+            return raw;
+        }
+        return raw.toString();
+    }
+
+    private static boolean isMySql(Connection connection) throws SQLException {
+        return connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("mysql");
+    }
+
+    private interface RowWriter {
+        void writeHeader(List<String> columns) throws IOException;
+
+        void writeRow(List<String> columns, Object[] values) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void writeHeader(List<String> columns) throws IOException {
+            writeLine(columns.toArray());
+        }
+
+        @Override
+        public void writeRow(List<String> columns, Object[] values) throws IOException {
+            writeLine(values);
+        }
+
+        private void writeLine(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = values[i];
+                if (value == null) {
+                    continue;
+                }
+                writer.write(value instanceof String text ? escape(text) : value.toString());
+            }
+            writer.write("\r\n");
+        }
+
+        // RFC 4180 quoting, plus a leading quote on text a spreadsheet would run as a formula
+        private static String escape(String text) {
+            if (!text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0) {
+                text = "'" + text;
+            }
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+                return text;
+            }
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private static final class NdjsonRowWriter implements RowWriter {
+        private final Writer writer;
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer, ObjectMapper objectMapper) throws IOException {
+            this.writer = writer;
+            this.generator = objectMapper.getFactory().createGenerator(writer)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        }
+
+        @Override
+        public void writeHeader(List<String> columns) {
+        }
+
+        @Override
+        public void writeRow(List<String> columns, Object[] values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < values.length; i++) {
+                generator.writeFieldName(columns.get(i));
+                Object value = values[i];
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Long || value instanceof Integer || value instanceof Short) {
+                    generator.writeNumber(((Number) value).longValue());
+                } else if (value instanceof BigInteger number) {
+                    generator.writeNumber(number);
+                } else if (value instanceof BigDecimal number) {
+                    generator.writeNumber(number);
+                } else if (value instanceof Number number) {
+                    generator.writeNumber(number.doubleValue());
+                } else if (value instanceof Boolean flag) {
+                    generator.writeBoolean(flag);
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.flush();
+            writer.write('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+            writer.flush();
+        }
+    }
+}
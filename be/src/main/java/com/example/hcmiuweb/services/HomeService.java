@@ -0,0 +1,187 @@
+package com.example.hcmiuweb.services;
+
+import com.example.hcmiuweb.config.metrics.Counter;
+import com.example.hcmiuweb.config.metrics.Histogram;
+import com.example.hcmiuweb.config.metrics.MetricsRegistry;
+import com.example.hcmiuweb.dtos.VideoDTO;
+import com.example.hcmiuweb.payload.response.HomeResponse;
+import com.example.hcmiuweb.repositories.CategoryRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Builds the home page in one request: latest uploads, most viewed, the
+ * caller's watch list and one rail per category.
+ *
+ * Sections load concurrently on a small bounded pool, each with its own
+ * timeout. A section that times out, fails or finds the pool full is served
+ * from its last good copy (or empty, if there is none yet), so one slow query
+ * can't hold up the page. The category rails wait for the category list, so a
+ * request takes at most two section timeouts. A timed-out query still runs to
+ * completion on the pool, and refreshes the copy when it does.
+ */
+@Service
+public class HomeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HomeService.class);
+
+    private record CategoryRef(Long id, String name) {
+    }
+
+    private final VideoService videoService;
+    private final WatchListService watchListService;
+    private final CategoryRepository categoryRepository;
+    private final ThreadPoolExecutor executor;
+
+    // Last good copy of each section shared by every caller, and of each user's watch list
+    private final Map<String, Object> lastGood = new ConcurrentHashMap<>();
+    private final Map<String, Object> lastGoodWatchLists;
+
+    private final Histogram sectionTime;
+    private final Map<String, Counter> fallbacks = new ConcurrentHashMap<>();
+    private final MetricsRegistry metricsRegistry;
+
+    @Value("${home.section-timeout-ms:500}")
+    private long sectionTimeoutMillis;
+
+    @Value("${home.rail-size:12}")
+    private int railSize;
+
+    @Value("${home.category-rails:8}")
+    private int categoryRails;
+
+    public HomeService(VideoService videoService, WatchListService watchListService,
+            CategoryRepository categoryRepository, @Value("${home.threads:4}") int threads,
+            @Value("${home.queue-capacity:64}") int queueCapacity,
+            @Value("${home.watch-list-cache-size:10000}") int watchListCacheSize, MetricsRegistry metricsRegistry) {
+        this.videoService = videoService;
+        this.watchListService = watchListService;
+        this.categoryRepository = categoryRepository;
+        this.metricsRegistry = metricsRegistry;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        // A full queue fails the section straight to its fallback rather than queueing behind other pages
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "home-section-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.lastGoodWatchLists = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+                return size() > watchListCacheSize;
+            }
+        });
+
+        this.sectionTime = metricsRegistry.histogram("app_home_section_seconds",
+                "Time to load one home page section", Histogram.LATENCY_SECONDS);
+        metricsRegistry.gauge("app_home_pool_queued", "Home page sections waiting for a thread",
+                () -> executor.getQueue().size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * @param userId the caller, or null when anonymous
+     */
+    public HomeResponse getHome(Long userId) {
+        CompletableFuture<List<VideoDTO>> latest = section("latest", lastGood, "latest",
+                () -> videoService.findLatestVideos(railSize), List.of());
+        CompletableFuture<List<VideoDTO>> mostViewed = section("most_viewed", lastGood, "most_viewed",
+                () -> videoService.findMostViewedVideos(railSize), List.of());
+        CompletableFuture<List<VideoDTO>> watchList = userId == null
+                ? CompletableFuture.completedFuture(null)
+                : section("watch_list", lastGoodWatchLists, "watch_list:" + userId,
+                        () -> videoService.findVideoCards(watchListService.findPreviewVideoIds(userId, railSize)),
+                        List.of());
+        CompletableFuture<List<HomeResponse.CategoryRail>> rails = section("categories", lastGood, "categories",
+                this::loadCategories, List.<CategoryRef>of())
+                .thenCompose(this::categoryRails);
+
+        return new HomeResponse(latest.join(), mostViewed.join(), watchList.join(), rails.join());
+    }
+
+    private List<CategoryRef> loadCategories() {
+        return categoryRepository.findAll(Sort.by("name")).stream()
+                .limit(categoryRails)
+                .map(category -> new CategoryRef(category.getId(), category.getName()))
+                .toList();
+    }
+
+    private CompletableFuture<List<HomeResponse.CategoryRail>> categoryRails(List<CategoryRef> categories) {
+        List<CompletableFuture<HomeResponse.CategoryRail>> rails = new ArrayList<>(categories.size());
+        for (CategoryRef category : categories) {
+            rails.add(section("category", lastGood, "category:" + category.id(),
+                    () -> videoService.findLatestVideosByCategory(category.id(), railSize), List.<VideoDTO>of())
+                    .thenApply(videos -> new HomeResponse.CategoryRail(category.id(), category.name(), videos)));
+        }
+        return CompletableFuture.allOf(rails.toArray(CompletableFuture[]::new))
+                .thenApply(done -> rails.stream()
+                        .map(CompletableFuture::join)
+                        .filter(rail -> !rail.videos().isEmpty())
+                        .toList());
+    }
+
+    /**
+     * Loads one section on the pool. Never completes exceptionally: on
+     * timeout, failure or rejection it completes with the last good copy
+     * under {@code key}, or {@code empty}.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> section(String name, Map<String, Object> cache, String key, Supplier<T> loader,
+            T empty) {
+        long started = System.nanoTime();
+        CompletableFuture<T> load;
+        try {
+            load = CompletableFuture.supplyAsync(() -> {
+                T value = loader.get();
+                cache.put(key, value);
+                sectionTime.observeNanos(System.nanoTime() - started);
+                return value;
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            load = CompletableFuture.failedFuture(e);
+        }
+        return load.completeOnTimeout(null, sectionTimeoutMillis, TimeUnit.MILLISECONDS)
+                .exceptionally(error -> {
+                    logger.warn("Home section {} failed: {}", key, error.toString());
+                    return null;
+                })
+                .thenApply(value -> {
+                    if (value != null) {
+                        return value;
+                    }
+                    fallbackCounter(name).increment();
+                    T cached = (T) cache.get(key);
+                    return cached != null ? cached : empty;
+                });
+    }
+
+    private Counter fallbackCounter(String section) {
+        return fallbacks.computeIfAbsent(section, name -> metricsRegistry.counter("app_home_section_fallbacks_total",
+                "Home page sections served from the last good copy after a timeout, error or full pool",
+                "section", name));
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.hcmiuweb.services;
+
+import com.example.hcmiuweb.entities.OutboxEvent;
+import com.example.hcmiuweb.repositories.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Records a domain event as part of the caller's transaction, so the event
+     * exists if and only if the change it describes was committed. Must be
+     * called inside a transaction.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String aggregateType, Long aggregateId, String eventType, Map<String, ?> payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize " + eventType + " event", e);
+        }
+        outboxEventRepository.save(new OutboxEvent(aggregateType, aggregateId, eventType, json));
+    }
+
+    /**
+     * The oldest pending events that are due at {@code now}, in commit order.
+     */
+    @Transactional(readOnly = true)
+    public List<OutboxEvent> findDueBatch(LocalDateTime now, int batchSize) {
+        return outboxEventRepository.findDue(OutboxEvent.Status.PENDING, now, PageRequest.of(0, batchSize));
+    }
+
+    @Transactional
+    public void markDispatched(List<Long> ids, LocalDateTime dispatchedAt) {
+        if (!ids.isEmpty()) {
+            outboxEventRepository.markDispatched(ids, dispatchedAt);
+        }
+    }
+
+    /**
+     * Records a failed delivery and schedules the retry with exponential
+     * backoff. Returns true when the event has used up its attempts and was
+     * marked FAILED.
+     */
+    @Transactional
+    public boolean markFailed(OutboxEvent event, String error, int maxAttempts, Duration backoffBase,
+            Duration backoffMax) {
+        event.setAttempts(event.getAttempts() + 1);
+        event.setLastError(error != null && error.length() > 500 ? error.substring(0, 500) : error);
+        boolean dead = event.getAttempts() >= maxAttempts;
+        if (dead) {
+            event.setStatus(OutboxEvent.Status.FAILED);
+        } else {
+            Duration delay = backoffBase.multipliedBy(1L << Math.min(event.getAttempts() - 1, 20));
+            event.setNextAttemptAt(LocalDateTime.now().plus(delay.compareTo(backoffMax) > 0 ? backoffMax : delay));
+        }
+        outboxEventRepository.save(event);
+        return dead;
+    }
+
+    @Transactional(readOnly = true)
+    public long countPending() {
+        return outboxEventRepository.countByStatus(OutboxEvent.Status.PENDING);
+    }
+
+    @Transactional(readOnly = true)
+    public LocalDateTime findOldestPendingCreatedAt() {
+        return outboxEventRepository.findOldestCreatedAt(OutboxEvent.Status.PENDING);
+    }
+
+    @Transactional
+    public int purgeDispatchedBatch(LocalDateTime cutoff, int batchSize) {
+        List<Long> ids = outboxEventRepository.findDispatchedIdsBefore(OutboxEvent.Status.DISPATCHED, cutoff,
+                PageRequest.of(0, batchSize));
+        return ids.isEmpty() ? 0 : outboxEventRepository.deleteByIdIn(ids);
+    }
+}
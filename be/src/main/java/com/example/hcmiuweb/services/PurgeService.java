@@ -0,0 +1,286 @@
+package com.example.hcmiuweb.services;
+
+import com.example.hcmiuweb.entities.PurgeJob;
+import com.example.hcmiuweb.repositories.AuthTokenRepository;
+import com.example.hcmiuweb.repositories.CommentRatingRepository;
+import com.example.hcmiuweb.repositories.CommentRepository;
+import com.example.hcmiuweb.repositories.PurgeJobRepository;
+import com.example.hcmiuweb.repositories.RatingRepository;
+import com.example.hcmiuweb.repositories.UserRepository;
+import com.example.hcmiuweb.repositories.VideoRepository;
+import com.example.hcmiuweb.repositories.WatchListRepository;
+import com.example.hcmiuweb.repositories.WatchProgressRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Removes deleted videos and users in the background.
+ *
+ * Deletion only hides the target and enqueues a {@link PurgeJob}. Each call
+ * to {@link #runBatch} then removes at most one batch of dependent rows in its
+ * own short transaction, so no single delete holds locks on thousands of
+ * comments and ratings. Batches select a page of keys and delete by key, the
+ * same way the auth token and outbox purges do.
+ */
+@Service
+public class PurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PurgeService.class);
+
+    public record BatchResult(int deletedRows, boolean pending) {}
+
+    private final PurgeJobRepository purgeJobRepository;
+    private final VideoRepository videoRepository;
+    private final UserRepository userRepository;
+    private final CommentRepository commentRepository;
+    private final CommentRatingRepository commentRatingRepository;
+    private final RatingRepository ratingRepository;
+    private final WatchListRepository watchListRepository;
+    private final WatchProgressRepository watchProgressRepository;
+    private final AuthTokenRepository authTokenRepository;
+    private final AssetService assetService;
+
+    public PurgeService(PurgeJobRepository purgeJobRepository, VideoRepository videoRepository,
+            UserRepository userRepository, CommentRepository commentRepository,
+            CommentRatingRepository commentRatingRepository, RatingRepository ratingRepository,
+            WatchListRepository watchListRepository, WatchProgressRepository watchProgressRepository,
+            AuthTokenRepository authTokenRepository, AssetService assetService) {
+        this.purgeJobRepository = purgeJobRepository;
+        this.videoRepository = videoRepository;
+        this.userRepository = userRepository;
+        this.commentRepository = commentRepository;
+        this.commentRatingRepository = commentRatingRepository;
+        this.ratingRepository = ratingRepository;
+        this.watchListRepository = watchListRepository;
+        this.watchProgressRepository = watchProgressRepository;
+        this.authTokenRepository = authTokenRepository;
+        this.assetService = assetService;
+    }
+
+    /**
+     * Enqueues the purge in the caller's transaction, so the job exists if
+     * and only if the target was hidden.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public PurgeJob enqueue(PurgeJob.TargetType targetType, Long targetId) {
+        return purgeJobRepository.save(new PurgeJob(targetType, targetId));
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<PurgeJob> findJob(Long jobId) {
+        return purgeJobRepository.findById(jobId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> findRunnableJobIds(int limit) {
+        return purgeJobRepository.findRunnableIds(PurgeJob.Status.PENDING, LocalDateTime.now(),
+                PageRequest.of(0, limit));
+    }
+
+    @Transactional(readOnly = true)
+    public long countPending() {
+        return purgeJobRepository.countByStatus(PurgeJob.Status.PENDING);
+    }
+
+    /**
+     * Runs one batch of the job's current phase and records the progress in
+     * the same transaction. A phase that finds nothing left to delete moves
+     * the job on to the next one.
+     */
+    @Transactional
+    public BatchResult runBatch(Long jobId, int batchSize) {
+        PurgeJob job = purgeJobRepository.findForUpdate(jobId).orElse(null);
+        if (job == null || job.getStatus() != PurgeJob.Status.PENDING) {
+            return new BatchResult(0, false);
+        }
+
+        int removed;
+        boolean phaseDone;
+        if (job.getPhase() == PurgeJob.Phase.TARGET) {
+            // Rows written after their phase finished (e.g. a comment racing
+            // the delete) would block the final delete, so sweep them first
+            removed = sweep(job, batchSize);
+            phaseDone = removed == 0;
+            if (phaseDone) {
+                removed = deleteTarget(job);
+            }
+        } else {
+            removed = runPhase(job.getTargetType(), job.getPhase(), job.getTargetId(), batchSize);
+            phaseDone = removed == 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        job.setDeletedRows(job.getDeletedRows() + removed);
+        job.setUpdatedAt(now);
+        job.setAttempts(0);
+        job.setNextAttemptAt(null);
+        if (phaseDone) {
+            if (job.getPhase() == PurgeJob.Phase.TARGET) {
+                job.setStatus(PurgeJob.Status.DONE);
+                job.setFinishedAt(now);
+                logger.info("Purged {} {} ({} rows removed)", job.getTargetType(), job.getTargetId(),
+                        job.getDeletedRows());
+            } else {
+                List<PurgeJob.Phase> phases = job.getTargetType().getPhases();
+                job.setPhase(phases.get(phases.indexOf(job.getPhase()) + 1));
+            }
+        }
+        purgeJobRepository.save(job);
+        return new BatchResult(removed, job.getStatus() == PurgeJob.Status.PENDING);
+    }
+
+    /**
+     * Records a failed batch and schedules the retry with exponential
+     * backoff. Returns true when the job has used up its attempts and was
+     * marked FAILED.
+     */
+    @Transactional
+    public boolean markFailed(Long jobId, String error, int maxAttempts, Duration backoffBase, Duration backoffMax) {
+        PurgeJob job = purgeJobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return false;
+        }
+        job.setAttempts(job.getAttempts() + 1);
+        job.setLastError(error != null && error.length() > 500 ? error.substring(0, 500) : error);
+        job.setUpdatedAt(LocalDateTime.now());
+        boolean dead = job.getAttempts() >= maxAttempts;
+        if (dead) {
+            job.setStatus(PurgeJob.Status.FAILED);
+        } else {
+            Duration delay = backoffBase.multipliedBy(1L << Math.min(job.getAttempts() - 1, 20));
+            job.setNextAttemptAt(LocalDateTime.now().plus(delay.compareTo(backoffMax) > 0 ? backoffMax : delay));
+        }
+        purgeJobRepository.save(job);
+        return dead;
+    }
+
+    private int sweep(PurgeJob job, int batchSize) {
+        for (PurgeJob.Phase phase : job.getTargetType().getPhases()) {
+            if (phase == PurgeJob.Phase.TARGET) {
+                break;
+            }
+            int removed = runPhase(job.getTargetType(), phase, job.getTargetId(), batchSize);
+            if (removed > 0) {
+                return removed;
+            }
+        }
+        return 0;
+    }
+
+    private int deleteTarget(PurgeJob job) {
+        if (job.getTargetType() == PurgeJob.TargetType.VIDEO) {
+            return deleteVideoRow(job.getTargetId());
+        }
+        userRepository.findById(job.getTargetId()).ifPresent(user -> assetService.release(user.getAvatar()));
+        return userRepository.deleteRowById(job.getTargetId());
+    }
+
+    // Gives back the uploaded files the video was holding on to
+    private int deleteVideoRow(Long videoId) {
+        videoRepository.findById(videoId).ifPresent(video -> {
+            assetService.release(video.getUrl());
+            assetService.release(video.getThumbnailUrl());
+        });
+        return videoRepository.deleteRowById(videoId);
+    }
+
+    // Returns the number of rows removed; 0 means the phase is finished
+    private int runPhase(PurgeJob.TargetType targetType, PurgeJob.Phase phase, Long targetId, int batchSize) {
+        if (targetType == PurgeJob.TargetType.VIDEO) {
+            return runVideoPhase(phase, targetId, batchSize);
+        }
+        PageRequest page = PageRequest.of(0, batchSize);
+        switch (phase) {
+            case COMMENT_RATINGS: {
+                List<Long> commentIds = commentRatingRepository.findCommentIdsByUser(targetId, page);
+                return commentIds.isEmpty() ? 0
+                        : commentRatingRepository.deleteByUserAndCommentIds(targetId, commentIds);
+            }
+            case COMMENTS:
+                return deleteComments(commentRepository.findIdsByUser(targetId, page));
+            case VIDEO_RATINGS: {
+                List<Long> videoIds = ratingRepository.findVideoIdsByUser(targetId, page);
+                return videoIds.isEmpty() ? 0 : ratingRepository.deleteByUserAndVideoIds(targetId, videoIds);
+            }
+            case WATCH_LISTS: {
+                List<Long> listIds = watchListRepository.findIdsByUser(targetId);
+                if (listIds.isEmpty()) {
+                    return 0;
+                }
+                Long listId = listIds.get(0);
+                List<Long> videoIds = watchListRepository.findVideoIdsInList(listId, batchSize);
+                return videoIds.isEmpty() ? watchListRepository.deleteRowById(listId)
+                        : watchListRepository.removeVideosFromList(listId, videoIds);
+            }
+            case WATCH_PROGRESS: {
+                List<Long> videoIds = watchProgressRepository.findVideoIdsByUser(targetId, page);
+                return videoIds.isEmpty() ? 0 : watchProgressRepository.deleteByUserAndVideoIds(targetId, videoIds);
+            }
+            case AUTH_TOKENS: {
+                List<Long> tokenIds = authTokenRepository.findIdsByUser(targetId, page);
+                return tokenIds.isEmpty() ? 0 : authTokenRepository.deleteByIdIn(tokenIds);
+            }
+            case VIDEOS: {
+                // One of the user's videos at a time, each purged like a deleted video
+                List<Long> videoIds = videoRepository.findIdsByUploader(targetId, PageRequest.of(0, 1));
+                if (videoIds.isEmpty()) {
+                    return 0;
+                }
+                Long videoId = videoIds.get(0);
+                for (PurgeJob.Phase videoPhase : PurgeJob.TargetType.VIDEO.getPhases()) {
+                    if (videoPhase == PurgeJob.Phase.TARGET) {
+                        break;
+                    }
+                    int removed = runVideoPhase(videoPhase, videoId, batchSize);
+                    if (removed > 0) {
+                        return removed;
+                    }
+                }
+                return deleteVideoRow(videoId);
+            }
+            default:
+                throw new IllegalStateException("Phase " + phase + " does not apply to users");
+        }
+    }
+
+    private int runVideoPhase(PurgeJob.Phase phase, Long videoId, int batchSize) {
+        switch (phase) {
+            case COMMENTS:
+                return deleteComments(commentRepository.findIdsByVideo(videoId, PageRequest.of(0, batchSize)));
+            case VIDEO_RATINGS: {
+                List<Long> userIds = ratingRepository.findUserIdsByVideo(videoId, PageRequest.of(0, batchSize));
+                return userIds.isEmpty() ? 0 : ratingRepository.deleteByVideoAndUserIds(videoId, userIds);
+            }
+            case WATCH_LISTS: {
+                List<Long> listIds = watchListRepository.findListIdsContainingVideo(videoId, batchSize);
+                return listIds.isEmpty() ? 0 : watchListRepository.removeVideoFromLists(videoId, listIds);
+            }
+            case WATCH_PROGRESS: {
+                List<Long> userIds = watchProgressRepository.findUserIdsByVideo(videoId,
+                        PageRequest.of(0, batchSize));
+                return userIds.isEmpty() ? 0 : watchProgressRepository.deleteByVideoAndUserIds(videoId, userIds);
+            }
+            default:
+                throw new IllegalStateException("Phase " + phase + " does not apply to videos");
+        }
+    }
+
+    // Deletes the comments with their votes; replies to them are kept as top-level comments
+    private int deleteComments(List<Long> commentIds) {
+        if (commentIds.isEmpty()) {
+            return 0;
+        }
+        int removed = commentRatingRepository.deleteByCommentIds(commentIds);
+        commentRepository.detachReplies(commentIds);
+        return removed + commentRepository.deleteByIdIn(commentIds);
+    }
+}
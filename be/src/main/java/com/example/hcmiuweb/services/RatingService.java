@@ -1,5 +1,6 @@
 package com.example.hcmiuweb.services;
 
+import com.example.hcmiuweb.entities.OutboxEvent;
 import com.example.hcmiuweb.entities.User;
 import com.example.hcmiuweb.entities.Video;
 import com.example.hcmiuweb.entities.VideoRating;
@@ -12,6 +13,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -21,13 +24,19 @@ public class RatingService {
     private final RatingRepository ratingRepository;
     private final VideoRepository videoRepository;
     private final UserRepository userRepository;
+    private final OutboxService outboxService;
+    private final VideoDetailCache detailCache;
 
     public RatingService(RatingRepository ratingRepository,
                          VideoRepository videoRepository,
-                         UserRepository userRepository) {
+                         UserRepository userRepository,
+                         OutboxService outboxService,
+                         VideoDetailCache detailCache) {
         this.ratingRepository = ratingRepository;
         this.videoRepository = videoRepository;
         this.userRepository = userRepository;
+        this.outboxService = outboxService;
+        this.detailCache = detailCache;
     }
 
     @Transactional
@@ -48,7 +57,7 @@ public class RatingService {
                     .orElseThrow(() -> new RuntimeException("User not found with ID: " + rating.getUser().getId()));
 
             // Verify video exists
-            Video video = videoRepository.findById(rating.getVideo().getId())
+            Video video = videoRepository.findByIdAndHiddenFalse(rating.getVideo().getId())
                     .orElseThrow(() -> new RuntimeException("Video not found with ID: " + rating.getVideo().getId()));
 
             // Create or update the rating
@@ -60,13 +69,16 @@ public class RatingService {
             if (existingRating.isPresent()) {
                 // Update existing rating
                 VideoRating updatedRating = existingRating.get();
+                Integer previousRating = updatedRating.getRating();
                 updatedRating.setRating(rating.getRating());
+                appendRatingChanged(ratingId, previousRating, rating.getRating());
                 return ratingRepository.save(updatedRating);
             } else {
                 // Create new rating
                 rating.setUser(user);
                 rating.setVideo(video);
                 rating.setId(ratingId);
+                appendRatingChanged(ratingId, null, rating.getRating());
                 return ratingRepository.save(rating);
             }
         } catch (Exception e) {
@@ -77,6 +89,20 @@ public class RatingService {
 
     @Transactional
     public void deleteRating(VideoRatingId id) {
-        ratingRepository.deleteById(id);
+        ratingRepository.findById(id).ifPresent(existing -> {
+            ratingRepository.delete(existing);
+            appendRatingChanged(id, existing.getRating(), null);
+        });
+    }
+
+    // A null previousRating means a new rating; a null rating means it was removed
+    private void appendRatingChanged(VideoRatingId id, Integer previousRating, Integer rating) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("videoId", id.getVideoId());
+        payload.put("userId", id.getUserId());
+        payload.put("previousRating", previousRating);
+        payload.put("rating", rating);
+        outboxService.append(OutboxEvent.VIDEO, id.getVideoId(), OutboxEvent.RATING_CHANGED, payload);
+        detailCache.invalidateAfterCommit(id.getVideoId());
     }
 }
\ No newline at end of file
@@ -0,0 +1,378 @@
+package com.example.hcmiuweb.services;
+
+import com.example.hcmiuweb.entities.Category;
+import com.example.hcmiuweb.entities.OutboxEvent;
+import com.example.hcmiuweb.entities.StatsAppliedEvent;
+import com.example.hcmiuweb.entities.StatsDaily;
+import com.example.hcmiuweb.entities.StatsLeader;
+import com.example.hcmiuweb.entities.StatsTotal;
+import com.example.hcmiuweb.entities.User;
+import com.example.hcmiuweb.payload.response.AdminStatsResponse;
+import com.example.hcmiuweb.repositories.CategoryRepository;
+import com.example.hcmiuweb.repositories.CommentRepository;
+import com.example.hcmiuweb.repositories.RatingRepository;
+import com.example.hcmiuweb.repositories.StatsAppliedEventRepository;
+import com.example.hcmiuweb.repositories.StatsDailyRepository;
+import com.example.hcmiuweb.repositories.StatsLeaderRepository;
+import com.example.hcmiuweb.repositories.StatsTotalRepository;
+import com.example.hcmiuweb.repositories.UserRepository;
+import com.example.hcmiuweb.repositories.VideoRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Pre-aggregated counters behind the admin dashboard.
+ *
+ * The rollup tables are kept current incrementally: uploads, ratings,
+ * comments and signups from outbox events (deduplicated by event id, since
+ * delivery is at-least-once), views from an in-memory buffer that
+ * {@code StatsRollup} flushes every few seconds. Deletions and anything
+ * written outside the services drift the totals a little; {@link #compact}
+ * recomputes them and the leaderboards from the source tables every night.
+ *
+ * Reads never touch the rollup tables: {@link #getSnapshot()} returns the
+ * last snapshot built by {@link #refreshSnapshot()}.
+ */
+@Service
+public class StatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatsService.class);
+
+    /**
+     * Views drained from the buffer by {@link #drainViews()}, applied in one
+     * transaction and put back with {@link #restoreViews} if that fails.
+     */
+    public record ViewCounts(Map<LocalDate, Long> byDay, Map<Long, Long> byUploader, Map<Long, Long> byCategory) {
+        public boolean isEmpty() {
+            return byDay.isEmpty() && byUploader.isEmpty() && byCategory.isEmpty();
+        }
+
+        public long total() {
+            return byDay.values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+
+    private final StatsDailyRepository statsDailyRepository;
+    private final StatsTotalRepository statsTotalRepository;
+    private final StatsLeaderRepository statsLeaderRepository;
+    private final StatsAppliedEventRepository statsAppliedEventRepository;
+    private final VideoRepository videoRepository;
+    private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+    private final RatingRepository ratingRepository;
+    private final CommentRepository commentRepository;
+    private final ObjectMapper objectMapper;
+
+    private final ConcurrentHashMap<LocalDate, AtomicLong> viewsByDay = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, AtomicLong> viewsByUploader = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, AtomicLong> viewsByCategory = new ConcurrentHashMap<>();
+    private final AtomicReference<AdminStatsResponse> snapshot = new AtomicReference<>();
+
+    @Value("${stats.days:30}")
+    private int days;
+
+    @Value("${stats.top-size:10}")
+    private int topSize;
+
+    public StatsService(StatsDailyRepository statsDailyRepository, StatsTotalRepository statsTotalRepository,
+            StatsLeaderRepository statsLeaderRepository, StatsAppliedEventRepository statsAppliedEventRepository,
+            VideoRepository videoRepository, UserRepository userRepository, CategoryRepository categoryRepository,
+            RatingRepository ratingRepository, CommentRepository commentRepository, ObjectMapper objectMapper) {
+        this.statsDailyRepository = statsDailyRepository;
+        this.statsTotalRepository = statsTotalRepository;
+        this.statsLeaderRepository = statsLeaderRepository;
+        this.statsAppliedEventRepository = statsAppliedEventRepository;
+        this.videoRepository = videoRepository;
+        this.userRepository = userRepository;
+        this.categoryRepository = categoryRepository;
+        this.ratingRepository = ratingRepository;
+        this.commentRepository = commentRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Counts a view in memory; called on every view, so it never touches the
+     * database.
+     */
+    public void recordView(Long uploaderId, Long categoryId) {
+        viewsByDay.computeIfAbsent(LocalDate.now(), day -> new AtomicLong()).incrementAndGet();
+        if (uploaderId != null) {
+            viewsByUploader.computeIfAbsent(uploaderId, id -> new AtomicLong()).incrementAndGet();
+        }
+        if (categoryId != null) {
+            viewsByCategory.computeIfAbsent(categoryId, id -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    public ViewCounts drainViews() {
+        ViewCounts counts = new ViewCounts(drain(viewsByDay), drain(viewsByUploader), drain(viewsByCategory));
+        // Earlier days stop receiving views; drop their emptied counters
+        LocalDate today = LocalDate.now();
+        viewsByDay.entrySet().removeIf(entry -> entry.getKey().isBefore(today.minusDays(1))
+                && entry.getValue().get() == 0);
+        return counts;
+    }
+
+    /**
+     * The buffered views, left in the buffer. They are already in the video
+     * rows but not yet in the rollups.
+     */
+    public ViewCounts peekViews() {
+        return new ViewCounts(peek(viewsByDay), peek(viewsByUploader), peek(viewsByCategory));
+    }
+
+    public void restoreViews(ViewCounts counts) {
+        counts.byDay().forEach((day, views) -> viewsByDay.computeIfAbsent(day, d -> new AtomicLong()).addAndGet(views));
+        counts.byUploader().forEach((id, views) ->
+                viewsByUploader.computeIfAbsent(id, i -> new AtomicLong()).addAndGet(views));
+        counts.byCategory().forEach((id, views) ->
+                viewsByCategory.computeIfAbsent(id, i -> new AtomicLong()).addAndGet(views));
+    }
+
+    @Transactional
+    public void applyViews(ViewCounts counts) {
+        LocalDateTime now = LocalDateTime.now();
+        counts.byDay().forEach((day, views) -> addToDay(day, views, 0, 0, 0, 0, now));
+        statsTotalRepository.addToTotals(0, 0, counts.total(), 0, 0, now);
+        counts.byUploader().forEach((id, views) -> addToLeader(StatsLeader.Kind.UPLOADER, id, 0, views));
+        counts.byCategory().forEach((id, views) -> addToLeader(StatsLeader.Kind.CATEGORY, id, 0, views));
+    }
+
+    /**
+     * Applies one outbox event to the rollups, in the same transaction as the
+     * record that it was applied. Returns false for an event already applied.
+     */
+    @Transactional
+    public boolean applyEvent(OutboxEvent event) throws JsonProcessingException {
+        if (statsAppliedEventRepository.existsById(event.getId())) {
+            return false;
+        }
+        JsonNode payload = objectMapper.readTree(event.getPayload());
+        // Counted on the day it happened, however late it is delivered
+        LocalDate day = event.getCreatedAt().toLocalDate();
+        LocalDateTime now = LocalDateTime.now();
+        switch (event.getEventType()) {
+            case OutboxEvent.VIDEO_CREATED:
+                addToDay(day, 0, 1, 0, 0, 0, now);
+                statsTotalRepository.addToTotals(1, 0, 0, 0, 0, now);
+                addToLeader(StatsLeader.Kind.UPLOADER, longValue(payload, "uploaderId"), 1, 0);
+                addToLeader(StatsLeader.Kind.CATEGORY, longValue(payload, "categoryId"), 1, 0);
+                break;
+            case OutboxEvent.VIDEO_DELETED:
+                statsTotalRepository.addToTotals(-1, 0, 0, 0, 0, now);
+                break;
+            case OutboxEvent.RATING_CHANGED: {
+                boolean hadRating = longValue(payload, "previousRating") != null;
+                boolean hasRating = longValue(payload, "rating") != null;
+                if (!hadRating && hasRating) {
+                    addToDay(day, 0, 0, 1, 0, 0, now);
+                    statsTotalRepository.addToTotals(0, 0, 0, 1, 0, now);
+                } else if (hadRating && !hasRating) {
+                    statsTotalRepository.addToTotals(0, 0, 0, -1, 0, now);
+                }
+                break;
+            }
+            case OutboxEvent.COMMENT_ADDED:
+                addToDay(day, 0, 0, 0, 1, 0, now);
+                statsTotalRepository.addToTotals(0, 0, 0, 0, 1, now);
+                break;
+            case OutboxEvent.COMMENT_DELETED:
+                statsTotalRepository.addToTotals(0, 0, 0, 0, -1, now);
+                break;
+            case OutboxEvent.USER_REGISTERED:
+                addToDay(day, 0, 0, 0, 0, 1, now);
+                statsTotalRepository.addToTotals(0, 1, 0, 0, 0, now);
+                break;
+            case OutboxEvent.USER_DELETED:
+                statsTotalRepository.addToTotals(0, -1, 0, 0, 0, now);
+                break;
+            default:
+                return false;
+        }
+        statsAppliedEventRepository.save(new StatsAppliedEvent(event.getId(), now));
+        return true;
+    }
+
+    @Transactional(readOnly = true)
+    public boolean hasTotals() {
+        return statsTotalRepository.existsById(StatsTotal.ID);
+    }
+
+    /**
+     * Recomputes the totals and both leaderboards from the source tables and
+     * drops daily rows older than {@code retentionDays}. Events committed but
+     * not yet delivered when this runs are counted twice until the next
+     * compaction; with the outbox a second or two behind that is negligible.
+     *
+     * Views still in the buffer are already in the video rows and will be
+     * added again when flushed, so they are taken off the recomputed counts.
+     * The buffer is read just before the first query, which fixes the
+     * transaction's snapshot for the rollup queries after it.
+     */
+    @Transactional
+    public void compact(int retentionDays) {
+        LocalDateTime now = LocalDateTime.now();
+        ViewCounts buffered = peekViews();
+        Object[] visible = videoRepository.summarizeVisible().get(0);
+        StatsTotal totals = statsTotalRepository.findById(StatsTotal.ID).orElseGet(StatsTotal::new);
+        totals.setVideos(((Number) visible[0]).longValue());
+        totals.setViews(((Number) visible[1]).longValue() - buffered.total());
+        totals.setUsers(userRepository.countByHiddenFalse());
+        totals.setRatings(ratingRepository.count());
+        totals.setComments(commentRepository.count());
+        totals.setUpdatedAt(now);
+        totals.setCompactedAt(now);
+        statsTotalRepository.save(totals);
+
+        rebuildLeaders(StatsLeader.Kind.UPLOADER, videoRepository.rollupByUploader(), buffered.byUploader());
+        rebuildLeaders(StatsLeader.Kind.CATEGORY, videoRepository.rollupByCategory(), buffered.byCategory());
+
+        int dropped = statsDailyRepository.deleteBefore(LocalDate.now().minusDays(retentionDays));
+        logger.info("Stats compacted: {} videos, {} users, {} views; {} old daily rows dropped",
+                totals.getVideos(), totals.getUsers(), totals.getViews(), dropped);
+    }
+
+    @Transactional
+    public int purgeAppliedEventsBatch(LocalDateTime cutoff, int batchSize) {
+        List<Long> ids = statsAppliedEventRepository.findIdsAppliedBefore(cutoff, PageRequest.of(0, batchSize));
+        return ids.isEmpty() ? 0 : statsAppliedEventRepository.deleteByIdIn(ids);
+    }
+
+    /**
+     * Reads the rollups into a new snapshot. A handful of primary key and
+     * index range reads, whatever the size of the site.
+     */
+    @Transactional(readOnly = true)
+    public AdminStatsResponse refreshSnapshot() {
+        LocalDate today = LocalDate.now();
+        StatsTotal totals = statsTotalRepository.findById(StatsTotal.ID).orElseGet(StatsTotal::new);
+        List<AdminStatsResponse.Day> series = statsDailyRepository
+                .findByDateGreaterThanEqualOrderByDateAsc(today.minusDays(days - 1)).stream()
+                .map(day -> new AdminStatsResponse.Day(day.getDate(), day.getViews(), day.getUploads(),
+                        day.getRatings(), day.getComments(), day.getSignups()))
+                .collect(Collectors.toList());
+
+        List<StatsLeader> uploaders = statsLeaderRepository.findTopByViews(StatsLeader.Kind.UPLOADER,
+                PageRequest.of(0, topSize));
+        Map<Long, String> usernames = userRepository.findAllById(subjectIds(uploaders)).stream()
+                .filter(user -> !user.isHidden())
+                .collect(Collectors.toMap(User::getId, User::getUsername));
+        List<StatsLeader> categories = statsLeaderRepository.findTopByViews(StatsLeader.Kind.CATEGORY,
+                PageRequest.of(0, topSize));
+        Map<Long, String> categoryNames = categoryRepository.findAllById(subjectIds(categories)).stream()
+                .collect(Collectors.toMap(Category::getId, Category::getName));
+
+        AdminStatsResponse response = new AdminStatsResponse(LocalDateTime.now(), totals.getUpdatedAt(),
+                totals.getCompactedAt(),
+                new AdminStatsResponse.Totals(totals.getVideos(), totals.getUsers(), totals.getViews(),
+                        totals.getRatings(), totals.getComments()),
+                series, leaders(uploaders, usernames::get), leaders(categories, categoryNames::get));
+        snapshot.set(response);
+        return response;
+    }
+
+    /**
+     * The last snapshot; only the first call after startup reads the tables.
+     */
+    public AdminStatsResponse getSnapshot() {
+        AdminStatsResponse current = snapshot.get();
+        return current != null ? current : refreshSnapshot();
+    }
+
+    // Inserts the row on first use; a concurrent insert fails the transaction and the caller retries
+    private void addToDay(LocalDate date, long views, long uploads, long ratings, long comments, long signups,
+            LocalDateTime now) {
+        if (statsDailyRepository.addToDay(date, views, uploads, ratings, comments, signups, now) == 0) {
+            StatsDaily day = new StatsDaily(date);
+            day.setViews(views);
+            day.setUploads(uploads);
+            day.setRatings(ratings);
+            day.setComments(comments);
+            day.setSignups(signups);
+            statsDailyRepository.saveAndFlush(day);
+        }
+    }
+
+    private void addToLeader(StatsLeader.Kind kind, Long subjectId, long uploads, long views) {
+        if (subjectId == null) {
+            return;
+        }
+        if (statsLeaderRepository.addToLeader(kind, subjectId, uploads, views) == 0) {
+            statsLeaderRepository.saveAndFlush(new StatsLeader(kind, subjectId, uploads, views));
+        }
+    }
+
+    private void rebuildLeaders(StatsLeader.Kind kind, List<Object[]> rows, Map<Long, Long> bufferedViews) {
+        statsLeaderRepository.deleteByKind(kind);
+        List<StatsLeader> leaders = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            long id = ((Number) row[0]).longValue();
+            leaders.add(new StatsLeader(kind, id, ((Number) row[1]).longValue(),
+                    ((Number) row[2]).longValue() - bufferedViews.getOrDefault(id, 0L)));
+        }
+        statsLeaderRepository.saveAll(leaders);
+    }
+
+    // Subjects deleted since the last compaction have no name and are left out
+    private static List<AdminStatsResponse.Leader> leaders(List<StatsLeader> rows, Function<Long, String> names) {
+        List<AdminStatsResponse.Leader> leaders = new ArrayList<>(rows.size());
+        for (StatsLeader row : rows) {
+            String name = names.apply(row.getId().getSubjectId());
+            if (name != null) {
+                leaders.add(new AdminStatsResponse.Leader(row.getId().getSubjectId(), name, row.getUploads(),
+                        row.getViews()));
+            }
+        }
+        return leaders;
+    }
+
+    private static List<Long> subjectIds(List<StatsLeader> rows) {
+        return rows.stream().map(row -> row.getId().getSubjectId()).collect(Collectors.toList());
+    }
+
+    private static Long longValue(JsonNode payload, String field) {
+        JsonNode value = payload.get(field);
+        return value == null || value.isNull() ? null : value.asLong();
+    }
+
+    private static <K> Map<K, Long> drain(ConcurrentHashMap<K, AtomicLong> counters) {
+        Map<K, Long> drained = new HashMap<>();
+        counters.forEach((key, counter) -> {
+            long value = counter.getAndSet(0);
+            if (value != 0) {
+                drained.put(key, value);
+            }
+        });
+        return drained;
+    }
+
+    private static <K> Map<K, Long> peek(ConcurrentHashMap<K, AtomicLong> counters) {
+        Map<K, Long> buffered = new HashMap<>();
+        counters.forEach((key, counter) -> {
+            long value = counter.get();
+            if (value != 0) {
+                buffered.put(key, value);
+            }
+        });
+        return buffered;
+    }
+}
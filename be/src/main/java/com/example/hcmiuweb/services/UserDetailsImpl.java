@@ -16,6 +16,8 @@ public class UserDetailsImpl implements UserDetails {
     @JsonIgnore
     private String password;
     private String avatar;
+    private String avatarVariants;
+    private String avatarPlaceholder;
     private Collection<? extends GrantedAuthority> authorities;    public UserDetailsImpl(Long id, String username, String email, String password, String avatar,
                            Collection<? extends GrantedAuthority> authorities) {
         this.id = id;
@@ -27,7 +29,7 @@ public class UserDetailsImpl implements UserDetails {
     }
 
     public static UserDetailsImpl build(User user) {
-        List<GrantedAuthority> auths = List.of(new SimpleGrantedAuthority(user.getRole().getRoleName()));        return new UserDetailsImpl(
+        List<GrantedAuthority> auths = List.of(new SimpleGrantedAuthority(user.getRole().getRoleName()));        UserDetailsImpl details = new UserDetailsImpl(
                 user.getId(),
                 user.getUsername(),
                 user.getEmail(),
@@ -35,9 +37,14 @@ public class UserDetailsImpl implements UserDetails {
                 user.getAvatar(),
                 auths
         );
+        details.avatarVariants = user.getAvatarVariants();
+        details.avatarPlaceholder = user.getAvatarPlaceholder();
+        return details;
     }    public Long getId() { return id; }
     public String getEmail() { return email; }
     public String getAvatar() { return avatar; }
+    public String getAvatarVariants() { return avatarVariants; }
+    public String getAvatarPlaceholder() { return avatarPlaceholder; }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() { return authorities; }
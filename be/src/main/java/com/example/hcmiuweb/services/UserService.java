@@ -1,40 +1,97 @@
 package com.example.hcmiuweb.services;
 
+import com.example.hcmiuweb.entities.OutboxEvent;
+import com.example.hcmiuweb.entities.PurgeJob;
 import com.example.hcmiuweb.entities.User;
 import com.example.hcmiuweb.repositories.UserRepository;
+import com.example.hcmiuweb.repositories.VideoRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class UserService {
 
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final UserRepository userRepository;
+    private final VideoRepository videoRepository;
+    private final PurgeService purgeService;
+    private final OutboxService outboxService;
     private final PasswordEncoder passwordEncoder;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, VideoRepository videoRepository, PurgeService purgeService,
+            OutboxService outboxService, PasswordEncoder passwordEncoder) {
         this.userRepository = userRepository;
+        this.videoRepository = videoRepository;
+        this.purgeService = purgeService;
+        this.outboxService = outboxService;
         this.passwordEncoder = passwordEncoder;
     }
 
     public Optional<User> findByEmail(String email) {
-        return userRepository.findByEmail(email);
+        return userRepository.findByEmail(email).filter(user -> !user.isHidden());
     }
 
     public List<User> findAllUsers() {
-        return userRepository.findAll();
+        return userRepository.findByHiddenFalse();
+    }
+
+    /**
+     * One page of the admin user list, by signup date. Blank filters are
+     * ignored; {@code role} may be given with or without the ROLE_ prefix.
+     */
+    @Transactional(readOnly = true)
+    public Slice<UserRepository.UserSummary> findUserSummaries(String role, String usernamePrefix,
+            String emailPrefix, boolean newestFirst, int page, int size) {
+        Sort.Direction direction = newestFirst ? Sort.Direction.DESC : Sort.Direction.ASC;
+        PageRequest pageRequest = PageRequest.of(page, Math.min(size, MAX_PAGE_SIZE),
+                Sort.by(direction, "registrationDate", "id"));
+        return userRepository.findSummaries(roleName(role), likePrefix(usernamePrefix), likePrefix(emailPrefix),
+                pageRequest);
+    }
+
+    @Transactional(readOnly = true)
+    public long countUsers(String role, String usernamePrefix, String emailPrefix) {
+        return userRepository.countSummaries(roleName(role), likePrefix(usernamePrefix), likePrefix(emailPrefix));
+    }
+
+    private static String roleName(String role) {
+        if (role == null || role.isBlank()) {
+            return "";
+        }
+        String name = role.trim().toUpperCase(Locale.ROOT);
+        return name.startsWith("ROLE_") ? name : "ROLE_" + name;
+    }
+
+    // Prefix match that treats % and _ in the input literally
+    private static String likePrefix(String prefix) {
+        if (prefix == null || prefix.isBlank()) {
+            return "";
+        }
+        return prefix.trim().replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
     }
 
     public Optional<User> findUserById(Long id) {
-        return userRepository.findById(id);
+        return userRepository.findById(id).filter(user -> !user.isHidden());
     }
 
+    @Transactional
     public User createUser(User user) {
         // Hash the password before saving
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        outboxService.append(OutboxEvent.USER, saved.getId(), OutboxEvent.USER_REGISTERED,
+                Map.of("userId", saved.getId()));
+        return saved;
     }
 
     public User updateUser(User user) {
@@ -48,8 +105,28 @@ public class UserService {
         return userRepository.save(user);
     }
 
-    public void deleteUser(Long id) {
-        userRepository.deleteById(id);
+    /**
+     * Hides the user and their videos right away; sign-in stops working at
+     * once. Their comments, ratings, watch lists and videos are removed later
+     * by {@link PurgeService}.
+     */
+    @Transactional
+    public PurgeJob deleteUser(Long id) {
+        User user = userRepository.findById(id)
+                .filter(existing -> !existing.isHidden())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        user.setHidden(true);
+        userRepository.save(user);
+
+        List<Long> videoIds = videoRepository.findVisibleIdsByUploader(id);
+        if (!videoIds.isEmpty()) {
+            videoRepository.hideByIdIn(videoIds);
+            for (Long videoId : videoIds) {
+                outboxService.append(OutboxEvent.VIDEO, videoId, OutboxEvent.VIDEO_DELETED, Map.of("videoId", videoId));
+            }
+        }
+        outboxService.append(OutboxEvent.USER, id, OutboxEvent.USER_DELETED, Map.of("userId", id));
+        return purgeService.enqueue(PurgeJob.TargetType.USER, id);
     }
 
     /**
@@ -0,0 +1,269 @@
+package com.example.hcmiuweb.services;
+
+import com.example.hcmiuweb.components.outbox.OutboxSubscriber;
+import com.example.hcmiuweb.config.metrics.Counter;
+import com.example.hcmiuweb.config.metrics.MetricsRegistry;
+import com.example.hcmiuweb.dtos.VideoDTO;
+import com.example.hcmiuweb.entities.OutboxEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded in-memory cache of video detail DTOs behind {@code GET /api/videos/{id}}.
+ *
+ * Concurrent misses for one video share a single load: the first caller runs
+ * the loader and the others wait for its result, so a video that suddenly
+ * gets thousands of requests costs one set of queries. A hit older than
+ * {@code video-cache.refresh-ahead-seconds} reloads in the background while
+ * the current copy is still served, so popular videos don't expire under
+ * load; entries older than {@code video-cache.ttl-seconds} are reloaded
+ * before being served.
+ *
+ * Updates, deletes and rating changes invalidate the entry once their
+ * transaction commits, and again when their outbox event is delivered. The
+ * outbox only dispatches on one node, so other nodes catch up within the TTL,
+ * as they do for uploader and category renames. Views don't invalidate: each
+ * entry counts the views recorded on this node since it was loaded and adds
+ * them to the stored view count.
+ */
+@Service
+public class VideoDetailCache implements OutboxSubscriber {
+
+    private static final Logger logger = LoggerFactory.getLogger(VideoDetailCache.class);
+
+    private static final Set<String> EVENT_TYPES = Set.of(OutboxEvent.VIDEO_UPDATED, OutboxEvent.VIDEO_DELETED,
+            OutboxEvent.RATING_CHANGED);
+
+    private static final class Entry {
+        // Null when there is no visible video with this id
+        final VideoDTO video;
+        final long loadedAt;
+        final AtomicLong viewsSinceLoad = new AtomicLong();
+
+        Entry(VideoDTO video) {
+            this.video = video;
+            this.loadedAt = System.nanoTime();
+        }
+    }
+
+    // A failed load is removed before its future fails, so finished futures in here always hold an entry
+    private final ConcurrentHashMap<Long, CompletableFuture<Entry>> entries = new ConcurrentHashMap<>();
+    private final Set<Long> refreshing = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final ThreadPoolExecutor refreshExecutor;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long refreshAheadNanos;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+    private final Counter refreshes;
+    private final Counter evictions;
+
+    public VideoDetailCache(@Value("${video-cache.max-entries:10000}") int maxEntries,
+            @Value("${video-cache.ttl-seconds:60}") long ttlSeconds,
+            @Value("${video-cache.refresh-ahead-seconds:45}") long refreshAheadSeconds,
+            @Value("${video-cache.refresh-threads:2}") int refreshThreads,
+            MetricsRegistry metricsRegistry) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.refreshAheadNanos = TimeUnit.SECONDS.toNanos(refreshAheadSeconds);
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        // A full queue skips the refresh; the entry is then reloaded on a request once it expires
+        this.refreshExecutor = new ThreadPoolExecutor(refreshThreads, refreshThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1000), runnable -> {
+                    Thread thread = new Thread(runnable, "video-cache-refresh-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        this.hits = metricsRegistry.counter("app_video_cache_requests_total", "Video detail cache lookups",
+                "result", "hit");
+        this.misses = metricsRegistry.counter("app_video_cache_requests_total", "Video detail cache lookups",
+                "result", "miss");
+        this.coalesced = metricsRegistry.counter("app_video_cache_requests_total", "Video detail cache lookups",
+                "result", "coalesced");
+        this.refreshes = metricsRegistry.counter("app_video_cache_refreshes_total",
+                "Video details reloaded in the background before they expired");
+        this.evictions = metricsRegistry.counter("app_video_cache_evictions_total",
+                "Video details dropped to keep the cache within video-cache.max-entries");
+        metricsRegistry.gauge("app_video_cache_entries", "Video details cached", entries::size);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdown();
+    }
+
+    /**
+     * The cached detail for {@code id}, loaded with {@code loader} on a miss.
+     * Call outside a transaction: callers waiting for another caller's load
+     * should not hold a connection while they wait.
+     */
+    public Optional<VideoDTO> get(Long id, Function<Long, Optional<VideoDTO>> loader) {
+        while (true) {
+            CompletableFuture<Entry> current = entries.get(id);
+            if (current == null) {
+                CompletableFuture<Entry> created = new CompletableFuture<>();
+                if (entries.putIfAbsent(id, created) == null) {
+                    return view(load(id, loader, created));
+                }
+                continue;
+            }
+            if (!current.isDone()) {
+                coalesced.increment();
+                return view(current.join());
+            }
+            Entry entry = current.join();
+            long age = System.nanoTime() - entry.loadedAt;
+            if (age >= ttlNanos) {
+                CompletableFuture<Entry> created = new CompletableFuture<>();
+                if (entries.replace(id, current, created)) {
+                    return view(load(id, loader, created));
+                }
+                continue;
+            }
+            hits.increment();
+            if (age >= refreshAheadNanos) {
+                refreshAhead(id, current, loader);
+            }
+            return view(entry);
+        }
+    }
+
+    /**
+     * Adds a view to the cached copy, if there is one.
+     */
+    public void recordView(Long id) {
+        CompletableFuture<Entry> current = entries.get(id);
+        if (current != null && current.isDone()) {
+            current.join().viewsSinceLoad.incrementAndGet();
+        }
+    }
+
+    public void invalidate(Long id) {
+        entries.remove(id);
+    }
+
+    /**
+     * Invalidates once the current transaction commits, so a load running
+     * meanwhile can't cache the old row again; right away without one.
+     */
+    public void invalidateAfterCommit(Long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(id);
+            }
+        });
+    }
+
+    @Override
+    public Set<String> eventTypes() {
+        return EVENT_TYPES;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        invalidate(event.getAggregateId());
+    }
+
+    private Entry load(Long id, Function<Long, Optional<VideoDTO>> loader, CompletableFuture<Entry> future) {
+        misses.increment();
+        Entry entry;
+        try {
+            entry = new Entry(loader.apply(id).orElse(null));
+        } catch (RuntimeException e) {
+            entries.remove(id, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+        future.complete(entry);
+        evictIfFull();
+        return entry;
+    }
+
+    private void refreshAhead(Long id, CompletableFuture<Entry> current, Function<Long, Optional<VideoDTO>> loader) {
+        if (!refreshing.add(id)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    Entry fresh = new Entry(loader.apply(id).orElse(null));
+                    // Fails if the entry was invalidated meanwhile, which is what we want
+                    if (entries.replace(id, current, CompletableFuture.completedFuture(fresh))) {
+                        refreshes.increment();
+                    }
+                } catch (RuntimeException e) {
+                    logger.warn("Refreshing video {} failed: {}", id, e.toString());
+                } finally {
+                    refreshing.remove(id);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(id);
+        }
+    }
+
+    // Drops expired entries first, then arbitrary ones, down to 90% of the limit
+    private void evictIfFull() {
+        if (entries.size() <= maxEntries || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            int target = maxEntries * 9 / 10;
+            for (Iterator<CompletableFuture<Entry>> it = entries.values().iterator(); it.hasNext(); ) {
+                CompletableFuture<Entry> entry = it.next();
+                if (entry.isDone() && now - entry.join().loadedAt >= ttlNanos) {
+                    it.remove();
+                    evictions.increment();
+                }
+            }
+            for (Iterator<CompletableFuture<Entry>> it = entries.values().iterator();
+                    entries.size() > target && it.hasNext(); ) {
+                it.next();
+                it.remove();
+                evictions.increment();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static Optional<VideoDTO> view(Entry entry) {
+        if (entry.video == null) {
+            return Optional.empty();
+        }
+        VideoDTO video = new VideoDTO(entry.video);
+        long base = video.getViewCount() == null ? 0 : video.getViewCount();
+        video.setViewCount(base + entry.viewsSinceLoad.get());
+        return Optional.of(video);
+    }
+}
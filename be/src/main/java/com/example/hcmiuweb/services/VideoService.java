@@ -1,12 +1,25 @@
 package com.example.hcmiuweb.services;
 
+import com.example.hcmiuweb.config.metrics.Counter;
+import com.example.hcmiuweb.config.metrics.MetricsRegistry;
 import com.example.hcmiuweb.dtos.VideoDTO;
 import com.example.hcmiuweb.entities.Comment;
+import com.example.hcmiuweb.entities.OutboxEvent;
+import com.example.hcmiuweb.entities.PurgeJob;
+import com.example.hcmiuweb.entities.StoredAsset;
 import com.example.hcmiuweb.entities.Video;
 import com.example.hcmiuweb.entities.VideoRating;
+import com.example.hcmiuweb.exceptions.ResourceNotFoundException;
+import com.example.hcmiuweb.repositories.CategoryRepository;
 import com.example.hcmiuweb.repositories.CommentRepository;
 import com.example.hcmiuweb.repositories.RatingRepository;
+import com.example.hcmiuweb.repositories.UserRepository;
 import com.example.hcmiuweb.repositories.VideoRepository;
+import com.example.hcmiuweb.services.images.ImageVariants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,91 +29,163 @@ import java.util.stream.Collectors;
 
 @Service
 public class VideoService {
+    private static final Logger logger = LoggerFactory.getLogger(VideoService.class);
+
     private final VideoRepository videoRepository;
     private final RatingRepository ratingRepository;
     private final CommentRepository commentRepository;
+    private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+    private final OutboxService outboxService;
+    private final PurgeService purgeService;
+    private final StatsService statsService;
+    private final AssetService assetService;
+    private final VideoDetailCache detailCache;
+    private final Counter viewCounter;
+
+    private static final int RATING_BATCH = 1000;
 
     public VideoService(VideoRepository videoRepository, RatingRepository ratingRepository,
-            CommentRepository commentRepository) {
+            CommentRepository commentRepository, UserRepository userRepository,
+            CategoryRepository categoryRepository, OutboxService outboxService, PurgeService purgeService,
+            StatsService statsService, AssetService assetService, VideoDetailCache detailCache,
+            MetricsRegistry metricsRegistry) {
         this.videoRepository = videoRepository;
         this.ratingRepository = ratingRepository;
         this.commentRepository = commentRepository;
+        this.userRepository = userRepository;
+        this.categoryRepository = categoryRepository;
+        this.outboxService = outboxService;
+        this.purgeService = purgeService;
+        this.statsService = statsService;
+        this.assetService = assetService;
+        this.detailCache = detailCache;
+        this.viewCounter = metricsRegistry.counter("app_video_views_total", "Video view count increments");
     }
 
     @Transactional(readOnly = true)
     public List<VideoDTO> findAllVideosWithRatings() {
-        return videoRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return toCardDTOs(videoRepository.findCards());
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * The detail view: the only read that loads the full entity. Served from
+     * {@link VideoDetailCache}, and deliberately not transactional, so callers
+     * waiting on another request's load hold no connection.
+     */
     public Optional<VideoDTO> findVideoByIdWithRating(Long id) {
-        return videoRepository.findById(id)
-                .map(this::convertToDTO);
+        return detailCache.get(id, this::loadVideoDetail);
     }
 
-    // Original methods kept for compatibility
-    public List<Video> findAllVideos() {
-        return videoRepository.findAll();
+    private Optional<VideoDTO> loadVideoDetail(Long id) {
+        return videoRepository.findByIdAndHiddenFalse(id)
+                .map(this::convertToDTO);
     }
 
     public Optional<Video> findVideoById(Long id) {
-        return videoRepository.findById(id);
+        return videoRepository.findByIdAndHiddenFalse(id);
     }
 
-    public List<Video> findVideosByUploader(Long uploaderId) {
-        return videoRepository.findByUploader_Id(uploaderId);
+    @Transactional(readOnly = true)
+    public List<VideoDTO> searchVideosByTitleWithRatings(String title) {
+        return toCardDTOs(videoRepository.findCardsByTitle(title));
     }
 
-    public List<Video> findVideosByCategory(Long categoryId) {
-        return videoRepository.findByCategory_Id(categoryId);
+    @Transactional(readOnly = true)
+    public List<VideoDTO> findVideosByCategoryWithRatings(Long categoryId) {
+        return toCardDTOs(videoRepository.findCardsByCategory(categoryId));
     }
 
-    public List<Video> searchVideosByTitle(String title) {
-        return videoRepository.findByTitleContainingIgnoreCase(title);
+    @Transactional(readOnly = true)
+    public List<VideoDTO> findVideosByUploaderWithRatings(Long uploaderId) {
+        return toCardDTOs(videoRepository.findCardsByUploader(uploaderId));
     }
 
     @Transactional(readOnly = true)
-    public List<VideoDTO> searchVideosByTitleWithRatings(String title) {
-        return videoRepository.findByTitleContainingIgnoreCase(title).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public List<VideoDTO> findLatestVideos(int limit) {
+        return toCardDTOs(videoRepository.findLatestCards(PageRequest.of(0, limit)));
     }
 
     @Transactional(readOnly = true)
-    public List<VideoDTO> findVideosByCategoryWithRatings(Long categoryId) {
-        return videoRepository.findByCategory_Id(categoryId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public List<VideoDTO> findMostViewedVideos(int limit) {
+        return toCardDTOs(videoRepository.findMostViewedCards(PageRequest.of(0, limit)));
     }
 
-    // Add this method to VideoService
     @Transactional(readOnly = true)
-    public List<VideoDTO> findVideosByUploaderWithRatings(Long uploaderId) {
-        return videoRepository.findByUploader_Id(uploaderId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public List<VideoDTO> findLatestVideosByCategory(Long categoryId, int limit) {
+        return toCardDTOs(videoRepository.findLatestCardsByCategory(categoryId, PageRequest.of(0, limit)));
     }
 
+    @Transactional
     public Video createVideo(Video video) {
         if (video.getUploadDate() == null) {
             video.setUploadDate(LocalDateTime.now());
         }
-        return videoRepository.save(video);
+        Video savedVideo = videoRepository.save(video);
+        appendVideoCreated(savedVideo.getId(), savedVideo.getUploader().getId(), savedVideo.getCategory().getId());
+        return savedVideo;
+    }
+
+    /**
+     * Inserts a video against lazy uploader and category references, so the
+     * write is a single INSERT. A missing uploader or category surfaces as a
+     * foreign key violation and is reported as {@link ResourceNotFoundException}.
+     * The returned DTO is built from the video and the given ids; the caller
+     * fills in names it already knows.
+     */
+    @Transactional
+    public VideoDTO createVideo(Video video, Long uploaderId, Long categoryId) {
+        if (video.getUploadDate() == null) {
+            video.setUploadDate(LocalDateTime.now());
+        }
+        video.setUploader(userRepository.getReferenceById(uploaderId));
+        video.setCategory(categoryRepository.getReferenceById(categoryId));
+        applyThumbnailImages(video);
+
+        Video savedVideo;
+        try {
+            savedVideo = videoRepository.saveAndFlush(video);
+        } catch (DataIntegrityViolationException e) {
+            throw ResourceNotFoundException.fromForeignKeyViolation(e, Map.of(
+                    "fk_video_user", "User with ID " + uploaderId + " does not exist",
+                    "fk_video_category", "Category with ID " + categoryId + " does not exist"));
+        }
+        appendVideoCreated(savedVideo.getId(), uploaderId, categoryId);
+
+        VideoDTO dto = new VideoDTO();
+        dto.setId(savedVideo.getId());
+        dto.setTitle(savedVideo.getTitle());
+        dto.setDescription(savedVideo.getDescription());
+        dto.setUploadDate(savedVideo.getUploadDate());
+        dto.setDuration(savedVideo.getDuration());
+        dto.setUrl(savedVideo.getUrl());
+        dto.setThumbnailUrl(savedVideo.getThumbnailUrl());
+        dto.setThumbnailVariants(ImageVariants.parse(savedVideo.getThumbnailVariants()));
+        dto.setThumbnailPlaceholder(savedVideo.getThumbnailPlaceholder());
+        dto.setViewCount(savedVideo.getViewCount());
+        dto.setUploaderId(uploaderId);
+        dto.setCategoryId(categoryId);
+        dto.setRatingCount(0);
+        return dto;
     }
 
     @Transactional
     public Video updateVideo(Video video) {
         // Find the existing video with all its associations
-        return videoRepository.findById(video.getId())
+        return videoRepository.findByIdAndHiddenFalse(video.getId())
                 .map(existingVideo -> {
+                    String previousUrl = existingVideo.getUrl();
+                    String previousThumbnailUrl = existingVideo.getThumbnailUrl();
+
                     // Update standard fields
                     existingVideo.setTitle(video.getTitle());
                     existingVideo.setDescription(video.getDescription());
                     existingVideo.setUrl(video.getUrl());
                     existingVideo.setDuration(video.getDuration());
                     existingVideo.setThumbnailUrl(video.getThumbnailUrl()); // Added this line to update thumbnailUrl
+                    if (!Objects.equals(previousThumbnailUrl, existingVideo.getThumbnailUrl())) {
+                        applyThumbnailImages(existingVideo);
+                    }
 
                     // Preserve upload date if not provided
                     if (video.getUploadDate() != null) {
@@ -120,25 +205,100 @@ public class VideoService {
                     // Don't modify ratings - they are preserved automatically
 
                     // Save the updated video
-                    return videoRepository.save(existingVideo);
+                    Video savedVideo = videoRepository.save(existingVideo);
+                    // Replaced uploads lose this video's reference
+                    if (!Objects.equals(previousUrl, savedVideo.getUrl())) {
+                        assetService.release(previousUrl);
+                    }
+                    if (!Objects.equals(previousThumbnailUrl, savedVideo.getThumbnailUrl())) {
+                        assetService.release(previousThumbnailUrl);
+                    }
+                    detailCache.invalidateAfterCommit(savedVideo.getId());
+                    outboxService.append(OutboxEvent.VIDEO, savedVideo.getId(), OutboxEvent.VIDEO_UPDATED, Map.of(
+                            "videoId", savedVideo.getId(),
+                            "categoryId", savedVideo.getCategory().getId(),
+                            "uploaderId", savedVideo.getUploader().getId()));
+                    return savedVideo;
                 })
                 .orElseThrow(() -> new RuntimeException("Video not found with id: " + video.getId()));
     }
 
-    public void deleteVideo(Long id) {
-        Optional<Video> videoOptional = videoRepository.findById(id);
-        if (videoOptional.isPresent()) {
-            // Log deletion attempt (using System.out since you don't have a logger
-            // configured)
-            System.out.println("Deleting video with ID: " + id);
+    /**
+     * Hides the video right away and leaves its comments, ratings and watch
+     * list entries to {@link PurgeService}, which removes them in batches
+     * before deleting the video row.
+     */
+    @Transactional
+    public PurgeJob deleteVideo(Long id) {
+        Video video = videoRepository.findByIdAndHiddenFalse(id)
+                .orElseThrow(() -> new RuntimeException("Video not found with id: " + id));
+        video.setHidden(true);
+        videoRepository.save(video);
+        outboxService.append(OutboxEvent.VIDEO, id, OutboxEvent.VIDEO_DELETED, Map.of("videoId", id));
+        detailCache.invalidateAfterCommit(id);
+        PurgeJob job = purgeService.enqueue(PurgeJob.TargetType.VIDEO, id);
+        logger.info("Video with ID: {} hidden, purge job {} queued", id, job.getId());
+        return job;
+    }
+
+    // Copies the uploaded thumbnail's variants onto the row so lists can show them without a lookup
+    private void applyThumbnailImages(Video video) {
+        Optional<StoredAsset> asset = assetService.findByUrl(video.getThumbnailUrl());
+        video.setThumbnailVariants(asset.map(StoredAsset::getVariants).orElse(null));
+        video.setThumbnailPlaceholder(asset.map(StoredAsset::getPlaceholder).orElse(null));
+    }
+
+    private void appendVideoCreated(Long videoId, Long uploaderId, Long categoryId) {
+        // A lookup of the id before it existed may have cached "not found"
+        detailCache.invalidateAfterCommit(videoId);
+        outboxService.append(OutboxEvent.VIDEO, videoId, OutboxEvent.VIDEO_CREATED, Map.of(
+                "videoId", videoId,
+                "uploaderId", uploaderId,
+                "categoryId", categoryId));
+    }
 
-            // Delete the video (this relies on cascade settings in the Video entity)
-            videoRepository.deleteById(id);
+    /**
+     * List DTOs from card projections. Ratings come from one grouped query
+     * per {@value #RATING_BATCH} videos instead of two queries per video;
+     * description is left out of lists.
+     */
+    private List<VideoDTO> toCardDTOs(List<VideoRepository.VideoCard> cards) {
+        Map<Long, VideoRepository.RatingSummary> ratings = new HashMap<>();
+        for (int from = 0; from < cards.size(); from += RATING_BATCH) {
+            List<Long> ids = cards.subList(from, Math.min(cards.size(), from + RATING_BATCH)).stream()
+                    .map(VideoRepository.VideoCard::getId)
+                    .collect(Collectors.toList());
+            for (VideoRepository.RatingSummary summary : videoRepository.summarizeRatings(ids)) {
+                ratings.put(summary.getVideoId(), summary);
+            }
+        }
+        return cards.stream()
+                .map(card -> toCardDTO(card, ratings.get(card.getId())))
+                .collect(Collectors.toList());
+    }
 
-            System.out.println("Video with ID: " + id + " successfully deleted");
+    private VideoDTO toCardDTO(VideoRepository.VideoCard card, VideoRepository.RatingSummary rating) {
+        VideoDTO dto = new VideoDTO();
+        dto.setId(card.getId());
+        dto.setTitle(card.getTitle());
+        dto.setUploadDate(card.getUploadDate());
+        dto.setDuration(card.getDuration());
+        dto.setUrl(card.getUrl());
+        dto.setThumbnailUrl(card.getThumbnailUrl());
+        dto.setThumbnailVariants(ImageVariants.parse(card.getThumbnailVariants()));
+        dto.setThumbnailPlaceholder(card.getThumbnailPlaceholder());
+        dto.setViewCount(card.getViewCount());
+        dto.setUploaderId(card.getUploaderId());
+        dto.setUploaderUsername(card.getUploaderUsername());
+        dto.setCategoryId(card.getCategoryId());
+        dto.setCategoryName(card.getCategoryName());
+        if (rating != null) {
+            dto.setAverageRating(rating.getAverageRating());
+            dto.setRatingCount(rating.getRatingCount().intValue());
         } else {
-            throw new RuntimeException("Video not found with id: " + id);
+            dto.setRatingCount(0);
         }
+        return dto;
     }
 
     // This should already be in your VideoService class
@@ -151,6 +311,8 @@ public class VideoService {
         dto.setDuration(video.getDuration());
         dto.setUrl(video.getUrl());
         dto.setThumbnailUrl(video.getThumbnailUrl()); // Added this line to include thumbnailUrl
+        dto.setThumbnailVariants(ImageVariants.parse(video.getThumbnailVariants()));
+        dto.setThumbnailPlaceholder(video.getThumbnailPlaceholder());
         dto.setViewCount(video.getViewCount()); // Added this line to include viewCount
 
         // Set uploader info
@@ -173,26 +335,28 @@ public class VideoService {
         return dto;
     }
 
-    @Transactional
+    /**
+     * Counts a view with a single UPDATE. The cached detail is not
+     * invalidated; the view is added to its count instead.
+     */
     public VideoDTO incrementViewCount(Long videoId) {
-        return videoRepository.findById(videoId)
-                .map(video -> {
-                    // Increment the view count
-                    if (video.getViewCount() == null) {
-                        video.setViewCount(1L); // Initialize if null
-                    } else {
-                        video.setViewCount(video.getViewCount() + 1);
-                    }
-                    Video updatedVideo = videoRepository.save(video);
-                    return convertToDTO(updatedVideo);
-                })
+        VideoDTO video = findVideoByIdWithRating(videoId)
                 .orElseThrow(() -> new RuntimeException("Video not found with id: " + videoId));
+        if (videoRepository.addView(videoId) == 0) {
+            // Deleted since it was cached
+            throw new RuntimeException("Video not found with id: " + videoId);
+        }
+        viewCounter.increment();
+        detailCache.recordView(videoId);
+        statsService.recordView(video.getUploaderId(), video.getCategoryId());
+        video.setViewCount(video.getViewCount() + 1);
+        return video;
     }
 
     @Transactional(readOnly = true)
     public List<VideoDTO> findSimilarVideos(Long videoId) {
         // First get the video to extract its title
-        Optional<Video> currentVideo = videoRepository.findById(videoId);
+        Optional<Video> currentVideo = videoRepository.findByIdAndHiddenFalse(videoId);
         if (currentVideo.isEmpty()) {
             return List.of(); // Return empty list if video not found
         }
@@ -205,22 +369,33 @@ public class VideoService {
         // Use the BoW (Bag of Words) query to find similar videos
         List<Object[]> similarVideoResults = videoRepository.findSimilarVideos(videoId, videoTitle);
 
-        // Convert Object[] results to VideoDTO
-        // Each Object[] contains: [videoId, videoName, similarWords]
-        return similarVideoResults.stream()
+        // Each Object[] contains: [videoId, videoName, similarWords], best match first
+        List<Long> ids = similarVideoResults.stream()
                 .filter(result -> result.length >= 3 && result[2] != null) // Filter out results with no similarity
                 .filter(result -> ((Number) result[2]).intValue() > 0) // Only include videos with at least 1 similar
                                                                        // word
-                .map(result -> {
-                    Long id = ((Number) result[0]).longValue();
-                    // Fetch the full Video entity to create proper DTO
-                    return videoRepository.findById(id)
-                            .map(this::convertToDTO)
-                            .orElse(null);
-                })
-                .filter(dto -> dto != null) // Remove any null results
+                .map(result -> ((Number) result[0]).longValue())
                 .limit(10) // Limit to 10 similar videos
                 .collect(Collectors.toList());
+        return findVideoCards(ids);
+    }
+
+    /**
+     * Cards for the given ids in the order asked for, from one IN query and
+     * one rating aggregate. Unknown and hidden ids are left out; nothing is
+     * counted as a view.
+     */
+    @Transactional(readOnly = true)
+    public List<VideoDTO> findVideoCards(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, VideoDTO> byId = toCardDTOs(videoRepository.findCardsByIdIn(new HashSet<>(ids))).stream()
+                .collect(Collectors.toMap(VideoDTO::getId, dto -> dto));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
@@ -228,7 +403,7 @@ public class VideoService {
         Map<String, Object> analytics = new HashMap<>();
 
         // Get video info
-        Optional<Video> videoOpt = videoRepository.findById(videoId);
+        Optional<Video> videoOpt = videoRepository.findByIdAndHiddenFalse(videoId);
         if (videoOpt.isEmpty()) {
             throw new RuntimeException("Video not found with id: " + videoId);
         }
@@ -1,5 +1,6 @@
 package com.example.hcmiuweb.services;
 
+import com.example.hcmiuweb.entities.OutboxEvent;
 import com.example.hcmiuweb.entities.User;
 import com.example.hcmiuweb.entities.Video;
 import com.example.hcmiuweb.entities.WatchList;
@@ -9,16 +10,20 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
 @Service
 public class WatchListService {
     private final WatchListRepository watchListRepository;
+    private final OutboxService outboxService;
 
     @Autowired
-    public WatchListService(WatchListRepository watchListRepository) {
+    public WatchListService(WatchListRepository watchListRepository, OutboxService outboxService) {
         this.watchListRepository = watchListRepository;
+        this.outboxService = outboxService;
     }
 
     @Transactional(readOnly = true)
@@ -41,6 +46,7 @@ public class WatchListService {
         WatchList watchList = getOrCreateWatchListForUser(user);
         watchList.addVideo(video);
         watchList.setUpdatedAt(LocalDateTime.now());
+        appendWatchListChanged(user, "ADDED", video.getId());
         return watchListRepository.save(watchList);
     }
     
@@ -53,6 +59,7 @@ public class WatchListService {
             boolean removed = watchList.getVideos().removeIf(v -> v.getId().equals(video.getId()));
             if (removed) {
                 watchList.setUpdatedAt(LocalDateTime.now());
+                appendWatchListChanged(user, "REMOVED", video.getId());
                 return watchListRepository.save(watchList);
             }
         }
@@ -65,6 +72,7 @@ public class WatchListService {
             watchList.getVideos().clear();
             watchList.setUpdatedAt(LocalDateTime.now());
             watchListRepository.save(watchList);
+            appendWatchListChanged(user, "CLEARED", null);
         }
     }
       @Transactional(readOnly = true)
@@ -85,4 +93,24 @@ public class WatchListService {
         }
         return false;
     }
+
+    /**
+     * Up to {@code limit} video ids from the user's watch list, without
+     * loading the list or its videos.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findPreviewVideoIds(Long userId, int limit) {
+        List<Long> listIds = watchListRepository.findIdsByUser(userId);
+        if (listIds.isEmpty()) {
+            return List.of();
+        }
+        return watchListRepository.findVideoIdsInList(listIds.get(0), limit);
+    }
+
+    private void appendWatchListChanged(User user, String action, Long videoId) {
+        Map<String, Object> payload = videoId == null
+                ? Map.of("userId", user.getId(), "action", action)
+                : Map.of("userId", user.getId(), "action", action, "videoId", videoId);
+        outboxService.append(OutboxEvent.WATCH_LIST, user.getId(), OutboxEvent.WATCH_LIST_CHANGED, payload);
+    }
 }
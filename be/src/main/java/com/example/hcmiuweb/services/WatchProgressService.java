@@ -0,0 +1,233 @@
+package com.example.hcmiuweb.services;
+
+import com.example.hcmiuweb.config.metrics.Counter;
+import com.example.hcmiuweb.config.metrics.MetricsRegistry;
+import com.example.hcmiuweb.dtos.VideoDTO;
+import com.example.hcmiuweb.payload.response.ContinueWatchingItem;
+import com.example.hcmiuweb.repositories.WatchProgressRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Playback positions for "continue watching".
+ *
+ * Players send a heartbeat every few seconds, so heartbeats only replace the
+ * latest position per user and video in memory. {@code WatchProgressFlusher}
+ * writes the entries that changed since the last flush, one multi-row upsert
+ * per batch: an entry is dropped from the buffer only once it is committed,
+ * and only if no newer heartbeat replaced it meanwhile, so a failed flush is
+ * simply retried. At most {@code watch-progress.max-pending} positions are
+ * buffered. Reads overlay the buffered positions on the stored ones. A crash
+ * loses at most one flush interval of progress.
+ */
+@Service
+public class WatchProgressService {
+
+    public record Progress(Long userId, Long videoId, int positionSeconds, Integer durationSeconds,
+            LocalDateTime updatedAt) {
+
+        boolean isInProgress() {
+            return positionSeconds > 0 && (durationSeconds == null
+                    || positionSeconds < durationSeconds * WatchProgressRepository.FINISHED_FRACTION);
+        }
+    }
+
+    private static final String COLUMNS = "(user_id, video_id, position_seconds, duration_seconds, updated_at)";
+    private static final String ROW = "(?, ?, ?, ?, ?)";
+    private static final String MYSQL_UPSERT_SUFFIX = " ON DUPLICATE KEY UPDATE "
+            + "position_seconds = VALUES(position_seconds), duration_seconds = VALUES(duration_seconds), "
+            + "updated_at = VALUES(updated_at)";
+
+    private final WatchProgressRepository watchProgressRepository;
+    private final VideoService videoService;
+    private final JdbcTemplate jdbcTemplate;
+    private final Counter heartbeats;
+    private final Counter rejected;
+    private final int maxPending;
+    private volatile Boolean mysql;
+
+    // Latest unwritten position per user, then per video
+    private final ConcurrentHashMap<Long, ConcurrentHashMap<Long, Progress>> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingSize = new AtomicInteger();
+
+    public WatchProgressService(WatchProgressRepository watchProgressRepository, VideoService videoService,
+            JdbcTemplate jdbcTemplate, MetricsRegistry metricsRegistry,
+            @Value("${watch-progress.max-pending:100000}") int maxPending) {
+        this.watchProgressRepository = watchProgressRepository;
+        this.videoService = videoService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxPending = maxPending;
+        this.heartbeats = metricsRegistry.counter("app_watch_progress_heartbeats_total",
+                "Playback position heartbeats received");
+        this.rejected = metricsRegistry.counter("app_watch_progress_rejected_total",
+                "Heartbeats for a new position refused because watch-progress.max-pending were buffered");
+        metricsRegistry.gauge("app_watch_progress_pending", "Positions waiting to be written",
+                this::pendingCount);
+    }
+
+    /**
+     * Remembers the position in memory; never touches the database. Returns
+     * false, keeping nothing, if this is a new user and video pair and the
+     * buffer is full. Callers check that the video exists.
+     */
+    public boolean recordHeartbeat(Long userId, Long videoId, int positionSeconds, Integer durationSeconds) {
+        Progress progress = new Progress(userId, videoId, positionSeconds, durationSeconds, LocalDateTime.now());
+        AtomicBoolean accepted = new AtomicBoolean(true);
+        // Inside compute, so markWritten can't drop the user's map while this adds to it
+        pending.compute(userId, (id, videos) -> {
+            if (videos == null) {
+                videos = new ConcurrentHashMap<>();
+            }
+            if (videos.containsKey(videoId)) {
+                videos.put(videoId, progress);
+            } else if (pendingSize.incrementAndGet() <= maxPending) {
+                videos.put(videoId, progress);
+            } else {
+                pendingSize.decrementAndGet();
+                accepted.set(false);
+            }
+            return videos.isEmpty() ? null : videos;
+        });
+        if (!accepted.get()) {
+            rejected.increment();
+            return false;
+        }
+        heartbeats.increment();
+        return true;
+    }
+
+    public long heartbeatCount() {
+        return heartbeats.get();
+    }
+
+    public int pendingCount() {
+        return pendingSize.get();
+    }
+
+    /**
+     * Every position changed since it was last written. They stay buffered
+     * until {@link #markWritten}.
+     */
+    public List<Progress> changedEntries() {
+        List<Progress> changed = new ArrayList<>();
+        pending.values().forEach(videos -> changed.addAll(videos.values()));
+        return changed;
+    }
+
+    /**
+     * Writes the batch as a single multi-row upsert, skipping entries whose
+     * user or video is hidden or gone. Returns the number of rows written.
+     */
+    @Transactional
+    public int write(List<Progress> batch) {
+        // Locking reads: a user or video can't be hidden, and its rows purged, before this commits
+        Set<Long> users = visibleIds("user", "user_id",
+                batch.stream().map(Progress::userId).collect(Collectors.toSet()));
+        Set<Long> videos = visibleIds("video", "video_id",
+                batch.stream().map(Progress::videoId).collect(Collectors.toSet()));
+        List<Object> args = new ArrayList<>();
+        int rows = 0;
+        for (Progress p : batch) {
+            if (users.contains(p.userId()) && videos.contains(p.videoId())) {
+                args.addAll(Arrays.asList(p.userId(), p.videoId(), p.positionSeconds(), p.durationSeconds(),
+                        Timestamp.valueOf(p.updatedAt())));
+                rows++;
+            }
+        }
+        if (rows == 0) {
+            return 0;
+        }
+        String values = String.join(", ", Collections.nCopies(rows, ROW));
+        String sql = isMySql()
+                ? "INSERT INTO watch_progress " + COLUMNS + " VALUES " + values + MYSQL_UPSERT_SUFFIX
+                : "MERGE INTO watch_progress " + COLUMNS + " KEY (user_id, video_id) VALUES " + values;
+        jdbcTemplate.update(sql, args.toArray());
+        return rows;
+    }
+
+    private Set<Long> visibleIds(String table, String idColumn, Set<Long> ids) {
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        String sql = "SELECT " + idColumn + " FROM " + table + " WHERE hidden = false AND " + idColumn
+                + " IN (" + placeholders + ")" + (isMySql() ? " FOR SHARE" : "");
+        return new HashSet<>(jdbcTemplate.queryForList(sql, Long.class, ids.toArray()));
+    }
+
+    // Other databases (H2 in tests) have no ON DUPLICATE KEY UPDATE or FOR SHARE
+    private boolean isMySql() {
+        Boolean result = mysql;
+        if (result == null) {
+            result = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> connection.getMetaData()
+                    .getDatabaseProductName().toLowerCase(Locale.ROOT).contains("mysql"));
+            mysql = result;
+        }
+        return result;
+    }
+
+    /**
+     * Drops written entries from the buffer, unless a newer heartbeat has
+     * replaced them since.
+     */
+    public void markWritten(List<Progress> batch) {
+        for (Progress progress : batch) {
+            ConcurrentHashMap<Long, Progress> videos = pending.get(progress.userId());
+            if (videos != null && videos.remove(progress.videoId(), progress)) {
+                pendingSize.decrementAndGet();
+            }
+            pending.computeIfPresent(progress.userId(), (id, remaining) -> remaining.isEmpty() ? null : remaining);
+        }
+    }
+
+    /**
+     * The user's unfinished videos, most recently watched first, including
+     * positions not written yet.
+     */
+    @Transactional(readOnly = true)
+    public List<ContinueWatchingItem> findContinueWatching(Long userId, int limit) {
+        Map<Long, Progress> buffered = new HashMap<>(pending.getOrDefault(userId, new ConcurrentHashMap<>()));
+        // Buffered positions can push stored ones out of the list, or finish them
+        Map<Long, Progress> latest = new HashMap<>();
+        watchProgressRepository.findInProgress(userId, PageRequest.of(0, limit + buffered.size()))
+                .forEach(row -> latest.put(row.getVideoId(), new Progress(userId, row.getVideoId(),
+                        row.getPositionSeconds(), row.getDurationSeconds(), row.getUpdatedAt())));
+        latest.putAll(buffered);
+
+        List<Progress> inProgress = latest.values().stream()
+                .filter(Progress::isInProgress)
+                .sorted(Comparator.comparing(Progress::updatedAt).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+        if (inProgress.isEmpty()) {
+            return List.of();
+        }
+        List<VideoDTO> cards = videoService.findVideoCards(inProgress.stream().map(Progress::videoId).toList());
+        Map<Long, Progress> byVideo = inProgress.stream().collect(Collectors.toMap(Progress::videoId, p -> p));
+        return cards.stream()
+                .map(card -> {
+                    Progress progress = byVideo.get(card.getId());
+                    return new ContinueWatchingItem(card, progress.positionSeconds(), progress.durationSeconds(),
+                            progress.updatedAt());
+                })
+                .collect(Collectors.toList());
+    }
+}
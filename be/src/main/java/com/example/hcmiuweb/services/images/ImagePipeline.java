@@ -0,0 +1,312 @@
+package com.example.hcmiuweb.services.images;
+
+import com.example.hcmiuweb.config.metrics.Counter;
+import com.example.hcmiuweb.config.metrics.Histogram;
+import com.example.hcmiuweb.config.metrics.MetricsRegistry;
+import com.example.hcmiuweb.services.storage.StorageBackend;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Turns an uploaded avatar or thumbnail into the sizes clients actually
+ * render. The original is decoded once (subsampled while decoding when it is
+ * far bigger than the largest variant), then each width in
+ * {@code images.widths.<folder>} is resized, recompressed and stored on its
+ * own thread, alongside a tiny blurred placeholder returned as a data URI.
+ *
+ * Variants are never wider than the original. Images with transparency are
+ * kept as PNG, everything else becomes JPEG at {@code images.quality}.
+ */
+@Service
+public class ImagePipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImagePipeline.class);
+
+    public record Variant(int width, String url, String key) {}
+
+    public record ProcessedImage(List<Variant> variants, String placeholder) {}
+
+    private static final int PLACEHOLDER_WIDTH = 16;
+    private static final float PLACEHOLDER_QUALITY = 0.4f;
+    // Column size on video, user and stored_asset
+    private static final int PLACEHOLDER_MAX_LENGTH = 2048;
+
+    private final ThreadPoolExecutor executor;
+    private final Map<String, int[]> widthsByFolder;
+    private final Histogram processingTime;
+    private final Counter variantsStored;
+    private final Counter failures;
+
+    @Value("${images.quality:0.8}")
+    private float quality;
+
+    @Value("${images.max-decode-pixels:40000000}")
+    private long maxDecodePixels;
+
+    @Value("${images.timeout-seconds:60}")
+    private long timeoutSeconds;
+
+    public ImagePipeline(@Value("${images.threads:0}") int threads,
+            @Value("${images.queue-capacity:64}") int queueCapacity,
+            @Value("${images.widths.avatars:48,96,192}") int[] avatarWidths,
+            @Value("${images.widths.thumbnails:160,320,640}") int[] thumbnailWidths,
+            MetricsRegistry metricsRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIndex = new AtomicInteger();
+        // A full queue runs the task on the uploading thread, which slows uploads down instead of failing them
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "image-pipeline-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        this.widthsByFolder = Map.of("avatars", sorted(avatarWidths), "thumbnails", sorted(thumbnailWidths));
+        this.processingTime = metricsRegistry.histogram("app_image_processing_seconds",
+                "Time to decode an uploaded image and store its variants", Histogram.LATENCY_SECONDS);
+        this.variantsStored = metricsRegistry.counter("app_image_variants_total", "Resized image variants stored");
+        this.failures = metricsRegistry.counter("app_image_processing_failures_total",
+                "Uploaded images stored without variants because processing failed");
+        metricsRegistry.gauge("app_image_pipeline_queued", "Image resize tasks waiting for a thread",
+                () -> executor.getQueue().size());
+    }
+
+    public boolean handles(String folder, String contentType) {
+        return widthsByFolder.containsKey(folder) && contentType != null && contentType.startsWith("image/");
+    }
+
+    /**
+     * Stores the variants of the staged image through {@code backend}. Returns
+     * empty when the image cannot be decoded or a variant cannot be stored;
+     * the original is still usable on its own then.
+     */
+    public Optional<ProcessedImage> process(Path original, String folder, String sha256, StorageBackend backend) {
+        long started = System.nanoTime();
+        List<Future<Variant>> pending = new ArrayList<>();
+        try {
+            int[] widths = widthsByFolder.get(folder);
+            BufferedImage source = decode(original, widths[widths.length - 1]);
+            if (source == null) {
+                logger.info("Upload {} is not a decodable image, storing it without variants", sha256);
+                return Optional.empty();
+            }
+
+            Future<String> placeholder = executor.submit(() -> placeholder(source));
+            for (int width : widths) {
+                if (width < source.getWidth()) {
+                    pending.add(executor.submit(() -> storeVariant(source, width, folder, sha256, backend)));
+                }
+            }
+
+            List<Variant> variants = new ArrayList<>(pending.size());
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+            for (Future<Variant> future : pending) {
+                variants.add(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            }
+            String dataUri = placeholder.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            variantsStored.increment(variants.size());
+            processingTime.observeNanos(System.nanoTime() - started);
+            return Optional.of(new ProcessedImage(variants, dataUri));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            discard(pending, backend);
+            return Optional.empty();
+        } catch (IOException | ExecutionException | TimeoutException | RuntimeException e) {
+            failures.increment();
+            logger.warn("Could not create variants for upload {}: {}", sha256, e.toString());
+            discard(pending, backend);
+            return Optional.empty();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Decodes the image, skipping rows and columns while decoding when it is
+     * more than twice the width it will be shrunk to, and never producing
+     * more than {@code images.max-decode-pixels}.
+     */
+    private BufferedImage decode(Path file, int largestWidth) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                int step = Math.max(1, width / (largestWidth * 2));
+                while ((long) (width / step) * (height / step) > maxDecodePixels) {
+                    step++;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private Variant storeVariant(BufferedImage source, int width, String folder, String sha256,
+            StorageBackend backend) throws IOException {
+        BufferedImage resized = resize(source, width);
+        boolean png = resized.getColorModel().hasAlpha();
+        Path staged = backend.createStagingFile();
+        try {
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(staged.toFile())) {
+                if (png) {
+                    ImageIO.write(resized, "png", out);
+                } else {
+                    writeJpeg(resized, quality, out);
+                }
+            }
+            // Named after the original and the width, so each original owns its variants
+            String key = sha256Hex(sha256 + ":" + width);
+            StorageBackend.StoredObject stored = backend.put(staged, folder, key, png ? "png" : "jpg");
+            return new Variant(width, stored.url(), stored.key());
+        } finally {
+            Files.deleteIfExists(staged);
+        }
+    }
+
+    private String placeholder(BufferedImage source) throws IOException {
+        BufferedImage tiny = resize(source, Math.min(PLACEHOLDER_WIDTH, source.getWidth()));
+        if (tiny.getColorModel().hasAlpha()) {
+            tiny = flatten(tiny);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            writeJpeg(tiny, PLACEHOLDER_QUALITY, out);
+        }
+        String dataUri = "data:image/jpeg;base64," + Base64.getEncoder().encodeToString(bytes.toByteArray());
+        return dataUri.length() <= PLACEHOLDER_MAX_LENGTH ? dataUri : null;
+    }
+
+    /**
+     * Bilinear scaling, halving first while the image is more than twice the
+     * target: a single bilinear step that large skips pixels and aliases.
+     */
+    private static BufferedImage resize(BufferedImage source, int width) {
+        boolean alpha = source.getColorModel().hasAlpha();
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        int targetHeight = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            int nextWidth = currentWidth / 2 >= width ? currentWidth / 2 : width;
+            int nextHeight = currentWidth / 2 >= width ? Math.max(targetHeight, currentHeight / 2) : targetHeight;
+            BufferedImage next = new BufferedImage(nextWidth, nextHeight, type);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, nextWidth, nextHeight, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+            currentWidth = nextWidth;
+            currentHeight = nextHeight;
+        } while (currentWidth > width);
+        return current;
+    }
+
+    private static BufferedImage flatten(BufferedImage image) {
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            g.drawImage(image, 0, 0, Color.WHITE, null);
+        } finally {
+            g.dispose();
+        }
+        return rgb;
+    }
+
+    private static void writeJpeg(BufferedImage image, float quality, ImageOutputStream out) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    // Variants stored before a sibling failed would otherwise never be deleted
+    private static void discard(List<Future<Variant>> pending, StorageBackend backend) {
+        for (Future<Variant> future : pending) {
+            future.cancel(true);
+            if (future.state() == Future.State.SUCCESS) {
+                try {
+                    backend.delete(future.resultNow().key(), "image");
+                } catch (Exception e) {
+                    logger.warn("Could not delete variant {}: {}", future.resultNow().key(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static int[] sorted(int[] widths) {
+        int[] copy = Arrays.stream(widths).filter(width -> width > 0).distinct().sorted().toArray();
+        if (copy.length == 0) {
+            throw new IllegalArgumentException("At least one image variant width is required");
+        }
+        return copy;
+    }
+
+    private static String sha256Hex(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
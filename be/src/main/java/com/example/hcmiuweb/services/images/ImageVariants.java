@@ -0,0 +1,45 @@
+package com.example.hcmiuweb.services.images;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Variant URLs are kept on a row as an HTML {@code srcset} value
+ * ({@code "https://.../a.jpg 160w, https://.../b.jpg 320w"}), which a client
+ * can hand straight to an {@code <img>}; DTOs expose them as width to URL.
+ */
+public final class ImageVariants {
+
+    private ImageVariants() {}
+
+    public static String toSrcset(List<ImagePipeline.Variant> variants) {
+        if (variants.isEmpty()) {
+            return null;
+        }
+        return variants.stream()
+                .map(variant -> variant.url() + " " + variant.width() + "w")
+                .collect(Collectors.joining(", "));
+    }
+
+    public static Map<Integer, String> parse(String srcset) {
+        if (srcset == null || srcset.isBlank()) {
+            return Collections.emptyMap();
+        }
+        Map<Integer, String> byWidth = new TreeMap<>();
+        for (String candidate : srcset.split(",\\s+")) {
+            int space = candidate.lastIndexOf(' ');
+            if (space > 0 && candidate.endsWith("w")) {
+                try {
+                    byWidth.put(Integer.parseInt(candidate.substring(space + 1, candidate.length() - 1)),
+                            candidate.substring(0, space));
+                } catch (NumberFormatException ignored) {
+                    // Not one of ours; skip it
+                }
+            }
+        }
+        return byWidth;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.hcmiuweb.services.storage;
+
+import com.example.hcmiuweb.services.CloudinaryService;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+@Component
+public class CloudinaryStorageBackend implements StorageBackend {
+
+    public static final String NAME = "cloudinary";
+
+    private final CloudinaryService cloudinaryService;
+
+    public CloudinaryStorageBackend(CloudinaryService cloudinaryService) {
+        this.cloudinaryService = cloudinaryService;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public Path createStagingFile() throws IOException {
+        return Files.createTempFile("upload-", ".part");
+    }
+
+    @Override
+    public StoredObject put(Path staged, String folder, String sha256, String extension) throws IOException {
+        Map result = cloudinaryService.uploadFile(staged.toFile(), folder);
+        return new StoredObject((String) result.get("secure_url"), (String) result.get("public_id"),
+                (String) result.get("resource_type"));
+    }
+
+    @Override
+    public void delete(String key, String resourceType) throws IOException {
+        cloudinaryService.deleteAsset(key, resourceType);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.hcmiuweb.services.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps uploads under {@code file.upload-dir}, served by
+ * {@code FileController} at {@code storage.local.base-url}.
+ *
+ * Files are named by their SHA-256 and sharded two levels deep
+ * ({@code avatars/3f/a2/3fa2...png}) so no directory grows past a few
+ * thousand entries. Uploads are staged in {@code .staging} on the same
+ * filesystem, synced, then moved into place atomically: a reader sees either
+ * no file or the whole file. {@code FileController} hands large reads to
+ * Tomcat's sendfile, so the kernel copies them from the page cache to the
+ * socket; {@link #transferTo} copies smaller ones through a channel.
+ */
+@Component
+public class LocalStorageBackend implements StorageBackend {
+
+    public static final String NAME = "local";
+
+    private static final Pattern KEY = Pattern.compile("[a-z]+/[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}(\\.[a-z0-9]{1,8})?");
+
+    private final Path root;
+    private final Path staging;
+    private final String baseUrl;
+
+    public LocalStorageBackend(@Value("${file.upload-dir}") String uploadDir,
+            @Value("${storage.local.base-url:/api/files}") String baseUrl) {
+        this.root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.staging = root.resolve(".staging");
+        this.baseUrl = baseUrl;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public Path createStagingFile() throws IOException {
+        Files.createDirectories(staging);
+        return Files.createTempFile(staging, "upload-", ".part");
+    }
+
+    @Override
+    public StoredObject put(Path staged, String folder, String sha256, String extension) throws IOException {
+        String key = folder + "/" + sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256
+                + "." + extension;
+        Path target = resolve(key);
+        if (!Files.exists(target)) {
+            try (FileChannel channel = FileChannel.open(staged, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(staged, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException | AtomicMoveNotSupportedException e) {
+                // Same name means same content, so a concurrent writer's copy is as good as ours
+                if (!Files.exists(target)) {
+                    throw e;
+                }
+            }
+        }
+        return new StoredObject(baseUrl + "/" + key, key, "raw");
+    }
+
+    @Override
+    public void delete(String key, String resourceType) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    /**
+     * Size of the stored file; throws NoSuchFileException if there is none.
+     */
+    public long size(String key) throws IOException {
+        return Files.size(resolve(key));
+    }
+
+    /**
+     * Absolute path of the stored file, for the container's sendfile.
+     */
+    public Path file(String key) throws IOException {
+        return resolve(key);
+    }
+
+    /**
+     * Copies {@code count} bytes starting at {@code position} to {@code out}.
+     */
+    public void transferTo(String key, long position, long count, WritableByteChannel out) throws IOException {
+        try (FileChannel channel = FileChannel.open(resolve(key), StandardOpenOption.READ)) {
+            long end = position + count;
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+            }
+        }
+    }
+
+    public boolean isValidKey(String key) {
+        return KEY.matcher(key).matches();
+    }
+
+    private Path resolve(String key) throws IOException {
+        if (!isValidKey(key)) {
+            throw new NoSuchFileException(key);
+        }
+        return root.resolve(key);
+    }
+}
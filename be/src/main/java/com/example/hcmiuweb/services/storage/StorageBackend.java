@@ -0,0 +1,39 @@
+package com.example.hcmiuweb.services.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Somewhere uploaded files can be kept: Cloudinary or the local disk.
+ * {@link StorageService} picks one per asset type.
+ */
+public interface StorageBackend {
+
+    /**
+     * Where a stored file lives: the public URL, the backend's key for it
+     * and the resource type needed to delete it.
+     */
+    record StoredObject(String url, String key, String resourceType) {}
+
+    /**
+     * Name used in configuration and recorded with each asset, e.g.
+     * {@code cloudinary}.
+     */
+    String name();
+
+    /**
+     * A new empty file to stream an upload into before {@link #put}. Local
+     * storage stages on the same filesystem so the file can be moved into
+     * place atomically.
+     */
+    Path createStagingFile() throws IOException;
+
+    /**
+     * Stores the fully written staged file. {@code extension} comes from
+     * {@link UploadTypes}, never from the client. The backend may move the
+     * file away; the caller deletes it if it is still there afterwards.
+     */
+    StoredObject put(Path staged, String folder, String sha256, String extension) throws IOException;
+
+    void delete(String key, String resourceType) throws IOException;
+}
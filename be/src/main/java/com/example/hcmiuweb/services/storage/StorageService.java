@@ -0,0 +1,51 @@
+package com.example.hcmiuweb.services.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Picks the {@link StorageBackend} for each asset type (upload folder), from
+ * {@code storage.backend.avatars}, {@code storage.backend.thumbnails} and
+ * {@code storage.backend.videos}. Existing assets keep the backend they were
+ * stored with.
+ */
+@Service
+public class StorageService {
+
+    private final Map<String, StorageBackend> backends = new HashMap<>();
+    private final Map<String, String> backendByFolder;
+
+    public StorageService(List<StorageBackend> backends,
+            @Value("${storage.backend.avatars:cloudinary}") String avatars,
+            @Value("${storage.backend.thumbnails:cloudinary}") String thumbnails,
+            @Value("${storage.backend.videos:cloudinary}") String videos) {
+        for (StorageBackend backend : backends) {
+            this.backends.put(backend.name(), backend);
+        }
+        this.backendByFolder = Map.of("avatars", avatars, "thumbnails", thumbnails, "videos", videos);
+        for (String name : backendByFolder.values()) {
+            backend(name);
+        }
+    }
+
+    public StorageBackend backendFor(String folder) {
+        String name = backendByFolder.get(folder);
+        if (name == null) {
+            throw new IllegalArgumentException("Unknown upload folder: " + folder);
+        }
+        return backend(name);
+    }
+
+    public StorageBackend backend(String name) {
+        StorageBackend backend = backends.get(name);
+        if (backend == null) {
+            throw new IllegalArgumentException("Unknown storage backend: " + name + ", expected one of "
+                    + backends.keySet());
+        }
+        return backend;
+    }
+}
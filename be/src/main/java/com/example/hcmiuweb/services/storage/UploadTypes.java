@@ -0,0 +1,74 @@
+package com.example.hcmiuweb.services.storage;
+
+import com.example.hcmiuweb.exceptions.UnsupportedUploadTypeException;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The content types each upload folder accepts and the file extension
+ * stored for each. The extension is picked from the validated type, never
+ * from the client's filename, and {@code FileController} maps it back to
+ * the same type, so a file is always served as what it was accepted as.
+ */
+public final class UploadTypes {
+
+    private static final Map<String, String> IMAGES = Map.of(
+            "image/jpeg", "jpg",
+            "image/png", "png",
+            "image/webp", "webp",
+            "image/gif", "gif");
+
+    private static final Map<String, String> VIDEOS = Map.of(
+            "video/mp4", "mp4",
+            "video/webm", "webm");
+
+    private static final Map<String, Map<String, String>> BY_FOLDER = Map.of(
+            "avatars", IMAGES,
+            "thumbnails", IMAGES,
+            "videos", VIDEOS);
+
+    private static final Map<String, String> CONTENT_TYPES = new HashMap<>();
+
+    static {
+        IMAGES.forEach((type, extension) -> CONTENT_TYPES.put(extension, type));
+        VIDEOS.forEach((type, extension) -> CONTENT_TYPES.put(extension, type));
+    }
+
+    private UploadTypes() {}
+
+    /**
+     * The content type without parameters, lower case; throws if
+     * {@code folder} does not accept it.
+     */
+    public static String validate(String folder, String contentType) {
+        Map<String, String> accepted = BY_FOLDER.get(folder);
+        if (accepted == null) {
+            throw new IllegalArgumentException("Unknown upload folder: " + folder);
+        }
+        String type = contentType == null ? ""
+                : contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        if (!accepted.containsKey(type)) {
+            throw new UnsupportedUploadTypeException("Unsupported file type " + (type.isEmpty() ? "(none)" : type)
+                    + ", expected one of " + accepted.keySet());
+        }
+        return type;
+    }
+
+    /**
+     * Extension stored for a type returned by {@link #validate}.
+     */
+    public static String extension(String contentType) {
+        String extension = IMAGES.getOrDefault(contentType, VIDEOS.get(contentType));
+        if (extension == null) {
+            throw new IllegalArgumentException("Not an accepted upload type: " + contentType);
+        }
+        return extension;
+    }
+
+    public static Optional<String> contentTypeForExtension(String extension) {
+        return Optional.ofNullable(CONTENT_TYPES.get(extension));
+    }
+}
@@ -0,0 +1,5 @@
+-- UserRepository.findSummaries: the admin user list, newest or oldest first,
+-- optionally for one role. Username and email prefix filters use the unique
+-- indexes on those columns.
+CREATE INDEX idx_user_registration ON user (registration_date, user_id);
+CREATE INDEX idx_user_role_registration ON user (role_id, registration_date, user_id);
@@ -0,0 +1,4 @@
+-- VideoRepository.findLatestCards: the home page "latest uploads" rail reads
+-- the newest visible videos and stops after one page. Category rails use
+-- idx_video_category_upload and "most viewed" uses idx_video_view_count.
+CREATE INDEX idx_video_upload_date ON video (upload_date);
@@ -0,0 +1,19 @@
+-- Playback position per user and video, for "continue watching". Heartbeats
+-- are buffered in memory and written here in batches (WatchProgressService).
+
+CREATE TABLE watch_progress (
+    user_id BIGINT NOT NULL,
+    video_id BIGINT NOT NULL,
+    position_seconds INT NOT NULL,
+    duration_seconds INT,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (user_id, video_id),
+    -- WatchProgressRepository.findInProgress: a user's most recent first
+    INDEX idx_watch_progress_user_updated (user_id, updated_at),
+    CONSTRAINT fk_watch_progress_user FOREIGN KEY (user_id) REFERENCES user (user_id),
+    CONSTRAINT fk_watch_progress_video FOREIGN KEY (video_id) REFERENCES video (video_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Deleted videos and users lose their progress rows before the row itself
+ALTER TABLE purge_job MODIFY phase ENUM('COMMENT_RATINGS', 'COMMENTS', 'VIDEO_RATINGS', 'WATCH_LISTS',
+    'WATCH_PROGRESS', 'AUTH_TOKENS', 'VIDEOS', 'TARGET') NOT NULL;
@@ -0,0 +1,4 @@
+-- Lets the dispatcher skip events queued behind an earlier event of the same
+-- aggregate that is waiting out its retry backoff.
+
+CREATE INDEX idx_outbox_event_aggregate ON outbox_event (aggregate_type, aggregate_id, status, next_attempt_at);
@@ -0,0 +1,7 @@
+-- OTP and password reset mails are not sent or retried past their token's
+-- expiry, and bodies of finished mails (which held the plaintext token) are
+-- blanked.
+
+ALTER TABLE outbound_email ADD COLUMN expires_at DATETIME(6) NULL;
+
+UPDATE outbound_email SET body = '' WHERE status IN ('SENT', 'FAILED');
@@ -0,0 +1,96 @@
+-- Schema as Hibernate generated it with ddl-auto=update before migrations were introduced.
+-- Existing databases are baselined at this version and never run this script.
+
+CREATE TABLE roles (
+    role_id BIGINT NOT NULL AUTO_INCREMENT,
+    role_name VARCHAR(255) NOT NULL,
+    PRIMARY KEY (role_id),
+    CONSTRAINT uk_roles_role_name UNIQUE (role_name)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE category (
+    category_id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255) NOT NULL,
+    PRIMARY KEY (category_id),
+    CONSTRAINT uk_category_name UNIQUE (name)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE user (
+    user_id BIGINT NOT NULL AUTO_INCREMENT,
+    username VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password_hash VARCHAR(255) NOT NULL,
+    registration_date DATETIME(6) NOT NULL,
+    avatar VARCHAR(255),
+    role_id BIGINT NOT NULL,
+    reset_token VARCHAR(255),
+    reset_token_expiry DATETIME(6),
+    PRIMARY KEY (user_id),
+    CONSTRAINT uk_user_username UNIQUE (username),
+    CONSTRAINT uk_user_email UNIQUE (email),
+    CONSTRAINT fk_user_role FOREIGN KEY (role_id) REFERENCES roles (role_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE video (
+    video_id BIGINT NOT NULL AUTO_INCREMENT,
+    title VARCHAR(255) NOT NULL,
+    description TEXT,
+    upload_date DATETIME(6) NOT NULL,
+    duration INT,
+    url VARCHAR(255) NOT NULL,
+    thumbnail_url VARCHAR(255),
+    view_count BIGINT,
+    user_id BIGINT NOT NULL,
+    category_id BIGINT NOT NULL,
+    PRIMARY KEY (video_id),
+    CONSTRAINT fk_video_user FOREIGN KEY (user_id) REFERENCES user (user_id),
+    CONSTRAINT fk_video_category FOREIGN KEY (category_id) REFERENCES category (category_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE video_rating (
+    user_id BIGINT NOT NULL,
+    video_id BIGINT NOT NULL,
+    rating INT NOT NULL,
+    PRIMARY KEY (user_id, video_id),
+    CONSTRAINT fk_video_rating_user FOREIGN KEY (user_id) REFERENCES user (user_id),
+    CONSTRAINT fk_video_rating_video FOREIGN KEY (video_id) REFERENCES video (video_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE comment (
+    comment_id BIGINT NOT NULL AUTO_INCREMENT,
+    content TEXT NOT NULL,
+    date_posted DATETIME(6) NOT NULL,
+    video_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    parent_comment_id BIGINT,
+    PRIMARY KEY (comment_id),
+    CONSTRAINT fk_comment_video FOREIGN KEY (video_id) REFERENCES video (video_id),
+    CONSTRAINT fk_comment_user FOREIGN KEY (user_id) REFERENCES user (user_id),
+    CONSTRAINT fk_comment_parent FOREIGN KEY (parent_comment_id) REFERENCES comment (comment_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE comment_rating (
+    comment_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    rating INT NOT NULL,
+    PRIMARY KEY (comment_id, user_id),
+    CONSTRAINT fk_comment_rating_comment FOREIGN KEY (comment_id) REFERENCES comment (comment_id),
+    CONSTRAINT fk_comment_rating_user FOREIGN KEY (user_id) REFERENCES user (user_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE watch_list (
+    watchlist_id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (watchlist_id),
+    CONSTRAINT fk_watch_list_user FOREIGN KEY (user_id) REFERENCES user (user_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE watch_list_video (
+    watchlist_id BIGINT NOT NULL,
+    video_id BIGINT NOT NULL,
+    PRIMARY KEY (watchlist_id, video_id),
+    CONSTRAINT fk_watch_list_video_list FOREIGN KEY (watchlist_id) REFERENCES watch_list (watchlist_id),
+    CONSTRAINT fk_watch_list_video_video FOREIGN KEY (video_id) REFERENCES video (video_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
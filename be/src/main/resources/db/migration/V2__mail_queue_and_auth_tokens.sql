@@ -0,0 +1,35 @@
+-- Tables added with the outbound mail queue and the hashed token store.
+-- IF NOT EXISTS because ddl-auto=update may already have created them.
+
+CREATE TABLE IF NOT EXISTS outbound_email (
+    email_id BIGINT NOT NULL AUTO_INCREMENT,
+    type VARCHAR(50) NOT NULL,
+    sender VARCHAR(255) NOT NULL,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    body TEXT NOT NULL,
+    status ENUM('PENDING', 'SENT', 'FAILED') NOT NULL,
+    attempts INT NOT NULL,
+    next_attempt_at DATETIME(6) NOT NULL,
+    last_error VARCHAR(500),
+    created_at DATETIME(6) NOT NULL,
+    sent_at DATETIME(6),
+    PRIMARY KEY (email_id),
+    INDEX idx_outbound_email_due (status, next_attempt_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE IF NOT EXISTS auth_token (
+    token_id BIGINT NOT NULL AUTO_INCREMENT,
+    token_hash VARCHAR(64) NOT NULL,
+    purpose ENUM('PASSWORD_RESET', 'OTP') NOT NULL,
+    user_id BIGINT NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (token_id),
+    CONSTRAINT uk_auth_token_hash UNIQUE (token_hash),
+    INDEX idx_auth_token_expires_at (expires_at),
+    CONSTRAINT fk_auth_token_user FOREIGN KEY (user_id) REFERENCES user (user_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Reset tokens now live in auth_token; outstanding ones are simply invalidated
+ALTER TABLE user DROP COLUMN reset_token, DROP COLUMN reset_token_expiry;
@@ -0,0 +1,37 @@
+-- Secondary indexes for the repository query methods. Each index names the
+-- method(s) it serves; keep this in sync when adding queries.
+--
+-- Single-column foreign key lookups (CommentRepository.findByUser_Id,
+-- CommentRatingRepository.findByUser_Id, WatchListRepository.findByUser /
+-- existsByUser) are served by the index InnoDB creates for each foreign key.
+
+-- VideoRepository.findByCategory_Id, newest-first category listings
+CREATE INDEX idx_video_category_upload ON video (category_id, upload_date);
+
+-- VideoRepository.findByUploader_Id, channel pages ordered by upload date
+CREATE INDEX idx_video_user_upload ON video (user_id, upload_date);
+
+-- VideoRepository.existsByUrl
+CREATE INDEX idx_video_url ON video (url);
+
+-- VideoRepository.findSimilarVideos ORDER BY view_count, trending lists
+CREATE INDEX idx_video_view_count ON video (view_count);
+
+-- RatingRepository.findByVideo_Id, VideoRepository.findAverageRatingByVideoId / countRatingsByVideoId
+-- (covering: the AVG/COUNT never touch the clustered index)
+CREATE INDEX idx_video_rating_video ON video_rating (video_id, rating);
+
+-- CommentRepository.findByVideo_Id / findByVideo_IdAndParentCommentIsNull, ordered by date
+CREATE INDEX idx_comment_video_parent_date ON comment (video_id, parent_comment_id, date_posted);
+
+-- CommentRepository.findByParentComment_Id, replies in date order
+CREATE INDEX idx_comment_parent_date ON comment (parent_comment_id, date_posted);
+
+-- CommentRatingRepository.countByComment_IdAndRating (findByComment_Id uses the primary key prefix)
+CREATE INDEX idx_comment_rating_comment_rating ON comment_rating (comment_id, rating);
+
+-- OutboundEmailRepository.deleteByStatusAndCreatedAtBefore / findOldestCreatedAt
+CREATE INDEX idx_outbound_email_status_created ON outbound_email (status, created_at);
+
+-- AuthTokenRepository.deleteByUserAndPurpose
+CREATE INDEX idx_auth_token_user_purpose ON auth_token (user_id, purpose);
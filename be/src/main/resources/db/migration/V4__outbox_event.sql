@@ -0,0 +1,20 @@
+-- Transactional outbox: domain events written in the same transaction as the
+-- change, dispatched to in-process subscribers by OutboxDispatcher.
+
+CREATE TABLE outbox_event (
+    event_id BIGINT NOT NULL AUTO_INCREMENT,
+    aggregate_type VARCHAR(32) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(64) NOT NULL,
+    payload TEXT NOT NULL,
+    status ENUM('PENDING', 'DISPATCHED', 'FAILED') NOT NULL,
+    attempts INT NOT NULL,
+    next_attempt_at DATETIME(6),
+    last_error VARCHAR(500),
+    created_at DATETIME(6) NOT NULL,
+    dispatched_at DATETIME(6),
+    PRIMARY KEY (event_id),
+    -- Pending events in commit order; dispatched ones by age for the retention purge
+    INDEX idx_outbox_event_status_id (status, event_id),
+    INDEX idx_outbox_event_status_dispatched (status, dispatched_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
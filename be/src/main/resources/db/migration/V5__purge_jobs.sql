@@ -0,0 +1,23 @@
+-- Deleting a video or user hides it at once; PurgeJobWorker then removes the
+-- dependent rows in small batches and finally the row itself.
+
+ALTER TABLE video ADD COLUMN hidden BIT(1) NOT NULL DEFAULT 0;
+ALTER TABLE user ADD COLUMN hidden BIT(1) NOT NULL DEFAULT 0;
+
+CREATE TABLE purge_job (
+    job_id BIGINT NOT NULL AUTO_INCREMENT,
+    target_type ENUM('VIDEO', 'USER') NOT NULL,
+    target_id BIGINT NOT NULL,
+    status ENUM('PENDING', 'DONE', 'FAILED') NOT NULL,
+    phase ENUM('COMMENT_RATINGS', 'COMMENTS', 'VIDEO_RATINGS', 'WATCH_LISTS', 'AUTH_TOKENS', 'VIDEOS', 'TARGET') NOT NULL,
+    deleted_rows BIGINT NOT NULL,
+    attempts INT NOT NULL,
+    next_attempt_at DATETIME(6),
+    last_error VARCHAR(500),
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    finished_at DATETIME(6),
+    PRIMARY KEY (job_id),
+    -- Runnable jobs in creation order
+    INDEX idx_purge_job_status_id (status, job_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
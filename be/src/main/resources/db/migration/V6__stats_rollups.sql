@@ -0,0 +1,44 @@
+-- Pre-aggregated counters for the admin dashboard. StatsService keeps them
+-- current from outbox events and buffered view counts, and a nightly
+-- compaction recomputes the totals and leaderboards from the source tables.
+
+CREATE TABLE stats_daily (
+    stat_date DATE NOT NULL,
+    views BIGINT NOT NULL,
+    uploads BIGINT NOT NULL,
+    ratings BIGINT NOT NULL,
+    comments BIGINT NOT NULL,
+    signups BIGINT NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (stat_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE stats_total (
+    id INT NOT NULL,
+    videos BIGINT NOT NULL,
+    users BIGINT NOT NULL,
+    views BIGINT NOT NULL,
+    ratings BIGINT NOT NULL,
+    comments BIGINT NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    compacted_at DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE stats_leader (
+    kind ENUM('UPLOADER', 'CATEGORY') NOT NULL,
+    subject_id BIGINT NOT NULL,
+    uploads BIGINT NOT NULL,
+    views BIGINT NOT NULL,
+    PRIMARY KEY (kind, subject_id),
+    -- Top-N by views without a sort
+    INDEX idx_stats_leader_kind_views (kind, views)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Outbox events already counted, so redelivered events are not counted twice
+CREATE TABLE stats_applied_event (
+    event_id BIGINT NOT NULL,
+    applied_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (event_id),
+    INDEX idx_stats_applied_event_applied (applied_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
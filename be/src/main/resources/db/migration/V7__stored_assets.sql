@@ -0,0 +1,25 @@
+-- Content-addressed uploads: one row per distinct file (by SHA-256), shared by
+-- every avatar, thumbnail and video that uses it and removed by
+-- StoredAssetReaper once nothing references it.
+
+CREATE TABLE stored_asset (
+    asset_id BIGINT NOT NULL AUTO_INCREMENT,
+    sha256 VARCHAR(64) NOT NULL,
+    url VARCHAR(255) NOT NULL,
+    public_id VARCHAR(255) NOT NULL,
+    resource_type VARCHAR(16) NOT NULL,
+    content_type VARCHAR(100),
+    size_bytes BIGINT NOT NULL,
+    ref_count INT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    last_used_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (asset_id),
+    CONSTRAINT uk_stored_asset_sha256 UNIQUE (sha256),
+    INDEX idx_stored_asset_url (url),
+    -- Unreferenced assets past their grace period
+    INDEX idx_stored_asset_ref_used (ref_count, last_used_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- The reaper checks that no row still points at an asset before deleting it
+CREATE INDEX idx_video_thumbnail_url ON video (thumbnail_url);
+CREATE INDEX idx_user_avatar ON user (avatar);
@@ -0,0 +1,4 @@
+-- Uploads can be kept on Cloudinary or on the local disk; each asset records
+-- which, so it is deleted from the right place whatever the current setting.
+
+ALTER TABLE stored_asset ADD COLUMN backend VARCHAR(16) NOT NULL DEFAULT 'cloudinary';
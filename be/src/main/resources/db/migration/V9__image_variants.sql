@@ -0,0 +1,17 @@
+-- Resized variants and a blurred placeholder for uploaded avatars and
+-- thumbnails (ImagePipeline). The asset keeps them for reuse and deletion;
+-- video and user rows copy them so lists need no extra lookups.
+-- variants holds an HTML srcset value, placeholder a data: URI.
+
+ALTER TABLE stored_asset
+    ADD COLUMN variants VARCHAR(1024),
+    ADD COLUMN variant_keys VARCHAR(1024),
+    ADD COLUMN placeholder VARCHAR(2048);
+
+ALTER TABLE video
+    ADD COLUMN thumbnail_variants VARCHAR(1024),
+    ADD COLUMN thumbnail_placeholder VARCHAR(2048);
+
+ALTER TABLE user
+    ADD COLUMN avatar_variants VARCHAR(1024),
+    ADD COLUMN avatar_placeholder VARCHAR(2048);
@@ -0,0 +1,75 @@
+package com.example.hcmiuweb;
+
+import com.example.hcmiuweb.entities.Role;
+import com.example.hcmiuweb.entities.User;
+import com.example.hcmiuweb.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestData.class)
+class AdminUserTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestData data;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void listsUsersByPrefixAndRoleOnePageAtATime() throws Exception {
+        Role role = data.role("ROLE_LISTING_TEST");
+        LocalDateTime base = LocalDateTime.of(2024, 3, 1, 9, 0);
+        for (int i = 0; i < 3; i++) {
+            data.user("list_user_" + i, role, base.plusDays(i));
+        }
+        // _ in the filter is a literal underscore, not a wildcard
+        data.user("listXuser_9", role, base);
+        User hidden = data.user("list_user_hidden", role, base);
+        hidden.setHidden(true);
+        userRepository.save(hidden);
+
+        mockMvc.perform(get("/api/admin/users").param("username", "list_user_").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users.length()").value(2))
+                .andExpect(jsonPath("$.users[0].username").value("list_user_2"))
+                .andExpect(jsonPath("$.users[0].role").value("ROLE_LISTING_TEST"))
+                .andExpect(jsonPath("$.users[0].password").doesNotExist())
+                .andExpect(jsonPath("$.hasNext").value(true));
+        mockMvc.perform(get("/api/admin/users").param("username", "list_user_").param("sort", "oldest")
+                        .param("size", "2").param("page", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users.length()").value(1))
+                .andExpect(jsonPath("$.users[0].username").value("list_user_2"))
+                .andExpect(jsonPath("$.hasNext").value(false));
+
+        mockMvc.perform(get("/api/admin/users/count").param("role", "listing_test"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(4));
+        mockMvc.perform(get("/api/admin/users/count").param("email", "list_user_1@"))
+                .andExpect(jsonPath("$.count").value(1));
+    }
+
+    @Test
+    @WithMockUser
+    void nonAdminsCannotListUsers() throws Exception {
+        mockMvc.perform(get("/api/admin/users")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/admin/users/count")).andExpect(status().isForbidden());
+    }
+}
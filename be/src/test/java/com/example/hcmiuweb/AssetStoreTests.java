@@ -0,0 +1,210 @@
+package com.example.hcmiuweb;
+
+import com.example.hcmiuweb.components.StoredAssetReaper;
+import com.example.hcmiuweb.entities.StoredAsset;
+import com.example.hcmiuweb.exceptions.UnsupportedUploadTypeException;
+import com.example.hcmiuweb.repositories.StoredAssetRepository;
+import com.example.hcmiuweb.services.AssetService;
+import com.example.hcmiuweb.services.AssetStore;
+import com.example.hcmiuweb.services.CloudinaryService;
+import com.example.hcmiuweb.services.images.ImageVariants;
+import com.example.hcmiuweb.services.storage.LocalStorageBackend;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AssetStoreTests {
+
+    @TempDir
+    static Path uploadDir;
+
+    @DynamicPropertySource
+    static void storageProperties(DynamicPropertyRegistry registry) {
+        // Reaping is driven by the test, without a grace period
+        registry.add("storage.reap-interval-ms", () -> "3600000");
+        registry.add("storage.reap-grace-minutes", () -> "0");
+        registry.add("storage.backend.avatars", () -> "local");
+        registry.add("file.upload-dir", () -> uploadDir.toString());
+    }
+
+    @MockBean
+    private CloudinaryService cloudinaryService;
+
+    @Autowired
+    private AssetStore assetStore;
+
+    @Autowired
+    private AssetService assetService;
+
+    @Autowired
+    private StoredAssetReaper reaper;
+
+    @Autowired
+    private StoredAssetRepository storedAssetRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void duplicateUploadReusesTheAssetAndLastReleaseReapsIt() throws Exception {
+        when(cloudinaryService.uploadFile(any(File.class), eq("thumbnails"))).thenReturn(Map.of(
+                "secure_url", "https://cdn.example.com/thumbnails/dedup.png",
+                "public_id", "thumbnails/dedup",
+                "resource_type", "image"));
+        byte[] content = "same thumbnail bytes".getBytes(StandardCharsets.UTF_8);
+
+        AssetStore.StoredFile first = assetStore.store(
+                new MockMultipartFile("file", "a.png", "image/png", content), "thumbnails");
+        AssetStore.StoredFile second = assetStore.store(
+                new MockMultipartFile("file", "b.png", "image/png", content), "thumbnails");
+
+        assertFalse(first.reused());
+        assertTrue(second.reused());
+        assertEquals(first.url(), second.url());
+        verify(cloudinaryService, times(1)).uploadFile(any(File.class), eq("thumbnails"));
+        StoredAsset asset = storedAssetRepository.findBySha256(first.sha256()).orElseThrow();
+        assertEquals(2, asset.getRefCount());
+
+        // Still referenced once: nothing is deleted
+        assetService.release(first.url());
+        reaper.reap();
+        assertTrue(storedAssetRepository.existsById(asset.getId()));
+
+        assetService.release(first.url());
+        reaper.reap();
+        assertFalse(storedAssetRepository.existsById(asset.getId()));
+        verify(cloudinaryService).deleteAsset("thumbnails/dedup", "image");
+    }
+
+    @Test
+    void localBackendShardsByHashAndServesRanges() throws Exception {
+        byte[] content = "0123456789 local avatar bytes".getBytes(StandardCharsets.UTF_8);
+
+        AssetStore.StoredFile stored = assetStore.store(
+                new MockMultipartFile("file", "me.PNG", "image/png", content), "avatars");
+
+        String key = "avatars/" + stored.sha256().substring(0, 2) + "/" + stored.sha256().substring(2, 4) + "/"
+                + stored.sha256() + ".png";
+        assertEquals("/api/files/" + key, stored.url());
+        assertArrayEquals(content, Files.readAllBytes(uploadDir.resolve(key)));
+        try (Stream<Path> staging = Files.list(uploadDir.resolve(".staging"))) {
+            assertEquals(0, staging.count());
+        }
+        assertEquals(LocalStorageBackend.NAME,
+                storedAssetRepository.findBySha256(stored.sha256()).orElseThrow().getBackend());
+
+        mockMvc.perform(get(stored.url()).header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/" + content.length))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + stored.sha256() + "\""))
+                .andExpect(content().bytes("2345".getBytes(StandardCharsets.UTF_8)));
+        // A position too long for a long is past the end, not a server error
+        mockMvc.perform(get(stored.url()).header(HttpHeaders.RANGE, "bytes=99999999999999999999-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + content.length));
+        mockMvc.perform(get(stored.url()).header(HttpHeaders.RANGE, "bytes=-99999999999999999999"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().bytes(content));
+        mockMvc.perform(get("/api/files/avatars/00/00/missing.png"))
+                .andExpect(status().isNotFound());
+
+        assetService.release(stored.url());
+        reaper.reap();
+        assertFalse(Files.exists(uploadDir.resolve(key)));
+    }
+
+    @Test
+    void onlyAcceptedTypesAreStoredAndServedAsThatType() throws Exception {
+        byte[] html = "<html><script>alert(document.cookie)</script></html>".getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(UnsupportedUploadTypeException.class, () -> assetStore.store(
+                new MockMultipartFile("file", "x.html", "text/html", html), "avatars"));
+        assertThrows(UnsupportedUploadTypeException.class, () -> assetStore.store(
+                new MockMultipartFile("file", "x.svg", "image/svg+xml", html), "avatars"));
+
+        // A page labelled as an image keeps the image type, whatever its name
+        AssetStore.StoredFile stored = assetStore.store(
+                new MockMultipartFile("file", "x.html", "image/png", html), "avatars");
+        assertTrue(stored.url().endsWith(".png"));
+        mockMvc.perform(get(stored.url()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"))
+                .andExpect(header().string("Content-Security-Policy", "sandbox"))
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"));
+
+        assetService.release(stored.url());
+        reaper.reap();
+    }
+
+    @Test
+    void imageUploadGetsResizedVariantsAndPlaceholder() throws Exception {
+        BufferedImage image = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.ORANGE);
+        g.fillRect(0, 0, 400, 300);
+        g.setColor(Color.BLUE);
+        g.fillOval(100, 50, 200, 200);
+        g.dispose();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", bytes);
+
+        AssetStore.StoredFile stored = assetStore.store(
+                new MockMultipartFile("file", "face.png", "image/png", bytes.toByteArray()), "avatars");
+
+        Map<Integer, String> variants = ImageVariants.parse(stored.variants());
+        assertEquals(List.of(48, 96, 192), List.copyOf(variants.keySet()));
+        for (Map.Entry<Integer, String> variant : variants.entrySet()) {
+            Path file = uploadDir.resolve(variant.getValue().substring("/api/files/".length()));
+            BufferedImage resized = ImageIO.read(file.toFile());
+            assertEquals(variant.getKey(), resized.getWidth());
+            assertEquals(variant.getKey() * 3 / 4, resized.getHeight());
+        }
+        assertTrue(stored.placeholder().startsWith("data:image/jpeg;base64,"));
+
+        StoredAsset asset = storedAssetRepository.findBySha256(stored.sha256()).orElseThrow();
+        assetService.release(stored.url());
+        reaper.reap();
+        assertFalse(storedAssetRepository.existsById(asset.getId()));
+        for (String key : asset.getVariantKeys().split(" ")) {
+            assertFalse(Files.exists(uploadDir.resolve(key)));
+        }
+    }
+}
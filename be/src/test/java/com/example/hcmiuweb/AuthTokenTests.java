@@ -0,0 +1,139 @@
+package com.example.hcmiuweb;
+
+import com.example.hcmiuweb.components.AuthTokenPurgeJob;
+import com.example.hcmiuweb.entities.AuthToken;
+import com.example.hcmiuweb.entities.User;
+import com.example.hcmiuweb.repositories.AuthTokenRepository;
+import com.example.hcmiuweb.repositories.UserRepository;
+import com.example.hcmiuweb.services.AuthTokenService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The purge is driven by the test, in batches small enough to need several
+@SpringBootTest(properties = {
+        "auth-token.purge-interval-ms=3600000",
+        "auth-token.purge-batch-size=2"
+})
+@AutoConfigureMockMvc
+@Import(TestData.class)
+class AuthTokenTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthTokenService authTokenService;
+
+    @Autowired
+    private AuthTokenPurgeJob purgeJob;
+
+    @Autowired
+    private AuthTokenRepository authTokenRepository;
+
+    @Autowired
+    private TestData data;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void resetTokenWorksOnce() throws Exception {
+        User user = data.user("reset-once");
+        String token = authTokenService.issue(user, AuthToken.Purpose.PASSWORD_RESET, Duration.ofMinutes(15));
+
+        reset(token).andExpect(status().isOk());
+        assertNotEquals("x", userRepository.findById(user.getId()).orElseThrow().getPassword());
+
+        reset(token).andExpect(status().isBadRequest());
+        assertFalse(authTokenService.consume(token, AuthToken.Purpose.PASSWORD_RESET));
+    }
+
+    @Test
+    void forgedTokensAreRejected() throws Exception {
+        User user = data.user("reset-forged");
+        String token = authTokenService.issue(user, AuthToken.Purpose.PASSWORD_RESET, Duration.ofMinutes(15));
+        byte[] raw = Base64.getUrlDecoder().decode(token);
+
+        // Pushing the embedded expiry out invalidates the signature
+        byte[] extended = raw.clone();
+        extended[16] ^= 0x01;
+        reset(Base64.getUrlEncoder().withoutPadding().encodeToString(extended)).andExpect(status().isBadRequest());
+
+        byte[] badMac = raw.clone();
+        badMac[raw.length - 1] ^= 0x01;
+        reset(Base64.getUrlEncoder().withoutPadding().encodeToString(badMac)).andExpect(status().isBadRequest());
+
+        reset("not-a-token").andExpect(status().isBadRequest());
+
+        // Signed for another purpose
+        String otp = authTokenService.issue(user, AuthToken.Purpose.OTP, Duration.ofMinutes(15));
+        reset(otp).andExpect(status().isBadRequest());
+
+        // None of the above used up the real token
+        reset(token).andExpect(status().isOk());
+    }
+
+    @Test
+    void expiredTokensAreRejected() throws Exception {
+        User user = data.user("reset-expired");
+
+        // Expiry embedded in the token: rejected before the database is asked
+        String expired = authTokenService.issue(user, AuthToken.Purpose.PASSWORD_RESET, Duration.ofSeconds(-1));
+        reset(expired).andExpect(status().isBadRequest());
+
+        // Expiry on the stored row
+        String token = authTokenService.issue(user, AuthToken.Purpose.PASSWORD_RESET, Duration.ofMinutes(15));
+        AuthToken stored = authTokenRepository.findAll().stream()
+                .filter(t -> t.getUser().getId().equals(user.getId()))
+                .findFirst()
+                .orElseThrow();
+        stored.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        authTokenRepository.save(stored);
+        reset(token).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void purgeRemovesExpiredTokensInBatches() {
+        User user = data.user("purge-batches");
+        List<AuthToken> expired = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expired.add(authTokenRepository.save(new AuthToken(String.format("%064x", 0xE0 + i),
+                    AuthToken.Purpose.OTP, user, LocalDateTime.now().minusMinutes(1))));
+        }
+        AuthToken live = authTokenRepository.save(new AuthToken(String.format("%064x", 0xF0),
+                AuthToken.Purpose.OTP, user, LocalDateTime.now().plusMinutes(15)));
+
+        purgeJob.purgeExpired();
+
+        for (AuthToken token : expired) {
+            assertFalse(authTokenRepository.existsById(token.getId()));
+        }
+        assertTrue(authTokenRepository.existsById(live.getId()));
+        assertEquals(0, authTokenService.purgeExpiredBatch(2));
+    }
+
+    private ResultActions reset(String token) throws Exception {
+        return mockMvc.perform(post("/api/auth/reset-password")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"token\":\"" + token + "\",\"newPassword\":\"new-password-123\"}"));
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.hcmiuweb;
+
+import com.example.hcmiuweb.entities.OutboundEmail;
+import com.example.hcmiuweb.repositories.OutboundEmailRepository;
+import com.example.hcmiuweb.services.EmailService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestData.class)
+class EmailQueueTests {
+
+    private static final FakeSmtpServer smtp;
+
+    static {
+        try {
+            smtp = new FakeSmtpServer();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void mailProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.mail.host", () -> "localhost");
+        registry.add("spring.mail.port", smtp::getPort);
+        registry.add("mail.queue.poll-interval-ms", () -> "100");
+    }
+
+    @AfterAll
+    static void stopSmtp() throws IOException {
+        smtp.close();
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestData data;
+
+    @Autowired
+    private OutboundEmailRepository outboundEmailRepository;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Test
+    void forgotPasswordQueuesAndDeliversResetEmail() throws Exception {
+        data.user("mail-user");
+
+        mockMvc.perform(post("/api/auth/forgot-password")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"mail-user@example.com\"}"))
+                .andExpect(status().isOk());
+
+        awaitNonePending();
+
+        OutboundEmail sent = outboundEmailRepository.findAll().stream()
+                .filter(email -> email.getTo().equals("mail-user@example.com"))
+                .findFirst().orElseThrow();
+        assertEquals(OutboundEmail.Status.SENT, sent.getStatus());
+        assertEquals("", sent.getBody(), "the reset token must not outlive delivery in the queue");
+        assertTrue(smtp.getMessages().stream().anyMatch(m -> m.contains("Subject: Password Reset Request")));
+    }
+
+    @Test
+    void expiredTokenMailIsFailedUnsent() throws Exception {
+        int sentBefore = smtp.getMessages().size();
+        OutboundEmail email = new OutboundEmail(EmailService.TYPE_PASSWORD_RESET, "noreply@example.com",
+                "late@example.com", "Password Reset Request", "token 1234");
+        email.setExpiresAt(email.getCreatedAt().minusMinutes(1));
+        email = outboundEmailRepository.save(email);
+
+        awaitNonePending();
+
+        OutboundEmail failed = outboundEmailRepository.findById(email.getId()).orElseThrow();
+        assertEquals(OutboundEmail.Status.FAILED, failed.getStatus());
+        assertEquals("", failed.getBody());
+        assertEquals(sentBefore, smtp.getMessages().size());
+    }
+
+    @Test
+    void retryPastTheTokenExpiryGivesUp() {
+        OutboundEmail email = new OutboundEmail(EmailService.TYPE_OTP, "noreply@example.com",
+                "retry@example.com", "Your Login OTP Code", "code 1234");
+        email.setExpiresAt(email.getCreatedAt().plusMinutes(5));
+        email.setAttempts(1);
+        email.setStatus(OutboundEmail.Status.FAILED);
+        email = outboundEmailRepository.save(email);
+
+        assertTrue(emailService.markFailed(email, "smtp down", 6, Duration.ofMinutes(10), Duration.ofHours(1)));
+        OutboundEmail failed = outboundEmailRepository.findById(email.getId()).orElseThrow();
+        assertEquals(OutboundEmail.Status.FAILED, failed.getStatus());
+        assertEquals("", failed.getBody());
+    }
+
+    private void awaitNonePending() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (emailService.countPending() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(0, emailService.countPending());
+    }
+}
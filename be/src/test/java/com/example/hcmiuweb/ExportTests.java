@@ -0,0 +1,85 @@
+package com.example.hcmiuweb;
+
+import com.example.hcmiuweb.entities.Comment;
+import com.example.hcmiuweb.entities.User;
+import com.example.hcmiuweb.entities.Video;
+import com.example.hcmiuweb.repositories.CommentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestData.class)
+class ExportTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestData data;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void commentsExportAsCsvAndGzippedNdjson() throws Exception {
+        User author = data.user("export-author");
+        Video video = data.video("Export video", author, data.category("Export"));
+        Comment comment = commentRepository.save(new Comment("says \"hi\", twice", LocalDateTime.of(2024, 5, 1, 12, 0),
+                video, author, null));
+        commentRepository.save(new Comment("=1+1", LocalDateTime.of(2024, 5, 1, 12, 5), video, author, comment));
+
+        MvcResult csv = mockMvc.perform(get("/api/exports/comments").param("videoId", video.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andReturn();
+        String[] lines = csv.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(3, lines.length);
+        assertEquals("commentId,videoId,parentCommentId,userId,username,datePosted,content", lines[0]);
+        assertEquals(comment.getId() + "," + video.getId() + ",," + author.getId()
+                + ",export-author,2024-05-01T12:00,\"says \"\"hi\"\", twice\"", lines[1]);
+        assertEquals("'=1+1", lines[2].substring(lines[2].lastIndexOf(',') + 1));
+
+        MvcResult ndjson = mockMvc.perform(get("/api/exports/comments")
+                        .param("videoId", video.getId().toString())
+                        .param("format", "ndjson")
+                        .param("gzip", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn();
+        String body;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(ndjson.getResponse().getContentAsByteArray()))) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        String[] records = body.split("\n");
+        assertEquals(2, records.length);
+        assertEquals("{\"commentId\":" + comment.getId() + ",\"videoId\":" + video.getId()
+                + ",\"parentCommentId\":null,\"userId\":" + author.getId()
+                + ",\"username\":\"export-author\",\"datePosted\":\"2024-05-01T12:00\","
+                + "\"content\":\"says \\\"hi\\\", twice\"}", records[0]);
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void exportsAreAdminOnly() throws Exception {
+        mockMvc.perform(get("/api/exports/ratings")).andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.hcmiuweb;
+
+import com.example.hcmiuweb.dtos.VideoDTO;
+import com.example.hcmiuweb.payload.response.HomeResponse;
+import com.example.hcmiuweb.services.HomeService;
+import com.example.hcmiuweb.services.VideoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Two threads and a one-slot queue, so two slow sections fill the pool
+@SpringBootTest(properties = {
+        "home.section-timeout-ms=200",
+        "home.threads=2",
+        "home.queue-capacity=1"
+})
+class HomeFallbackTests {
+
+    @MockBean
+    private VideoService videoService;
+
+    @Autowired
+    private HomeService homeService;
+
+    @Test
+    void slowSectionServesItsLastGoodCopyWhileOthersReturnOnTime() {
+        warmUp(1L, 2L);
+        CountDownLatch release = new CountDownLatch(1);
+        when(videoService.findLatestVideos(anyInt())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return videos(3L);
+        });
+        when(videoService.findMostViewedVideos(anyInt())).thenReturn(videos(4L));
+
+        try {
+            long started = System.nanoTime();
+            HomeResponse home = homeService.getHome(null);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+            assertEquals(List.of(1L), ids(home.latest()));
+            assertEquals(List.of(4L), ids(home.mostViewed()));
+            // At most two section timeouts: the rails wait for the category list
+            assertTrue(elapsedMillis < 1000, "home took " + elapsedMillis + " ms");
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void failingSectionServesItsLastGoodCopy() {
+        warmUp(5L, 6L);
+        when(videoService.findMostViewedVideos(anyInt())).thenThrow(new IllegalStateException("database down"));
+        when(videoService.findLatestVideos(anyInt())).thenReturn(videos(7L));
+
+        HomeResponse home = homeService.getHome(null);
+
+        assertEquals(List.of(7L), ids(home.latest()));
+        assertEquals(List.of(6L), ids(home.mostViewed()));
+    }
+
+    @Test
+    void fullPoolFallsBackInsteadOfQueueing() throws Exception {
+        warmUp(8L, 9L);
+        CountDownLatch release = new CountDownLatch(1);
+        when(videoService.findLatestVideos(anyInt())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return videos(10L);
+        });
+        when(videoService.findMostViewedVideos(anyInt())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return videos(11L);
+        });
+
+        try {
+            // Both threads stuck, the category list waiting in the only queue slot
+            homeService.getHome(null);
+
+            long started = System.nanoTime();
+            HomeResponse home = homeService.getHome(null);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+            assertEquals(List.of(8L), ids(home.latest()));
+            assertEquals(List.of(9L), ids(home.mostViewed()));
+            assertTrue(elapsedMillis < 200, "rejected sections should not wait for the timeout, took "
+                    + elapsedMillis + " ms");
+        } finally {
+            release.countDown();
+        }
+        // A queued section would run once the pool frees up; rejected ones never do
+        Thread.sleep(300);
+        verify(videoService, times(2)).findLatestVideos(anyInt());
+        verify(videoService, times(2)).findMostViewedVideos(anyInt());
+    }
+
+    private void warmUp(long latestId, long mostViewedId) {
+        when(videoService.findLatestVideos(anyInt())).thenReturn(videos(latestId));
+        when(videoService.findMostViewedVideos(anyInt())).thenReturn(videos(mostViewedId));
+        HomeResponse home = homeService.getHome(null);
+        assertEquals(List.of(latestId), ids(home.latest()));
+        assertEquals(List.of(mostViewedId), ids(home.mostViewed()));
+    }
+
+    private static List<VideoDTO> videos(long id) {
+        VideoDTO video = new VideoDTO();
+        video.setId(id);
+        return List.of(video);
+    }
+
+    private static List<Long> ids(List<VideoDTO> videos) {
+        return videos.stream().map(VideoDTO::getId).toList();
+    }
+}
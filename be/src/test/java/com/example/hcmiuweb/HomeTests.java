@@ -0,0 +1,81 @@
+package com.example.hcmiuweb;
+
+import com.example.hcmiuweb.dtos.VideoDTO;
+import com.example.hcmiuweb.entities.Category;
+import com.example.hcmiuweb.entities.User;
+import com.example.hcmiuweb.entities.Video;
+import com.example.hcmiuweb.entities.WatchList;
+import com.example.hcmiuweb.payload.response.HomeResponse;
+import com.example.hcmiuweb.repositories.VideoRepository;
+import com.example.hcmiuweb.repositories.WatchListRepository;
+import com.example.hcmiuweb.services.HomeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A cold first query must not fall back to an empty section
+@SpringBootTest(properties = "home.section-timeout-ms=10000")
+@AutoConfigureMockMvc
+@Import(TestData.class)
+class HomeTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private HomeService homeService;
+
+    @Autowired
+    private TestData data;
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private WatchListRepository watchListRepository;
+
+    @Test
+    void homeHasEverySectionAndTheCallersWatchList() {
+        User viewer = data.user("home-viewer");
+        // Sorts first, so it is one of the rails
+        Category category = data.category("0 Home rail");
+        Video newest = data.video("Home newest", viewer, category, LocalDateTime.now().plusDays(1));
+        newest.setViewCount(1_000_000L);
+        newest = videoRepository.save(newest);
+        Video older = data.video("Home older", viewer, category, LocalDateTime.now().minusDays(1));
+        WatchList watchList = new WatchList(viewer, LocalDateTime.now(), LocalDateTime.now());
+        watchList.addVideo(older);
+        watchListRepository.save(watchList);
+
+        HomeResponse home = homeService.getHome(viewer.getId());
+
+        assertEquals(newest.getId(), home.latest().get(0).getId());
+        assertEquals(newest.getId(), home.mostViewed().get(0).getId());
+        assertEquals(List.of(older.getId()), home.watchList().stream().map(VideoDTO::getId).toList());
+        HomeResponse.CategoryRail rail = home.categories().get(0);
+        assertEquals("0 Home rail", rail.categoryName());
+        assertEquals(List.of(newest.getId(), older.getId()), rail.videos().stream().map(VideoDTO::getId).toList());
+        assertNotNull(rail.videos().get(0).getUploaderUsername());
+    }
+
+    @Test
+    void anonymousHomeHasNoWatchList() throws Exception {
+        mockMvc.perform(get("/api/home"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.latest").isArray())
+                .andExpect(jsonPath("$.categories").isArray())
+                .andExpect(jsonPath("$.watchList").doesNotExist());
+    }
+}
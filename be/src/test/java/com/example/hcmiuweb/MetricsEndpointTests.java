@@ -0,0 +1,48 @@
+package com.example.hcmiuweb;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "metrics.port=9464")
+@AutoConfigureMockMvc
+class MetricsEndpointTests {
+
+    private static final RequestPostProcessor ON_METRICS_PORT = request -> {
+        request.setLocalPort(9464);
+        return request;
+    };
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void metricsPortServesTheScrapeWithoutATokenAndNothingElse() throws Exception {
+        mockMvc.perform(get("/metrics").with(ON_METRICS_PORT)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/home").with(ON_METRICS_PORT)).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void applicationPortRequiresASignIn() throws Exception {
+        mockMvc.perform(get("/metrics")).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @WithMockUser
+    void applicationPortRejectsNonAdmins() throws Exception {
+        mockMvc.perform(get("/metrics")).andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void applicationPortServesAdmins() throws Exception {
+        mockMvc.perform(get("/metrics")).andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.hcmiuweb;
+
+import com.example.hcmiuweb.components.outbox.OutboxDispatcher;
+import com.example.hcmiuweb.components.outbox.OutboxSubscriber;
+import com.example.hcmiuweb.dtos.VideoDTO;
+import com.example.hcmiuweb.entities.Category;
+import com.example.hcmiuweb.entities.OutboxEvent;
+import com.example.hcmiuweb.entities.User;
+import com.example.hcmiuweb.entities.Video;
+import com.example.hcmiuweb.repositories.OutboxEventRepository;
+import com.example.hcmiuweb.services.VideoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Import(TestData.class)
+class OutboxTests {
+
+    @DynamicPropertySource
+    static void outboxProperties(DynamicPropertyRegistry registry) {
+        // Dispatch is driven by the test; retries are due immediately
+        registry.add("outbox.poll-interval-ms", () -> "3600000");
+        registry.add("outbox.backoff-base-seconds", () -> "0");
+        registry.add("outbox.batch-size", () -> "5");
+    }
+
+    @TestConfiguration
+    static class RecordingSubscriberConfig {
+        @Bean
+        RecordingSubscriber recordingSubscriber() {
+            return new RecordingSubscriber();
+        }
+    }
+
+    static class RecordingSubscriber implements OutboxSubscriber {
+        final List<String> received = new CopyOnWriteArrayList<>();
+        final AtomicBoolean failNextCreate = new AtomicBoolean();
+
+        @Override
+        public Set<String> eventTypes() {
+            return Set.of(OutboxEvent.VIDEO_CREATED, OutboxEvent.VIDEO_UPDATED);
+        }
+
+        @Override
+        public void handle(OutboxEvent event) {
+            if (event.getEventType().equals(OutboxEvent.VIDEO_CREATED) && failNextCreate.getAndSet(false)) {
+                throw new IllegalStateException("subscriber unavailable");
+            }
+            received.add(event.getAggregateId() + ":" + event.getEventType());
+        }
+    }
+
+    @Autowired
+    private RecordingSubscriber subscriber;
+
+    @Autowired
+    private OutboxDispatcher dispatcher;
+
+    @Autowired
+    private VideoService videoService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TestData data;
+
+    @Test
+    void failedEventHoldsBackLaterEventsOfTheSameAggregate() {
+        User uploader = data.user("outbox-uploader");
+        Category category = data.category("Outbox");
+
+        Video video = new Video();
+        video.setTitle("Outbox video");
+        video.setUrl("http://example.com/outbox.mp4");
+        VideoDTO created = videoService.createVideo(video, uploader.getId(), category.getId());
+
+        Video update = videoService.findVideoById(created.getId()).orElseThrow();
+        update.setTitle("Outbox video, renamed");
+        videoService.updateVideo(update);
+
+        String createdEvent = created.getId() + ":" + OutboxEvent.VIDEO_CREATED;
+        String updatedEvent = created.getId() + ":" + OutboxEvent.VIDEO_UPDATED;
+
+        subscriber.failNextCreate.set(true);
+        dispatcher.dispatch();
+        assertTrue(subscriber.received.stream().noneMatch(e -> e.startsWith(created.getId() + ":")),
+                "update must not overtake the failed create");
+
+        dispatcher.dispatch();
+        List<String> forVideo = subscriber.received.stream()
+                .filter(e -> e.startsWith(created.getId() + ":"))
+                .toList();
+        assertEquals(List.of(createdEvent, updatedEvent), forVideo);
+        assertEquals(0, outboxEventRepository.countByStatus(OutboxEvent.Status.PENDING));
+    }
+
+    @Test
+    void backedOffAggregateDoesNotStallOthers() {
+        // More events queued behind a backed-off one than fit in a batch
+        List<OutboxEvent> stuck = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            OutboxEvent event = new OutboxEvent(OutboxEvent.VIDEO, -1L, OutboxEvent.VIDEO_UPDATED, "{}");
+            if (i == 0) {
+                event.setAttempts(3);
+                event.setNextAttemptAt(LocalDateTime.now().plusHours(1));
+            }
+            stuck.add(outboxEventRepository.save(event));
+        }
+        outboxEventRepository.save(new OutboxEvent(OutboxEvent.VIDEO, -2L, OutboxEvent.VIDEO_UPDATED, "{}"));
+
+        try {
+            dispatcher.dispatch();
+
+            assertTrue(subscriber.received.contains("-2:" + OutboxEvent.VIDEO_UPDATED));
+            assertTrue(subscriber.received.stream().noneMatch(e -> e.startsWith("-1:")),
+                    "events behind the backed-off one must wait for it");
+        } finally {
+            outboxEventRepository.deleteAll(stuck);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.hcmiuweb;
+
+import com.example.hcmiuweb.config.metrics.Counter;
+import com.example.hcmiuweb.config.metrics.MetricsRegistry;
+import com.example.hcmiuweb.entities.AuthToken;
+import com.example.hcmiuweb.entities.User;
+import com.example.hcmiuweb.exceptions.PasswordHashingBusyException;
+import com.example.hcmiuweb.repositories.UserRepository;
+import com.example.hcmiuweb.services.AuthTokenService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// One hashing thread and one queue slot, so two calls saturate the encoder
+@SpringBootTest(properties = {
+        "security.bcrypt.threads=1",
+        "security.bcrypt.queue-capacity=1",
+        "security.bcrypt.max-queue-wait-ms=500",
+        "security.bcrypt.retry-after-seconds=7"
+})
+@AutoConfigureMockMvc
+@Import(TestData.class)
+class PasswordHashingTests {
+
+    private static final String REJECTED = "app_password_hash_rejected_total";
+    private static final String REJECTED_HELP = "Hashing requests shed by admission control";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+
+    @Autowired
+    private AuthTokenService authTokenService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestData data;
+
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void drain() throws InterruptedException {
+        release.countDown();
+        callers.shutdown();
+        assertTrue(callers.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void callsBeyondTheQueueAreRejectedAtOnce() throws Exception {
+        Counter queueFull = metricsRegistry.counter(REJECTED, REJECTED_HELP, "reason", "queue_full");
+        long before = queueFull.get();
+        saturate();
+
+        PasswordHashingBusyException e = assertThrows(PasswordHashingBusyException.class,
+                () -> passwordEncoder.encode("rejected-password"));
+        assertEquals(7, e.getRetryAfterSeconds());
+        assertEquals(before + 1, queueFull.get());
+    }
+
+    @Test
+    void callsThatWaitTooLongInTheQueueAreShed() throws Exception {
+        Counter queueTimeout = metricsRegistry.counter(REJECTED, REJECTED_HELP, "reason", "queue_timeout");
+        long before = queueTimeout.get();
+        occupyWorker();
+        Future<String> queued = callers.submit(() -> passwordEncoder.encode("late-password"));
+        awaitMetric("app_password_hash_queued 1");
+
+        Thread.sleep(700);
+        release.countDown();
+        ExecutionException e = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(PasswordHashingBusyException.class, e.getCause());
+        assertEquals(before + 1, queueTimeout.get());
+
+        // Shedding does not wedge the pool
+        assertTrue(passwordEncoder.matches("again", passwordEncoder.encode("again")));
+    }
+
+    @Test
+    void authEndpointsAnswer503WithRetryAfterWhenSaturated() throws Exception {
+        User user = data.user("hash-busy");
+        user.setPassword(passwordEncoder.encode("secret-123"));
+        userRepository.save(user);
+        String token = authTokenService.issue(user, AuthToken.Purpose.PASSWORD_RESET, Duration.ofMinutes(15));
+        saturate();
+
+        mockMvc.perform(post("/api/auth/signin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"hash-busy\",\"password\":\"secret-123\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "7"));
+        mockMvc.perform(post("/api/auth/signup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"hash-busy-new\",\"email\":\"hash-busy-new@example.com\","
+                                + "\"password\":\"secret-123\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "7"));
+        mockMvc.perform(post("/api/auth/reset-password")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"token\":\"" + token + "\",\"newPassword\":\"new-password-123\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "7"));
+        assertFalse(userRepository.existsByUsername("hash-busy-new"));
+
+        // A shed reset leaves the token usable once capacity is back
+        release.countDown();
+        awaitMetric("app_password_hash_queued 0");
+        awaitMetric("app_password_hash_active 0");
+        mockMvc.perform(post("/api/auth/reset-password")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"token\":\"" + token + "\",\"newPassword\":\"new-password-123\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void signInRehashesPasswordsStoredAtAnotherCost() throws Exception {
+        User user = data.user("hash-rehash");
+        user.setPassword(new BCryptPasswordEncoder(5).encode("secret-123"));
+        userRepository.save(user);
+
+        mockMvc.perform(post("/api/auth/signin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"hash-rehash\",\"password\":\"secret-123\"}"))
+                .andExpect(status().isOk());
+
+        String stored = userRepository.findById(user.getId()).orElseThrow().getPassword();
+        assertTrue(stored.startsWith("$2a$04$"), stored);
+        assertFalse(passwordEncoder.upgradeEncoding(stored));
+        assertTrue(passwordEncoder.matches("secret-123", stored));
+    }
+
+    /** Holds the hashing thread and the queue slot until {@link #release} opens. */
+    private void saturate() throws InterruptedException {
+        occupyWorker();
+        callers.submit(() -> passwordEncoder.encode("queued-password"));
+        awaitMetric("app_password_hash_queued 1");
+    }
+
+    private void occupyWorker() throws InterruptedException {
+        CountDownLatch entered = new CountDownLatch(1);
+        BlockingPassword blocking = new BlockingPassword(entered, release);
+        callers.submit(() -> passwordEncoder.encode(blocking));
+        assertTrue(entered.await(5, TimeUnit.SECONDS), "hashing thread never picked up the blocking call");
+    }
+
+    private void awaitMetric(String sample) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!metricsRegistry.scrape().contains("\n" + sample + "\n")) {
+            if (System.nanoTime() > deadline) {
+                fail("metric never reached: " + sample);
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    /** A password that parks the hashing thread reading it until released. */
+    private static final class BlockingPassword implements CharSequence {
+        private static final String VALUE = "blocking-password";
+
+        private final CountDownLatch entered;
+        private final CountDownLatch release;
+
+        BlockingPassword(CountDownLatch entered, CountDownLatch release) {
+            this.entered = entered;
+            this.release = release;
+        }
+
+        @Override
+        public String toString() {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return VALUE;
+        }
+
+        @Override
+        public int length() {
+            return VALUE.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return VALUE.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return VALUE.subSequence(start, end);
+        }
+    }
+}
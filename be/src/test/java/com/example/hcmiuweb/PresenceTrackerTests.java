@@ -0,0 +1,53 @@
+package com.example.hcmiuweb;
+
+import com.example.hcmiuweb.components.live.PresenceTracker;
+import com.example.hcmiuweb.config.metrics.MetricsRegistry;
+import com.example.hcmiuweb.payload.response.LiveCountResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PresenceTrackerTests {
+
+    private final PresenceTracker tracker = new PresenceTracker(new MetricsRegistry(), 10, 60, 3, 50);
+
+    @Test
+    void smallAudiencesAreCountedExactly() {
+        // The sparse table holds 16 viewers before switching to an estimate
+        for (int i = 0; i < 16; i++) {
+            tracker.heartbeat(1L, "v:" + i);
+            tracker.heartbeat(1L, "v:" + i);
+        }
+        assertEquals(16, tracker.countWatching(1L));
+        assertEquals(0, tracker.countWatching(2L));
+    }
+
+    @Test
+    void largeAudiencesAreEstimatedWithinTenPercent() {
+        int viewers = 50_000;
+        for (int i = 0; i < viewers; i++) {
+            tracker.heartbeat(1L, "v:" + i);
+        }
+        long estimate = tracker.countWatching(1L);
+        assertTrue(Math.abs(estimate - viewers) < viewers / 10, "estimated " + estimate);
+    }
+
+    @Test
+    void topListIsOrderedAndTrackedVideosAreBounded() {
+        tracker.heartbeat(1L, "a");
+        tracker.heartbeat(2L, "a");
+        tracker.heartbeat(2L, "b");
+        tracker.heartbeat(3L, "a");
+        assertFalse(tracker.heartbeat(4L, "a"));
+
+        tracker.refresh();
+        List<LiveCountResponse> top = tracker.topLive(2);
+        assertEquals(2, top.size());
+        assertEquals(2L, top.get(0).getVideoId());
+        assertEquals(2, top.get(0).getWatching());
+    }
+}
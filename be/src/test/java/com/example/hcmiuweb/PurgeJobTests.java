@@ -0,0 +1,157 @@
+package com.example.hcmiuweb;
+
+import com.example.hcmiuweb.components.PurgeJobWorker;
+import com.example.hcmiuweb.entities.Category;
+import com.example.hcmiuweb.entities.Comment;
+import com.example.hcmiuweb.entities.CommentRating;
+import com.example.hcmiuweb.entities.PurgeJob;
+import com.example.hcmiuweb.entities.User;
+import com.example.hcmiuweb.entities.Video;
+import com.example.hcmiuweb.entities.VideoRating;
+import com.example.hcmiuweb.entities.WatchList;
+import com.example.hcmiuweb.repositories.CommentRatingRepository;
+import com.example.hcmiuweb.repositories.CommentRepository;
+import com.example.hcmiuweb.repositories.PurgeJobRepository;
+import com.example.hcmiuweb.repositories.RatingRepository;
+import com.example.hcmiuweb.repositories.UserRepository;
+import com.example.hcmiuweb.repositories.VideoRepository;
+import com.example.hcmiuweb.repositories.WatchListRepository;
+import com.example.hcmiuweb.services.UserDetailsServiceImpl;
+import com.example.hcmiuweb.services.UserService;
+import com.example.hcmiuweb.services.VideoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Import(TestData.class)
+class PurgeJobTests {
+
+    @DynamicPropertySource
+    static void purgeProperties(DynamicPropertyRegistry registry) {
+        // Runs are driven by the test; tiny batches exercise the paging
+        registry.add("purge.poll-interval-ms", () -> "3600000");
+        registry.add("purge.batch-size", () -> "2");
+    }
+
+    @Autowired
+    private PurgeJobWorker worker;
+
+    @Autowired
+    private VideoService videoService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private PurgeJobRepository purgeJobRepository;
+
+    @Autowired
+    private TestData data;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private CommentRatingRepository commentRatingRepository;
+
+    @Autowired
+    private RatingRepository ratingRepository;
+
+    @Autowired
+    private WatchListRepository watchListRepository;
+
+    @Test
+    void deletedVideoIsHiddenAtOnceAndPurgedInBatches() {
+        User uploader = data.user("purge-uploader");
+        User viewer = data.user("purge-viewer");
+        Video video = data.video("Purge video", uploader, data.category("Purge video"));
+        for (int i = 0; i < 3; i++) {
+            Comment comment = commentRepository.save(new Comment("comment " + i, LocalDateTime.now(), video, viewer, null));
+            commentRepository.save(new Comment("reply " + i, LocalDateTime.now(), video, uploader, comment));
+            commentRatingRepository.save(new CommentRating(uploader, comment, 1));
+        }
+        ratingRepository.save(new VideoRating(viewer, video, 1));
+        WatchList watchList = new WatchList(viewer, LocalDateTime.now(), LocalDateTime.now());
+        watchList.addVideo(video);
+        watchList = watchListRepository.save(watchList);
+
+        PurgeJob job = videoService.deleteVideo(video.getId());
+        assertTrue(videoService.findVideoById(video.getId()).isEmpty());
+        assertTrue(videoRepository.existsById(video.getId()), "row is removed by the worker, not the request");
+
+        PurgeJob finished = runUntilFinished(job.getId());
+        assertEquals(PurgeJob.Status.DONE, finished.getStatus());
+        // 6 comments, 3 comment ratings, 1 video rating, 1 watch list entry and the video
+        assertEquals(12, finished.getDeletedRows());
+        assertFalse(videoRepository.existsById(video.getId()));
+        assertTrue(commentRepository.findByVideo_Id(video.getId()).isEmpty());
+        assertTrue(ratingRepository.findByVideo_Id(video.getId()).isEmpty());
+        assertTrue(watchListRepository.findVideoIdsInList(watchList.getId(), 10).isEmpty());
+    }
+
+    @Test
+    void deletedUserCannotSignInAndTheirContentIsPurged() {
+        User leaving = data.user("purge-leaving");
+        User staying = data.user("purge-staying");
+        Category category = data.category("Purge user");
+        Video ownVideo = data.video("Leaving's video", leaving, category);
+        Video otherVideo = data.video("Staying's video", staying, category);
+        Comment onOwnVideo = commentRepository.save(new Comment("by staying", LocalDateTime.now(), ownVideo, staying, null));
+        Comment question = commentRepository.save(new Comment("by leaving", LocalDateTime.now(), otherVideo, leaving, null));
+        Comment answer = commentRepository.save(new Comment("reply by staying", LocalDateTime.now(), otherVideo, staying,
+                question));
+        commentRatingRepository.save(new CommentRating(leaving, answer, -1));
+        ratingRepository.save(new VideoRating(leaving, otherVideo, 1));
+
+        PurgeJob job = userService.deleteUser(leaving.getId());
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("purge-leaving"));
+        assertTrue(videoService.findVideoById(ownVideo.getId()).isEmpty());
+
+        PurgeJob finished = runUntilFinished(job.getId());
+        assertEquals(PurgeJob.Status.DONE, finished.getStatus());
+        assertFalse(userRepository.existsById(leaving.getId()));
+        assertFalse(videoRepository.existsById(ownVideo.getId()));
+        assertFalse(commentRepository.existsById(onOwnVideo.getId()));
+        assertFalse(commentRepository.existsById(question.getId()));
+        assertTrue(commentRatingRepository.findByComment_Id(answer.getId()).isEmpty());
+        assertTrue(ratingRepository.findByVideo_Id(otherVideo.getId()).isEmpty());
+
+        // Replies from other users survive as top-level comments
+        Comment kept = commentRepository.findById(answer.getId()).orElseThrow();
+        assertNull(kept.getParentComment());
+        assertTrue(videoService.findVideoById(otherVideo.getId()).isPresent());
+    }
+
+    private PurgeJob runUntilFinished(Long jobId) {
+        for (int i = 0; i < 20; i++) {
+            PurgeJob job = purgeJobRepository.findById(jobId).orElseThrow();
+            if (job.getStatus() != PurgeJob.Status.PENDING) {
+                return job;
+            }
+            worker.run();
+        }
+        return purgeJobRepository.findById(jobId).orElseThrow();
+    }
+}
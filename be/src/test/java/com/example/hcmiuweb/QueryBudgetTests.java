@@ -0,0 +1,210 @@
+package com.example.hcmiuweb;
+
+import com.example.hcmiuweb.config.metrics.QueryStats;
+import com.example.hcmiuweb.entities.Category;
+import com.example.hcmiuweb.entities.User;
+import com.example.hcmiuweb.entities.Video;
+import com.example.hcmiuweb.exceptions.ResourceNotFoundException;
+import com.example.hcmiuweb.payload.request.CommentRequest;
+import com.example.hcmiuweb.payload.response.CommentResponse;
+import com.example.hcmiuweb.repositories.CommentRatingRepository;
+import com.example.hcmiuweb.repositories.CommentRepository;
+import com.example.hcmiuweb.repositories.VideoRepository;
+import com.example.hcmiuweb.services.CommentService;
+import com.example.hcmiuweb.services.UserDetailsImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestData.class)
+class QueryBudgetTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestData data;
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private CommentRatingRepository commentRatingRepository;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Test
+    void videoDetailStaysWithinBudget() throws Exception {
+        Video video = data.video("Budget video", data.user("budget-uploader"), data.category("Budget"));
+
+        MvcResult result = mockMvc.perform(get("/api/videos/{id}", video.getId()))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String header = result.getResponse().getHeader("X-Query-Count");
+        assertNotNull(header);
+        int statements = Integer.parseInt(header);
+        assertTrue(statements <= 5, "GET /api/videos/{id} issued " + statements + " statements");
+    }
+
+    @Test
+    void repeatedVideoDetailIsServedFromTheCacheWithLiveViews() throws Exception {
+        Video video = data.video("Cache video", data.user("cache-uploader"), data.category("Cache budget"));
+
+        mockMvc.perform(get("/api/videos/{id}", video.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.viewCount").value(1));
+        MvcResult result = mockMvc.perform(get("/api/videos/{id}", video.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.viewCount").value(2))
+                .andExpect(jsonPath("$.description").value("desc"))
+                .andReturn();
+
+        // Only the view count UPDATE
+        int statements = Integer.parseInt(result.getResponse().getHeader("X-Query-Count"));
+        assertTrue(statements <= 1, "cached GET /api/videos/{id} issued " + statements + " statements");
+        assertEquals(2L, videoRepository.findById(video.getId()).orElseThrow().getViewCount());
+    }
+
+    @Test
+    void videoListIsOneProjectionAndOneRatingQuery() throws Exception {
+        User uploader = data.user("list-uploader");
+        Category category = data.category("List budget");
+        for (int i = 0; i < 5; i++) {
+            data.video("List video " + i, uploader, category);
+        }
+
+        MvcResult result = mockMvc.perform(get("/api/videos/uploader/{id}", uploader.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andExpect(jsonPath("$[0].uploaderUsername").value("list-uploader"))
+                .andExpect(jsonPath("$[0].categoryName").value("List budget"))
+                .andExpect(jsonPath("$[0].ratingCount").value(0))
+                .andExpect(jsonPath("$[0].description").doesNotExist())
+                .andReturn();
+
+        int statements = Integer.parseInt(result.getResponse().getHeader("X-Query-Count"));
+        assertTrue(statements <= 2, "GET /api/videos/uploader/{id} issued " + statements + " statements");
+    }
+
+    @Test
+    void batchReturnsCardsInRequestedOrderWithoutCountingViews() throws Exception {
+        User uploader = data.user("batch-uploader");
+        Category category = data.category("Batch budget");
+        Video first = data.video("Batch video 1", uploader, category);
+        Video second = data.video("Batch video 2", uploader, category);
+        Video third = data.video("Batch video 3", uploader, category);
+        long missing = third.getId() + 1000;
+
+        String body = "{\"ids\":[" + third.getId() + "," + missing + "," + first.getId() + "," + second.getId() + "]}";
+        MvcResult result = mockMvc.perform(post("/api/videos/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].id").value(third.getId()))
+                .andExpect(jsonPath("$[1].id").value(first.getId()))
+                .andExpect(jsonPath("$[2].id").value(second.getId()))
+                .andExpect(jsonPath("$[0].uploaderUsername").value("batch-uploader"))
+                .andReturn();
+
+        int statements = Integer.parseInt(result.getResponse().getHeader("X-Query-Count"));
+        assertTrue(statements <= 2, "POST /api/videos/batch issued " + statements + " statements");
+        assertEquals(0L, videoRepository.findById(first.getId()).orElseThrow().getViewCount());
+
+        mockMvc.perform(post("/api/videos/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void addCommentIsAnExistenceCheckAndASingleInsert() {
+        User author = data.user("comment-budget");
+        Video video = data.video("Comment budget video", author, data.category("Comment budget"));
+        UserDetailsImpl principal = UserDetailsImpl.build(author);
+
+        CommentRequest request = new CommentRequest();
+        request.setContent("hello");
+        request.setVideoId(video.getId());
+        request.setUserId(author.getId());
+
+        QueryStats stats = QueryStats.begin();
+        CommentResponse response;
+        try {
+            response = commentService.addComment(request, principal);
+        } finally {
+            QueryStats.end();
+        }
+        assertEquals(2, stats.getStatementCount());
+        assertNotNull(response.getId());
+        assertEquals("comment-budget", response.getUsername());
+        assertEquals(List.of(), response.getReplies());
+
+        request.setVideoId(-1L);
+        assertThrows(ResourceNotFoundException.class, () -> commentService.addComment(request, principal));
+
+        // A reply must sit on the same video as its parent
+        Video other = data.video("Comment budget other video", author, data.category("Comment budget other"));
+        request.setVideoId(other.getId());
+        request.setParentCommentId(response.getId());
+        assertThrows(ResourceNotFoundException.class, () -> commentService.addComment(request, principal));
+    }
+
+    @Test
+    void commentsAndVotesOnHiddenVideosAreNotFound() throws Exception {
+        User author = data.user("comment-hidden");
+        Video video = data.video("Comment hidden video", author, data.category("Comment hidden"));
+        UserDetailsImpl principal = UserDetailsImpl.build(author);
+        CommentRequest request = new CommentRequest();
+        request.setContent("before");
+        request.setVideoId(video.getId());
+        request.setUserId(author.getId());
+        Long commentId = commentService.addComment(request, principal).getId();
+
+        video.setHidden(true);
+        videoRepository.save(video);
+
+        mockMvc.perform(post("/api/comments")
+                        .with(user(principal))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"content\":\"after\",\"videoId\":" + video.getId() + "}"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/comments")
+                        .with(user(principal))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"content\":\"reply\",\"videoId\":" + video.getId()
+                                + ",\"parentCommentId\":" + commentId + "}"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/comment-ratings")
+                        .with(user(principal))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\":" + author.getId() + ",\"commentId\":" + commentId + ",\"rating\":1}"))
+                .andExpect(status().isNotFound());
+        assertEquals(1, commentRepository.findByVideo_Id(video.getId()).size());
+        assertTrue(commentRatingRepository.findByComment_Id(commentId).isEmpty());
+    }
+}
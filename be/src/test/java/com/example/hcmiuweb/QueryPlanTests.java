@@ -0,0 +1,499 @@
+package com.example.hcmiuweb;
+
+import com.example.hcmiuweb.entities.AuthToken;
+import com.example.hcmiuweb.entities.OutboundEmail;
+import com.example.hcmiuweb.entities.OutboxEvent;
+import com.example.hcmiuweb.entities.PurgeJob;
+import com.example.hcmiuweb.entities.StatsLeader;
+import com.example.hcmiuweb.entities.User;
+import com.example.hcmiuweb.repositories.AuthTokenRepository;
+import com.example.hcmiuweb.repositories.CategoryRepository;
+import com.example.hcmiuweb.repositories.CommentRatingRepository;
+import com.example.hcmiuweb.repositories.CommentRepository;
+import com.example.hcmiuweb.repositories.OutboundEmailRepository;
+import com.example.hcmiuweb.repositories.OutboxEventRepository;
+import com.example.hcmiuweb.repositories.PurgeJobRepository;
+import com.example.hcmiuweb.repositories.RatingRepository;
+import com.example.hcmiuweb.repositories.RoleRepository;
+import com.example.hcmiuweb.repositories.StatsAppliedEventRepository;
+import com.example.hcmiuweb.repositories.StatsDailyRepository;
+import com.example.hcmiuweb.repositories.StatsLeaderRepository;
+import com.example.hcmiuweb.repositories.StatsTotalRepository;
+import com.example.hcmiuweb.repositories.StoredAssetRepository;
+import com.example.hcmiuweb.repositories.UserRepository;
+import com.example.hcmiuweb.repositories.VideoRepository;
+import com.example.hcmiuweb.repositories.WatchListRepository;
+import com.example.hcmiuweb.repositories.WatchProgressRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs EXPLAIN on the SQL that every repository query method actually sends to
+ * MySQL, against a generated dataset, and fails on full table scans or
+ * unbounded row estimates.
+ *
+ * Every query method in {@code com.example.hcmiuweb.repositories} must have an
+ * entry in {@link #catalogue()}; adding a method without one fails
+ * {@link #everyQueryMethodIsCatalogued()}. Needs Docker, and fails without it
+ * rather than skipping, so a build cannot pass without checking the plans.
+ */
+@SpringBootTest
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Import(SqlCapture.class)
+class QueryPlanTests {
+
+    // Below this many rows a full scan is cheaper than an index and is fine
+    private static final long SMALL_TABLE_ROWS = 200;
+    private static final long DEFAULT_MAX_ROWS = 1000;
+
+    // Methods that are known to scan; each needs a reason and should shrink over time
+    private static final Map<String, String> KNOWN_SCANS = Map.of(
+            "VideoRepository.findCardsByTitle",
+            "leading-wildcard LIKE cannot use a B-tree index",
+            "VideoRepository.findSimilarVideos",
+            "scores every title in SQL",
+            "VideoRepository.findCards",
+            "lists every video, as findAll did",
+            "UserRepository.findByHiddenFalse",
+            "lists every user, as findAll did",
+            "UserRepository.countByHiddenFalse",
+            "nightly stats compaction",
+            "VideoRepository.summarizeVisible",
+            "nightly stats compaction",
+            "VideoRepository.rollupByUploader",
+            "nightly stats compaction",
+            "VideoRepository.rollupByCategory",
+            "nightly stats compaction");
+
+    @Container
+    static final MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "com.mysql.cj.jdbc.Driver");
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.MySQLDialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+        registry.add("migration.enabled", () -> "true");
+        registry.add("mail.queue.poll-interval-ms", () -> "3600000");
+    }
+
+    record PlanCase(Supplier<?> call, long maxRows) {
+    }
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private RatingRepository ratingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private CommentRatingRepository commentRatingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private WatchListRepository watchListRepository;
+
+    @Autowired
+    private WatchProgressRepository watchProgressRepository;
+
+    @Autowired
+    private OutboundEmailRepository outboundEmailRepository;
+
+    @Autowired
+    private AuthTokenRepository authTokenRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PurgeJobRepository purgeJobRepository;
+
+    @Autowired
+    private StatsDailyRepository statsDailyRepository;
+
+    @Autowired
+    private StatsTotalRepository statsTotalRepository;
+
+    @Autowired
+    private StatsLeaderRepository statsLeaderRepository;
+
+    @Autowired
+    private StatsAppliedEventRepository statsAppliedEventRepository;
+
+    @Autowired
+    private StoredAssetRepository storedAssetRepository;
+
+    private long videoId;
+    private long userId;
+    private long categoryId;
+    private long commentId;
+    private String tokenHash;
+
+    @BeforeAll
+    void loadDataset() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("plan-dataset.sql"));
+        }
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        videoId = jdbc.queryForObject("SELECT MAX(video_id) - 100 FROM video", Long.class);
+        userId = jdbc.queryForObject("SELECT user_id FROM user WHERE username = 'plan_user_10'", Long.class);
+        categoryId = jdbc.queryForObject("SELECT category_id FROM category WHERE name = 'plan_category_7'", Long.class);
+        commentId = jdbc.queryForObject("SELECT MIN(comment_id) + 5 FROM comment WHERE content = 'generated'",
+                Long.class);
+        tokenHash = jdbc.queryForObject("SELECT SHA2('plan-token-10', 256)", String.class);
+    }
+
+    private Map<String, PlanCase> catalogue() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, PlanCase> cases = new LinkedHashMap<>();
+
+        add(cases, "VideoRepository.findByIdAndHiddenFalse", () -> videoRepository.findByIdAndHiddenFalse(videoId));
+        add(cases, "VideoRepository.existsByIdAndHiddenFalse", () -> videoRepository.existsByIdAndHiddenFalse(videoId));
+        add(cases, "VideoRepository.findCards", () -> videoRepository.findCards());
+        add(cases, "VideoRepository.findCardsByUploader", () -> videoRepository.findCardsByUploader(userId));
+        add(cases, "VideoRepository.findCardsByCategory", () -> videoRepository.findCardsByCategory(categoryId));
+        add(cases, "VideoRepository.findCardsByTitle", () -> videoRepository.findCardsByTitle("cooking"));
+        add(cases, "VideoRepository.findCardsByIdIn",
+                () -> videoRepository.findCardsByIdIn(List.of(videoId, videoId + 1)));
+        add(cases, "VideoRepository.findLatestCards", () -> videoRepository.findLatestCards(PageRequest.of(0, 12)));
+        add(cases, "VideoRepository.findMostViewedCards",
+                () -> videoRepository.findMostViewedCards(PageRequest.of(0, 12)));
+        add(cases, "VideoRepository.findLatestCardsByCategory",
+                () -> videoRepository.findLatestCardsByCategory(categoryId, PageRequest.of(0, 12)));
+        add(cases, "VideoRepository.summarizeRatings",
+                () -> videoRepository.summarizeRatings(List.of(videoId, videoId + 1)));
+        add(cases, "VideoRepository.addView", () -> videoRepository.addView(videoId));
+        add(cases, "VideoRepository.existsByUrl",
+                () -> videoRepository.existsByUrl("https://cdn.example.com/plan/10.mp4"));
+        add(cases, "VideoRepository.existsByThumbnailUrl",
+                () -> videoRepository.existsByThumbnailUrl("https://cdn.example.com/plan/10.jpg"));
+        add(cases, "VideoRepository.findAverageRatingByVideoId",
+                () -> videoRepository.findAverageRatingByVideoId(videoId));
+        add(cases, "VideoRepository.countRatingsByVideoId", () -> videoRepository.countRatingsByVideoId(videoId));
+        add(cases, "VideoRepository.findSimilarVideos",
+                () -> videoRepository.findSimilarVideos(videoId, "plan video music"));
+        add(cases, "VideoRepository.findVisibleIdsByUploader", () -> videoRepository.findVisibleIdsByUploader(userId));
+        add(cases, "VideoRepository.findIdsByUploader",
+                () -> videoRepository.findIdsByUploader(userId, PageRequest.of(0, 1)));
+        add(cases, "VideoRepository.hideByIdIn", () -> videoRepository.hideByIdIn(List.of(videoId)));
+        add(cases, "VideoRepository.deleteRowById", () -> videoRepository.deleteRowById(-1L));
+        add(cases, "VideoRepository.summarizeVisible", () -> videoRepository.summarizeVisible());
+        add(cases, "VideoRepository.rollupByUploader", () -> videoRepository.rollupByUploader());
+        add(cases, "VideoRepository.rollupByCategory", () -> videoRepository.rollupByCategory());
+
+        add(cases, "RatingRepository.findByVideo_Id", () -> ratingRepository.findByVideo_Id(videoId));
+        add(cases, "RatingRepository.findUserIdsByVideo",
+                () -> ratingRepository.findUserIdsByVideo(videoId, PageRequest.of(0, 500)));
+        add(cases, "RatingRepository.deleteByVideoAndUserIds",
+                () -> ratingRepository.deleteByVideoAndUserIds(videoId, List.of(userId)));
+        add(cases, "RatingRepository.findVideoIdsByUser",
+                () -> ratingRepository.findVideoIdsByUser(userId, PageRequest.of(0, 500)));
+        add(cases, "RatingRepository.deleteByUserAndVideoIds",
+                () -> ratingRepository.deleteByUserAndVideoIds(userId, List.of(videoId)));
+
+        add(cases, "CommentRepository.findByVideo_Id", () -> commentRepository.findByVideo_Id(videoId));
+        add(cases, "CommentRepository.findByUser_Id", () -> commentRepository.findByUser_Id(userId));
+        add(cases, "CommentRepository.findByVideo_IdAndParentCommentIsNull",
+                () -> commentRepository.findByVideo_IdAndParentCommentIsNull(videoId));
+        add(cases, "CommentRepository.findByParentComment_Id",
+                () -> commentRepository.findByParentComment_Id(commentId));
+        add(cases, "CommentRepository.existsByIdAndVideo_HiddenFalse",
+                () -> commentRepository.existsByIdAndVideo_HiddenFalse(commentId));
+        add(cases, "CommentRepository.existsByIdAndVideo_IdAndVideo_HiddenFalse",
+                () -> commentRepository.existsByIdAndVideo_IdAndVideo_HiddenFalse(commentId, videoId));
+        add(cases, "CommentRepository.findVideoIds",
+                () -> commentRepository.findVideoIds(List.of(commentId, commentId + 1, commentId + 2)));
+        add(cases, "CommentRepository.findIdsByVideo",
+                () -> commentRepository.findIdsByVideo(videoId, PageRequest.of(0, 500)));
+        add(cases, "CommentRepository.findIdsByUser", () -> commentRepository.findIdsByUser(userId, PageRequest.of(0, 500)));
+        add(cases, "CommentRepository.detachReplies", () -> commentRepository.detachReplies(List.of(commentId)));
+        add(cases, "CommentRepository.deleteByIdIn", () -> commentRepository.deleteByIdIn(List.of(-1L)));
+
+        add(cases, "CommentRatingRepository.findByComment_Id",
+                () -> commentRatingRepository.findByComment_Id(commentId));
+        add(cases, "CommentRatingRepository.findByUser_Id", () -> commentRatingRepository.findByUser_Id(userId));
+        add(cases, "CommentRatingRepository.findByUser_IdAndComment_Id",
+                () -> commentRatingRepository.findByUser_IdAndComment_Id(userId, commentId));
+        add(cases, "CommentRatingRepository.countByComment_IdAndRating",
+                () -> commentRatingRepository.countByComment_IdAndRating(commentId, 1));
+        add(cases, "CommentRatingRepository.findRatingValue",
+                () -> commentRatingRepository.findRatingValue(userId, commentId));
+        add(cases, "CommentRatingRepository.updateRatingValue",
+                () -> commentRatingRepository.updateRatingValue(userId, commentId, -1));
+        add(cases, "CommentRatingRepository.deleteVote", () -> commentRatingRepository.deleteVote(userId, commentId));
+        add(cases, "CommentRatingRepository.countVotes", () -> commentRatingRepository.countVotes(commentId));
+        add(cases, "CommentRatingRepository.findCommentIdsByUser",
+                () -> commentRatingRepository.findCommentIdsByUser(userId, PageRequest.of(0, 500)));
+        add(cases, "CommentRatingRepository.deleteByUserAndCommentIds",
+                () -> commentRatingRepository.deleteByUserAndCommentIds(userId, List.of(commentId)));
+        add(cases, "CommentRatingRepository.deleteByCommentIds",
+                () -> commentRatingRepository.deleteByCommentIds(List.of(commentId)));
+
+        add(cases, "UserRepository.findByEmail", () -> userRepository.findByEmail("plan_user_10@example.com"));
+        add(cases, "UserRepository.findByUsername", () -> userRepository.findByUsername("plan_user_10"));
+        add(cases, "UserRepository.existsByUsername", () -> userRepository.existsByUsername("plan_user_10"));
+        add(cases, "UserRepository.existsByEmail", () -> userRepository.existsByEmail("plan_user_10@example.com"));
+        add(cases, "UserRepository.existsByAvatar",
+                () -> userRepository.existsByAvatar("https://cdn.example.com/avatars/10.jpg"));
+        add(cases, "UserRepository.findByHiddenFalse", () -> userRepository.findByHiddenFalse());
+        add(cases, "UserRepository.deleteRowById", () -> userRepository.deleteRowById(-1L));
+        add(cases, "UserRepository.countByHiddenFalse", () -> userRepository.countByHiddenFalse());
+        add(cases, "UserRepository.findSummaries", () -> userRepository.findSummaries("", "plan!_user!_19%", "",
+                PageRequest.of(0, 50, Sort.by(Sort.Direction.DESC, "registrationDate", "id"))));
+        add(cases, "UserRepository.countSummaries",
+                () -> userRepository.countSummaries("", "", "plan!_user!_19%"));
+
+        add(cases, "RoleRepository.findByRoleName", () -> roleRepository.findByRoleName("ROLE_USER"));
+        add(cases, "RoleRepository.existsByRoleName", () -> roleRepository.existsByRoleName("ROLE_USER"));
+
+        add(cases, "CategoryRepository.findByName", () -> categoryRepository.findByName("plan_category_7"));
+
+        add(cases, "WatchListRepository.findByUser", () -> watchListRepository.findByUser(user(userId)));
+        add(cases, "WatchListRepository.existsByUser", () -> watchListRepository.existsByUser(user(userId)));
+        add(cases, "WatchListRepository.findIdsByUser", () -> watchListRepository.findIdsByUser(userId));
+        add(cases, "WatchListRepository.findListIdsContainingVideo",
+                () -> watchListRepository.findListIdsContainingVideo(videoId, 500));
+        add(cases, "WatchListRepository.removeVideoFromLists",
+                () -> watchListRepository.removeVideoFromLists(videoId, List.of(1L, 2L, 3L)));
+        add(cases, "WatchListRepository.findVideoIdsInList", () -> watchListRepository.findVideoIdsInList(1L, 500));
+        add(cases, "WatchListRepository.removeVideosFromList",
+                () -> watchListRepository.removeVideosFromList(1L, List.of(videoId)));
+        add(cases, "WatchListRepository.deleteRowById", () -> watchListRepository.deleteRowById(-1L));
+        add(cases, "WatchProgressRepository.findInProgress",
+                () -> watchProgressRepository.findInProgress(userId, PageRequest.of(0, 20)));
+        add(cases, "WatchProgressRepository.findUserIdsByVideo",
+                () -> watchProgressRepository.findUserIdsByVideo(videoId, PageRequest.of(0, 500)));
+        add(cases, "WatchProgressRepository.deleteByVideoAndUserIds",
+                () -> watchProgressRepository.deleteByVideoAndUserIds(videoId, List.of(userId)));
+        add(cases, "WatchProgressRepository.findVideoIdsByUser",
+                () -> watchProgressRepository.findVideoIdsByUser(userId, PageRequest.of(0, 500)));
+        add(cases, "WatchProgressRepository.deleteByUserAndVideoIds",
+                () -> watchProgressRepository.deleteByUserAndVideoIds(userId, List.of(videoId)));
+
+        add(cases, "OutboundEmailRepository.findDueForUpdate",
+                () -> outboundEmailRepository.findDueForUpdate(OutboundEmail.Status.PENDING, now, PageRequest.of(0, 50)));
+        add(cases, "OutboundEmailRepository.markSent", () -> outboundEmailRepository.markSent(List.of(1L, 2L, 3L), now));
+        add(cases, "OutboundEmailRepository.countByStatus",
+                () -> outboundEmailRepository.countByStatus(OutboundEmail.Status.PENDING));
+        add(cases, "OutboundEmailRepository.findOldestCreatedAt",
+                () -> outboundEmailRepository.findOldestCreatedAt(OutboundEmail.Status.PENDING));
+        add(cases, "OutboundEmailRepository.deleteByStatusAndCreatedAtBefore",
+                () -> outboundEmailRepository.deleteByStatusAndCreatedAtBefore(OutboundEmail.Status.SENT,
+                        LocalDateTime.of(2024, 1, 1, 1, 0)));
+
+        add(cases, "AuthTokenRepository.findByTokenHashAndPurpose",
+                () -> authTokenRepository.findByTokenHashAndPurpose(tokenHash, AuthToken.Purpose.PASSWORD_RESET));
+        add(cases, "AuthTokenRepository.deleteByTokenHash", () -> authTokenRepository.deleteByTokenHash(tokenHash));
+        add(cases, "AuthTokenRepository.deleteByUserAndPurpose",
+                () -> authTokenRepository.deleteByUserAndPurpose(userId, AuthToken.Purpose.PASSWORD_RESET));
+        add(cases, "AuthTokenRepository.findExpiredIds",
+                () -> authTokenRepository.findExpiredIds(now, PageRequest.of(0, 500)));
+        add(cases, "AuthTokenRepository.findIdsByUser",
+                () -> authTokenRepository.findIdsByUser(userId, PageRequest.of(0, 500)));
+        add(cases, "AuthTokenRepository.deleteByIdIn", () -> authTokenRepository.deleteByIdIn(List.of(1L, 2L, 3L)));
+
+        add(cases, "OutboxEventRepository.findDue",
+                () -> outboxEventRepository.findDue(OutboxEvent.Status.PENDING, now, PageRequest.of(0, 200)));
+        add(cases, "OutboxEventRepository.markDispatched",
+                () -> outboxEventRepository.markDispatched(List.of(1L, 2L, 3L), now));
+        add(cases, "OutboxEventRepository.countByStatus",
+                () -> outboxEventRepository.countByStatus(OutboxEvent.Status.PENDING));
+        add(cases, "OutboxEventRepository.findOldestCreatedAt",
+                () -> outboxEventRepository.findOldestCreatedAt(OutboxEvent.Status.PENDING));
+        add(cases, "OutboxEventRepository.findDispatchedIdsBefore",
+                () -> outboxEventRepository.findDispatchedIdsBefore(OutboxEvent.Status.DISPATCHED, now,
+                        PageRequest.of(0, 500)));
+        add(cases, "OutboxEventRepository.deleteByIdIn", () -> outboxEventRepository.deleteByIdIn(List.of(1L, 2L, 3L)));
+
+        add(cases, "PurgeJobRepository.findRunnableIds",
+                () -> purgeJobRepository.findRunnableIds(PurgeJob.Status.PENDING, now, PageRequest.of(0, 10)));
+        add(cases, "PurgeJobRepository.findForUpdate", () -> purgeJobRepository.findForUpdate(1L));
+        add(cases, "PurgeJobRepository.countByStatus", () -> purgeJobRepository.countByStatus(PurgeJob.Status.PENDING));
+
+        add(cases, "StatsDailyRepository.addToDay",
+                () -> statsDailyRepository.addToDay(now.toLocalDate(), 1, 0, 0, 0, 0, now));
+        add(cases, "StatsDailyRepository.findByDateGreaterThanEqualOrderByDateAsc",
+                () -> statsDailyRepository.findByDateGreaterThanEqualOrderByDateAsc(now.toLocalDate().minusDays(29)));
+        add(cases, "StatsDailyRepository.deleteBefore",
+                () -> statsDailyRepository.deleteBefore(now.toLocalDate().minusDays(730)));
+        add(cases, "StatsTotalRepository.addToTotals", () -> statsTotalRepository.addToTotals(0, 0, 1, 0, 0, now));
+        add(cases, "StatsLeaderRepository.addToLeader",
+                () -> statsLeaderRepository.addToLeader(StatsLeader.Kind.UPLOADER, userId, 0, 1));
+        add(cases, "StatsLeaderRepository.findTopByViews",
+                () -> statsLeaderRepository.findTopByViews(StatsLeader.Kind.UPLOADER, PageRequest.of(0, 10)));
+        add(cases, "StatsLeaderRepository.deleteByKind",
+                () -> statsLeaderRepository.deleteByKind(StatsLeader.Kind.CATEGORY));
+        add(cases, "StatsAppliedEventRepository.findIdsAppliedBefore",
+                () -> statsAppliedEventRepository.findIdsAppliedBefore(now.minusDays(7), PageRequest.of(0, 500)));
+        add(cases, "StatsAppliedEventRepository.deleteByIdIn",
+                () -> statsAppliedEventRepository.deleteByIdIn(List.of(1L, 2L, 3L)));
+
+        String sha256 = "0".repeat(64);
+        add(cases, "StoredAssetRepository.findBySha256", () -> storedAssetRepository.findBySha256(sha256));
+        add(cases, "StoredAssetRepository.findFirstByUrl",
+                () -> storedAssetRepository.findFirstByUrl("https://cdn.example.com/avatars/10.jpg"));
+        add(cases, "StoredAssetRepository.retainBySha256", () -> storedAssetRepository.retainBySha256(sha256, now));
+        add(cases, "StoredAssetRepository.retainByUrl",
+                () -> storedAssetRepository.retainByUrl("https://cdn.example.com/avatars/10.jpg", now));
+        add(cases, "StoredAssetRepository.releaseByUrl",
+                () -> storedAssetRepository.releaseByUrl("https://cdn.example.com/avatars/10.jpg", now));
+        add(cases, "StoredAssetRepository.findUnreferencedIds",
+                () -> storedAssetRepository.findUnreferencedIds(now.minusHours(1), PageRequest.of(0, 100)));
+        add(cases, "StoredAssetRepository.findForUpdate", () -> storedAssetRepository.findForUpdate(1L));
+
+        return cases;
+    }
+
+    private static void add(Map<String, PlanCase> cases, String method, Supplier<?> call) {
+        cases.put(method, new PlanCase(call, DEFAULT_MAX_ROWS));
+    }
+
+    private User user(long id) {
+        return userRepository.findById(id).orElseThrow();
+    }
+
+    @Test
+    void everyQueryMethodIsCatalogued() {
+        Map<String, PlanCase> cases = catalogue();
+        Repositories repositories = new Repositories(applicationContext);
+        TreeSet<String> missing = new TreeSet<>();
+        for (Class<?> domainType : repositories) {
+            RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+            Class<?> repositoryInterface = information.getRepositoryInterface();
+            if (!repositoryInterface.getPackageName().equals("com.example.hcmiuweb.repositories")) {
+                continue;
+            }
+            for (Method method : information.getQueryMethods()) {
+                String key = repositoryInterface.getSimpleName() + "." + method.getName();
+                if (!cases.containsKey(key)) {
+                    missing.add(key);
+                }
+            }
+        }
+        assertTrue(missing.isEmpty(), "Add QueryPlanTests catalogue entries for: " + missing);
+        assertTrue(cases.keySet().containsAll(KNOWN_SCANS.keySet()), "Stale KNOWN_SCANS entries");
+    }
+
+    @TestFactory
+    Stream<DynamicTest> queryPlansUseIndexes() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        return catalogue().entrySet().stream().map(entry -> DynamicTest.dynamicTest(entry.getKey(), () -> {
+            List<SqlCapture.Statement> statements = transaction.execute(status -> {
+                status.setRollbackOnly();
+                return SqlCapture.capture(entry.getValue().call());
+            });
+            assertFalse(statements.isEmpty(), entry.getKey() + " issued no SQL");
+
+            List<String> problems = new ArrayList<>();
+            for (SqlCapture.Statement statement : statements) {
+                problems.addAll(explain(statement, entry.getValue().maxRows()));
+            }
+            String knownScan = KNOWN_SCANS.get(entry.getKey());
+            if (knownScan == null) {
+                assertTrue(problems.isEmpty(), entry.getKey() + ":\n" + String.join("\n", problems));
+            } else {
+                assertFalse(problems.isEmpty(), entry.getKey() + " no longer scans (" + knownScan
+                        + "); remove it from KNOWN_SCANS");
+            }
+        }));
+    }
+
+    private List<String> explain(SqlCapture.Statement statement, long maxRows) throws Exception {
+        String sql = statement.sql().trim();
+        String verb = sql.substring(0, Math.min(6, sql.length())).toLowerCase(Locale.ROOT);
+        List<String> problems = new ArrayList<>();
+        if (!verb.equals("select") && !verb.equals("update") && !verb.equals("delete")) {
+            return problems;
+        }
+        // Separate connection: EXPLAIN takes no locks, so it cannot block on the test transaction
+        try (Connection connection = DriverManager.getConnection(mysql.getJdbcUrl(), mysql.getUsername(),
+                mysql.getPassword());
+             PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < statement.parameters().size(); i++) {
+                explain.setObject(i + 1, statement.parameters().get(i));
+            }
+            try (ResultSet plan = explain.executeQuery()) {
+                while (plan.next()) {
+                    String table = plan.getString("table");
+                    String type = plan.getString("type");
+                    long rows = plan.getLong("rows");
+                    if (table == null || type == null) {
+                        continue;
+                    }
+                    boolean fullScan = type.equals("ALL") || type.equals("index");
+                    if (fullScan && rows > SMALL_TABLE_ROWS) {
+                        problems.add("full scan (" + type + ") of " + table + ", ~" + rows + " rows: " + sql);
+                    } else if (rows > maxRows) {
+                        problems.add("~" + rows + " rows examined in " + table + " via " + plan.getString("key")
+                                + " (limit " + maxRows + "): " + sql);
+                    }
+                }
+            }
+        }
+        return problems;
+    }
+}
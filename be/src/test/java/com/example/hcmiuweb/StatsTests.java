@@ -0,0 +1,181 @@
+package com.example.hcmiuweb;
+
+import com.example.hcmiuweb.components.StatsRollup;
+import com.example.hcmiuweb.components.outbox.OutboxDispatcher;
+import com.example.hcmiuweb.dtos.VideoDTO;
+import com.example.hcmiuweb.entities.Category;
+import com.example.hcmiuweb.entities.OutboxEvent;
+import com.example.hcmiuweb.entities.Role;
+import com.example.hcmiuweb.entities.StatsLeader;
+import com.example.hcmiuweb.entities.StatsLeaderId;
+import com.example.hcmiuweb.entities.User;
+import com.example.hcmiuweb.entities.Video;
+import com.example.hcmiuweb.entities.VideoRating;
+import com.example.hcmiuweb.payload.response.AdminStatsResponse;
+import com.example.hcmiuweb.repositories.OutboxEventRepository;
+import com.example.hcmiuweb.repositories.StatsLeaderRepository;
+import com.example.hcmiuweb.repositories.VideoRepository;
+import com.example.hcmiuweb.services.RatingService;
+import com.example.hcmiuweb.services.StatsService;
+import com.example.hcmiuweb.services.UserService;
+import com.example.hcmiuweb.services.VideoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestData.class)
+class StatsTests {
+
+    @DynamicPropertySource
+    static void statsProperties(DynamicPropertyRegistry registry) {
+        // Dispatch, flushes and snapshots are driven by the test
+        registry.add("outbox.poll-interval-ms", () -> "3600000");
+        registry.add("stats.refresh-ms", () -> "3600000");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OutboxDispatcher dispatcher;
+
+    @Autowired
+    private StatsRollup rollup;
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private VideoService videoService;
+
+    @Autowired
+    private RatingService ratingService;
+
+    @Autowired
+    private TestData data;
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private StatsLeaderRepository statsLeaderRepository;
+
+    @Test
+    void rollupsFollowEventsAndBufferedViews() throws Exception {
+        // Settle anything earlier tests left behind, then take the baseline
+        dispatcher.dispatch();
+        rollup.refresh();
+        AdminStatsResponse before = statsService.getSnapshot();
+
+        Role role = data.role("ROLE_STATS_TEST");
+        // Through the service, so the signups are published as events
+        User uploader = userService.createUser(new User("stats-uploader", "stats-uploader@example.com", "x",
+                LocalDateTime.now(), null, role));
+        User viewer = userService.createUser(new User("stats-viewer", "stats-viewer@example.com", "x",
+                LocalDateTime.now(), null, role));
+        Category category = data.category("Stats");
+        Video video = new Video();
+        video.setTitle("Stats video");
+        video.setUrl("http://example.com/stats.mp4");
+        VideoDTO created = videoService.createVideo(video, uploader.getId(), category.getId());
+        videoService.incrementViewCount(created.getId());
+        videoService.incrementViewCount(created.getId());
+        Video saved = videoRepository.findById(created.getId()).orElseThrow();
+        ratingService.addRating(new VideoRating(viewer, saved, 1));
+        // Changing a rating is not a new rating
+        ratingService.addRating(new VideoRating(viewer, saved, -1));
+
+        dispatcher.dispatch();
+        OutboxEvent signup = outboxEventRepository.findAll().stream()
+                .filter(event -> event.getEventType().equals(OutboxEvent.USER_REGISTERED)
+                        && event.getAggregateId().equals(viewer.getId()))
+                .findFirst().orElseThrow();
+        assertFalse(statsService.applyEvent(signup), "a redelivered event is not counted twice");
+
+        rollup.refresh();
+        AdminStatsResponse after = statsService.getSnapshot();
+        assertFalse(after.getGeneratedAt().isBefore(before.getGeneratedAt()));
+        assertEquals(before.getTotals().users() + 2, after.getTotals().users());
+        assertEquals(before.getTotals().videos() + 1, after.getTotals().videos());
+        assertEquals(before.getTotals().views() + 2, after.getTotals().views());
+        assertEquals(before.getTotals().ratings() + 1, after.getTotals().ratings());
+
+        AdminStatsResponse.Day todayBefore = today(before);
+        AdminStatsResponse.Day todayAfter = today(after);
+        assertEquals(todayBefore.signups() + 2, todayAfter.signups());
+        assertEquals(todayBefore.uploads() + 1, todayAfter.uploads());
+        assertEquals(todayBefore.views() + 2, todayAfter.views());
+        assertEquals(todayBefore.ratings() + 1, todayAfter.ratings());
+
+        StatsLeader leader = statsLeaderRepository
+                .findById(new StatsLeaderId(StatsLeader.Kind.UPLOADER, uploader.getId())).orElseThrow();
+        assertEquals(1, leader.getUploads());
+        assertEquals(2, leader.getViews());
+    }
+
+    @Test
+    void compactionDoesNotCountBufferedViewsTwice() {
+        User uploader = data.user("stats-compaction");
+        Video video = data.video("Stats compaction video", uploader, data.category("Stats compaction"));
+        // On the video row, but still waiting in the buffer when the compaction runs
+        for (int i = 0; i < 3; i++) {
+            videoService.incrementViewCount(video.getId());
+        }
+
+        statsService.compact(730);
+        rollup.flushViews();
+        AdminStatsResponse stats = statsService.refreshSnapshot();
+
+        long visibleViews = ((Number) videoRepository.summarizeVisible().get(0)[1]).longValue();
+        assertEquals(visibleViews, stats.getTotals().views());
+        StatsLeader leader = statsLeaderRepository
+                .findById(new StatsLeaderId(StatsLeader.Kind.UPLOADER, uploader.getId())).orElseThrow();
+        assertEquals(3, leader.getViews());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void statsAreServedToAdmins() throws Exception {
+        mockMvc.perform(get("/api/admin/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.generatedAt").exists())
+                .andExpect(jsonPath("$.totals.videos").isNumber());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void statsAreAdminOnly() throws Exception {
+        mockMvc.perform(get("/api/admin/stats")).andExpect(status().isForbidden());
+    }
+
+    private static AdminStatsResponse.Day today(AdminStatsResponse stats) {
+        LocalDate today = LocalDate.now();
+        return stats.getDays().stream()
+                .filter(day -> day.date().equals(today))
+                .findFirst()
+                .orElse(new AdminStatsResponse.Day(today, 0, 0, 0, 0, 0));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.hcmiuweb;
+
+import com.example.hcmiuweb.entities.Category;
+import com.example.hcmiuweb.entities.Role;
+import com.example.hcmiuweb.entities.User;
+import com.example.hcmiuweb.entities.Video;
+import com.example.hcmiuweb.repositories.CategoryRepository;
+import com.example.hcmiuweb.repositories.RoleRepository;
+import com.example.hcmiuweb.repositories.UserRepository;
+import com.example.hcmiuweb.repositories.VideoRepository;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Saves the users, categories and videos tests build on. The test database
+ * is shared between test classes, so names must be unique across the suite.
+ */
+class TestData {
+
+    private final RoleRepository roleRepository;
+    private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+    private final VideoRepository videoRepository;
+
+    TestData(RoleRepository roleRepository, UserRepository userRepository, CategoryRepository categoryRepository,
+            VideoRepository videoRepository) {
+        this.roleRepository = roleRepository;
+        this.userRepository = userRepository;
+        this.categoryRepository = categoryRepository;
+        this.videoRepository = videoRepository;
+    }
+
+    Role role(String name) {
+        return roleRepository.save(new Role(name));
+    }
+
+    /**
+     * A user at {@code <username>@example.com} with a role of their own,
+     * {@code ROLE_<USERNAME>_TEST}.
+     */
+    User user(String username) {
+        return user(username, role("ROLE_" + username.toUpperCase(Locale.ROOT).replace('-', '_') + "_TEST"));
+    }
+
+    User user(String username, Role role) {
+        return user(username, role, LocalDateTime.now());
+    }
+
+    User user(String username, Role role, LocalDateTime registrationDate) {
+        return userRepository.save(new User(username, username + "@example.com", "x", registrationDate, null, role));
+    }
+
+    Category category(String name) {
+        return categoryRepository.save(new Category(name));
+    }
+
+    Video video(String title, User uploader, Category category) {
+        return video(title, uploader, category, LocalDateTime.now());
+    }
+
+    Video video(String title, User uploader, Category category, LocalDateTime uploadDate) {
+        String slug = title.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-");
+        return videoRepository.save(new Video(title, "desc", uploadDate, 60,
+                "http://example.com/" + slug + ".mp4", null, uploader, category));
+    }
+}
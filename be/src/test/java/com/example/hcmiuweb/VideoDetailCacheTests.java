@@ -0,0 +1,85 @@
+package com.example.hcmiuweb;
+
+import com.example.hcmiuweb.config.metrics.MetricsRegistry;
+import com.example.hcmiuweb.dtos.VideoDTO;
+import com.example.hcmiuweb.services.VideoDetailCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VideoDetailCacheTests {
+
+    private final VideoDetailCache cache = new VideoDetailCache(100, 60, 45, 1, new MetricsRegistry());
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Optional<VideoDTO>>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(callers.submit(() -> cache.get(1L, id -> {
+                    loads.incrementAndGet();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return Optional.of(video(id, 10L));
+                })));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<Optional<VideoDTO>> result : results) {
+                assertEquals(1L, result.get(5, TimeUnit.SECONDS).orElseThrow().getId());
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void viewsAreOverlaidAndInvalidationReloads() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(2L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(video(id, 10L));
+        });
+        cache.recordView(2L);
+        cache.recordView(2L);
+
+        VideoDTO cached = cache.get(2L, id -> {
+            throw new AssertionError("should be cached");
+        }).orElseThrow();
+        assertEquals(12L, cached.getViewCount());
+
+        cache.invalidate(2L);
+        VideoDTO reloaded = cache.get(2L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(video(id, 12L));
+        }).orElseThrow();
+        assertEquals(12L, reloaded.getViewCount());
+        assertEquals(2, loads.get());
+        assertTrue(cache.get(3L, id -> Optional.empty()).isEmpty());
+    }
+
+    private static VideoDTO video(Long id, Long views) {
+        VideoDTO video = new VideoDTO();
+        video.setId(id);
+        video.setViewCount(views);
+        return video;
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.hcmiuweb;
+
+import com.example.hcmiuweb.components.live.CommentEvent;
+import com.example.hcmiuweb.components.live.VideoUpdateHub;
+import com.example.hcmiuweb.config.metrics.Counter;
+import com.example.hcmiuweb.config.metrics.MetricsRegistry;
+import com.example.hcmiuweb.payload.response.CommentResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Ticks are driven by the test; tiny queues and connection caps make every limit easy to reach
+@SpringBootTest(properties = {
+        "live.tick-ms=3600000",
+        "live.queue-capacity=2",
+        "live.sender-threads=1",
+        "live.send-timeout-ms=200",
+        "live.max-connections=6",
+        "live.max-connections-per-client=2"
+})
+@AutoConfigureMockMvc
+@Import(TestData.class)
+class VideoUpdateHubTests {
+
+    @Autowired
+    private TestData data;
+
+    @Autowired
+    private VideoUpdateHub hub;
+
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void changesWithinOneTickAreSentAsOneUpdate() throws Exception {
+        long videoId = video("Live coalescing");
+        MvcResult result = mockMvc.perform(get("/api/videos/{id}/updates", videoId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        hub.onCommentEvent(CommentEvent.added(comment(videoId, 1L, "added then deleted")));
+        hub.onCommentEvent(CommentEvent.deleted(videoId, 1L));
+        hub.onCommentEvent(CommentEvent.added(comment(videoId, 2L, "still here")));
+        hub.tick();
+
+        String stream = awaitContent(result, "still here");
+        assertEquals(1, count(stream, "event:update"));
+        assertFalse(stream.contains("added then deleted"));
+        assertFalse(stream.contains("\"deleted\":[1]"), "a comment added and deleted in one tick is never sent");
+    }
+
+    @Test
+    void slowSubscriberIsDroppedWhenItsQueueOverflows() {
+        long videoId = 9002L;
+        Counter dropped = metricsRegistry.counter("app_live_dropped_connections_total",
+                "SSE subscribers disconnected because their send queue was full");
+        long droppedBefore = dropped.get();
+        SseEmitter emitter = hub.subscribe(videoId, "slow-client");
+        assertNotNull(emitter);
+
+        // Holding the emitter's monitor blocks its send, so the sender cannot drain the queue
+        synchronized (emitter) {
+            for (int i = 0; i < 10 && hub.hasSubscribers(videoId); i++) {
+                hub.onCommentEvent(CommentEvent.added(comment(videoId, 100L + i, "comment " + i)));
+                hub.tick();
+            }
+            assertFalse(hub.hasSubscribers(videoId));
+        }
+        assertEquals(droppedBefore + 1, dropped.get());
+    }
+
+    @Test
+    void subscriberThatStopsReadingIsDroppedWithoutStallingOthers() throws Exception {
+        long stuckVideoId = 9005L;
+        long videoId = video("Live stuck neighbour");
+        SseEmitter stuck = hub.subscribe(stuckVideoId, "stuck-client");
+        assertNotNull(stuck);
+
+        // The only sender thread blocks on the stuck client's next write, as on a full socket buffer
+        synchronized (stuck) {
+            hub.onCommentEvent(CommentEvent.added(comment(stuckVideoId, 199L, "never read")));
+            hub.tick();
+            MvcResult result = mockMvc.perform(get("/api/videos/{id}/updates", videoId))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            Thread.sleep(300);
+            hub.tick();
+            assertFalse(hub.hasSubscribers(stuckVideoId));
+
+            hub.onCommentEvent(CommentEvent.added(comment(videoId, 200L, "delivered past the stuck client")));
+            hub.tick();
+            awaitContent(result, "delivered past the stuck client");
+        }
+    }
+
+    @Test
+    void unknownVideosCannotBeSubscribedTo() throws Exception {
+        mockMvc.perform(get("/api/videos/{id}/updates", 987654321L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void oneClientCannotTakeEverySubscription() {
+        long videoId = 9007L;
+        assertNotNull(hub.subscribe(videoId, "greedy-client"));
+        assertNotNull(hub.subscribe(videoId, "greedy-client"));
+        assertNull(hub.subscribe(videoId, "greedy-client"));
+        assertNotNull(hub.subscribe(videoId, "other-client"));
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void subscriptionsBeyondTheCapAreRefused() throws Exception {
+        // Leaves the hub full, hence the fresh context for the other tests
+        long videoId = video("Live full node");
+        int opened = 0;
+        while (hub.subscribe(9003L, "cap-client-" + opened) != null) {
+            opened++;
+            assertTrue(opened <= 6, "live.max-connections was not enforced");
+        }
+        assertNull(hub.subscribe(9004L, "cap-client-last"));
+
+        mockMvc.perform(get("/api/videos/{id}/updates", videoId))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    private long video(String title) {
+        return data.video(title, data.user(title.toLowerCase().replace(' ', '-')), data.category(title)).getId();
+    }
+
+    private static CommentResponse comment(long videoId, long id, String content) {
+        CommentResponse comment = new CommentResponse();
+        comment.setId(id);
+        comment.setVideoId(videoId);
+        comment.setContent(content);
+        return comment;
+    }
+
+    // Updates are written by the sender pool, after tick() has returned
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            content = result.getResponse().getContentAsString();
+        }
+        assertTrue(content.contains(expected), "no update received: " + content);
+        return content;
+    }
+
+    private static int count(String text, String token) {
+        Matcher matcher = Pattern.compile(Pattern.quote(token)).matcher(text);
+        int count = 0;
+        while (matcher.find()) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.hcmiuweb;
+
+import com.example.hcmiuweb.components.WatchProgressFlusher;
+import com.example.hcmiuweb.entities.User;
+import com.example.hcmiuweb.entities.Video;
+import com.example.hcmiuweb.entities.WatchProgress;
+import com.example.hcmiuweb.entities.WatchProgressId;
+import com.example.hcmiuweb.repositories.WatchProgressRepository;
+import com.example.hcmiuweb.services.UserDetailsImpl;
+import com.example.hcmiuweb.services.WatchProgressService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The flush is driven by the test
+@SpringBootTest(properties = "watch-progress.flush-ms=3600000")
+@AutoConfigureMockMvc
+@Import(TestData.class)
+class WatchProgressTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WatchProgressFlusher flusher;
+
+    @Autowired
+    private WatchProgressService watchProgressService;
+
+    @Autowired
+    private WatchProgressRepository watchProgressRepository;
+
+    @Autowired
+    private TestData data;
+
+    @Test
+    void heartbeatsAreBufferedAndFlushedAsOneRow() throws Exception {
+        User viewer = data.user("progress-viewer");
+        Video video = data.video("Progress video", viewer, data.category("Progress"));
+        RequestPostProcessor asViewer = user(UserDetailsImpl.build(viewer));
+        WatchProgressId id = new WatchProgressId(viewer.getId(), video.getId());
+
+        for (int position = 10; position <= 30; position += 10) {
+            heartbeat(video, position, asViewer);
+        }
+        // Not written yet, but already listed
+        assertFalse(watchProgressRepository.existsById(id));
+        mockMvc.perform(get("/api/users/{id}/continue-watching", viewer.getId()).with(asViewer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].video.id").value(video.getId()))
+                .andExpect(jsonPath("$[0].positionSeconds").value(30));
+
+        flusher.flush();
+        WatchProgress stored = watchProgressRepository.findById(id).orElseThrow();
+        assertEquals(30, stored.getPositionSeconds());
+        assertEquals(0, watchProgressService.pendingCount());
+
+        // Watched to the end: updates the row and leaves the list
+        heartbeat(video, 99, asViewer);
+        flusher.flush();
+        assertEquals(99, watchProgressRepository.findById(id).orElseThrow().getPositionSeconds());
+        mockMvc.perform(get("/api/users/{id}/continue-watching", viewer.getId()).with(asViewer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+
+        mockMvc.perform(get("/api/users/{id}/continue-watching", viewer.getId() + 1).with(asViewer))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void heartbeatForUnknownVideoIsNotBuffered() throws Exception {
+        User viewer = data.user("progress-unknown");
+        int before = watchProgressService.pendingCount();
+
+        mockMvc.perform(post("/api/videos/{id}/progress", 987654321L)
+                        .with(user(UserDetailsImpl.build(viewer)))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"positionSeconds\":10,\"durationSeconds\":100}"))
+                .andExpect(status().isNotFound());
+        assertEquals(before, watchProgressService.pendingCount());
+    }
+
+    private void heartbeat(Video video, int position, RequestPostProcessor asViewer) throws Exception {
+        mockMvc.perform(post("/api/videos/{id}/progress", video.getId())
+                        .with(asViewer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"positionSeconds\":" + position + ",\"durationSeconds\":100}"))
+                .andExpect(status().isNoContent());
+    }
+}
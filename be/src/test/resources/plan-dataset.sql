@@ -0,0 +1,80 @@
+-- Dataset for QueryPlanTests. Sized so that a full scan is clearly worse than
+-- any index access, small enough to load in a few seconds.
+
+SET SESSION cte_max_recursion_depth = 100000;
+
+SET @role = (SELECT MIN(role_id) FROM roles);
+SET @u0 = (SELECT COALESCE(MAX(user_id), 0) FROM user);
+SET @c0 = (SELECT COALESCE(MAX(category_id), 0) FROM category);
+SET @v0 = (SELECT COALESCE(MAX(video_id), 0) FROM video);
+SET @cm0 = (SELECT COALESCE(MAX(comment_id), 0) FROM comment);
+SET @w0 = (SELECT COALESCE(MAX(watchlist_id), 0) FROM watch_list);
+
+INSERT INTO user (user_id, username, email, password_hash, registration_date, avatar, role_id)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 2000)
+SELECT @u0 + n, CONCAT('plan_user_', n), CONCAT('plan_user_', n, '@example.com'), 'x',
+       TIMESTAMP('2024-01-01') + INTERVAL n MINUTE, NULL, @role
+FROM seq;
+
+INSERT INTO category (category_id, name)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 50)
+SELECT @c0 + n, CONCAT('plan_category_', n) FROM seq;
+
+INSERT INTO video (video_id, title, description, upload_date, duration, url, thumbnail_url, view_count, user_id, category_id)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 20000)
+SELECT @v0 + n, CONCAT('Plan video ', n, ' ', ELT(1 + n % 5, 'music', 'travel', 'cooking', 'gaming', 'news')),
+       'generated', TIMESTAMP('2024-01-01') + INTERVAL n MINUTE, 60 + n % 600,
+       CONCAT('https://cdn.example.com/plan/', n, '.mp4'), NULL, (n * 7919) % 100000,
+       @u0 + 1 + n % 2000, @c0 + 1 + n % 50
+FROM seq;
+
+INSERT IGNORE INTO video_rating (user_id, video_id, rating)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 50000)
+SELECT @u0 + 1 + ((n DIV 20000) * 37 + n) % 2000, @v0 + 1 + n % 20000, IF(n % 4 = 0, -1, 1)
+FROM seq;
+
+-- Top-level comments, then one reply for each of the first 10000 (same video as the parent)
+INSERT INTO comment (comment_id, content, date_posted, video_id, user_id, parent_comment_id)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 20000)
+SELECT @cm0 + n, 'generated', TIMESTAMP('2024-02-01') + INTERVAL n MINUTE, @v0 + 1 + n % 20000,
+       @u0 + 1 + (n * 31) % 2000, NULL
+FROM seq;
+
+INSERT INTO comment (comment_id, content, date_posted, video_id, user_id, parent_comment_id)
+WITH RECURSIVE seq (n) AS (SELECT 20001 UNION ALL SELECT n + 1 FROM seq WHERE n < 30000)
+SELECT @cm0 + n, 'generated reply', TIMESTAMP('2024-03-01') + INTERVAL n MINUTE, @v0 + 1 + n % 20000,
+       @u0 + 1 + (n * 17) % 2000, @cm0 + n - 20000
+FROM seq;
+
+INSERT IGNORE INTO comment_rating (comment_id, user_id, rating)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 40000)
+SELECT @cm0 + 1 + n % 30000, @u0 + 1 + ((n DIV 30000) * 37 + n) % 2000, IF(n % 4 = 0, -1, 1)
+FROM seq;
+
+INSERT INTO watch_list (watchlist_id, user_id, created_at, updated_at)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 1000)
+SELECT @w0 + n, @u0 + n, TIMESTAMP('2024-01-01'), TIMESTAMP('2024-01-01') FROM seq;
+
+INSERT IGNORE INTO watch_list_video (watchlist_id, video_id)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 5000)
+SELECT @w0 + 1 + n % 1000, @v0 + 1 + (n * 13) % 20000 FROM seq;
+
+-- Mostly delivered mail; the pending rows are not due yet so the queue worker leaves them alone
+INSERT INTO outbound_email (type, sender, recipient, subject, body, status, attempts, next_attempt_at, created_at, sent_at)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 5000)
+SELECT 'password_reset', 'noreply@example.com', CONCAT('plan_user_', n, '@example.com'), 'Subject', 'Body',
+       IF(n % 50 = 0, 'PENDING', 'SENT'), 1,
+       IF(n % 50 = 0, NOW() + INTERVAL 1 DAY, TIMESTAMP('2024-01-01') + INTERVAL n MINUTE),
+       TIMESTAMP('2024-01-01') + INTERVAL n MINUTE,
+       IF(n % 50 = 0, NULL, TIMESTAMP('2024-01-01') + INTERVAL n MINUTE)
+FROM seq;
+
+-- The first 100 tokens are already expired
+INSERT INTO auth_token (token_hash, purpose, user_id, expires_at, created_at)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 2000)
+SELECT SHA2(CONCAT('plan-token-', n), 256), IF(n % 10 = 0, 'OTP', 'PASSWORD_RESET'), @u0 + n,
+       NOW() + INTERVAL (n - 100) MINUTE, NOW()
+FROM seq;
+
+ANALYZE TABLE user, category, video, video_rating, comment, comment_rating, watch_list, watch_list_video,
+    outbound_email, auth_token;
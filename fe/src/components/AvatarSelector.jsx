@@ -140,7 +140,7 @@ const AvatarSelector = ({ currentAvatar, onSelectExisting, onUpload, isUploading
               ref={fileInputRef}
               type="file"
               className="hidden"
-              accept="image/*"
+              accept="image/jpeg,image/png,image/webp,image/gif"
               onChange={handleFileSelect}
               disabled={isUploading}
             />
@@ -265,7 +265,7 @@ const CreateVideoForm = ({ onSuccess }) => {
 							<input
 								ref={videoInputRef}
 								type="file"
-								accept="video/*"
+								accept="video/mp4,video/webm"
 								onChange={handleVideoUpload}
 								className="hidden"
 							/>
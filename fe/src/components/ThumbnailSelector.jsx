@@ -255,7 +255,7 @@ const ThumbnailSelector = ({ value, onChange, videoUrl }) => {
             <input
               ref={fileInputRef}
               type="file"
-              accept="image/*"
+              accept="image/jpeg,image/png,image/webp,image/gif"
               onChange={handleFileUpload}
               className="hidden"
             />